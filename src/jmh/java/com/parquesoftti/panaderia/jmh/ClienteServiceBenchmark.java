@@ -0,0 +1,31 @@
+package com.parquesoftti.panaderia.jmh;
+
+import com.parquesoftti.panaderia.dto.ClienteDTORespuesta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Consultas de clientes por id y por nombre exacto
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ClienteServiceBenchmark {
+
+    @Benchmark
+    public ClienteDTORespuesta clientePorId(ContextoBenchmark contexto) {
+        return contexto.clienteService.findById(ContextoBenchmark.aleatorio(ContextoBenchmark.CLIENTES));
+    }
+
+    @Benchmark
+    public ClienteDTORespuesta clientePorNombre(ContextoBenchmark contexto) {
+        return contexto.clienteService.getClientByName("Cliente " + ContextoBenchmark.aleatorio(ContextoBenchmark.CLIENTES));
+    }
+}
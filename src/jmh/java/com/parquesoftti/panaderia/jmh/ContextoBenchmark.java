@@ -0,0 +1,106 @@
+package com.parquesoftti.panaderia.jmh;
+
+import com.parquesoftti.panaderia.PanaderiaApplication;
+import com.parquesoftti.panaderia.service.ClienteService;
+import com.parquesoftti.panaderia.service.ProductoService;
+import com.parquesoftti.panaderia.service.VentaService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongFunction;
+
+// Levanta la aplicación sin servidor web contra la base de pruebas (H2 en memoria, o la que
+// se pase con -Dspring.datasource.url) y la llena con volúmenes parecidos a los de producción.
+// Los datos se insertan con JDBC directo para que la carga no tarde más que la medición
+@State(Scope.Benchmark)
+public class ContextoBenchmark {
+
+    static final int PRODUCTOS = Integer.getInteger("jmh.productos", 1_000);
+    static final int CLIENTES = Integer.getInteger("jmh.clientes", 50_000);
+    static final int VENTAS = Integer.getInteger("jmh.ventas", 1_000_000);
+    static final int DIAS = 365;
+
+    private static final int BLOQUE = 10_000;
+    private static final String[] PANES = {"Pan", "Pán dulce", "Croissant", "Mogolla", "Almojábana", "Buñuelo",
+            "Torta", "Galleta", "Roscón", "Pandebono"};
+
+    ConfigurableApplicationContext contexto;
+    VentaService ventaService;
+    ProductoService productoService;
+    ClienteService clienteService;
+    LocalDate hoy;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = new SpringApplicationBuilder(PanaderiaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.properties.hibernate.generate_statistics=false",
+                        "panaderia.rollup.intervalo-ms=2000",
+                        "logging.level.root=WARN")
+                .run();
+        ventaService = contexto.getBean(VentaService.class);
+        productoService = contexto.getBean(ProductoService.class);
+        clienteService = contexto.getBean(ClienteService.class);
+        hoy = LocalDate.now();
+        sembrar(contexto.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    static long aleatorio(int total) {
+        return ThreadLocalRandom.current().nextLong(1, total + 1L);
+    }
+
+    private void sembrar(JdbcTemplate jdbc) {
+        SplittableRandom azar = new SplittableRandom(42);
+
+        insertar(jdbc, "INSERT INTO productos (id, nombre, precio, stock, version) VALUES (?, ?, ?, ?, 0)", PRODUCTOS,
+                id -> new Object[]{id, PANES[(int) (id % PANES.length)] + " " + id,
+                        BigDecimal.valueOf(500 + azar.nextInt(5_000)), Integer.MAX_VALUE / 2});
+        insertar(jdbc, "INSERT INTO clientes (id, nombre, telefono, nombre_normalizado, telefono_normalizado) "
+                        + "VALUES (?, ?, ?, ?, ?)", CLIENTES,
+                id -> new Object[]{id, "Cliente " + id, String.valueOf(3_000_000_000L + id),
+                        "cliente " + id, String.valueOf(3_000_000_000L + id)});
+
+        LocalDateTime inicio = hoy.minusDays(DIAS - 1L).atStartOfDay();
+        long segundos = DIAS * 86_400L;
+        insertar(jdbc, "INSERT INTO ventas (id, cantidad, fecha_venta, cliente_id, producto_id, precio_unitario) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)", VENTAS,
+                id -> new Object[]{id, 1 + azar.nextInt(5), Timestamp.valueOf(inicio.plusSeconds(azar.nextLong(segundos))),
+                        1 + azar.nextInt(CLIENTES), 1 + azar.nextInt(PRODUCTOS), BigDecimal.valueOf(1_000)});
+
+        // Las secuencias siguen después de los ids sembrados
+        jdbc.execute("ALTER SEQUENCE productos_seq RESTART WITH " + (PRODUCTOS + 1));
+        jdbc.execute("ALTER SEQUENCE clientes_seq RESTART WITH " + (CLIENTES + 1));
+        jdbc.execute("ALTER SEQUENCE ventas_seq RESTART WITH " + (VENTAS + 1));
+    }
+
+    private void insertar(JdbcTemplate jdbc, String sql, int total, LongFunction<Object[]> fila) {
+        List<Object[]> bloque = new ArrayList<>(BLOQUE);
+        for (long id = 1; id <= total; id++) {
+            bloque.add(fila.apply(id));
+            if (bloque.size() == BLOQUE || id == total) {
+                jdbc.batchUpdate(sql, bloque);
+                bloque.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.parquesoftti.panaderia.jmh;
+
+import com.parquesoftti.panaderia.dto.BuscarProductoDTO;
+import com.parquesoftti.panaderia.dto.ProductoDTORespuesta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Lecturas del catálogo: por id, el listado completo y la búsqueda parcial del buscador de caja
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProductoServiceBenchmark {
+
+    private static final String[] BUSQUEDAS = {"p", "pan", "pan dul", "croi", "almojabana", "bunuelo", "rosc"};
+
+    @Benchmark
+    public ProductoDTORespuesta productoPorId(ContextoBenchmark contexto) {
+        return contexto.productoService.findById(ContextoBenchmark.aleatorio(ContextoBenchmark.PRODUCTOS));
+    }
+
+    @Benchmark
+    public List<ProductoDTORespuesta> todosLosProductos(ContextoBenchmark contexto) {
+        return contexto.productoService.getAllProductos();
+    }
+
+    @Benchmark
+    public List<ProductoDTORespuesta> busquedaParcial(ContextoBenchmark contexto) {
+        BuscarProductoDTO dto = new BuscarProductoDTO();
+        dto.setNombre(BUSQUEDAS[ThreadLocalRandom.current().nextInt(BUSQUEDAS.length)]);
+        return contexto.productoService.getProductosPorNombreParcial(dto);
+    }
+}
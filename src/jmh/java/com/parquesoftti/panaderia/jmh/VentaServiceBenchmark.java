@@ -0,0 +1,64 @@
+package com.parquesoftti.panaderia.jmh;
+
+import com.parquesoftti.panaderia.dto.FiltroVentasDTO;
+import com.parquesoftti.panaderia.dto.PaginaVentasDTO;
+import com.parquesoftti.panaderia.dto.VentaDTO;
+import com.parquesoftti.panaderia.dto.VentaDTORespuesta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Registro y listados de ventas. La variante concurrente usa varios hilos contra el mismo
+// catálogo, como varias cajas vendiendo a la vez
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class VentaServiceBenchmark {
+
+    @Benchmark
+    public VentaDTORespuesta registrarVenta(ContextoBenchmark contexto) {
+        return contexto.ventaService.registrarVenta(venta());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public VentaDTORespuesta registrarVentaConcurrente(ContextoBenchmark contexto) {
+        return contexto.ventaService.registrarVenta(venta());
+    }
+
+    @Benchmark
+    public List<VentaDTORespuesta> ventasPorCliente(ContextoBenchmark contexto) {
+        return contexto.ventaService.getVentasByCliente(ContextoBenchmark.aleatorio(ContextoBenchmark.CLIENTES));
+    }
+
+    @Benchmark
+    public PaginaVentasDTO paginaDeVentasPorProducto(ContextoBenchmark contexto) {
+        FiltroVentasDTO filtro = new FiltroVentasDTO(null, ContextoBenchmark.aleatorio(ContextoBenchmark.PRODUCTOS), null, null, null);
+        return contexto.ventaService.getPaginaVentas(filtro, null, 100);
+    }
+
+    @Benchmark
+    public List<VentaDTORespuesta> ventasDelDia(ContextoBenchmark contexto) {
+        int dia = ThreadLocalRandom.current().nextInt(ContextoBenchmark.DIAS);
+        return contexto.ventaService.getVentasDelDia(contexto.hoy.minusDays(dia));
+    }
+
+    private static VentaDTO venta() {
+        VentaDTO venta = new VentaDTO();
+        venta.setClienteId(ContextoBenchmark.aleatorio(ContextoBenchmark.CLIENTES));
+        venta.setProductoId(ContextoBenchmark.aleatorio(ContextoBenchmark.PRODUCTOS));
+        venta.setCantidad(1);
+        return venta;
+    }
+}
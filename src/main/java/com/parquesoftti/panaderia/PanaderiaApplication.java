@@ -1,14 +1,89 @@
 package com.parquesoftti.panaderia;
 
+import com.parquesoftti.panaderia.dto.FiltroVentasDTO;
+import com.parquesoftti.panaderia.dto.FormatoExportacion;
+import com.parquesoftti.panaderia.dto.ResultadoImportacionDTO;
+import com.parquesoftti.panaderia.dto.TipoImportacion;
+import com.parquesoftti.panaderia.service.ExportacionService;
+import com.parquesoftti.panaderia.service.ImportacionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 
 @SpringBootApplication
+@EnableScheduling
 public class PanaderiaApplication {
 
+	private static final Logger log = LoggerFactory.getLogger(PanaderiaApplication.class);
+
 	public static void main(String[] args) {
 		SpringApplication.run(PanaderiaApplication.class, args);
 	}
 
+	// Importación masiva por línea de comandos, sin levantar el servidor web:
+	//   java -jar panaderia.jar --spring.main.web-application-type=none --importar=ventas --archivo=historial.csv
+	// Retoma desde <archivo>.punto si una ejecución anterior quedó a medias. Termina con código 0
+	// si no hubo filas rechazadas y 1 si las hubo (ver <archivo>.errores.csv).
+	// Los servicios se piden solo si hay algo que importar o exportar: con el perfil rapido un
+	// arranque normal no los crea hasta la primera petición que los usa
+	@Bean
+	ApplicationRunner importarArchivo(ObjectProvider<ImportacionService> importacionService,
+			ConfigurableApplicationContext contexto) {
+		return argumentos -> {
+			if (!argumentos.containsOption("importar")) {
+				return;
+			}
+			if (!argumentos.containsOption("archivo")) {
+				throw new IllegalArgumentException("Falta --archivo=<ruta> para --importar");
+			}
+			TipoImportacion tipo = TipoImportacion.valueOf(argumentos.getOptionValues("importar").get(0).toUpperCase());
+			Path archivo = Path.of(argumentos.getOptionValues("archivo").get(0));
+
+			ResultadoImportacionDTO resultado = importacionService.getObject().importarArchivo(tipo, archivo);
+			log.info("Importación terminada: {}", resultado);
+			System.exit(SpringApplication.exit(contexto, () -> resultado.getRechazadas() == 0 ? 0 : 1));
+		};
+	}
+
+	// Exportación masiva de ventas a un archivo local, con los mismos filtros opcionales que la API:
+	//   java -jar panaderia.jar --spring.main.web-application-type=none --exportar=csv --archivo=ventas.csv.gz
+	//        [--desde=2024-01-01T00:00:00] [--hasta=...] [--clienteId=...] [--productoId=...] [--tiendaId=...]
+	@Bean
+	ApplicationRunner exportarArchivo(ObjectProvider<ExportacionService> exportacionService,
+			ConfigurableApplicationContext contexto) {
+		return argumentos -> {
+			if (!argumentos.containsOption("exportar")) {
+				return;
+			}
+			if (!argumentos.containsOption("archivo")) {
+				throw new IllegalArgumentException("Falta --archivo=<ruta> para --exportar");
+			}
+			FormatoExportacion formato = FormatoExportacion.valueOf(argumentos.getOptionValues("exportar").get(0).toUpperCase());
+			Path archivo = Path.of(argumentos.getOptionValues("archivo").get(0));
+			FiltroVentasDTO filtro = new FiltroVentasDTO(
+					opcion(argumentos, "clienteId") != null ? Long.valueOf(opcion(argumentos, "clienteId")) : null,
+					opcion(argumentos, "productoId") != null ? Long.valueOf(opcion(argumentos, "productoId")) : null,
+					opcion(argumentos, "desde") != null ? LocalDateTime.parse(opcion(argumentos, "desde")) : null,
+					opcion(argumentos, "hasta") != null ? LocalDateTime.parse(opcion(argumentos, "hasta")) : null,
+					opcion(argumentos, "tiendaId") != null ? Long.valueOf(opcion(argumentos, "tiendaId")) : null);
+
+			exportacionService.getObject().exportarArchivo(filtro, formato, archivo);
+			System.exit(SpringApplication.exit(contexto, () -> 0));
+		};
+	}
+
+	private static String opcion(ApplicationArguments argumentos, String nombre) {
+		return argumentos.containsOption(nombre) ? argumentos.getOptionValues(nombre).get(0) : null;
+	}
+
 }
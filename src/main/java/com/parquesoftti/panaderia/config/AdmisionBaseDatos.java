@@ -0,0 +1,102 @@
+package com.parquesoftti.panaderia.config;
+
+import com.parquesoftti.panaderia.exception.ServicioSaturadoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Límite de admisión delante de VentaService y ProductoService. Con hilos virtuales no hay
+// pool de Tomcat que frene las ráfagas, así que miles de peticiones llegarían a la vez a
+// pedir conexión a HikariCP. Aquí esperan en un semáforo del tamaño del pool y solo entran
+// las que pueden conseguir conexión; si la espera pasa del máximo se responde 503.
+// Corre por fuera de @Transactional para que la conexión se pida ya con el permiso tomado.
+// Métricas: panaderia.admision.espera (tiempo en cola, por servicio), panaderia.admision.en.espera,
+// panaderia.admision.permisos.libres y panaderia.admision.rechazos. La espera dentro del pool
+// la publica Hikari en hikaricp.connections.acquire y hikaricp.connections.pending.
+// Solo con hilos virtuales (perfil virtuales): con los hilos de plataforma el pool de Tomcat ya
+// limita cuántas peticiones llegan a la base
+@Aspect
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AdmisionBaseDatos {
+
+    // Marca el hilo que ya tiene permiso, para que una llamada anidada entre servicios no pida otro
+    private static final ThreadLocal<Boolean> ADMITIDO = new ThreadLocal<>();
+
+    private final Semaphore permisos;
+    private final Duration esperaMaxima;
+    private final AtomicInteger enEspera = new AtomicInteger();
+    private final Map<String, Timer> esperaPorServicio = new ConcurrentHashMap<>();
+    private final Counter rechazos;
+    private final MeterRegistry registro;
+
+    public AdmisionBaseDatos(
+            MeterRegistry registro,
+            @Value("${panaderia.admision.permisos:${spring.datasource.hikari.maximum-pool-size:10}}") int permisos,
+            @Value("${panaderia.admision.espera-maxima:5s}") Duration esperaMaxima) {
+        this.registro = registro;
+        this.permisos = new Semaphore(permisos, true);
+        this.esperaMaxima = esperaMaxima;
+        this.rechazos = registro.counter("panaderia.admision.rechazos");
+        Gauge.builder("panaderia.admision.en.espera", enEspera, AtomicInteger::get).register(registro);
+        Gauge.builder("panaderia.admision.permisos.libres", this.permisos, Semaphore::availablePermits).register(registro);
+    }
+
+    @Around("execution(public * com.parquesoftti.panaderia.service.VentaService.*(..)) "
+            + "|| execution(public * com.parquesoftti.panaderia.service.ProductoService.*(..))")
+    public Object admitir(ProceedingJoinPoint llamada) throws Throwable {
+        if (ADMITIDO.get() != null) {
+            return llamada.proceed();
+        }
+
+        String servicio = llamada.getSignature().getDeclaringType().getSimpleName();
+        long inicio = System.nanoTime();
+        enEspera.incrementAndGet();
+        boolean admitido;
+        try {
+            admitido = permisos.tryAcquire(esperaMaxima.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitido = false;
+        } finally {
+            enEspera.decrementAndGet();
+            espera(servicio).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+        if (!admitido) {
+            rechazos.increment();
+            throw new ServicioSaturadoException("No hay conexiones libres después de " + esperaMaxima.toMillis() + " ms");
+        }
+
+        ADMITIDO.set(Boolean.TRUE);
+        try {
+            return llamada.proceed();
+        } finally {
+            ADMITIDO.remove();
+            permisos.release();
+        }
+    }
+
+    private Timer espera(String servicio) {
+        return esperaPorServicio.computeIfAbsent(servicio, nombre -> Timer.builder("panaderia.admision.espera")
+                .tag("servicio", nombre)
+                .publishPercentiles(0.5, 0.99)
+                .register(registro));
+    }
+}
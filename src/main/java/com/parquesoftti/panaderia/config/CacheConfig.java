@@ -0,0 +1,56 @@
+package com.parquesoftti.panaderia.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+// Cachés en memoria (Caffeine) del catálogo de productos y de las búsquedas de clientes. Son transaccionales: los put y
+// evict hechos dentro de una transacción se aplican solo cuando esta se confirma.
+// Las estadísticas de aciertos/fallos se publican en /actuator/metrics/cache.gets
+@Configuration
+public class CacheConfig {
+
+    // Datos de catálogo por id (sin stock)
+    public static final String PRODUCTOS = "productos";
+    // id de producto por nombre exacto
+    public static final String PRODUCTOS_POR_NOMBRE = "productosPorNombre";
+    // Lista completa del catálogo (sin stock)
+    public static final String CATALOGO = "catalogo";
+    // Stock por id de producto, con vida corta e invalidado en cada venta
+    public static final String STOCK_PRODUCTOS = "stockProductos";
+    // Búsquedas de clientes recientes (por nombre, teléfono o prefijo); se vacía en cada alta,
+    // cambio o baja de un cliente
+    public static final String BUSQUEDAS_CLIENTES = "busquedasClientes";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${panaderia.cache.productos.maximo:2000}") long maximo,
+            @Value("${panaderia.cache.productos.ttl:10m}") Duration ttl,
+            @Value("${panaderia.cache.stock.ttl:5s}") Duration ttlStock,
+            @Value("${panaderia.cache.clientes.maximo:10000}") long maximoClientes) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximo)
+                .expireAfterWrite(ttl)
+                .recordStats());
+        cacheManager.registerCustomCache(STOCK_PRODUCTOS, Caffeine.newBuilder()
+                .maximumSize(maximo)
+                .expireAfterWrite(ttlStock)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(BUSQUEDAS_CLIENTES, Caffeine.newBuilder()
+                .maximumSize(maximoClientes)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build());
+        cacheManager.setCacheNames(List.of(PRODUCTOS, PRODUCTOS_POR_NOMBRE, CATALOGO));
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -2,10 +2,14 @@ package com.parquesoftti.panaderia.controller;
 
 import com.parquesoftti.panaderia.dto.ClienteDTORespuesta;
 import com.parquesoftti.panaderia.dto.ClienteDTO;
+import com.parquesoftti.panaderia.dto.PaginaClientesDTO;
 import com.parquesoftti.panaderia.service.ClienteService;
+import com.parquesoftti.panaderia.service.VersionesTablas;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -15,30 +19,57 @@ public class ClienteController {
 
     private final ClienteService clienteService;
 
+    private final VersionesTablas versionesTablas;
+
     @Autowired
-    public ClienteController(ClienteService clienteService) {
+    public ClienteController(ClienteService clienteService, VersionesTablas versionesTablas) {
         this.clienteService = clienteService;
+        this.versionesTablas = versionesTablas;
     }
 
-    // Obtener todos los clientes como DTO
+    // Obtener todos los clientes como DTO (304 si no cambió ningún cliente desde el ETag recibido)
     @GetMapping
-    public ResponseEntity<List<ClienteDTORespuesta>> getAllClientes() {
+    public ResponseEntity<List<ClienteDTORespuesta>> getAllClientes(WebRequest request) {
+        String etag = versionesTablas.etagClientes();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         List<ClienteDTORespuesta> clientes = clienteService.getAllClients();
-        return ResponseEntity.ok(clientes);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(clientes);
+    }
+
+    // Buscar clientes cuyo nombre (o teléfono, si se escriben solo números) empieza por el texto,
+    // sin distinguir mayúsculas ni tildes. Paginado: la página siguiente se pide con ?cursor=
+    @GetMapping("/buscar")
+    public ResponseEntity<PaginaClientesDTO> buscarClientes(
+            @RequestParam String texto,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limite) {
+        return ResponseEntity.ok(clienteService.buscarClientes(texto, cursor, limite));
     }
 
-    // Obtener cliente por nombre como DTO
+    // Obtener cliente por teléfono (se ignoran espacios, guiones y paréntesis)
+    @GetMapping("/telefono/{telefono}")
+    public ResponseEntity<ClienteDTORespuesta> getClienteByTelefono(@PathVariable String telefono) {
+        return ResponseEntity.ok(clienteService.getClientByTelefono(telefono));
+    }
+
+    // Obtener cliente por nombre como DTO (sin distinguir mayúsculas ni tildes)
     @GetMapping("/name")
     public ResponseEntity<ClienteDTORespuesta> getClienteByName(@RequestParam String name) {
         ClienteDTORespuesta respuesta = clienteService.getClientByName(name);
         return ResponseEntity.ok(respuesta);
     }
 
-    // Obtener cliente por ID como DTO
+    // Obtener cliente por ID como DTO (304 si no cambió ningún cliente desde el ETag recibido)
     @GetMapping("/{id}")
-    public ResponseEntity<ClienteDTORespuesta> getClienteById(@PathVariable Long id) {
+    public ResponseEntity<ClienteDTORespuesta> getClienteById(@PathVariable Long id, WebRequest request) {
+        String etag = versionesTablas.etagClientes();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         ClienteDTORespuesta respuesta = clienteService.findById(id);
-        return ResponseEntity.ok(respuesta);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(respuesta);
     }
 
     // Crear un nuevo cliente (devuelve DTO)
@@ -0,0 +1,44 @@
+package com.parquesoftti.panaderia.controller;
+
+import com.parquesoftti.panaderia.dto.FormatoImportacion;
+import com.parquesoftti.panaderia.dto.ResultadoImportacionDTO;
+import com.parquesoftti.panaderia.dto.TipoImportacion;
+import com.parquesoftti.panaderia.service.ImportacionService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/importaciones")
+public class ImportacionController {
+
+    private final ImportacionService importacionService;
+
+    public ImportacionController(ImportacionService importacionService) {
+        this.importacionService = importacionService;
+    }
+
+    // Importación masiva: POST /api/importaciones/{productos|clientes|ventas} con el archivo como cuerpo.
+    // El formato sale de ?formato= o del Content-Type (text/csv o application/x-ndjson).
+    // El cuerpo se lee a medida que llega; con ?desde=N se saltan las N primeras filas ya importadas
+    @PostMapping("/{tipo}")
+    public ResponseEntity<ResultadoImportacionDTO> importar(
+            @PathVariable String tipo,
+            @RequestParam(required = false) FormatoImportacion formato,
+            @RequestParam(defaultValue = "0") long desde,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            InputStream cuerpo) throws IOException {
+        if (desde < 0) {
+            throw new IllegalArgumentException("'desde' no puede ser negativo");
+        }
+        TipoImportacion tipoImportacion = TipoImportacion.valueOf(tipo.toUpperCase());
+        if (formato == null) {
+            formato = contentType != null && contentType.contains("json") ? FormatoImportacion.NDJSON : FormatoImportacion.CSV;
+        }
+        ResultadoImportacionDTO resultado = importacionService.importar(tipoImportacion, formato, cuerpo, desde);
+        return ResponseEntity.ok(resultado);
+    }
+}
@@ -1,31 +1,118 @@
 package com.parquesoftti.panaderia.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parquesoftti.panaderia.dto.AjusteStockDTO;
 import com.parquesoftti.panaderia.dto.BuscarProductoDTO;
 import com.parquesoftti.panaderia.dto.ProductoDTO;
 import com.parquesoftti.panaderia.dto.ProductoDTORespuesta;
+import com.parquesoftti.panaderia.dto.StockTiendaDTO;
+import com.parquesoftti.panaderia.service.AvisosStock;
+import com.parquesoftti.panaderia.service.EstadisticasVentas;
 import com.parquesoftti.panaderia.service.ProductoService;
+import com.parquesoftti.panaderia.service.VersionesTablas;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/productos")
 public class ProductoController {
 
+    // Por debajo de este tamaño el listado se manda sin comprimir (como server.compression.min-response-size)
+    private static final int MINIMO_COMPRESION = 2048;
+
     private final ProductoService productoService;
 
+    private final AvisosStock avisosStock;
+
+    private final EstadisticasVentas estadisticasVentas;
+
+    private final VersionesTablas versionesTablas;
+
+    private final ObjectMapper objectMapper;
+
+    // El listado serializado vence con el stock cacheado (panaderia.cache.stock.ttl)
+    private final long vidaListado;
+
+    // Listado del catálogo ya serializado (y comprimido) para una versión de productos
+    private volatile ListadoSerializado listado;
+
     @Autowired
-    public ProductoController(ProductoService productoService) {
+    public ProductoController(ProductoService productoService, AvisosStock avisosStock,
+                              EstadisticasVentas estadisticasVentas, VersionesTablas versionesTablas,
+                              ObjectMapper objectMapper,
+                              @Value("${panaderia.cache.stock.ttl:5s}") Duration ttlStock) {
         this.productoService = productoService;
+        this.avisosStock = avisosStock;
+        this.estadisticasVentas = estadisticasVentas;
+        this.versionesTablas = versionesTablas;
+        this.objectMapper = objectMapper;
+        this.vidaListado = ttlStock.toNanos();
     }
 
-    // Obtener todos los productos como DTOs
+    // Obtener todos los productos como DTOs. Mientras no cambie ningún producto se reusan los bytes
+    // ya serializados (y en gzip, si el cliente lo acepta; cada codificación tiene su ETag), y con
+    // If-None-Match del ETag actual se responde 304, sin ir a la base en ninguno de los dos casos.
+    // Los cambios que no pasan por esta instancia (otra instancia, una carga directa en la base) los
+    // detecta VersionesTablas al revisar la base; además, cuando el listado vence y al rearmarlo
+    // cambió algo bajo el mismo ETag, se sube la versión para que los ETag viejos dejen de valer
     @GetMapping
-    public ResponseEntity<List<ProductoDTORespuesta>> getAllProductos() {
-        List<ProductoDTORespuesta> productos = productoService.getAllProductos();
-        return ResponseEntity.ok(productos);
+    public ResponseEntity<byte[]> getAllProductos(WebRequest request) throws JsonProcessingException {
+        String etag = versionesTablas.etagProductos();
+        ListadoSerializado actual = listado;
+        if (actual == null || !actual.etag().equals(etag) || System.nanoTime() - actual.creado() > vidaListado) {
+            byte[] json = objectMapper.writeValueAsBytes(productoService.getAllProductos());
+            if (actual != null && actual.etag().equals(etag) && !Arrays.equals(actual.json(), json)) {
+                versionesTablas.cambioProductos();
+                etag = versionesTablas.etagProductos();
+            }
+            actual = new ListadoSerializado(etag, json, json.length >= MINIMO_COMPRESION ? comprimir(json) : null,
+                    System.nanoTime());
+            listado = actual;
+        }
+
+        boolean gzip = actual.gzip() != null && aceptaGzip(request);
+        String etagRespuesta = gzip ? etagGzip(etag) : etag;
+        if (request.checkNotModified(etagRespuesta)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .eTag(etagRespuesta)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(actual.gzip());
+        }
+        return respuesta.body(actual.json());
+    }
+
+    // Stock en vivo para las pantallas de las cajas (SSE). El primer evento "stock" trae todo el
+    // catálogo y los siguientes solo los productos que cambiaron: [{"id":1,"stock":40,"eliminado":false}]
+    @GetMapping(value = "/stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStock() {
+        return avisosStock.suscribir();
+    }
+
+    // Productos con stock en o bajo panaderia.estadisticas.stock-minimo, del que menos tiene al que más
+    @GetMapping("/bajo-stock")
+    public ResponseEntity<List<ProductoDTORespuesta>> getProductosBajoStock() {
+        return ResponseEntity.ok(estadisticasVentas.bajoStock());
     }
 
     @PostMapping("/buscar")
@@ -47,14 +134,19 @@ public class ProductoController {
         return ResponseEntity.ok(nuevoProducto);
     }
 
-    // Obtener producto por ID
+    // Obtener producto por ID (304 si no cambió ningún producto desde el ETag recibido; lo cambiado
+    // por fuera de esta instancia se ve a más tardar un panaderia.cache.stock.ttl después)
     @GetMapping("/{id}")
-    public ResponseEntity<ProductoDTORespuesta> getProductoById(@PathVariable Long id) {
+    public ResponseEntity<ProductoDTORespuesta> getProductoById(@PathVariable Long id, WebRequest request) {
+        String etag = versionesTablas.etagProductos();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         ProductoDTORespuesta respuesta = productoService.findById(id);
-        return ResponseEntity.ok(respuesta);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(respuesta);
     }
 
-    // Actualizar producto por ID
+    // Actualizar producto por ID. Si no se envía stock, el stock queda como está
     @PutMapping("/{id}")
     public ResponseEntity<ProductoDTORespuesta> updateProducto(
             @PathVariable Long id,
@@ -63,10 +155,48 @@ public class ProductoController {
         return ResponseEntity.ok(respuesta);
     }
 
+    // Cambiar solo el stock: {"ajuste": 12} suma (o resta) unidades, {"stock": 40} fija el valor contado.
+    // Con "tiendaId" el cambio es en esa tienda; sin él, en la principal
+    @PatchMapping("/{id}/stock")
+    public ResponseEntity<ProductoDTORespuesta> ajustarStock(
+            @PathVariable Long id,
+            @RequestBody AjusteStockDTO ajusteDTO) {
+        ProductoDTORespuesta respuesta = productoService.ajustarStock(id, ajusteDTO);
+        return ResponseEntity.ok(respuesta);
+    }
+
+    // Stock del producto en cada tienda
+    @GetMapping("/{id}/tiendas")
+    public ResponseEntity<List<StockTiendaDTO>> getStockPorTienda(@PathVariable Long id) {
+        return ResponseEntity.ok(productoService.getStockPorTienda(id));
+    }
+
     // Eliminar producto por ID
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProducto(@PathVariable Long id) {
         productoService.deleteById(id);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    private static boolean aceptaGzip(WebRequest request) {
+        String codificaciones = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return codificaciones != null && codificaciones.contains("gzip");
+    }
+
+    private static String etagGzip(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+
+    private static byte[] comprimir(byte[] json) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+
+    private record ListadoSerializado(String etag, byte[] json, byte[] gzip, long creado) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.parquesoftti.panaderia.controller;
+
+import com.parquesoftti.panaderia.dto.IngresoClienteDTO;
+import com.parquesoftti.panaderia.dto.VentaDiariaDTO;
+import com.parquesoftti.panaderia.dto.VentaMensualProductoDTO;
+import com.parquesoftti.panaderia.service.ReporteService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reportes")
+public class ReporteController {
+
+    private final ReporteService reporteService;
+
+    public ReporteController(ReporteService reporteService) {
+        this.reporteService = reporteService;
+    }
+
+    // Unidades e ingresos por día y producto entre dos fechas (inclusive)
+    @GetMapping("/ventas-diarias")
+    public ResponseEntity<List<VentaDiariaDTO>> getVentasDiarias(
+            @RequestParam("desde") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam("hasta") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        List<VentaDiariaDTO> resumen = reporteService.getVentasDiarias(desde, hasta);
+        return ResponseEntity.ok(resumen);
+    }
+
+    // Unidades e ingresos por producto en un mes (yyyy-MM)
+    @GetMapping("/productos-mensual")
+    public ResponseEntity<List<VentaMensualProductoDTO>> getVentasMensualesPorProducto(
+            @RequestParam("mes") @DateTimeFormat(pattern = "yyyy-MM") YearMonth mes) {
+        List<VentaMensualProductoDTO> resumen = reporteService.getVentasMensualesPorProducto(mes);
+        return ResponseEntity.ok(resumen);
+    }
+
+    // Ingresos por cliente en un mes (yyyy-MM)
+    @GetMapping("/clientes-mensual")
+    public ResponseEntity<List<IngresoClienteDTO>> getIngresosMensualesPorCliente(
+            @RequestParam("mes") @DateTimeFormat(pattern = "yyyy-MM") YearMonth mes) {
+        List<IngresoClienteDTO> resumen = reporteService.getIngresosMensualesPorCliente(mes);
+        return ResponseEntity.ok(resumen);
+    }
+
+    // Reconstruir el resumen diario desde el histórico de ventas
+    @PostMapping("/ventas-diarias/reconstruir")
+    public ResponseEntity<Map<String, Integer>> reconstruirVentasDiarias() {
+        int filas = reporteService.reconstruirVentasDiarias();
+        return ResponseEntity.ok(Map.of("filas", filas));
+    }
+}
@@ -1,23 +1,60 @@
 package com.parquesoftti.panaderia.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parquesoftti.panaderia.dto.FiltroVentasDTO;
+import com.parquesoftti.panaderia.dto.FormatoExportacion;
+import com.parquesoftti.panaderia.dto.ModoLote;
+import com.parquesoftti.panaderia.dto.PaginaVentasDTO;
+import com.parquesoftti.panaderia.dto.ResultadoLoteDTO;
+import com.parquesoftti.panaderia.dto.TopProductoDTO;
 import com.parquesoftti.panaderia.dto.VentaDTO;
 import com.parquesoftti.panaderia.dto.VentaDTORespuesta;
+import com.parquesoftti.panaderia.service.EstadisticasVentas;
+import com.parquesoftti.panaderia.service.ExportacionService;
 import com.parquesoftti.panaderia.service.VentaService;
+import com.parquesoftti.panaderia.service.VentasIdempotentes;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/ventas")
 public class VentaController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final VentaService ventaService;
 
-    public VentaController(VentaService ventaService) {
+    private final ExportacionService exportacionService;
+
+    private final EstadisticasVentas estadisticasVentas;
+
+    private final VentasIdempotentes ventasIdempotentes;
+
+    private final ObjectMapper objectMapper;
+
+    public VentaController(VentaService ventaService, ExportacionService exportacionService,
+                           EstadisticasVentas estadisticasVentas, VentasIdempotentes ventasIdempotentes,
+                           ObjectMapper objectMapper) {
         this.ventaService = ventaService;
+        this.exportacionService = exportacionService;
+        this.estadisticasVentas = estadisticasVentas;
+        this.ventasIdempotentes = ventasIdempotentes;
+        this.objectMapper = objectMapper;
     }
 
     // Obtener todas las ventas
@@ -27,6 +64,49 @@ public class VentaController {
         return ResponseEntity.ok(ventas);
     }
 
+    // Obtener ventas paginadas por cursor, con filtros opcionales ?clienteId=, ?productoId=, ?desde= y ?hasta=
+    @GetMapping("/pagina")
+    public ResponseEntity<PaginaVentasDTO> getPaginaVentas(
+            FiltroVentasDTO filtro,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limite) {
+        PaginaVentasDTO pagina = ventaService.getPaginaVentas(filtro, cursor, limite);
+        return ResponseEntity.ok(pagina);
+    }
+
+    // Obtener todas las ventas (con los mismos filtros) como NDJSON, una venta por línea.
+    // Las filas se escriben a medida que llegan de la base, sin armar la lista en memoria
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamVentas(FiltroVentasDTO filtro) {
+        StreamingResponseBody cuerpo = respuesta -> {
+            OutputStream salida = new BufferedOutputStream(respuesta);
+            ventaService.recorrerVentas(filtro, venta -> {
+                try {
+                    salida.write(objectMapper.writeValueAsBytes(venta));
+                    salida.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            salida.flush();
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(cuerpo);
+    }
+
+    // Exportar las ventas (con los mismos filtros) como archivo gzip: ?formato=CSV (por defecto) o COLUMNAR.
+    // Se descarga a medida que se lee el cursor, sin esperar a que termine la consulta
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportarVentas(
+            FiltroVentasDTO filtro,
+            @RequestParam(defaultValue = "CSV") FormatoExportacion formato) {
+        StreamingResponseBody cuerpo = respuesta -> exportacionService.exportar(filtro, formato, respuesta);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(formato.getNombreArchivo()).build().toString())
+                .body(cuerpo);
+    }
+
     // Obtener una venta por ID
     @GetMapping("/{id}")
     public ResponseEntity<VentaDTORespuesta> getVentaById(@PathVariable Long id) {
@@ -65,18 +145,84 @@ public class VentaController {
         return ResponseEntity.ok(ventas);
     }
 
-    // Registrar venta
+    // Obtener ventas en un intervalo [desde, hasta)
+    @GetMapping("/rango")
+    public ResponseEntity<List<VentaDTORespuesta>> getVentasEntre(
+            @RequestParam("desde") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam("hasta") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta) {
+        List<VentaDTORespuesta> ventas = ventaService.getVentasEntre(desde, hasta);
+        return ResponseEntity.ok(ventas);
+    }
+
+    // Obtener ventas de un día (por defecto hoy)
+    @GetMapping("/dia")
+    public ResponseEntity<List<VentaDTORespuesta>> getVentasDelDia(
+            @RequestParam(value = "fecha", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+        List<VentaDTORespuesta> ventas = ventaService.getVentasDelDia(fecha != null ? fecha : LocalDate.now());
+        return ResponseEntity.ok(ventas);
+    }
+
+    // Obtener ventas de la semana que contiene la fecha (por defecto la actual)
+    @GetMapping("/semana")
+    public ResponseEntity<List<VentaDTORespuesta>> getVentasDeLaSemana(
+            @RequestParam(value = "fecha", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+        List<VentaDTORespuesta> ventas = ventaService.getVentasDeLaSemana(fecha != null ? fecha : LocalDate.now());
+        return ResponseEntity.ok(ventas);
+    }
+
+    // Obtener ventas de un mes, formato yyyy-MM (por defecto el actual)
+    @GetMapping("/mes")
+    public ResponseEntity<List<VentaDTORespuesta>> getVentasDelMes(
+            @RequestParam(value = "mes", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth mes) {
+        List<VentaDTORespuesta> ventas = ventaService.getVentasDelMes(mes != null ? mes : YearMonth.now());
+        return ResponseEntity.ok(ventas);
+    }
+
+    // Productos más vendidos de la última hora (ventana=1h) o de las últimas 24 horas (ventana=24h).
+    // Sale de las estadísticas en memoria, que se refrescan cada panaderia.estadisticas.intervalo-ms
+    @GetMapping("/top")
+    public ResponseEntity<List<TopProductoDTO>> getTopProductos(
+            @RequestParam(defaultValue = EstadisticasVentas.HORA) String ventana,
+            @RequestParam(defaultValue = "10") int limite) {
+        return ResponseEntity.ok(estadisticasVentas.top(ventana, limite));
+    }
+
+    // Registrar venta. Con diferida=true se confirma al quedar en el diario local (202) y se
+    // guarda en la base en segundo plano; requiere panaderia.diario.habilitado=true.
+    // Con la cabecera Idempotency-Key, repetir la petición devuelve la misma venta
     @PostMapping("/registrar")
-    public ResponseEntity<VentaDTORespuesta> registrarVenta(@RequestBody VentaDTO ventaDTO) {
+    public ResponseEntity<VentaDTORespuesta> registrarVenta(
+            @RequestBody VentaDTO ventaDTO,
+            @RequestParam(defaultValue = "false") boolean diferida,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String claveIdempotencia) {
 
         if (ventaDTO.getClienteId() == null || ventaDTO.getProductoId() == null || ventaDTO.getCantidad() == null) {
             throw new IllegalArgumentException("Todos los campos son obligatorios");
         }
 
+        if (claveIdempotencia != null) {
+            if (diferida) {
+                throw new IllegalArgumentException("El registro diferido no admite clave de idempotencia");
+            }
+            return ResponseEntity.ok(ventasIdempotentes.registrar(claveIdempotencia, ventaDTO));
+        }
+
+        if (diferida) {
+            return ResponseEntity.accepted().body(ventaService.registrarVentaDiferida(ventaDTO));
+        }
         VentaDTORespuesta respuesta = ventaService.registrarVenta(ventaDTO);
         return ResponseEntity.ok(respuesta);
     }
 
+    // Registrar un ticket completo (o varios tickets seguidos) en una sola petición
+    @PostMapping("/lote")
+    public ResponseEntity<ResultadoLoteDTO> registrarLote(
+            @RequestBody List<VentaDTO> lineas,
+            @RequestParam(defaultValue = "TODO_O_NADA") ModoLote modo) {
+        ResultadoLoteDTO resultado = ventaService.registrarLote(lineas, modo);
+        return ResponseEntity.ok(resultado);
+    }
+
     // Eliminar venta
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteVenta(@PathVariable Long id) {
@@ -0,0 +1,13 @@
+package com.parquesoftti.panaderia.dto;
+
+import lombok.Data;
+
+// Cambio de stock de un producto: 'ajuste' suma o resta unidades (llegada de mercadería, mermas)
+// y 'stock' fija el valor contado en un inventario. Se usa uno de los dos.
+// Sin 'tiendaId' el cambio es en la tienda principal
+@Data
+public class AjusteStockDTO {
+    private Integer ajuste;
+    private Integer stock;
+    private Long tiendaId;
+}
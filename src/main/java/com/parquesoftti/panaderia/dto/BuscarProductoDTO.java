@@ -5,4 +5,6 @@ import lombok.Data;
 @Data
 public class BuscarProductoDTO {
     private String nombre;
+    // Máximo de resultados de la búsqueda parcial; si no llega se usa el valor por defecto
+    private Integer limite;
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.parquesoftti.panaderia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Stock actual de un producto en el canal de avisos (GET /api/productos/stock/stream).
+// Si el producto se eliminó, 'eliminado' es true y 'stock' viene en null
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CambioStockDTO {
+    private Long id;
+    private Integer stock;
+    private boolean eliminado;
+}
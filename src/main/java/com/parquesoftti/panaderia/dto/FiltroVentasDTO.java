@@ -0,0 +1,27 @@
+package com.parquesoftti.panaderia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+// Filtros opcionales para los listados paginados y en streaming de ventas
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FiltroVentasDTO {
+    private Long clienteId;
+    private Long productoId;
+
+    // Intervalo [desde, hasta) sobre la fecha de venta
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime desde;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime hasta;
+
+    // Solo las ventas de una tienda; sin indicar, las de todas
+    private Long tiendaId;
+}
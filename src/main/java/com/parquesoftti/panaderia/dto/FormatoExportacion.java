@@ -0,0 +1,19 @@
+package com.parquesoftti.panaderia.dto;
+
+// Formato de la exportación masiva de ventas. Los dos salen comprimidos con gzip
+public enum FormatoExportacion {
+    // Una venta por línea, con encabezado
+    CSV("ventas.csv.gz"),
+    // Columnas por bloques de filas (ver ArchivoColumnarVentas); bastante más chico que el CSV
+    COLUMNAR("ventas.pvc.gz");
+
+    private final String nombreArchivo;
+
+    FormatoExportacion(String nombreArchivo) {
+        this.nombreArchivo = nombreArchivo;
+    }
+
+    public String getNombreArchivo() {
+        return nombreArchivo;
+    }
+}
@@ -0,0 +1,15 @@
+package com.parquesoftti.panaderia.dto;
+
+// Formato del archivo de una importación masiva
+public enum FormatoImportacion {
+    // Primera línea con los nombres de columna, separador coma
+    CSV,
+    // Un objeto JSON por línea
+    NDJSON;
+
+    // Por la extensión del archivo: .ndjson y .jsonl son NDJSON, el resto CSV
+    public static FormatoImportacion deArchivo(String nombre) {
+        String minusculas = nombre.toLowerCase();
+        return minusculas.endsWith(".ndjson") || minusculas.endsWith(".jsonl") ? NDJSON : CSV;
+    }
+}
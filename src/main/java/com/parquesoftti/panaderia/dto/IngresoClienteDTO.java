@@ -0,0 +1,18 @@
+package com.parquesoftti.panaderia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngresoClienteDTO {
+    private Long clienteId;
+    private String nombreCliente;
+    private Long ventas;
+    private Long unidades;
+    private BigDecimal ingresos;
+}
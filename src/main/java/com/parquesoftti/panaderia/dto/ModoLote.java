@@ -0,0 +1,9 @@
+package com.parquesoftti.panaderia.dto;
+
+// Cómo se trata un lote de ventas cuando alguna línea falla
+public enum ModoLote {
+    // Si una línea falla no se registra ninguna
+    TODO_O_NADA,
+    // Se registran las líneas válidas y se informa el error de las demás
+    POR_LINEA
+}
@@ -0,0 +1,16 @@
+package com.parquesoftti.panaderia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NombreProductoDTO {
+    private Long id;
+    private String nombre;
+    private BigDecimal precio;
+}
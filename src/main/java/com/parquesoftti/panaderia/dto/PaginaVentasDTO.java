@@ -0,0 +1,16 @@
+package com.parquesoftti.panaderia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaVentasDTO {
+    private List<VentaDTORespuesta> ventas;
+    // Se pasa como ?cursor= para pedir la página siguiente; null si no hay más
+    private String siguienteCursor;
+}
@@ -0,0 +1,22 @@
+package com.parquesoftti.panaderia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoImportacionDTO {
+    private TipoImportacion tipo;
+    // Filas leídas en esta ejecución (sin contar las saltadas por 'desde')
+    private long leidas;
+    private long importadas;
+    private long rechazadas;
+    // Punto de control: filas del archivo ya resueltas (importadas o rechazadas).
+    // Para retomar una importación cortada se vuelve a enviar el archivo con desde=confirmadas
+    private long confirmadas;
+    // Archivo con las filas rechazadas y el motivo; null si no hubo rechazos
+    private String archivoErrores;
+    private long milisegundos;
+}
@@ -0,0 +1,15 @@
+package com.parquesoftti.panaderia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoLineaDTO {
+    private int linea;
+    private boolean registrada;
+    private VentaDTORespuesta venta;
+    private String error;
+}
@@ -0,0 +1,16 @@
+package com.parquesoftti.panaderia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoLoteDTO {
+    private int registradas;
+    private int rechazadas;
+    private List<ResultadoLineaDTO> lineas;
+}
@@ -0,0 +1,14 @@
+package com.parquesoftti.panaderia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Stock de un producto en una tienda
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockTiendaDTO {
+    private Long tiendaId;
+    private Integer stock;
+}
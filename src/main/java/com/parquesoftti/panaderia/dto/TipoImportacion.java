@@ -0,0 +1,12 @@
+package com.parquesoftti.panaderia.dto;
+
+// Qué se carga en una importación masiva
+public enum TipoImportacion {
+    // Columnas: nombre, precio, stock
+    PRODUCTOS,
+    // Columnas: nombre, telefono
+    CLIENTES,
+    // Columnas: clienteId o cliente (nombre), productoId o producto (nombre), cantidad,
+    // fechaVenta y opcionalmente precioUnitario. No descuenta stock: es histórico
+    VENTAS
+}
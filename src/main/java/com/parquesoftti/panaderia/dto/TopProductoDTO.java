@@ -0,0 +1,15 @@
+package com.parquesoftti.panaderia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Unidades vendidas de un producto en la ventana pedida (GET /api/ventas/top)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopProductoDTO {
+    private Long id;
+    private String nombre;
+    private long unidades;
+}
@@ -7,4 +7,6 @@ public class VentaDTO {
     private Long clienteId;
     private Long productoId;
     private Integer cantidad;
+    // Tienda donde se vende; sin indicar, la principal
+    private Long tiendaId;
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.parquesoftti.panaderia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentaDiariaDTO {
+    private LocalDate dia;
+    private Long productoId;
+    private String nombreProducto;
+    private Long unidades;
+    private BigDecimal ingresos;
+}
@@ -0,0 +1,17 @@
+package com.parquesoftti.panaderia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentaMensualProductoDTO {
+    private Long productoId;
+    private String nombreProducto;
+    private Long unidades;
+    private BigDecimal ingresos;
+}
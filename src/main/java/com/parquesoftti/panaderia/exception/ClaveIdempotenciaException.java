@@ -0,0 +1,7 @@
+package com.parquesoftti.panaderia.exception;
+
+public class ClaveIdempotenciaException extends RuntimeException {
+    public ClaveIdempotenciaException(String message) {
+        super(message);
+    }
+}
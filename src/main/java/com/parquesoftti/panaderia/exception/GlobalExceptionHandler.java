@@ -1,5 +1,6 @@
 package com.parquesoftti.panaderia.exception;
 
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -19,6 +20,56 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
     }
 
+    @ExceptionHandler(VentaNotFoundException.class)
+    public ResponseEntity<Map<String, String>> handleVentaNotFoundException(VentaNotFoundException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Venta no encontrada");
+        error.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+
+    @ExceptionHandler(StockInsuficienteException.class)
+    public ResponseEntity<Map<String, String>> handleStockInsuficienteException(StockInsuficienteException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Stock insuficiente");
+        error.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    @ExceptionHandler(TelefonoDuplicadoException.class)
+    public ResponseEntity<Map<String, String>> handleTelefonoDuplicadoException(TelefonoDuplicadoException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Teléfono duplicado");
+        error.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    // La misma clave de idempotencia con otra venta
+    @ExceptionHandler(ClaveIdempotenciaException.class)
+    public ResponseEntity<Map<String, String>> handleClaveIdempotenciaException(ClaveIdempotenciaException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Clave de idempotencia reutilizada");
+        error.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(error);
+    }
+
+    // Una edición que siguió chocando con otras después de todos los reintentos
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<Map<String, String>> handleConcurrencyFailureException(ConcurrencyFailureException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Conflicto de edición");
+        error.put("message", "El producto cambió mientras se editaba; intente de nuevo");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    @ExceptionHandler(ServicioSaturadoException.class)
+    public ResponseEntity<Map<String, String>> handleServicioSaturadoException(ServicioSaturadoException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Servicio saturado");
+        error.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(error);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, String>> handleGeneralRuntimeException(RuntimeException ex) {
         Map<String, String> error = new HashMap<>();
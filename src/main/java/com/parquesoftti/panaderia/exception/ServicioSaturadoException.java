@@ -0,0 +1,7 @@
+package com.parquesoftti.panaderia.exception;
+
+public class ServicioSaturadoException extends RuntimeException {
+    public ServicioSaturadoException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.parquesoftti.panaderia.exception;
+
+public class StockInsuficienteException extends RuntimeException {
+    public StockInsuficienteException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.parquesoftti.panaderia.exception;
+
+public class TelefonoDuplicadoException extends RuntimeException {
+    public TelefonoDuplicadoException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.parquesoftti.panaderia.exception;
+
+public class VentaNotFoundException extends RuntimeException {
+    public VentaNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,36 @@
+package com.parquesoftti.panaderia.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Clave de idempotencia (cabecera Idempotency-Key) de una venta registrada. Se guarda en la
+// misma transacción que la venta; la clave primaria impide que dos peticiones con la misma
+// clave registren dos ventas. No hay clave foránea a ventas: su clave primaria es (id,
+// fecha_venta) y una referencia impediría desenganchar las particiones viejas
+@Entity
+@Table(name = "ventas_idempotencia", indexes = {
+        @Index(name = "idx_ventas_idempotencia_fecha", columnList = "fecha_creacion")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClaveIdempotencia {
+
+    public static final int LONGITUD_MAXIMA = 100;
+
+    @Id
+    @Column(length = LONGITUD_MAXIMA)
+    private String clave;
+
+    @Column(name = "venta_id", nullable = false)
+    private Long ventaId;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+}
@@ -1,17 +1,28 @@
 package com.parquesoftti.panaderia.model;
 
+import com.parquesoftti.panaderia.util.TextoNormalizado;
 import jakarta.persistence.*;
-import lombok.Data;
-
-import java.util.List;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
+// Sin colección de ventas: las ventas de un cliente se consultan por VentaRepository.
+// equals/hashCode por id, para que un proxy y la entidad cargada sean iguales y nada
+// (un log, un HashSet) termine recorriendo relaciones perezosas
 @Entity
-@Table(name = "clientes")
-@Data
+@Table(name = "clientes", indexes = {
+        @Index(name = "idx_clientes_nombre_normalizado", columnList = "nombre_normalizado, id"),
+        @Index(name = "uk_clientes_telefono_normalizado", columnList = "telefono_normalizado", unique = true)
+})
+@Getter
+@Setter
+@ToString
 public class Cliente {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "clientes_seq")
+    @SequenceGenerator(name = "clientes_seq", sequenceName = "clientes_seq", allocationSize = 50)
     private Long id;
 
     @Column(length = 100, nullable = false)
@@ -20,6 +31,41 @@ public class Cliente {
     @Column(length = 20)
     private String telefono;
 
-    @OneToMany(mappedBy = "cliente", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    private List<Venta> ventas;
-}
\ No newline at end of file
+    // Formas de búsqueda (BusquedaClientes): el nombre en minúsculas y sin tildes ni signos, y el
+    // teléfono con solo sus dígitos, único entre clientes. Se calculan al asignar nombre y teléfono
+    @Setter(AccessLevel.NONE)
+    @Column(name = "nombre_normalizado", length = 100, nullable = false)
+    private String nombreNormalizado;
+
+    @Setter(AccessLevel.NONE)
+    @Column(name = "telefono_normalizado", length = 20)
+    private String telefonoNormalizado;
+
+    public void setNombre(String nombre) {
+        this.nombre = nombre;
+        this.nombreNormalizado = TextoNormalizado.normalizar(nombre);
+    }
+
+    public void setTelefono(String telefono) {
+        this.telefono = telefono;
+        this.telefonoNormalizado = TextoNormalizado.digitos(telefono);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        // instanceof y getId() para aceptar proxies de Hibernate sin inicializarlos
+        if (!(o instanceof Cliente otro)) {
+            return false;
+        }
+        return id != null && id.equals(otro.getId());
+    }
+
+    // Constante: el id cambia de null a asignado al guardar y el hash no puede cambiar con él
+    @Override
+    public int hashCode() {
+        return Cliente.class.hashCode();
+    }
+}
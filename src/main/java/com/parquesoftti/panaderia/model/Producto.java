@@ -3,17 +3,20 @@ package com.parquesoftti.panaderia.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.ToString;
 
 import java.math.BigDecimal;
-import java.util.List;
 
+// Igual que Cliente: sin colección de ventas y con igualdad por id
 @Getter
 @Setter
+@ToString
 @Entity
 @Table(name = "productos")
 public class Producto {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "productos_seq")
+    @SequenceGenerator(name = "productos_seq", sequenceName = "productos_seq", allocationSize = 50)
     private Long id;
 
     @Column(length = 100, nullable = false)
@@ -21,9 +24,29 @@ public class Producto {
 
     private BigDecimal precio;
 
+    // El stock solo cambia con UPDATE atómicos (ventas, ajustes de ProductoService), nunca al
+    // guardar la entidad: así editar nombre o precio no pisa lo que descontaron las ventas
+    @Column(updatable = false)
     private Integer stock;
 
-    @OneToMany(mappedBy = "producto", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    private List<Venta> ventas;
+    // Control optimista para las ediciones de nombre y precio; los UPDATE de stock no lo tocan
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Producto otro)) {
+            return false;
+        }
+        return id != null && id.equals(otro.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Producto.class.hashCode();
+    }
 }
-
@@ -0,0 +1,29 @@
+package com.parquesoftti.panaderia.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Stock de un producto en una tienda que no es la principal. El de la tienda principal sigue
+// en productos.stock (ver StockTiendas); cada tienda descuenta sobre sus propias filas
+@Entity
+@Table(name = "stock_tiendas", indexes = {
+        @Index(name = "idx_stock_tiendas_producto", columnList = "producto_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockTienda {
+
+    // Tienda de las ventas que no indican otra y de las instalaciones con una sola tienda
+    public static final long TIENDA_PRINCIPAL = 1L;
+
+    @EmbeddedId
+    private StockTiendaId id;
+
+    @Column(nullable = false)
+    private Integer stock;
+}
@@ -3,16 +3,24 @@ package com.parquesoftti.panaderia.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "ventas")
+@Table(name = "ventas", indexes = {
+        @Index(name = "idx_ventas_fecha_id", columnList = "fecha_venta, id"),
+        @Index(name = "idx_ventas_producto_fecha", columnList = "producto_id, fecha_venta"),
+        @Index(name = "idx_ventas_cliente_fecha", columnList = "cliente_id, fecha_venta"),
+        @Index(name = "idx_ventas_tienda_fecha", columnList = "tienda_id, fecha_venta")
+})
 @Getter
 @Setter
 public class Venta {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ventas_seq")
+    @SequenceGenerator(name = "ventas_seq", sequenceName = "ventas_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -21,11 +29,20 @@ public class Venta {
     @Column(name = "fecha_venta", nullable = false)
     private LocalDateTime fechaVenta = LocalDateTime.now();
 
-    @ManyToOne
+    // Precio del producto en el momento de la venta; null en ventas anteriores a este campo
+    @Column(name = "precio_unitario")
+    private BigDecimal precioUnitario;
+
+    // Tienda donde se hizo la venta (ver StockTiendas)
+    @Column(name = "tienda_id", nullable = false)
+    @ColumnDefault("1")
+    private Long tiendaId = StockTienda.TIENDA_PRINCIPAL;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cliente_id", nullable = false)
     private Cliente cliente;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "producto_id", nullable = false)
     private Producto producto;
 }
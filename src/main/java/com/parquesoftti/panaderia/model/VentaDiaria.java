@@ -0,0 +1,25 @@
+package com.parquesoftti.panaderia.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+// Resumen de ventas por día y producto. Se mantiene de forma incremental desde
+// VentaService (ver AgregadorVentasDiarias) y se puede reconstruir desde ventas
+@Entity
+@Table(name = "ventas_diarias")
+@Getter
+@Setter
+public class VentaDiaria {
+
+    @EmbeddedId
+    private VentaDiariaId id;
+
+    @Column(nullable = false)
+    private Long unidades;
+
+    @Column(nullable = false)
+    private BigDecimal ingresos;
+}
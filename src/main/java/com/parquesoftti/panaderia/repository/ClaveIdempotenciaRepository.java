@@ -0,0 +1,19 @@
+package com.parquesoftti.panaderia.repository;
+
+import com.parquesoftti.panaderia.model.ClaveIdempotencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ClaveIdempotenciaRepository extends JpaRepository<ClaveIdempotencia, String> {
+
+    // Claves que ya ninguna caja va a reintentar
+    @Modifying
+    @Query("DELETE FROM ClaveIdempotencia c WHERE c.fechaCreacion < :antes")
+    int deleteAnteriores(@Param("antes") LocalDateTime antes);
+}
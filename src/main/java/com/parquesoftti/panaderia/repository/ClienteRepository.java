@@ -1,13 +1,75 @@
 package com.parquesoftti.panaderia.repository;
 
+import com.parquesoftti.panaderia.dto.ClienteDTORespuesta;
 import com.parquesoftti.panaderia.model.Cliente;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ClienteRepository extends JpaRepository<Cliente, Long> {
+public interface ClienteRepository extends JpaRepository<Cliente, Long>, ClienteRepositoryCustom {
 
     Optional<Cliente> findByNombre(String name);
+
+    // Listado de clientes como DTO directamente, sin cargar entidades en el contexto de persistencia
+    @Query("SELECT new com.parquesoftti.panaderia.dto.ClienteDTORespuesta(c.id, c.nombre, c.telefono) FROM Cliente c")
+    List<ClienteDTORespuesta> findAllDTO();
+
+    // Clientes pedidos por id (importación de ventas)
+    @Query("SELECT new com.parquesoftti.panaderia.dto.ClienteDTORespuesta(c.id, c.nombre, c.telefono) FROM Cliente c WHERE c.id IN :ids")
+    List<ClienteDTORespuesta> findDTOByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Clientes pedidos por nombre exacto; con nombres repetidos vale el de menor id
+    @Query("SELECT new com.parquesoftti.panaderia.dto.ClienteDTORespuesta(c.id, c.nombre, c.telefono) FROM Cliente c "
+            + "WHERE c.nombre IN :nombres ORDER BY c.id")
+    List<ClienteDTORespuesta> findDTOByNombreIn(@Param("nombres") Collection<String> nombres);
+
+    // Clientes con este nombre normalizado (TextoNormalizado), del más antiguo al más nuevo
+    @Query("SELECT new com.parquesoftti.panaderia.dto.ClienteDTORespuesta(c.id, c.nombre, c.telefono) FROM Cliente c "
+            + "WHERE c.nombreNormalizado = :nombre ORDER BY c.id")
+    List<ClienteDTORespuesta> findDTOByNombreNormalizado(@Param("nombre") String nombre, Limit limite);
+
+    // El cliente con este teléfono (solo dígitos); a lo sumo uno, el índice es único
+    @Query("SELECT new com.parquesoftti.panaderia.dto.ClienteDTORespuesta(c.id, c.nombre, c.telefono) FROM Cliente c "
+            + "WHERE c.telefonoNormalizado = :telefono")
+    Optional<ClienteDTORespuesta> findDTOByTelefonoNormalizado(@Param("telefono") String telefono);
+
+    @Query("SELECT c.id FROM Cliente c WHERE c.telefonoNormalizado = :telefono")
+    Optional<Long> findIdByTelefonoNormalizado(@Param("telefono") String telefono);
+
+    // Página de clientes cuyo nombre normalizado empieza por el prefijo, ordenados por nombre e id,
+    // a partir de la última fila de la página anterior. Recorre idx_clientes_nombre_normalizado
+    @Query("SELECT c.id AS id, c.nombre AS nombre, c.telefono AS telefono, c.nombreNormalizado AS clave FROM Cliente c "
+            + "WHERE c.nombreNormalizado LIKE :prefijo AND (c.nombreNormalizado, c.id) > (:clave, :id) "
+            + "ORDER BY c.nombreNormalizado, c.id")
+    List<ClienteEncontrado> buscarPorNombre(@Param("prefijo") String prefijo, @Param("clave") String clave,
+                                            @Param("id") long id, Limit limite);
+
+    // Lo mismo por prefijo del teléfono (uk_clientes_telefono_normalizado)
+    @Query("SELECT c.id AS id, c.nombre AS nombre, c.telefono AS telefono, c.telefonoNormalizado AS clave FROM Cliente c "
+            + "WHERE c.telefonoNormalizado LIKE :prefijo AND (c.telefonoNormalizado, c.id) > (:clave, :id) "
+            + "ORDER BY c.telefonoNormalizado, c.id")
+    List<ClienteEncontrado> buscarPorTelefono(@Param("prefijo") String prefijo, @Param("clave") String clave,
+                                              @Param("id") long id, Limit limite);
+
+    // Reserva un bloque de 50 ids de cliente (pooled-lo), como VentaRepository.reservarBloqueIds
+    @Query(value = "SELECT nextval('clientes_seq')", nativeQuery = true)
+    Long reservarBloqueIds();
+
+    // Fila de una búsqueda paginada: el cliente y la columna por la que se ordenó (para el cursor)
+    interface ClienteEncontrado {
+        Long getId();
+
+        String getNombre();
+
+        String getTelefono();
+
+        String getClave();
+    }
 }
@@ -0,0 +1,12 @@
+package com.parquesoftti.panaderia.repository;
+
+import com.parquesoftti.panaderia.model.Cliente;
+
+import java.util.List;
+
+// Escrituras de clientes que van por JDBC directo para poder enviarse en lote
+public interface ClienteRepositoryCustom {
+
+    // Inserta clientes con el id ya asignado (importación masiva), en un único batch
+    void insertarConId(List<Cliente> clientes);
+}
@@ -0,0 +1,41 @@
+package com.parquesoftti.panaderia.repository;
+
+import com.parquesoftti.panaderia.model.Cliente;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+public class ClienteRepositoryCustomImpl implements ClienteRepositoryCustom {
+
+    private static final String INSERTAR_CON_ID =
+            "INSERT INTO clientes (id, nombre, telefono, nombre_normalizado, telefono_normalizado) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ClienteRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertarConId(List<Cliente> clientes) {
+        jdbcTemplate.batchUpdate(INSERTAR_CON_ID, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Cliente cliente = clientes.get(i);
+                ps.setLong(1, cliente.getId());
+                ps.setString(2, cliente.getNombre());
+                ps.setString(3, cliente.getTelefono());
+                ps.setString(4, cliente.getNombreNormalizado());
+                ps.setString(5, cliente.getTelefonoNormalizado());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return clientes.size();
+            }
+        });
+    }
+}
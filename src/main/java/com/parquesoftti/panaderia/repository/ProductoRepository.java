@@ -1,15 +1,73 @@
 package com.parquesoftti.panaderia.repository;
 
-import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.dto.NombreProductoDTO;
 import com.parquesoftti.panaderia.model.Producto;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductoRepository  extends JpaRepository<Producto, Long> {
+public interface ProductoRepository  extends JpaRepository<Producto, Long>, ProductoRepositoryCustom {
     List<Producto> findByNombreContainingIgnoreCase(String nombre);
     Optional<Producto> findByNombre(String nombre);
+
+    // Lee solo el stock, sin cargar la entidad completa
+    @Query("SELECT COALESCE(p.stock, 0) FROM Producto p WHERE p.id = :id")
+    Optional<Integer> findStockById(@Param("id") Long id);
+
+    // Stock de varios productos en una sola consulta
+    @Query("SELECT p.id AS id, COALESCE(p.stock, 0) AS stock FROM Producto p WHERE p.id IN :ids")
+    List<StockProducto> findStockByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Stock de todo el catálogo (foto inicial del canal de avisos de stock)
+    @Query("SELECT p.id AS id, COALESCE(p.stock, 0) AS stock FROM Producto p")
+    List<StockProducto> findAllStock();
+
+    // Productos con stock en o bajo el mínimo (alertas de EstadisticasVentas)
+    @Query("SELECT p.id AS id, COALESCE(p.stock, 0) AS stock FROM Producto p WHERE COALESCE(p.stock, 0) <= :minimo")
+    List<StockProducto> findStockHasta(@Param("minimo") int minimo);
+
+    // Id, nombre y precio de todo el catálogo, para el listado y el índice de búsqueda
+    @Query("SELECT new com.parquesoftti.panaderia.dto.NombreProductoDTO(p.id, p.nombre, p.precio) FROM Producto p")
+    List<NombreProductoDTO> findAllNombres();
+
+    // Id, nombre y precio de los productos pedidos (importación de ventas)
+    @Query("SELECT new com.parquesoftti.panaderia.dto.NombreProductoDTO(p.id, p.nombre, p.precio) FROM Producto p WHERE p.id IN :ids")
+    List<NombreProductoDTO> findNombresByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Lo mismo buscando por nombre exacto
+    @Query("SELECT new com.parquesoftti.panaderia.dto.NombreProductoDTO(p.id, p.nombre, p.precio) FROM Producto p WHERE p.nombre IN :nombres")
+    List<NombreProductoDTO> findNombresByNombreIn(@Param("nombres") Collection<String> nombres);
+
+    // Reserva un bloque de 50 ids de producto (pooled-lo), como VentaRepository.reservarBloqueIds
+    @Query(value = "SELECT nextval('productos_seq')", nativeQuery = true)
+    Long reservarBloqueIds();
+
+    // Descuento atómico: solo resta si alcanza. Devuelve 0 si no había stock suficiente
+    @Modifying
+    @Query("UPDATE Producto p SET p.stock = p.stock - :cantidad WHERE p.id = :id AND p.stock >= :cantidad")
+    int descontarStock(@Param("id") Long id, @Param("cantidad") int cantidad);
+
+    // Suma (o resta, si es negativo) al stock sin dejarlo bajo cero. Devuelve 0 si no alcanzaba
+    @Modifying
+    @Query("UPDATE Producto p SET p.stock = COALESCE(p.stock, 0) + :ajuste WHERE p.id = :id AND COALESCE(p.stock, 0) + :ajuste >= 0")
+    int ajustarStock(@Param("id") Long id, @Param("ajuste") int ajuste);
+
+    // Fija el stock a un valor contado (inventario). Devuelve 0 si el producto no existe
+    @Modifying
+    @Query("UPDATE Producto p SET p.stock = :stock WHERE p.id = :id")
+    int fijarStock(@Param("id") Long id, @Param("stock") Integer stock);
+
+    // Proyección con solo el stock de un producto
+    interface StockProducto {
+        Long getId();
+
+        Integer getStock();
+    }
 }
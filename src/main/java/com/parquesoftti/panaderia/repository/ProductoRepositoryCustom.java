@@ -0,0 +1,20 @@
+package com.parquesoftti.panaderia.repository;
+
+import com.parquesoftti.panaderia.model.Producto;
+
+import java.util.List;
+
+// Operaciones de stock e importación que van por JDBC directo para poder enviarse en lote
+public interface ProductoRepositoryCustom {
+
+    // Ejecuta un descuento condicional por línea en un único batch JDBC.
+    // Cada posición del resultado es 1 si se descontó y 0 si no alcanzaba el stock
+    int[] descontarStockEnLote(List<Long> productoIds, List<Integer> cantidades);
+
+    // Resta sin condición las cantidades ya validadas en memoria (ventas del diario),
+    // una sentencia por producto en un único batch
+    void restarStockEnLote(List<Long> productoIds, List<Integer> cantidades);
+
+    // Inserta productos con el id ya asignado (importación masiva), en un único batch
+    void insertarConId(List<Producto> productos);
+}
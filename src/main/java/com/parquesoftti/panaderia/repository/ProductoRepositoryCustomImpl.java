@@ -0,0 +1,80 @@
+package com.parquesoftti.panaderia.repository;
+
+import com.parquesoftti.panaderia.model.Producto;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+public class ProductoRepositoryCustomImpl implements ProductoRepositoryCustom {
+
+    private static final String DESCONTAR_STOCK =
+            "UPDATE productos SET stock = stock - ? WHERE id = ? AND stock >= ?";
+
+    private static final String RESTAR_STOCK =
+            "UPDATE productos SET stock = COALESCE(stock, 0) - ? WHERE id = ?";
+
+    private static final String INSERTAR_CON_ID =
+            "INSERT INTO productos (id, nombre, precio, stock, version) VALUES (?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductoRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int[] descontarStockEnLote(List<Long> productoIds, List<Integer> cantidades) {
+        return jdbcTemplate.batchUpdate(DESCONTAR_STOCK, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, cantidades.get(i));
+                ps.setLong(2, productoIds.get(i));
+                ps.setInt(3, cantidades.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return productoIds.size();
+            }
+        });
+    }
+
+    @Override
+    public void restarStockEnLote(List<Long> productoIds, List<Integer> cantidades) {
+        jdbcTemplate.batchUpdate(RESTAR_STOCK, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, cantidades.get(i));
+                ps.setLong(2, productoIds.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return productoIds.size();
+            }
+        });
+    }
+
+    @Override
+    public void insertarConId(List<Producto> productos) {
+        jdbcTemplate.batchUpdate(INSERTAR_CON_ID, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Producto producto = productos.get(i);
+                ps.setLong(1, producto.getId());
+                ps.setString(2, producto.getNombre());
+                ps.setBigDecimal(3, producto.getPrecio());
+                ps.setObject(4, producto.getStock(), Types.INTEGER);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return productos.size();
+            }
+        });
+    }
+}
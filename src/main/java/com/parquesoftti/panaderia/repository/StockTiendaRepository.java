@@ -0,0 +1,49 @@
+package com.parquesoftti.panaderia.repository;
+
+import com.parquesoftti.panaderia.dto.StockTiendaDTO;
+import com.parquesoftti.panaderia.model.StockTienda;
+import com.parquesoftti.panaderia.model.StockTiendaId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockTiendaRepository extends JpaRepository<StockTienda, StockTiendaId>, StockTiendaRepositoryCustom {
+
+    @Query("SELECT s.stock FROM StockTienda s WHERE s.id.tiendaId = :tiendaId AND s.id.productoId = :productoId")
+    Optional<Integer> findStock(@Param("tiendaId") Long tiendaId, @Param("productoId") Long productoId);
+
+    // Stock del producto en cada tienda que lo tiene (sin la principal)
+    @Query("SELECT new com.parquesoftti.panaderia.dto.StockTiendaDTO(s.id.tiendaId, s.stock) FROM StockTienda s "
+            + "WHERE s.id.productoId = :productoId ORDER BY s.id.tiendaId")
+    List<StockTiendaDTO> findByProductoId(@Param("productoId") Long productoId);
+
+    // Descuento atómico sobre la fila de la tienda: solo resta si alcanza
+    @Modifying
+    @Query("UPDATE StockTienda s SET s.stock = s.stock - :cantidad "
+            + "WHERE s.id.tiendaId = :tiendaId AND s.id.productoId = :productoId AND s.stock >= :cantidad")
+    int descontarStock(@Param("tiendaId") Long tiendaId, @Param("productoId") Long productoId,
+                       @Param("cantidad") int cantidad);
+
+    // Suma (o resta) sin dejarlo bajo cero. Devuelve 0 si no alcanzaba o si la fila no existe
+    @Modifying
+    @Query("UPDATE StockTienda s SET s.stock = s.stock + :ajuste "
+            + "WHERE s.id.tiendaId = :tiendaId AND s.id.productoId = :productoId AND s.stock + :ajuste >= 0")
+    int ajustarStock(@Param("tiendaId") Long tiendaId, @Param("productoId") Long productoId,
+                     @Param("ajuste") int ajuste);
+
+    // Fija el valor contado. Devuelve 0 si la fila no existe
+    @Modifying
+    @Query("UPDATE StockTienda s SET s.stock = :stock WHERE s.id.tiendaId = :tiendaId AND s.id.productoId = :productoId")
+    int fijarStock(@Param("tiendaId") Long tiendaId, @Param("productoId") Long productoId,
+                   @Param("stock") int stock);
+
+    @Modifying
+    @Query("DELETE FROM StockTienda s WHERE s.id.productoId = :productoId")
+    int deleteByProductoId(@Param("productoId") Long productoId);
+}
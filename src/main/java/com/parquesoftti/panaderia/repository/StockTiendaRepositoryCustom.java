@@ -0,0 +1,11 @@
+package com.parquesoftti.panaderia.repository;
+
+import java.util.List;
+
+// Descuento de stock por tienda en lote, por JDBC directo como ProductoRepositoryCustom
+public interface StockTiendaRepositoryCustom {
+
+    // Un descuento condicional por línea en un único batch. Cada posición del resultado es 1
+    // si se descontó y 0 si no alcanzaba (o la tienda no tiene stock de ese producto)
+    int[] descontarStockEnLote(List<Long> tiendaIds, List<Long> productoIds, List<Integer> cantidades);
+}
@@ -0,0 +1,38 @@
+package com.parquesoftti.panaderia.repository;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+public class StockTiendaRepositoryCustomImpl implements StockTiendaRepositoryCustom {
+
+    private static final String DESCONTAR_STOCK =
+            "UPDATE stock_tiendas SET stock = stock - ? WHERE tienda_id = ? AND producto_id = ? AND stock >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StockTiendaRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int[] descontarStockEnLote(List<Long> tiendaIds, List<Long> productoIds, List<Integer> cantidades) {
+        return jdbcTemplate.batchUpdate(DESCONTAR_STOCK, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, cantidades.get(i));
+                ps.setLong(2, tiendaIds.get(i));
+                ps.setLong(3, productoIds.get(i));
+                ps.setInt(4, cantidades.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return productoIds.size();
+            }
+        });
+    }
+}
@@ -0,0 +1,60 @@
+package com.parquesoftti.panaderia.repository;
+
+import com.parquesoftti.panaderia.dto.VentaDiariaDTO;
+import com.parquesoftti.panaderia.dto.VentaMensualProductoDTO;
+import com.parquesoftti.panaderia.model.VentaDiaria;
+import com.parquesoftti.panaderia.model.VentaDiariaId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface VentaDiariaRepository extends JpaRepository<VentaDiaria, VentaDiariaId> {
+
+    // Suma un delta a la fila del día y producto. Devuelve 0 si la fila todavía no existe
+    @Modifying
+    @Query("UPDATE VentaDiaria d SET d.unidades = d.unidades + :unidades, d.ingresos = d.ingresos + :ingresos "
+            + "WHERE d.id.dia = :dia AND d.id.productoId = :productoId")
+    int sumar(@Param("dia") LocalDate dia, @Param("productoId") Long productoId,
+              @Param("unidades") long unidades, @Param("ingresos") BigDecimal ingresos);
+
+    // Unidades e ingresos por día y producto en [desde, hasta], ambos inclusive
+    @Query("SELECT new com.parquesoftti.panaderia.dto.VentaDiariaDTO(d.id.dia, d.id.productoId, p.nombre, d.unidades, d.ingresos) "
+            + "FROM VentaDiaria d LEFT JOIN Producto p ON p.id = d.id.productoId "
+            + "WHERE d.id.dia BETWEEN :desde AND :hasta "
+            + "ORDER BY d.id.dia, d.id.productoId")
+    List<VentaDiariaDTO> findResumenDiario(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    // Unidades e ingresos por producto sumando los días de [desde, hasta]
+    @Query("SELECT new com.parquesoftti.panaderia.dto.VentaMensualProductoDTO(d.id.productoId, p.nombre, SUM(d.unidades), SUM(d.ingresos)) "
+            + "FROM VentaDiaria d LEFT JOIN Producto p ON p.id = d.id.productoId "
+            + "WHERE d.id.dia BETWEEN :desde AND :hasta "
+            + "GROUP BY d.id.productoId, p.nombre "
+            + "ORDER BY SUM(d.unidades) DESC")
+    List<VentaMensualProductoDTO> findResumenPorProducto(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    // Fecha de la venta más vieja que sigue en ventas (null si no hay ninguna)
+    @Query("SELECT MIN(v.fechaVenta) FROM Venta v")
+    LocalDateTime findPrimeraFechaVenta();
+
+    @Modifying
+    @Query(value = "DELETE FROM ventas_diarias WHERE dia >= :desde", nativeQuery = true)
+    void vaciarDesde(@Param("desde") LocalDate desde);
+
+    // Reconstruye el resumen a partir de las ventas desde el día dado
+    @Modifying
+    @Query(value = "INSERT INTO ventas_diarias (dia, producto_id, unidades, ingresos) "
+            + "SELECT CAST(v.fecha_venta AS DATE), v.producto_id, SUM(v.cantidad), "
+            + "SUM(v.cantidad * COALESCE(v.precio_unitario, p.precio, 0)) "
+            + "FROM ventas v JOIN productos p ON p.id = v.producto_id "
+            + "WHERE v.fecha_venta >= :desde "
+            + "GROUP BY CAST(v.fecha_venta AS DATE), v.producto_id", nativeQuery = true)
+    int reconstruirDesdeVentas(@Param("desde") LocalDate desde);
+}
@@ -1,28 +1,136 @@
 package com.parquesoftti.panaderia.repository;
 
+import com.parquesoftti.panaderia.dto.IngresoClienteDTO;
+import com.parquesoftti.panaderia.dto.VentaDTORespuesta;
 import com.parquesoftti.panaderia.model.Venta;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface VentaRepository extends JpaRepository<Venta, Long> {
+public interface VentaRepository extends JpaRepository<Venta, Long>, VentaRepositoryCustom {
 
-    // Métodos para buscar el cliente, el producto, ambos y rango de fechas de venta
+    // Las consultas de listado devuelven el DTO directamente desde un único SELECT con join,
+    // sin cargar entidades Venta/Cliente/Producto en el contexto de persistencia
+    String SELECT_DTO = "SELECT new com.parquesoftti.panaderia.dto.VentaDTORespuesta("
+            + "v.id, v.cantidad, v.fechaVenta, c.id, c.nombre, p.id, p.nombre) "
+            + "FROM Venta v JOIN v.cliente c JOIN v.producto p ";
+
+    // Mismo cálculo que la reconstrucción de ventas_diarias
+    String SELECT_RESUMEN = "SELECT CAST(v.fechaVenta AS LocalDate) AS dia, p.id AS productoId, "
+            + "SUM(v.cantidad) AS unidades, SUM(v.cantidad * COALESCE(v.precioUnitario, p.precio, 0)) AS ingresos "
+            + "FROM Venta v JOIN v.producto p ";
+    String GROUP_RESUMEN = "GROUP BY CAST(v.fechaVenta AS LocalDate), p.id";
+
+    // Todas las ventas
+    @Query(SELECT_DTO)
+    List<VentaDTORespuesta> findAllDTO();
+
+    // Una venta por id
+    @Query(SELECT_DTO + "WHERE v.id = :id")
+    Optional<VentaDTORespuesta> findDTOById(@Param("id") Long id);
 
     // Busca todas las ventas de un cliente
-    List<Venta> findByClienteId(Long clienteId);
+    @Query(SELECT_DTO + "WHERE c.id = :clienteId")
+    List<VentaDTORespuesta> findDTOByClienteId(@Param("clienteId") Long clienteId);
 
     // Busca todas las ventas de un producto
-    List<Venta> findByProductoId(Long productoId);
+    @Query(SELECT_DTO + "WHERE p.id = :productoId")
+    List<VentaDTORespuesta> findDTOByProductoId(@Param("productoId") Long productoId);
+
+    // Tienda de una venta; con la fecha, la consulta va a una sola partición
+    @Query("SELECT v.tiendaId FROM Venta v WHERE v.id = :id AND v.fechaVenta = :fechaVenta")
+    Optional<Long> findTiendaIdByIdAndFechaVenta(@Param("id") Long id, @Param("fechaVenta") LocalDateTime fechaVenta);
 
     // Busca ventas por cliente y producto
-    List<Venta> findByClienteIdAndProductoId(Long clienteId, Long productoId);
+    @Query(SELECT_DTO + "WHERE c.id = :clienteId AND p.id = :productoId")
+    List<VentaDTORespuesta> findDTOByClienteIdAndProductoId(@Param("clienteId") Long clienteId,
+                                                            @Param("productoId") Long productoId);
 
     // Busca ventas por fecha
-    List<Venta> findByFechaVenta(LocalDateTime fecha);
+    @Query(SELECT_DTO + "WHERE v.fechaVenta = :fecha")
+    List<VentaDTORespuesta> findDTOByFechaVenta(@Param("fecha") LocalDateTime fecha);
+
+    // Busca ventas en el intervalo [desde, hasta), usando el índice por fecha
+    @Query(SELECT_DTO + "WHERE v.fechaVenta >= :desde AND v.fechaVenta < :hasta ORDER BY v.fechaVenta, v.id")
+    List<VentaDTORespuesta> findDTOByFechaVentaEntre(@Param("desde") LocalDateTime desde,
+                                                     @Param("hasta") LocalDateTime hasta);
+
+    // Número de ventas, unidades e ingresos por cliente en [desde, hasta)
+    @Query("SELECT new com.parquesoftti.panaderia.dto.IngresoClienteDTO(c.id, c.nombre, COUNT(v), SUM(v.cantidad), "
+            + "SUM(v.cantidad * COALESCE(v.precioUnitario, p.precio, 0))) "
+            + "FROM Venta v JOIN v.cliente c JOIN v.producto p "
+            + "WHERE v.fechaVenta >= :desde AND v.fechaVenta < :hasta "
+            + "GROUP BY c.id, c.nombre "
+            + "ORDER BY SUM(v.cantidad * COALESCE(v.precioUnitario, p.precio, 0)) DESC")
+    List<IngresoClienteDTO> findIngresosPorCliente(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta);
+
+    // Fecha, producto y cantidad de las ventas desde 'desde', sin cargar entidades
+    // (reconstrucción de EstadisticasVentas al arrancar)
+    @Query("SELECT v.fechaVenta AS fecha, v.producto.id AS productoId, v.cantidad AS cantidad "
+            + "FROM Venta v WHERE v.fechaVenta >= :desde")
+    Stream<MovimientoVenta> streamMovimientosDesde(@Param("desde") LocalDateTime desde);
+
+    // Reserva un bloque de ids de venta (pooled-lo: el valor devuelto y los 49 siguientes),
+    // igual que hace Hibernate con allocationSize = 50
+    @Query(value = "SELECT nextval('ventas_seq')", nativeQuery = true)
+    Long reservarBloqueIds();
+
+    // Unidades e ingresos por día y producto de las ventas de un cliente o de un producto, para
+    // descontarlos de ventas_diarias antes del borrado en bloque (como hace una anulación)
+    @Query(SELECT_RESUMEN + "WHERE v.cliente.id = :clienteId " + GROUP_RESUMEN)
+    List<ResumenVenta> findResumenByClienteId(@Param("clienteId") Long clienteId);
+
+    @Query(SELECT_RESUMEN + "WHERE p.id = :productoId " + GROUP_RESUMEN)
+    List<ResumenVenta> findResumenByProductoId(@Param("productoId") Long productoId);
+
+    // Las ventas de un cliente desde 'desde', para restarlas de EstadisticasVentas al borrarlo
+    @Query("SELECT v.fechaVenta AS fecha, v.producto.id AS productoId, v.cantidad AS cantidad "
+            + "FROM Venta v WHERE v.cliente.id = :clienteId AND v.fechaVenta >= :desde")
+    List<MovimientoVenta> findMovimientosByClienteIdDesde(@Param("clienteId") Long clienteId,
+                                                          @Param("desde") LocalDateTime desde);
+
+    // Borra las ventas de un cliente con un solo DELETE, antes de borrar el cliente
+    @Modifying
+    @Query("DELETE FROM Venta v WHERE v.cliente.id = :clienteId")
+    int deleteByClienteId(@Param("clienteId") Long clienteId);
+
+    // Borra las ventas de un producto con un solo DELETE, antes de borrar el producto
+    @Modifying
+    @Query("DELETE FROM Venta v WHERE v.producto.id = :productoId")
+    int deleteByProductoId(@Param("productoId") Long productoId);
+
+    // Cuáles de estos ids ya están guardados
+    @Query("SELECT v.id FROM Venta v WHERE v.id IN :ids")
+    List<Long> findIdsExistentes(@Param("ids") Collection<Long> ids);
+
+    // Fila de ventas_diarias que aportan las ventas borradas
+    interface ResumenVenta {
+        LocalDate getDia();
+
+        Long getProductoId();
+
+        Long getUnidades();
+
+        BigDecimal getIngresos();
+    }
+
+    // Proyección con lo justo de una venta para las estadísticas en memoria
+    interface MovimientoVenta {
+        LocalDateTime getFecha();
+
+        Long getProductoId();
 
+        Integer getCantidad();
+    }
 }
@@ -0,0 +1,25 @@
+package com.parquesoftti.panaderia.repository;
+
+import com.parquesoftti.panaderia.dto.FiltroVentasDTO;
+import com.parquesoftti.panaderia.dto.VentaDTORespuesta;
+import com.parquesoftti.panaderia.model.Venta;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Consultas de ventas con filtros opcionales, ordenadas por (fechaVenta, id)
+public interface VentaRepositoryCustom {
+
+    // Paginación por keyset: devuelve hasta 'limite' ventas posteriores a (despuesDeFecha, despuesDeId).
+    // Con despuesDeFecha null empieza desde el principio
+    List<VentaDTORespuesta> buscarPagina(FiltroVentasDTO filtro, LocalDateTime despuesDeFecha, Long despuesDeId, int limite);
+
+    // Recorre las ventas con un cursor del lado del servidor. Debe usarse dentro de una
+    // transacción y cerrarse al terminar
+    Stream<VentaDTORespuesta> streamVentas(FiltroVentasDTO filtro);
+
+    // Inserta ventas que ya traen id (reservado de ventas_seq) en un único batch JDBC,
+    // sin pasar por el contexto de persistencia. Solo se leen los ids de cliente y producto
+    void insertarConId(List<Venta> ventas);
+}
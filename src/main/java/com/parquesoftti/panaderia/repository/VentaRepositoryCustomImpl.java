@@ -0,0 +1,124 @@
+package com.parquesoftti.panaderia.repository;
+
+import com.parquesoftti.panaderia.dto.FiltroVentasDTO;
+import com.parquesoftti.panaderia.dto.VentaDTORespuesta;
+import com.parquesoftti.panaderia.model.Venta;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class VentaRepositoryCustomImpl implements VentaRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Filas que el driver trae por viaje al recorrer un listado en streaming
+    @Value("${panaderia.ventas.fetch-size:500}")
+    private int fetchSize;
+
+    private static final String INSERTAR_CON_ID = "INSERT INTO ventas "
+            + "(id, cantidad, fecha_venta, cliente_id, producto_id, precio_unitario, tienda_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<VentaDTORespuesta> buscarPagina(FiltroVentasDTO filtro, LocalDateTime despuesDeFecha,
+                                                Long despuesDeId, int limite) {
+        StringBuilder jpql = new StringBuilder(VentaRepository.SELECT_DTO).append("WHERE 1 = 1 ");
+        Map<String, Object> parametros = new HashMap<>();
+        agregarFiltros(filtro, jpql, parametros);
+        if (despuesDeFecha != null) {
+            jpql.append("AND (v.fechaVenta, v.id) > (:despuesDeFecha, :despuesDeId) ");
+            parametros.put("despuesDeFecha", despuesDeFecha);
+            parametros.put("despuesDeId", despuesDeId);
+        }
+        jpql.append("ORDER BY v.fechaVenta, v.id");
+
+        return crearConsulta(jpql.toString(), parametros)
+                .setMaxResults(limite)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<VentaDTORespuesta> streamVentas(FiltroVentasDTO filtro) {
+        StringBuilder jpql = new StringBuilder(VentaRepository.SELECT_DTO).append("WHERE 1 = 1 ");
+        Map<String, Object> parametros = new HashMap<>();
+        agregarFiltros(filtro, jpql, parametros);
+        jpql.append("ORDER BY v.fechaVenta, v.id");
+
+        return crearConsulta(jpql.toString(), parametros)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public void insertarConId(List<Venta> ventas) {
+        jdbcTemplate.batchUpdate(INSERTAR_CON_ID, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Venta venta = ventas.get(i);
+                ps.setLong(1, venta.getId());
+                ps.setInt(2, venta.getCantidad());
+                ps.setTimestamp(3, Timestamp.valueOf(venta.getFechaVenta()));
+                ps.setLong(4, venta.getCliente().getId());
+                ps.setLong(5, venta.getProducto().getId());
+                ps.setBigDecimal(6, venta.getPrecioUnitario());
+                ps.setLong(7, venta.getTiendaId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ventas.size();
+            }
+        });
+    }
+
+    private void agregarFiltros(FiltroVentasDTO filtro, StringBuilder jpql, Map<String, Object> parametros) {
+        if (filtro == null) {
+            return;
+        }
+        if (filtro.getClienteId() != null) {
+            jpql.append("AND c.id = :clienteId ");
+            parametros.put("clienteId", filtro.getClienteId());
+        }
+        if (filtro.getProductoId() != null) {
+            jpql.append("AND p.id = :productoId ");
+            parametros.put("productoId", filtro.getProductoId());
+        }
+        if (filtro.getTiendaId() != null) {
+            jpql.append("AND v.tiendaId = :tiendaId ");
+            parametros.put("tiendaId", filtro.getTiendaId());
+        }
+        if (filtro.getDesde() != null) {
+            jpql.append("AND v.fechaVenta >= :desde ");
+            parametros.put("desde", filtro.getDesde());
+        }
+        if (filtro.getHasta() != null) {
+            jpql.append("AND v.fechaVenta < :hasta ");
+            parametros.put("hasta", filtro.getHasta());
+        }
+    }
+
+    private TypedQuery<VentaDTORespuesta> crearConsulta(String jpql, Map<String, Object> parametros) {
+        TypedQuery<VentaDTORespuesta> consulta = entityManager.createQuery(jpql, VentaDTORespuesta.class);
+        parametros.forEach(consulta::setParameter);
+        return consulta;
+    }
+}
@@ -0,0 +1,138 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.model.VentaDiaria;
+import com.parquesoftti.panaderia.model.VentaDiariaId;
+import com.parquesoftti.panaderia.repository.VentaDiariaRepository;
+import com.parquesoftti.panaderia.repository.VentaRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Mantiene ventas_diarias en micro-lotes: cada venta confirmada suma su delta en memoria
+// y un proceso periódico los vuelca a la base en una sola transacción. Así registrarVenta
+// no compite por la misma fila del resumen en cada venta del mismo producto.
+// Es @Lazy para que el volcado programado no cree los repositorios al arrancar con el perfil rapido;
+// antes de la primera venta no hay nada que volcar
+@Component
+@Lazy
+public class AgregadorVentasDiarias {
+
+    private static final Logger log = LoggerFactory.getLogger(AgregadorVentasDiarias.class);
+
+    private final ConcurrentHashMap<VentaDiariaId, Acumulado> pendientes = new ConcurrentHashMap<>();
+
+    private final VentaDiariaRepository ventaDiariaRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public AgregadorVentasDiarias(VentaDiariaRepository ventaDiariaRepository, TransactionTemplate transactionTemplate) {
+        this.ventaDiariaRepository = ventaDiariaRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // Resta las ventas que se borran en bloque (cliente o producto eliminado), como si se anularan
+    public void descontar(List<VentaRepository.ResumenVenta> resumen) {
+        for (VentaRepository.ResumenVenta fila : resumen) {
+            registrar(fila.getDia(), fila.getProductoId(), -fila.getUnidades(), fila.getIngresos().negate());
+        }
+    }
+
+    // Anota un movimiento (unidades negativas para anular). Dentro de una transacción
+    // solo se cuenta si esta se confirma
+    public void registrar(LocalDate dia, Long productoId, long unidades, BigDecimal ingresos) {
+        VentaDiariaId id = new VentaDiariaId(dia, productoId);
+        Acumulado delta = new Acumulado(unidades, ingresos);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acumular(id, delta);
+                }
+            });
+        } else {
+            acumular(id, delta);
+        }
+    }
+
+    // Vuelca los deltas pendientes. Si falla, se devuelven a la cola para el siguiente intento
+    @Scheduled(fixedDelayString = "${panaderia.rollup.intervalo-ms:2000}")
+    public synchronized void volcar() {
+        List<Map.Entry<VentaDiariaId, Acumulado>> lote = new ArrayList<>();
+        for (VentaDiariaId id : pendientes.keySet()) {
+            Acumulado delta = pendientes.remove(id);
+            if (delta != null) {
+                lote.add(Map.entry(id, delta));
+            }
+        }
+        if (lote.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(estado -> lote.forEach(e -> aplicar(e.getKey(), e.getValue())));
+        } catch (RuntimeException ex) {
+            log.warn("No se pudo volcar el resumen de ventas diarias, se reintentará", ex);
+            lote.forEach(e -> acumular(e.getKey(), e.getValue()));
+        }
+    }
+
+    // Al apagar se vuelca lo que quedó pendiente; si no, los reportes perderían las últimas ventas
+    @PreDestroy
+    public void cerrar() {
+        volcar();
+    }
+
+    // Reconstruye ventas_diarias desde el histórico de ventas y descarta los deltas pendientes,
+    // que ya están incluidos. Conviene lanzarlo con poco tráfico: una venta confirmada justo
+    // durante la reconstrucción puede quedar contada dos veces.
+    // Solo se rehacen los días desde el mes de la venta más vieja que queda: la retención
+    // (ParticionesVentas) quita meses enteros, y el resumen de los meses quitados se conserva
+    public synchronized int reconstruir() {
+        pendientes.clear();
+        Integer filas = transactionTemplate.execute(estado -> {
+            LocalDateTime primera = ventaDiariaRepository.findPrimeraFechaVenta();
+            if (primera == null) {
+                return 0;
+            }
+            LocalDate desde = primera.toLocalDate().withDayOfMonth(1);
+            ventaDiariaRepository.vaciarDesde(desde);
+            return ventaDiariaRepository.reconstruirDesdeVentas(desde);
+        });
+        return filas == null ? 0 : filas;
+    }
+
+    private void aplicar(VentaDiariaId id, Acumulado delta) {
+        int actualizadas = ventaDiariaRepository.sumar(id.getDia(), id.getProductoId(), delta.unidades(), delta.ingresos());
+        if (actualizadas == 0) {
+            VentaDiaria nueva = new VentaDiaria();
+            nueva.setId(id);
+            nueva.setUnidades(delta.unidades());
+            nueva.setIngresos(delta.ingresos());
+            ventaDiariaRepository.save(nueva);
+        }
+    }
+
+    private void acumular(VentaDiariaId id, Acumulado delta) {
+        pendientes.merge(id, delta, Acumulado::mas);
+    }
+
+    private record Acumulado(long unidades, BigDecimal ingresos) {
+        Acumulado mas(Acumulado otro) {
+            return new Acumulado(unidades + otro.unidades, ingresos.add(otro.ingresos));
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.VentaDTORespuesta;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Formato columnar compacto para exportar ventas (al estilo de Parquet, sin sus dependencias).
+// Las filas se agrupan de a FILAS_POR_GRUPO y cada grupo guarda sus columnas una detrás de otra:
+//   "PVC1" | grupo* | 0
+//   grupo = filas | ids | fechas | clienteIds | productoIds | cantidades | clientes | productos
+// ids y fechas (microsegundos) van como diferencia con la fila anterior: como el export sale
+// ordenado por fecha e id, casi siempre son números chicos. Todos los enteros son varint (zigzag
+// donde puede haber negativos). Los nombres de cliente y producto no se repiten por fila: cada
+// grupo trae (id, nombre) solo de los que aparecen por primera vez en el archivo
+final class ArchivoColumnarVentas {
+
+    static final int FILAS_POR_GRUPO = 65_536;
+    private static final byte[] CABECERA = "PVC1".getBytes(StandardCharsets.US_ASCII);
+
+    private ArchivoColumnarVentas() {
+    }
+
+    // Escribe ventas de a una; la memoria se limita a un grupo de filas y a los ids ya nombrados
+    static final class Escritor {
+
+        private final DataOutputStream salida;
+        private final long[] ids = new long[FILAS_POR_GRUPO];
+        private final long[] fechas = new long[FILAS_POR_GRUPO];
+        private final long[] clienteIds = new long[FILAS_POR_GRUPO];
+        private final long[] productoIds = new long[FILAS_POR_GRUPO];
+        private final int[] cantidades = new int[FILAS_POR_GRUPO];
+        private final Map<Long, String> clientesNuevos = new HashMap<>();
+        private final Map<Long, String> productosNuevos = new HashMap<>();
+        private final Set<Long> clientesEscritos = new HashSet<>();
+        private final Set<Long> productosEscritos = new HashSet<>();
+        private int filas;
+        private long ultimoId;
+        private long ultimaFecha;
+
+        Escritor(OutputStream salida) throws IOException {
+            this.salida = new DataOutputStream(new BufferedOutputStream(salida, 1 << 16));
+            this.salida.write(CABECERA);
+        }
+
+        // true si con esta fila se completó (y se escribió) un grupo
+        boolean escribir(VentaDTORespuesta venta) throws IOException {
+            ids[filas] = venta.getId();
+            fechas[filas] = microsegundos(venta.getFechaVenta());
+            clienteIds[filas] = venta.getClienteId();
+            productoIds[filas] = venta.getProductoId();
+            cantidades[filas] = venta.getCantidad();
+            if (clientesEscritos.add(venta.getClienteId())) {
+                clientesNuevos.put(venta.getClienteId(), venta.getNombreCliente());
+            }
+            if (productosEscritos.add(venta.getProductoId())) {
+                productosNuevos.put(venta.getProductoId(), venta.getNombreProducto());
+            }
+            if (++filas == FILAS_POR_GRUPO) {
+                escribirGrupo();
+                return true;
+            }
+            return false;
+        }
+
+        // Escribe el grupo incompleto y la marca de fin; no cierra la salida
+        void terminar() throws IOException {
+            escribirGrupo();
+            escribirVarint(salida, 0);
+            salida.flush();
+        }
+
+        private void escribirGrupo() throws IOException {
+            if (filas == 0) {
+                return;
+            }
+            escribirVarint(salida, filas);
+            for (int i = 0; i < filas; i++) {
+                escribirVarint(salida, zigzag(ids[i] - ultimoId));
+                ultimoId = ids[i];
+            }
+            for (int i = 0; i < filas; i++) {
+                escribirVarint(salida, zigzag(fechas[i] - ultimaFecha));
+                ultimaFecha = fechas[i];
+            }
+            for (int i = 0; i < filas; i++) {
+                escribirVarint(salida, clienteIds[i]);
+            }
+            for (int i = 0; i < filas; i++) {
+                escribirVarint(salida, productoIds[i]);
+            }
+            for (int i = 0; i < filas; i++) {
+                escribirVarint(salida, zigzag(cantidades[i]));
+            }
+            escribirNombres(clientesNuevos);
+            escribirNombres(productosNuevos);
+            salida.flush();
+            filas = 0;
+        }
+
+        private void escribirNombres(Map<Long, String> nuevos) throws IOException {
+            escribirVarint(salida, nuevos.size());
+            for (Map.Entry<Long, String> nombre : nuevos.entrySet()) {
+                escribirVarint(salida, nombre.getKey());
+                byte[] bytes = nombre.getValue() == null ? new byte[0] : nombre.getValue().getBytes(StandardCharsets.UTF_8);
+                escribirVarint(salida, bytes.length);
+                salida.write(bytes);
+            }
+            nuevos.clear();
+        }
+    }
+
+    // Lee un archivo completo y entrega las ventas en el orden en que se escribieron
+    static void leer(InputStream entrada, Consumer<VentaDTORespuesta> consumidor) throws IOException {
+        DataInputStream datos = new DataInputStream(new BufferedInputStream(entrada, 1 << 16));
+        byte[] cabecera = new byte[CABECERA.length];
+        datos.readFully(cabecera);
+        if (!Arrays.equals(cabecera, CABECERA)) {
+            throw new IOException("No es un archivo columnar de ventas");
+        }
+
+        Map<Long, String> clientes = new HashMap<>();
+        Map<Long, String> productos = new HashMap<>();
+        long ultimoId = 0;
+        long ultimaFecha = 0;
+        int filas;
+        while ((filas = (int) leerVarint(datos)) > 0) {
+            long[] ids = new long[filas];
+            long[] fechas = new long[filas];
+            long[] clienteIds = new long[filas];
+            long[] productoIds = new long[filas];
+            int[] cantidades = new int[filas];
+            for (int i = 0; i < filas; i++) {
+                ultimoId += deshacerZigzag(leerVarint(datos));
+                ids[i] = ultimoId;
+            }
+            for (int i = 0; i < filas; i++) {
+                ultimaFecha += deshacerZigzag(leerVarint(datos));
+                fechas[i] = ultimaFecha;
+            }
+            for (int i = 0; i < filas; i++) {
+                clienteIds[i] = leerVarint(datos);
+            }
+            for (int i = 0; i < filas; i++) {
+                productoIds[i] = leerVarint(datos);
+            }
+            for (int i = 0; i < filas; i++) {
+                cantidades[i] = (int) deshacerZigzag(leerVarint(datos));
+            }
+            leerNombres(datos, clientes);
+            leerNombres(datos, productos);
+
+            for (int i = 0; i < filas; i++) {
+                consumidor.accept(new VentaDTORespuesta(ids[i], cantidades[i], fecha(fechas[i]),
+                        clienteIds[i], clientes.get(clienteIds[i]), productoIds[i], productos.get(productoIds[i])));
+            }
+        }
+    }
+
+    private static void leerNombres(DataInputStream datos, Map<Long, String> nombres) throws IOException {
+        long cantidad = leerVarint(datos);
+        for (long i = 0; i < cantidad; i++) {
+            long id = leerVarint(datos);
+            byte[] bytes = new byte[(int) leerVarint(datos)];
+            datos.readFully(bytes);
+            nombres.put(id, new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static long microsegundos(LocalDateTime fecha) {
+        return ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), fecha);
+    }
+
+    private static LocalDateTime fecha(long microsegundos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(microsegundos, 1_000_000), 0, ZoneOffset.UTC)
+                .plusNanos(Math.floorMod(microsegundos, 1_000_000) * 1_000L);
+    }
+
+    private static long zigzag(long valor) {
+        return (valor << 1) ^ (valor >> 63);
+    }
+
+    private static long deshacerZigzag(long valor) {
+        return (valor >>> 1) ^ -(valor & 1);
+    }
+
+    private static void escribirVarint(DataOutputStream salida, long valor) throws IOException {
+        while ((valor & ~0x7FL) != 0) {
+            salida.writeByte((int) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        salida.writeByte((int) valor);
+    }
+
+    private static long leerVarint(DataInputStream entrada) throws IOException {
+        long valor = 0;
+        for (int desplazamiento = 0; desplazamiento < 64; desplazamiento += 7) {
+            int b = entrada.read();
+            if (b < 0) {
+                throw new EOFException("Archivo columnar de ventas incompleto");
+            }
+            valor |= (long) (b & 0x7F) << desplazamiento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+        }
+        throw new IOException("Varint inválido en el archivo columnar de ventas");
+    }
+}
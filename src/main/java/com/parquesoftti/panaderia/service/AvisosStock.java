@@ -0,0 +1,215 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.CambioStockDTO;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Canal de avisos de stock para las pantallas de las cajas (SSE). En vez de que cada pantalla
+// pida el catálogo entero cada pocos segundos, recibe solo los productos cuyo stock cambió.
+// Los cambios se marcan al confirmar la transacción (CatalogoProductos.invalidar/invalidarStock)
+// y se juntan por producto: cada intervalo se lee el stock de los marcados en una sola consulta y
+// se manda una vez, aunque en ese rato haya habido cien ventas del mismo producto.
+// Cada suscriptor tiene su propia cola con a lo sumo una entrada por producto (gana el último
+// valor), y un solo envío en curso a la vez en un hilo virtual: una pantalla lenta acumula como
+// mucho el catálogo y no frena a las demás. Cada suscriptor recuerda además el último stock que se
+// le encoló por producto, para no repetirle avisos que no cambian nada (un cambio de precio).
+// Una pantalla sin cambios no ocupa ningún hilo, solo la conexión abierta y un latido de vez en cuando.
+// Es @Lazy por el perfil rapido: sin cambios de stock ni suscriptores no hay nada que mandar
+@Component
+@Lazy
+public class AvisosStock {
+
+    private final ProductoRepository productoRepository;
+    private final Duration duracion;
+
+    private final Set<Long> marcados = ConcurrentHashMap.newKeySet();
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    private final ExecutorService envios = Executors.newVirtualThreadPerTaskExecutor();
+
+    public AvisosStock(ProductoRepository productoRepository, MeterRegistry meterRegistry,
+                       @Value("${panaderia.avisos-stock.duracion:30m}") Duration duracion) {
+        this.productoRepository = productoRepository;
+        this.duracion = duracion;
+        meterRegistry.gaugeCollectionSize("panaderia.avisos.suscriptores", Tags.empty(), suscriptores);
+    }
+
+    // Nueva pantalla: primero recibe el stock de todo el catálogo y después solo los cambios.
+    // Al vencer 'duracion' la conexión se cierra y EventSource se reconecta solo
+    public SseEmitter suscribir() {
+        return suscribir(new SseEmitter(duracion.toMillis()));
+    }
+
+    SseEmitter suscribir(SseEmitter emisor) {
+        Suscriptor suscriptor = new Suscriptor(emisor);
+        emisor.onCompletion(() -> suscriptores.remove(suscriptor));
+        emisor.onTimeout(() -> suscriptores.remove(suscriptor));
+        emisor.onError(error -> suscriptores.remove(suscriptor));
+
+        // Se registra antes de leer la foto inicial para no perder cambios de ese momento; lo que
+        // llegue mientras tanto es más nuevo y no se pisa con la foto. La foto va solo a la cola de
+        // esta pantalla: las demás siguen recibiendo los cambios marcados como siempre
+        suscriptor.enviando = true;
+        suscriptores.add(suscriptor);
+        List<CambioStockDTO> inicial = new ArrayList<>();
+        productoRepository.findAllStock().forEach(stock ->
+                inicial.add(new CambioStockDTO(stock.getId(), stock.getStock(), false)));
+        synchronized (suscriptor) {
+            for (CambioStockDTO cambio : inicial) {
+                if (!suscriptor.pendientes.containsKey(cambio.getId()) && !suscriptor.vistos.containsKey(cambio.getId())) {
+                    suscriptor.pendientes.put(cambio.getId(), cambio);
+                    suscriptor.vistos.put(cambio.getId(), cambio.getStock());
+                }
+            }
+        }
+        envios.execute(() -> vaciar(suscriptor));
+        return emisor;
+    }
+
+    // Cambió el stock (o el producto entero). Dentro de una transacción se avisa recién al confirmar
+    public void marcar(Long productoId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    marcados.add(productoId);
+                }
+            });
+        } else {
+            marcados.add(productoId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${panaderia.avisos-stock.intervalo-ms:250}")
+    public void enviarCambios() {
+        if (marcados.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(marcados);
+        marcados.removeAll(ids);
+        if (suscriptores.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Integer> actuales = new LinkedHashMap<>();
+        productoRepository.findStockByIdIn(ids).forEach(stock -> actuales.put(stock.getId(), stock.getStock()));
+        List<CambioStockDTO> cambios = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Integer stock = actuales.get(id);
+            cambios.add(new CambioStockDTO(id, stock, stock == null));
+        }
+        publicar(cambios);
+    }
+
+    // Mantiene viva la conexión a través de proxies y descubre las pantallas que ya se fueron
+    @Scheduled(fixedDelayString = "${panaderia.avisos-stock.latido-ms:30000}")
+    public void latir() {
+        for (Suscriptor suscriptor : suscriptores) {
+            synchronized (suscriptor) {
+                suscriptor.latido = true;
+                programar(suscriptor);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        suscriptores.forEach(suscriptor -> suscriptor.emisor.complete());
+        envios.shutdownNow();
+    }
+
+    // Encola a cada suscriptor los cambios que todavía no tiene; una baja se manda siempre
+    private void publicar(List<CambioStockDTO> cambios) {
+        for (Suscriptor suscriptor : suscriptores) {
+            synchronized (suscriptor) {
+                boolean nuevos = false;
+                for (CambioStockDTO cambio : cambios) {
+                    if (cambio.isEliminado()) {
+                        suscriptor.vistos.remove(cambio.getId());
+                    } else if (cambio.getStock().equals(suscriptor.vistos.put(cambio.getId(), cambio.getStock()))) {
+                        continue;
+                    }
+                    suscriptor.pendientes.put(cambio.getId(), cambio);
+                    nuevos = true;
+                }
+                if (nuevos) {
+                    programar(suscriptor);
+                }
+            }
+        }
+    }
+
+    // Llamar con el lock del suscriptor tomado
+    private void programar(Suscriptor suscriptor) {
+        if (!suscriptor.enviando) {
+            suscriptor.enviando = true;
+            envios.execute(() -> vaciar(suscriptor));
+        }
+    }
+
+    // Manda lo pendiente de un suscriptor hasta dejar su cola vacía. Si mientras se escribe llegan
+    // más cambios, salen en la vuelta siguiente juntos en un solo evento
+    private void vaciar(Suscriptor suscriptor) {
+        while (true) {
+            List<CambioStockDTO> lote;
+            boolean latido;
+            synchronized (suscriptor) {
+                if (suscriptor.pendientes.isEmpty() && !suscriptor.latido) {
+                    suscriptor.enviando = false;
+                    return;
+                }
+                lote = new ArrayList<>(suscriptor.pendientes.values());
+                suscriptor.pendientes.clear();
+                latido = suscriptor.latido;
+                suscriptor.latido = false;
+            }
+            try {
+                if (!lote.isEmpty()) {
+                    suscriptor.emisor.send(SseEmitter.event().name("stock").data(lote, MediaType.APPLICATION_JSON));
+                } else if (latido) {
+                    suscriptor.emisor.send(SseEmitter.event().comment("latido"));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // La pantalla cerró la conexión
+                suscriptores.remove(suscriptor);
+                suscriptor.emisor.completeWithError(e);
+                return;
+            }
+        }
+    }
+
+    private static final class Suscriptor {
+        private final SseEmitter emisor;
+        // Cambios por enviar, uno por producto; protegido por el lock del suscriptor
+        private final Map<Long, CambioStockDTO> pendientes = new LinkedHashMap<>();
+        // Último stock encolado por producto; protegido por el lock del suscriptor
+        private final Map<Long, Integer> vistos = new HashMap<>();
+        private boolean enviando;
+        private boolean latido;
+
+        Suscriptor(SseEmitter emisor) {
+            this.emisor = emisor;
+        }
+    }
+}
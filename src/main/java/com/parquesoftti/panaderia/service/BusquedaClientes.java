@@ -0,0 +1,126 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.config.CacheConfig;
+import com.parquesoftti.panaderia.dto.ClienteDTORespuesta;
+import com.parquesoftti.panaderia.dto.PaginaClientesDTO;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.util.TextoNormalizado;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// Búsqueda de clientes por nombre y teléfono para la caja (programa de fidelización). Compara
+// contra las columnas normalizadas de clientes (minúsculas y sin tildes; teléfono con solo
+// dígitos), que tienen índice: exacta, o por prefijo paginada con cursor. Las búsquedas recientes
+// quedan en una caché acotada que se vacía entera con cada alta, cambio o baja de cliente;
+// como la caché es transaccional, el vaciado se aplica al confirmar
+@Component
+public class BusquedaClientes {
+
+    public static final int LIMITE_MAXIMO_PAGINA = 100;
+
+    private final ClienteRepository clienteRepository;
+    private final Cache busquedas;
+
+    public BusquedaClientes(ClienteRepository clienteRepository, CacheManager cacheManager) {
+        this.clienteRepository = clienteRepository;
+        this.busquedas = cacheManager.getCache(CacheConfig.BUSQUEDAS_CLIENTES);
+    }
+
+    // Cliente por nombre sin distinguir mayúsculas ni tildes; con nombres repetidos, el más antiguo
+    public Optional<ClienteDTORespuesta> porNombre(String nombre) {
+        String normalizado = TextoNormalizado.normalizar(nombre);
+        if (normalizado.isEmpty()) {
+            return Optional.empty();
+        }
+        return buscarUno("nombre:" + normalizado, () -> clienteRepository
+                .findDTOByNombreNormalizado(normalizado, Limit.of(1)).stream().findFirst());
+    }
+
+    // Cliente por teléfono, sin importar espacios, guiones o paréntesis
+    public Optional<ClienteDTORespuesta> porTelefono(String telefono) {
+        String digitos = TextoNormalizado.digitos(telefono);
+        if (digitos == null) {
+            return Optional.empty();
+        }
+        return buscarUno("telefono:" + digitos, () -> clienteRepository.findDTOByTelefonoNormalizado(digitos));
+    }
+
+    // Clientes cuyo nombre (o teléfono, si el texto son solo dígitos y signos) empieza por el texto.
+    // Para la página siguiente se pasa el cursor que devolvió la anterior
+    public PaginaClientesDTO buscar(String texto, String cursor, int limite) {
+        if (limite < 1 || limite > LIMITE_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO_PAGINA);
+        }
+        String normalizado = TextoNormalizado.normalizar(texto);
+        if (normalizado.isEmpty()) {
+            throw new IllegalArgumentException("El texto de búsqueda es obligatorio");
+        }
+        String digitos = TextoNormalizado.digitos(normalizado);
+        boolean porTelefono = digitos != null && normalizado.chars().noneMatch(Character::isLetter);
+        String prefijo = porTelefono ? digitos : normalizado;
+        CursorCliente despuesDe = cursor == null || cursor.isBlank() ? new CursorCliente("", 0L) : decodificarCursor(cursor);
+
+        String clave = (porTelefono ? "prefijo-telefono:" : "prefijo-nombre:") + prefijo + "|" + despuesDe + "|" + limite;
+        PaginaClientesDTO pagina = busquedas.get(clave, PaginaClientesDTO.class);
+        if (pagina == null) {
+            // Se pide una fila de más para saber si hay página siguiente
+            List<ClienteRepository.ClienteEncontrado> filas = porTelefono
+                    ? clienteRepository.buscarPorTelefono(prefijo + "%", despuesDe.clave(), despuesDe.id(), Limit.of(limite + 1))
+                    : clienteRepository.buscarPorNombre(prefijo + "%", despuesDe.clave(), despuesDe.id(), Limit.of(limite + 1));
+            List<ClienteDTORespuesta> clientes = new ArrayList<>(Math.min(filas.size(), limite));
+            for (ClienteRepository.ClienteEncontrado fila : filas.subList(0, Math.min(filas.size(), limite))) {
+                clientes.add(new ClienteDTORespuesta(fila.getId(), fila.getNombre(), fila.getTelefono()));
+            }
+            String siguiente = filas.size() > limite ? codificarCursor(filas.get(limite - 1)) : null;
+            pagina = new PaginaClientesDTO(List.copyOf(clientes), siguiente);
+            busquedas.put(clave, pagina);
+        }
+        return pagina;
+    }
+
+    // Un cliente se creó, cambió o se eliminó: cualquier búsqueda guardada puede haber cambiado
+    public void invalidar() {
+        busquedas.clear();
+    }
+
+    private Optional<ClienteDTORespuesta> buscarUno(String clave, Supplier<Optional<ClienteDTORespuesta>> consulta) {
+        ClienteDTORespuesta cliente = busquedas.get(clave, ClienteDTORespuesta.class);
+        if (cliente != null) {
+            return Optional.of(cliente);
+        }
+        // Las búsquedas sin resultado no se guardan: el cliente puede darse de alta enseguida
+        Optional<ClienteDTORespuesta> encontrado = consulta.get();
+        encontrado.ifPresent(valor -> busquedas.put(clave, valor));
+        return encontrado;
+    }
+
+    private String codificarCursor(ClienteRepository.ClienteEncontrado fila) {
+        String valor = fila.getClave() + "|" + fila.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private CursorCliente decodificarCursor(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = valor.lastIndexOf('|');
+            if (separador < 0) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return new CursorCliente(valor.substring(0, separador), Long.parseLong(valor.substring(separador + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+    }
+
+    private record CursorCliente(String clave, long id) {
+    }
+}
@@ -0,0 +1,178 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.config.CacheConfig;
+import com.parquesoftti.panaderia.dto.NombreProductoDTO;
+import com.parquesoftti.panaderia.dto.ProductoDTORespuesta;
+import com.parquesoftti.panaderia.model.Producto;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Lecturas del catálogo de productos a través de caché. Nombre y precio se cachean
+// por separado del stock: el stock tiene vida corta y se invalida en cada venta, así que
+// nunca se sirve un stock que esta instancia ya sabe que cambió. registrarVenta no lee
+// de aquí; valida contra ReservaStock y la base
+@Component
+public class CatalogoProductos {
+
+    private static final String TODOS = "todos";
+
+    private final ProductoRepository productoRepository;
+    private final IndiceBusquedaProductos indiceBusqueda;
+    private final AvisosStock avisosStock;
+    private final EstadisticasVentas estadisticasVentas;
+    private final VersionesTablas versionesTablas;
+
+    private final Cache productos;
+    private final Cache productosPorNombre;
+    private final Cache catalogo;
+    private final Cache stockProductos;
+
+    public CatalogoProductos(ProductoRepository productoRepository, IndiceBusquedaProductos indiceBusqueda,
+                             AvisosStock avisosStock, EstadisticasVentas estadisticasVentas,
+                             VersionesTablas versionesTablas, CacheManager cacheManager) {
+        this.productoRepository = productoRepository;
+        this.indiceBusqueda = indiceBusqueda;
+        this.avisosStock = avisosStock;
+        this.estadisticasVentas = estadisticasVentas;
+        this.versionesTablas = versionesTablas;
+        this.productos = cacheManager.getCache(CacheConfig.PRODUCTOS);
+        this.productosPorNombre = cacheManager.getCache(CacheConfig.PRODUCTOS_POR_NOMBRE);
+        this.catalogo = cacheManager.getCache(CacheConfig.CATALOGO);
+        this.stockProductos = cacheManager.getCache(CacheConfig.STOCK_PRODUCTOS);
+    }
+
+    public Optional<ProductoDTORespuesta> buscarPorId(Long id) {
+        return buscarSinStock(id).map(producto -> {
+            producto.setStock(stocks(List.of(id)).get(id));
+            return producto;
+        });
+    }
+
+    // Nombre y precio desde la caché, sin consultar el stock (stock queda en null)
+    public Optional<ProductoDTORespuesta> buscarSinStock(Long id) {
+        DatosProducto datos = productos.get(id, DatosProducto.class);
+        if (datos == null) {
+            Optional<Producto> producto = productoRepository.findById(id);
+            if (producto.isEmpty()) {
+                return Optional.empty();
+            }
+            datos = guardar(producto.get());
+        }
+        return Optional.of(datos.conStock(null));
+    }
+
+    public Optional<ProductoDTORespuesta> buscarPorNombre(String nombre) {
+        Long id = productosPorNombre.get(nombre, Long.class);
+        if (id == null) {
+            Optional<Producto> producto = productoRepository.findByNombre(nombre);
+            if (producto.isEmpty()) {
+                return Optional.empty();
+            }
+            id = guardar(producto.get()).id();
+            productosPorNombre.put(nombre, id);
+        }
+        return buscarPorId(id);
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<ProductoDTORespuesta> listar() {
+        List<DatosProducto> todos = catalogo.get(TODOS, List.class);
+        if (todos == null) {
+            // Proyección de id, nombre y precio: el listado no necesita entidades Producto
+            todos = productoRepository.findAllNombres().stream().map(this::guardar).toList();
+            catalogo.put(TODOS, todos);
+        }
+
+        Map<Long, Integer> stocks = stocks(todos.stream().map(DatosProducto::id).toList());
+        List<ProductoDTORespuesta> resultado = new ArrayList<>(todos.size());
+        for (DatosProducto datos : todos) {
+            resultado.add(datos.conStock(stocks.get(datos.id())));
+        }
+        return resultado;
+    }
+
+    // Búsqueda parcial por nombre en el índice en memoria; solo el stock de los resultados va a la base
+    public List<ProductoDTORespuesta> buscar(String texto, int limite) {
+        List<IndiceBusquedaProductos.EntradaProducto> encontrados = indiceBusqueda.buscar(texto, limite);
+        if (encontrados.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> stocks = stocks(encontrados.stream().map(IndiceBusquedaProductos.EntradaProducto::id).toList());
+        List<ProductoDTORespuesta> resultado = new ArrayList<>(encontrados.size());
+        for (IndiceBusquedaProductos.EntradaProducto entrada : encontrados) {
+            resultado.add(new ProductoDTORespuesta(entrada.id(), entrada.nombre(), entrada.precio(), stocks.get(entrada.id())));
+        }
+        return resultado;
+    }
+
+    // Stock por id: lo que no está en caché se trae en una sola consulta
+    public Map<Long, Integer> stocks(List<Long> ids) {
+        Map<Long, Integer> stocks = new HashMap<>();
+        List<Long> faltantes = new ArrayList<>();
+        for (Long id : ids) {
+            Integer stock = stockProductos.get(id, Integer.class);
+            if (stock != null) {
+                stocks.put(id, stock);
+            } else {
+                faltantes.add(id);
+            }
+        }
+        if (!faltantes.isEmpty()) {
+            for (ProductoRepository.StockProducto fila : productoRepository.findStockByIdIn(faltantes)) {
+                stocks.put(fila.getId(), fila.getStock());
+                stockProductos.put(fila.getId(), fila.getStock());
+            }
+        }
+        return stocks;
+    }
+
+    // Un producto se creó, cambió o se eliminó. La versión de productos (ETag) se sube después de
+    // los evict, que en una transacción también se aplican al confirmar y en el mismo orden
+    public void invalidar(Long id) {
+        productos.evict(id);
+        stockProductos.evict(id);
+        productosPorNombre.clear();
+        catalogo.evict(TODOS);
+        indiceBusqueda.invalidar();
+        avisosStock.marcar(id);
+        estadisticasVentas.marcarStock(id);
+        versionesTablas.cambioProductos();
+    }
+
+    // Cambió solo el stock de un producto
+    public void invalidarStock(Long id) {
+        stockProductos.evict(id);
+        avisosStock.marcar(id);
+        estadisticasVentas.marcarStock(id);
+        versionesTablas.cambioProductos();
+    }
+
+    private DatosProducto guardar(Producto producto) {
+        DatosProducto datos = new DatosProducto(producto.getId(), producto.getNombre(),
+                producto.getPrecio() == null ? null : producto.getPrecio().doubleValue());
+        productos.put(producto.getId(), datos);
+        return datos;
+    }
+
+    private DatosProducto guardar(NombreProductoDTO producto) {
+        DatosProducto datos = new DatosProducto(producto.getId(), producto.getNombre(),
+                producto.getPrecio() == null ? null : producto.getPrecio().doubleValue());
+        productos.put(producto.getId(), datos);
+        return datos;
+    }
+
+    // Lo que se cachea de un producto: todo menos el stock
+    private record DatosProducto(Long id, String nombre, Double precio) {
+        ProductoDTORespuesta conStock(Integer stock) {
+            return new ProductoDTORespuesta(id, nombre, precio, stock);
+        }
+    }
+}
@@ -1,48 +1,62 @@
 package com.parquesoftti.panaderia.service;
 
 import com.parquesoftti.panaderia.dto.ClienteDTORespuesta;
+import com.parquesoftti.panaderia.dto.PaginaClientesDTO;
 import com.parquesoftti.panaderia.exception.ClienteNotFoundException;
+import com.parquesoftti.panaderia.exception.TelefonoDuplicadoException;
 import com.parquesoftti.panaderia.model.Cliente;
 import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.repository.VentaRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
+@Timed(value = "panaderia.servicio", histogram = true)
 public class ClienteService {
 
     private final ClienteRepository clienteRepository;
+    private final VentaRepository ventaRepository;
+    private final VersionesTablas versionesTablas;
+    private final BusquedaClientes busquedaClientes;
+    private final AgregadorVentasDiarias agregadorVentasDiarias;
+    private final EstadisticasVentas estadisticasVentas;
 
     @Transactional(readOnly = true)
     public List<ClienteDTORespuesta> getAllClients(){
-        return clienteRepository.findAll().stream()
-                .map(cliente -> new ClienteDTORespuesta(
-                        cliente.getId(),
-                        cliente.getNombre(),
-                        cliente.getTelefono()
-                ))
-                .collect(Collectors.toList());
+        return clienteRepository.findAllDTO();
     }
 
+    // Sin distinguir mayúsculas ni tildes; si hay varios clientes con el mismo nombre, el más antiguo
     @Transactional(readOnly = true)
     public ClienteDTORespuesta getClientByName(String name) {
-        Cliente cliente = clienteRepository.findByNombre(name)
+        return busquedaClientes.porNombre(name)
                 .orElseThrow(() -> new ClienteNotFoundException("Cliente no encontrado con nombre: " + name));
+    }
 
-        return new ClienteDTORespuesta(
-                cliente.getId(),
-                cliente.getNombre(),
-                cliente.getTelefono()
-        );
+    @Transactional(readOnly = true)
+    public ClienteDTORespuesta getClientByTelefono(String telefono) {
+        return busquedaClientes.porTelefono(telefono)
+                .orElseThrow(() -> new ClienteNotFoundException("Cliente no encontrado con teléfono: " + telefono));
+    }
+
+    // Búsqueda por prefijo del nombre o del teléfono, paginada con cursor
+    @Transactional(readOnly = true)
+    public PaginaClientesDTO buscarClientes(String texto, String cursor, int limite) {
+        return busquedaClientes.buscar(texto, cursor, limite);
     }
 
     @Transactional
     public ClienteDTORespuesta save(Cliente cliente){
+        validarTelefonoLibre(cliente.getTelefonoNormalizado(), null);
         Cliente guardado = clienteRepository.save(cliente);
+        versionesTablas.cambioClientes();
+        busquedaClientes.invalidar();
         return new ClienteDTORespuesta(
                 guardado.getId(),
                 guardado.getNombre(),
@@ -50,9 +64,17 @@ public class ClienteService {
         );
     }
 
+    // Borra el cliente junto con sus ventas; el resumen diario y las estadísticas las descuentan
+    // igual que una anulación, y solo si se confirma el borrado
     @Transactional
     public void deleteById(Long id){
+        agregadorVentasDiarias.descontar(ventaRepository.findResumenByClienteId(id));
+        ventaRepository.findMovimientosByClienteIdDesde(id, LocalDateTime.now().minusDays(1))
+                .forEach(venta -> estadisticasVentas.registrar(venta.getFecha(), venta.getProductoId(), -venta.getCantidad()));
+        ventaRepository.deleteByClienteId(id);
         clienteRepository.deleteById(id);
+        versionesTablas.cambioClientes();
+        busquedaClientes.invalidar();
     }
 
     @Transactional(readOnly = true)
@@ -71,10 +93,13 @@ public class ClienteService {
         Cliente tmp = clienteRepository.findById(id)
                 .orElseThrow(() -> new ClienteNotFoundException("Cliente no encontrado con ID: " + id));
 
+        validarTelefonoLibre(clienteActualizado.getTelefonoNormalizado(), id);
         tmp.setNombre(clienteActualizado.getNombre());
         tmp.setTelefono(clienteActualizado.getTelefono());
 
         Cliente guardado = clienteRepository.save(tmp);
+        versionesTablas.cambioClientes();
+        busquedaClientes.invalidar();
 
         return new ClienteDTORespuesta(
                 guardado.getId(),
@@ -82,4 +107,17 @@ public class ClienteService {
                 guardado.getTelefono()
         );
     }
-}
\ No newline at end of file
+
+    // El teléfono (solo dígitos) no puede ser de otro cliente; el índice único lo garantiza igual,
+    // esto es para responder con un error claro
+    private void validarTelefonoLibre(String telefono, Long id) {
+        if (telefono == null) {
+            return;
+        }
+        clienteRepository.findIdByTelefonoNormalizado(telefono)
+                .filter(otro -> !otro.equals(id))
+                .ifPresent(otro -> {
+                    throw new TelefonoDuplicadoException("El teléfono ya es del cliente con ID: " + otro);
+                });
+    }
+}
@@ -0,0 +1,131 @@
+package com.parquesoftti.panaderia.service;
+
+import java.util.Arrays;
+
+// Unidades por id de producto guardadas en dos arreglos de long (direccionamiento abierto con
+// sondeo lineal), sin un Long y un nodo de HashMap por entrada. Las entradas que vuelven a 0 se
+// quitan, así el tamaño sigue a los productos con ventas. No es seguro entre hilos: quien lo usa
+// sincroniza. El id 0 marca una posición libre; los ids de producto empiezan en 1
+final class ContadorProductos {
+
+    interface Visitante {
+        void visitar(long productoId, long unidades);
+    }
+
+    private long[] claves;
+    private long[] valores;
+    private int mascara;
+    private int tamano;
+
+    ContadorProductos() {
+        this(16);
+    }
+
+    ContadorProductos(int capacidad) {
+        int potencia = Integer.highestOneBit(Math.max(capacidad, 8) - 1) << 1;
+        claves = new long[potencia];
+        valores = new long[potencia];
+        mascara = potencia - 1;
+    }
+
+    long get(long productoId) {
+        for (int i = indice(productoId); claves[i] != 0; i = (i + 1) & mascara) {
+            if (claves[i] == productoId) {
+                return valores[i];
+            }
+        }
+        return 0;
+    }
+
+    void sumar(long productoId, long unidades) {
+        if (productoId == 0) {
+            throw new IllegalArgumentException("El id de producto 0 no es válido");
+        }
+        if (unidades == 0) {
+            return;
+        }
+        int i = indice(productoId);
+        for (; claves[i] != 0; i = (i + 1) & mascara) {
+            if (claves[i] == productoId) {
+                valores[i] += unidades;
+                if (valores[i] == 0) {
+                    quitar(i);
+                }
+                return;
+            }
+        }
+        claves[i] = productoId;
+        valores[i] = unidades;
+        if (++tamano * 2 > claves.length) {
+            crecer();
+        }
+    }
+
+    // Suma (signo 1) o resta (signo -1) todas las entradas de otro contador
+    void sumar(ContadorProductos otro, int signo) {
+        otro.recorrer((productoId, unidades) -> sumar(productoId, signo * unidades));
+    }
+
+    void quitar(long productoId) {
+        for (int i = indice(productoId); claves[i] != 0; i = (i + 1) & mascara) {
+            if (claves[i] == productoId) {
+                quitar(i);
+                return;
+            }
+        }
+    }
+
+    void recorrer(Visitante visitante) {
+        for (int i = 0; i < claves.length; i++) {
+            if (claves[i] != 0) {
+                visitante.visitar(claves[i], valores[i]);
+            }
+        }
+    }
+
+    int tamano() {
+        return tamano;
+    }
+
+    void vaciar() {
+        Arrays.fill(claves, 0);
+        Arrays.fill(valores, 0);
+        tamano = 0;
+    }
+
+    // Borra la posición y corre hacia atrás las entradas siguientes que quedarían inalcanzables
+    private void quitar(int libre) {
+        int siguiente = (libre + 1) & mascara;
+        while (claves[siguiente] != 0) {
+            int ideal = indice(claves[siguiente]);
+            if (((siguiente - ideal) & mascara) >= ((siguiente - libre) & mascara)) {
+                claves[libre] = claves[siguiente];
+                valores[libre] = valores[siguiente];
+                libre = siguiente;
+            }
+            siguiente = (siguiente + 1) & mascara;
+        }
+        claves[libre] = 0;
+        valores[libre] = 0;
+        tamano--;
+    }
+
+    private void crecer() {
+        long[] clavesViejas = claves;
+        long[] valoresViejos = valores;
+        claves = new long[clavesViejas.length * 2];
+        valores = new long[clavesViejas.length * 2];
+        mascara = claves.length - 1;
+        tamano = 0;
+        for (int i = 0; i < clavesViejas.length; i++) {
+            if (clavesViejas[i] != 0) {
+                sumar(clavesViejas[i], valoresViejos[i]);
+            }
+        }
+    }
+
+    private int indice(long productoId) {
+        long mezcla = productoId * 0x9E3779B97F4A7C15L;
+        return (int) (mezcla ^ (mezcla >>> 32)) & mascara;
+    }
+}
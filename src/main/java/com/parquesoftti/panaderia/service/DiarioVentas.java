@@ -0,0 +1,512 @@
+package com.parquesoftti.panaderia.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.parquesoftti.panaderia.dto.ProductoDTORespuesta;
+import com.parquesoftti.panaderia.dto.VentaDTO;
+import com.parquesoftti.panaderia.dto.VentaDTORespuesta;
+import com.parquesoftti.panaderia.exception.ClienteNotFoundException;
+import com.parquesoftti.panaderia.exception.ProductoNotFoundException;
+import com.parquesoftti.panaderia.exception.StockInsuficienteException;
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.model.Producto;
+import com.parquesoftti.panaderia.model.Venta;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import com.parquesoftti.panaderia.repository.VentaRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Registro diferido de ventas (write-behind). La venta se valida contra ReservaStock, que aquí
+// es la autoridad, se escribe en un diario local con fsync agrupado y se responde enseguida.
+// Un hilo de fondo pasa las entradas a la tabla ventas en lotes (un INSERT en batch y una resta
+// de stock por producto por transacción). Al arrancar se vuelca lo que quedó en el diario sin
+// pasar a la base; las entradas que ya estaban guardadas se reconocen por su id y se saltan.
+// Se activa con panaderia.diario.habilitado=true
+@Component
+@ConditionalOnProperty(name = "panaderia.diario.habilitado", havingValue = "true")
+public class DiarioVentas {
+
+    private static final Logger log = LoggerFactory.getLogger(DiarioVentas.class);
+
+    private static final String ARCHIVO = "ventas.diario";
+    private static final String RECHAZADAS = "ventas-rechazadas.log";
+    private static final int IDS_POR_BLOQUE = 50;
+    private static final Duration ESPERA_INICIAL = Duration.ofMillis(100);
+    private static final Duration ESPERA_MAXIMA = Duration.ofSeconds(5);
+
+    private final VentaRepository ventaRepository;
+    private final ProductoRepository productoRepository;
+    private final ClienteRepository clienteRepository;
+    private final ReservaStock reservaStock;
+    private final CatalogoProductos catalogoProductos;
+    private final AgregadorVentasDiarias agregadorVentasDiarias;
+    private final EstadisticasVentas estadisticasVentas;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Path directorio;
+    private final boolean esperarFsync;
+    private final int tamanoLote;
+    private final Duration intervalo;
+    private final long tamanoMaximo;
+
+    // Nombres de clientes ya vistos, para no ir a la base en cada venta
+    private final Cache<Long, String> clientes = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+
+    private final LinkedBlockingQueue<EntradaDiario> porVolcar = new LinkedBlockingQueue<>();
+
+    // Escritura: archivo, secuencia e ids se tocan siempre con este lock tomado
+    private final ReentrantLock escritura = new ReentrantLock();
+    private final ByteBuffer registro = ByteBuffer.allocate(EntradaDiario.TAMANO);
+    private FileChannel canal;
+    private long ultimaSecuencia;
+    private long siguienteId;
+    private long finBloqueIds;
+
+    // fsync agrupado: cada escritor espera a que sincronizadoHasta alcance su secuencia
+    private final ReentrantLock sincronizacion = new ReentrantLock();
+    private final Condition sincronizado = sincronizacion.newCondition();
+    private final Condition hayEscrituras = sincronizacion.newCondition();
+    private long escritoHasta;
+    private long sincronizadoHasta;
+
+    // Entradas de este arranque ya guardadas en la base (solo las toca el hilo de volcado)
+    private volatile long volcadas;
+    private volatile boolean activo;
+    private Thread sincronizador;
+    private Thread volcador;
+
+    public DiarioVentas(VentaRepository ventaRepository, ProductoRepository productoRepository,
+                        ClienteRepository clienteRepository, ReservaStock reservaStock,
+                        CatalogoProductos catalogoProductos, AgregadorVentasDiarias agregadorVentasDiarias,
+                        EstadisticasVentas estadisticasVentas, TransactionTemplate transactionTemplate,
+                        @Value("${panaderia.diario.directorio:diario}") Path directorio,
+                        @Value("${panaderia.diario.esperar-fsync:true}") boolean esperarFsync,
+                        @Value("${panaderia.diario.lote:500}") int tamanoLote,
+                        @Value("${panaderia.diario.intervalo:5ms}") Duration intervalo,
+                        @Value("${panaderia.diario.tamano-maximo:16777216}") long tamanoMaximo) {
+        this.ventaRepository = ventaRepository;
+        this.productoRepository = productoRepository;
+        this.clienteRepository = clienteRepository;
+        this.reservaStock = reservaStock;
+        this.catalogoProductos = catalogoProductos;
+        this.agregadorVentasDiarias = agregadorVentasDiarias;
+        this.estadisticasVentas = estadisticasVentas;
+        this.transactionTemplate = transactionTemplate;
+        this.directorio = directorio;
+        this.esperarFsync = esperarFsync;
+        this.tamanoLote = tamanoLote;
+        this.intervalo = intervalo;
+        this.tamanoMaximo = tamanoMaximo;
+    }
+
+    // Antes de aceptar ventas nuevas se pasa a la base lo que quedó del arranque anterior
+    @PostConstruct
+    public void abrir() throws IOException {
+        Files.createDirectories(directorio);
+        Path archivo = directorio.resolve(ARCHIVO);
+        List<EntradaDiario> pendientes = leer(archivo);
+        if (!pendientes.isEmpty()) {
+            log.info("Diario de ventas: recuperando {} entradas sin volcar", pendientes.size());
+            for (int desde = 0; desde < pendientes.size(); desde += tamanoLote) {
+                guardarRecuperadas(pendientes.subList(desde, Math.min(desde + tamanoLote, pendientes.size())));
+            }
+        }
+
+        canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        canal.truncate(0);
+        canal.force(true);
+
+        activo = true;
+        sincronizador = Thread.ofPlatform().name("diario-ventas-fsync").daemon().start(this::sincronizar);
+        volcador = Thread.ofPlatform().name("diario-ventas-volcado").daemon().start(this::volcar);
+    }
+
+    // Deja de aceptar ventas, vuelca lo pendiente y cierra el archivo
+    @PreDestroy
+    public void cerrar() throws Exception {
+        // Los dos hilos terminan solos cuando no queda nada pendiente
+        activo = false;
+        volcador.join();
+        sincronizador.join();
+        escritura.lock();
+        try {
+            canal.force(false);
+            canal.close();
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    // Valida, reserva el stock en memoria y escribe la venta en el diario. Con esperarFsync
+    // vuelve cuando el registro está en disco; el INSERT en ventas llega unos milisegundos después
+    public VentaDTORespuesta registrar(VentaDTO ventaDTO) {
+        if (!activo) {
+            throw new IllegalStateException("El diario de ventas está cerrado");
+        }
+        if (ventaDTO.getCantidad() <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor que cero");
+        }
+        Long productoId = ventaDTO.getProductoId();
+        int cantidad = ventaDTO.getCantidad();
+        String nombreCliente = nombreCliente(ventaDTO.getClienteId());
+        ProductoDTORespuesta producto = catalogoProductos.buscarSinStock(productoId)
+                .orElseThrow(() -> new ProductoNotFoundException("Producto no encontrado con ID: " + productoId));
+
+        if (!reservaStock.reservarComprometida(productoId, cantidad)) {
+            throw new StockInsuficienteException("No hay suficiente stock");
+        }
+
+        EntradaDiario entrada;
+        try {
+            entrada = escribir(ventaDTO.getClienteId(), productoId, cantidad,
+                    producto.getPrecio() == null ? null : BigDecimal.valueOf(producto.getPrecio()));
+        } catch (RuntimeException e) {
+            reservaStock.volcado(productoId, cantidad);
+            reservaStock.liberar(productoId, cantidad);
+            throw e;
+        }
+        if (esperarFsync) {
+            esperarDisco(entrada.secuencia());
+        }
+        porVolcar.add(entrada);
+
+        return new VentaDTORespuesta(entrada.ventaId(), cantidad, entrada.fechaVenta(),
+                ventaDTO.getClienteId(), nombreCliente, productoId, producto.getNombre());
+    }
+
+    // Entradas escritas que todavía no están en la tabla ventas
+    public int pendientes() {
+        return porVolcar.size();
+    }
+
+    private String nombreCliente(Long clienteId) {
+        String nombre = clientes.getIfPresent(clienteId);
+        if (nombre == null) {
+            nombre = clienteRepository.findById(clienteId)
+                    .map(Cliente::getNombre)
+                    .orElseThrow(() -> new ClienteNotFoundException("Cliente no encontrado con ID: " + clienteId));
+            clientes.put(clienteId, nombre);
+        }
+        return nombre;
+    }
+
+    private EntradaDiario escribir(Long clienteId, Long productoId, int cantidad, BigDecimal precio) {
+        escritura.lock();
+        try {
+            if (siguienteId == finBloqueIds) {
+                siguienteId = ventaRepository.reservarBloqueIds();
+                finBloqueIds = siguienteId + IDS_POR_BLOQUE;
+            }
+            // Con la precisión de la columna, para que la respuesta coincida con la venta que se guarda
+            EntradaDiario entrada = new EntradaDiario(ultimaSecuencia + 1, siguienteId, clienteId, productoId,
+                    cantidad, LocalDateTime.now().truncatedTo(ChronoUnit.MICROS), precio);
+            registro.clear();
+            entrada.escribir(registro);
+            registro.flip();
+            while (registro.hasRemaining()) {
+                canal.write(registro);
+            }
+            siguienteId++;
+            ultimaSecuencia = entrada.secuencia();
+            avisarEscritura(entrada.secuencia());
+            return entrada;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir en el diario de ventas", e);
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    private void avisarEscritura(long secuencia) {
+        sincronizacion.lock();
+        try {
+            escritoHasta = secuencia;
+            hayEscrituras.signal();
+        } finally {
+            sincronizacion.unlock();
+        }
+    }
+
+    private void esperarDisco(long secuencia) {
+        sincronizacion.lock();
+        try {
+            while (sincronizadoHasta < secuencia) {
+                sincronizado.awaitUninterruptibly();
+            }
+        } finally {
+            sincronizacion.unlock();
+        }
+    }
+
+    // Un solo fsync cubre todo lo escrito desde el anterior
+    private void sincronizar() {
+        while (true) {
+            long hasta;
+            sincronizacion.lock();
+            try {
+                while (escritoHasta == sincronizadoHasta) {
+                    if (!activo) {
+                        return;
+                    }
+                    hayEscrituras.await(intervalo.toNanos(), TimeUnit.NANOSECONDS);
+                }
+                hasta = escritoHasta;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                sincronizacion.unlock();
+            }
+
+            try {
+                canal.force(false);
+            } catch (IOException e) {
+                log.error("Falló el fsync del diario de ventas", e);
+                continue;
+            }
+
+            sincronizacion.lock();
+            try {
+                sincronizadoHasta = hasta;
+                sincronizado.signalAll();
+            } finally {
+                sincronizacion.unlock();
+            }
+        }
+    }
+
+    // Junta entradas hasta completar un lote o cumplir el intervalo y las guarda en una transacción
+    private void volcar() {
+        List<EntradaDiario> lote = new ArrayList<>(tamanoLote);
+        while (activo || !porVolcar.isEmpty()) {
+            try {
+                EntradaDiario primera = porVolcar.poll(intervalo.toNanos(), TimeUnit.NANOSECONDS);
+                if (primera == null) {
+                    continue;
+                }
+                lote.add(primera);
+                porVolcar.drainTo(lote, tamanoLote - 1);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (!lote.isEmpty()) {
+                if (!guardarLote(lote)) {
+                    return;
+                }
+                lote.clear();
+            }
+        }
+    }
+
+    // Devuelve false si se dejó de intentar al cerrar: lo que no llegó a la base sigue en el archivo
+    // (volcadas no lo cuenta, así que no se trunca) y se vuelca en el próximo arranque
+    private boolean guardarLote(List<EntradaDiario> lote) {
+        try {
+            if (!guardarReintentando(lote)) {
+                return false;
+            }
+        } catch (DataIntegrityViolationException e) {
+            // Se reintenta de a una para aislar la que falla (por ejemplo, un cliente borrado)
+            log.warn("Falló el volcado de {} ventas del diario, se reintenta una por una", lote.size(), e);
+            for (EntradaDiario entrada : lote) {
+                try {
+                    if (!guardarReintentando(List.of(entrada))) {
+                        return false;
+                    }
+                } catch (DataIntegrityViolationException error) {
+                    descartar(entrada, error);
+                }
+            }
+        }
+        volcadas += lote.size();
+        compactarSiCorresponde();
+        return true;
+    }
+
+    // Solo una restricción violada dice algo de la venta. Lo demás (conexión caída, pool agotado,
+    // bloqueos, timeouts) se reintenta con espera creciente sin sacarla del diario
+    private boolean guardarReintentando(List<EntradaDiario> lote) {
+        long espera = ESPERA_INICIAL.toMillis();
+        while (true) {
+            try {
+                transactionTemplate.executeWithoutResult(estado -> guardar(lote, true));
+                return true;
+            } catch (DataIntegrityViolationException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                if (!activo) {
+                    log.error("No se pudieron volcar {} ventas al cerrar, quedan en el diario", lote.size(), e);
+                    return false;
+                }
+                log.warn("Falló el volcado de {} ventas del diario, se reintenta en {} ms", lote.size(), espera, e);
+                try {
+                    Thread.sleep(espera);
+                } catch (InterruptedException interrumpido) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+                espera = Math.min(espera * 2, ESPERA_MAXIMA.toMillis());
+            }
+        }
+    }
+
+    // Inserta las ventas del lote, resta el stock por producto y anota el resumen diario
+    private void guardar(List<EntradaDiario> lote, boolean comprometidas) {
+        List<Venta> ventas = new ArrayList<>(lote.size());
+        Map<Long, Integer> porProducto = new LinkedHashMap<>();
+        for (EntradaDiario entrada : lote) {
+            ventas.add(aVenta(entrada));
+            porProducto.merge(entrada.productoId(), entrada.cantidad(), Integer::sum);
+        }
+        ventaRepository.insertarConId(ventas);
+        productoRepository.restarStockEnLote(new ArrayList<>(porProducto.keySet()), new ArrayList<>(porProducto.values()));
+
+        for (EntradaDiario entrada : lote) {
+            BigDecimal precio = entrada.precioUnitario() == null ? BigDecimal.ZERO : entrada.precioUnitario();
+            agregadorVentasDiarias.registrar(entrada.fechaVenta().toLocalDate(), entrada.productoId(),
+                    entrada.cantidad(), precio.multiply(BigDecimal.valueOf(entrada.cantidad())));
+            estadisticasVentas.registrar(entrada.fechaVenta(), entrada.productoId(), entrada.cantidad());
+        }
+        // Dentro de la transacción: la caché, los avisos y el ETag se difieren solos hasta el commit.
+        // Desde afterCommit ya no se podrían registrar (Spring no corre las sincronizaciones nuevas)
+        porProducto.keySet().forEach(catalogoProductos::invalidarStock);
+        if (comprometidas) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    porProducto.forEach(reservaStock::volcado);
+                }
+            });
+        }
+    }
+
+    // Al arrancar: se saltan las entradas cuyo id ya está en ventas (el volcado se confirmó
+    // pero el diario no llegó a truncarse)
+    private void guardarRecuperadas(List<EntradaDiario> lote) {
+        Set<Long> existentes = new HashSet<>(ventaRepository.findIdsExistentes(
+                lote.stream().map(EntradaDiario::ventaId).toList()));
+        List<EntradaDiario> faltantes = lote.stream().filter(e -> !existentes.contains(e.ventaId())).toList();
+        if (faltantes.isEmpty()) {
+            return;
+        }
+        // Un error que no sea de restricción corta el arranque con el archivo intacto
+        try {
+            transactionTemplate.executeWithoutResult(estado -> guardar(faltantes, false));
+        } catch (DataIntegrityViolationException e) {
+            for (EntradaDiario entrada : faltantes) {
+                try {
+                    transactionTemplate.executeWithoutResult(estado -> guardar(List.of(entrada), false));
+                } catch (DataIntegrityViolationException error) {
+                    anotarRechazada(entrada, error);
+                }
+            }
+        }
+    }
+
+    // Una venta ya confirmada al cliente que la base no acepta: se devuelve el stock y se deja
+    // constancia en ventas-rechazadas.log para conciliarla a mano
+    private void descartar(EntradaDiario entrada, RuntimeException error) {
+        reservaStock.volcado(entrada.productoId(), entrada.cantidad());
+        reservaStock.liberar(entrada.productoId(), entrada.cantidad());
+        anotarRechazada(entrada, error);
+    }
+
+    private void anotarRechazada(EntradaDiario entrada, RuntimeException error) {
+        log.error("Venta {} del diario rechazada por la base: {}", entrada.ventaId(), error.getMessage());
+        String linea = entrada + " -> " + error.getMessage() + System.lineSeparator();
+        try {
+            Files.writeString(directorio.resolve(RECHAZADAS), linea, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.error("No se pudo anotar la venta rechazada {}", entrada.ventaId(), e);
+        }
+    }
+
+    // Cuando todo lo escrito ya está en la base y el archivo creció, se vacía
+    private void compactarSiCorresponde() {
+        if (!escritura.tryLock()) {
+            return;
+        }
+        try {
+            // La secuencia arranca en cero con el archivo vacío: coincide con las entradas escritas
+            if (volcadas == ultimaSecuencia && canal.size() >= tamanoMaximo) {
+                canal.truncate(0);
+                canal.force(true);
+            }
+        } catch (IOException e) {
+            log.warn("No se pudo compactar el diario de ventas", e);
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    // Lee las entradas válidas del archivo; se detiene en el primer registro incompleto o dañado
+    static List<EntradaDiario> leer(Path archivo) throws IOException {
+        List<EntradaDiario> entradas = new ArrayList<>();
+        if (!Files.exists(archivo)) {
+            return entradas;
+        }
+        ByteBuffer contenido = ByteBuffer.wrap(Files.readAllBytes(archivo));
+        while (contenido.remaining() >= EntradaDiario.TAMANO) {
+            EntradaDiario entrada = EntradaDiario.leer(contenido);
+            if (entrada == null) {
+                log.warn("Diario de ventas: registro dañado en la posición {}, se ignora el resto",
+                        contenido.position() - EntradaDiario.TAMANO);
+                break;
+            }
+            entradas.add(entrada);
+        }
+        return entradas;
+    }
+
+    private static Venta aVenta(EntradaDiario entrada) {
+        Cliente cliente = new Cliente();
+        cliente.setId(entrada.clienteId());
+        Producto producto = new Producto();
+        producto.setId(entrada.productoId());
+
+        Venta venta = new Venta();
+        venta.setId(entrada.ventaId());
+        venta.setCliente(cliente);
+        venta.setProducto(producto);
+        venta.setCantidad(entrada.cantidad());
+        venta.setFechaVenta(entrada.fechaVenta());
+        venta.setPrecioUnitario(entrada.precioUnitario());
+        return venta;
+    }
+}
@@ -0,0 +1,60 @@
+package com.parquesoftti.panaderia.service;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32;
+
+// Una venta tal como queda escrita en el diario: registro binario de tamaño fijo con un CRC
+// al final, para reconocer un registro a medio escribir si el proceso se cayó mientras escribía
+record EntradaDiario(long secuencia, long ventaId, long clienteId, long productoId, int cantidad,
+                     LocalDateTime fechaVenta, BigDecimal precioUnitario) {
+
+    static final int TAMANO = 8 * 6 + 4 * 3;
+
+    private static final int SIN_PRECIO = -1;
+
+    void escribir(ByteBuffer destino) {
+        int inicio = destino.position();
+        destino.putLong(secuencia)
+                .putLong(ventaId)
+                .putLong(clienteId)
+                .putLong(productoId)
+                .putInt(cantidad)
+                .putLong(fechaVenta.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + fechaVenta.getNano() / 1_000);
+        if (precioUnitario == null) {
+            destino.putLong(0).putInt(SIN_PRECIO);
+        } else {
+            destino.putLong(precioUnitario.unscaledValue().longValueExact()).putInt(precioUnitario.scale());
+        }
+        destino.putInt(crc(destino, inicio));
+    }
+
+    // Lee el registro siguiente; null si el CRC no cuadra (registro incompleto o dañado)
+    static EntradaDiario leer(ByteBuffer origen) {
+        int inicio = origen.position();
+        long secuencia = origen.getLong();
+        long ventaId = origen.getLong();
+        long clienteId = origen.getLong();
+        long productoId = origen.getLong();
+        int cantidad = origen.getInt();
+        long micros = origen.getLong();
+        long precioSinEscala = origen.getLong();
+        int escala = origen.getInt();
+        if (origen.getInt() != crc(origen, inicio)) {
+            return null;
+        }
+        LocalDateTime fecha = LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+        BigDecimal precio = escala == SIN_PRECIO ? null : new BigDecimal(BigInteger.valueOf(precioSinEscala), escala);
+        return new EntradaDiario(secuencia, ventaId, clienteId, productoId, cantidad, fecha, precio);
+    }
+
+    private static int crc(ByteBuffer buffer, int inicio) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(inicio).limit(inicio + TAMANO - 4));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,330 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.NombreProductoDTO;
+import com.parquesoftti.panaderia.dto.ProductoDTORespuesta;
+import com.parquesoftti.panaderia.dto.TopProductoDTO;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import com.parquesoftti.panaderia.repository.VentaRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// Más vendidos de la última hora y de las últimas 24 horas, y productos con poco stock, en
+// memoria. Cada venta confirmada (y cada anulación, en negativo) suma en la ranura de su minuto
+// dentro de un anillo de 1440 minutos y en los totales de las dos ventanas; al avanzar el reloj,
+// las ranuras que salen de una ventana se restan de su total. Cada intervalo se arma el top con
+// un montículo acotado y se publica como lista inmutable, igual que los productos bajo el mínimo:
+// GET /api/ventas/top y GET /api/productos/bajo-stock solo leen esa foto, sin ir a la base.
+// Al arrancar se reconstruye con las ventas de las últimas 24 horas. Es @Lazy para que con el
+// perfil rapido esa lectura no la haga el arranque sino la primera petición que la necesita; con
+// el perfil por defecto se crea igual al arrancar, con los servicios que la usan
+@Component
+@Lazy
+public class EstadisticasVentas {
+
+    private static final Logger log = LoggerFactory.getLogger(EstadisticasVentas.class);
+
+    public static final String HORA = "1h";
+    public static final String DIA = "24h";
+
+    private static final int MINUTOS_HORA = 60;
+    private static final int MINUTOS_DIA = 1440;
+
+    private static final Comparator<TopProductoDTO> POR_UNIDADES =
+            Comparator.comparingLong(TopProductoDTO::getUnidades).reversed().thenComparing(TopProductoDTO::getId);
+
+    private final VentaRepository ventaRepository;
+    private final ProductoRepository productoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanoTop;
+    private final int stockMinimo;
+
+    // Anillo de minutos y totales por ventana; protegidos por el lock de este objeto
+    private final ContadorProductos[] ranuras = new ContadorProductos[MINUTOS_DIA];
+    private final ContadorProductos totalesHora = new ContadorProductos();
+    private final ContadorProductos totalesDia = new ContadorProductos();
+    private long minutoActual;
+    private boolean cambiado;
+
+    // Productos cuyo stock cambió desde la última actualización
+    private final Set<Long> stockMarcado = ConcurrentHashMap.newKeySet();
+    // Productos en o bajo el mínimo (solo lo toca actualizar, con el lock tomado)
+    private final Map<Long, ProductoDTORespuesta> bajos = new HashMap<>();
+
+    private volatile List<TopProductoDTO> topHora = List.of();
+    private volatile List<TopProductoDTO> topDia = List.of();
+    private volatile List<ProductoDTORespuesta> bajoStock = List.of();
+
+    public EstadisticasVentas(VentaRepository ventaRepository, ProductoRepository productoRepository,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${panaderia.estadisticas.top:100}") int tamanoTop,
+                              @Value("${panaderia.estadisticas.stock-minimo:10}") int stockMinimo) {
+        this.ventaRepository = ventaRepository;
+        this.productoRepository = productoRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.tamanoTop = tamanoTop;
+        this.stockMinimo = stockMinimo;
+        for (int i = 0; i < MINUTOS_DIA; i++) {
+            ranuras[i] = new ContadorProductos();
+        }
+        empezarEn(minuto(LocalDateTime.now()));
+    }
+
+    // Carga las ventas de las últimas 24 horas y los productos que ya están bajo el mínimo
+    @PostConstruct
+    public void reconstruir() {
+        LocalDateTime ahora = LocalDateTime.now();
+        synchronized (this) {
+            empezarEn(minuto(ahora));
+            transactionTemplate.executeWithoutResult(estado -> {
+                try (Stream<VentaRepository.MovimientoVenta> movimientos =
+                             ventaRepository.streamMovimientosDesde(ahora.minusMinutes(MINUTOS_DIA - 1))) {
+                    movimientos.forEach(movimiento -> sumar(minuto(movimiento.getFecha()),
+                            movimiento.getProductoId(), movimiento.getCantidad()));
+                }
+            });
+            bajos.clear();
+            anotarBajos(productoRepository.findStockHasta(stockMinimo));
+            publicar();
+        }
+        log.info("Estadísticas de ventas: {} productos vendidos en 24 h, {} bajo el mínimo de stock",
+                totalesDia.tamano(), bajoStock.size());
+    }
+
+    // Anota un movimiento (unidades negativas para anular). Dentro de una transacción
+    // solo se cuenta si esta se confirma
+    public void registrar(LocalDateTime fecha, Long productoId, long unidades) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    anotar(fecha, productoId, unidades);
+                }
+            });
+        } else {
+            anotar(fecha, productoId, unidades);
+        }
+    }
+
+    // El stock de un producto cambió (o el producto se creó o se eliminó)
+    public void marcarStock(Long productoId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stockMarcado.add(productoId);
+                }
+            });
+        } else {
+            stockMarcado.add(productoId);
+        }
+    }
+
+    // Los más vendidos de la ventana ("1h" o "24h"), de mayor a menor
+    public List<TopProductoDTO> top(String ventana, int limite) {
+        if (limite < 1 || limite > tamanoTop) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + tamanoTop);
+        }
+        List<TopProductoDTO> top = switch (ventana) {
+            case HORA -> topHora;
+            case DIA -> topDia;
+            default -> throw new IllegalArgumentException("Ventana no válida: " + ventana + " (1h o 24h)");
+        };
+        return top.subList(0, Math.min(limite, top.size()));
+    }
+
+    // Productos con stock en o bajo el mínimo, del que menos tiene al que más
+    public List<ProductoDTORespuesta> bajoStock() {
+        return bajoStock;
+    }
+
+    // Avanza las ventanas, revisa el stock de los productos marcados y publica la foto nueva
+    @Scheduled(fixedDelayString = "${panaderia.estadisticas.intervalo-ms:1000}")
+    public void actualizar() {
+        avanzar(LocalDateTime.now());
+        List<Long> ids = new ArrayList<>(stockMarcado);
+        stockMarcado.removeAll(ids);
+
+        synchronized (this) {
+            if (!ids.isEmpty()) {
+                revisarStock(ids);
+            }
+            if (cambiado) {
+                publicar();
+            }
+        }
+    }
+
+    // Mueve el reloj de las ventanas hasta 'ahora': lo que sale de cada ventana se resta de su total
+    synchronized void avanzar(LocalDateTime ahora) {
+        long nuevo = minuto(ahora);
+        if (nuevo <= minutoActual) {
+            return;
+        }
+        if (nuevo - minutoActual >= MINUTOS_DIA) {
+            empezarEn(nuevo);
+            cambiado = true;
+            return;
+        }
+        for (long m = minutoActual + 1; m <= nuevo; m++) {
+            int saleDeHora = ranura(m - MINUTOS_HORA);
+            if (ranuras[saleDeHora].tamano() > 0) {
+                totalesHora.sumar(ranuras[saleDeHora], -1);
+                cambiado = true;
+            }
+            // La ranura de m todavía guarda el minuto m - 1440, que sale del día
+            int saleDelDia = ranura(m);
+            if (ranuras[saleDelDia].tamano() > 0) {
+                totalesDia.sumar(ranuras[saleDelDia], -1);
+                ranuras[saleDelDia].vaciar();
+                cambiado = true;
+            }
+        }
+        minutoActual = nuevo;
+    }
+
+    private void anotar(LocalDateTime fecha, Long productoId, long unidades) {
+        avanzar(LocalDateTime.now());
+        synchronized (this) {
+            sumar(minuto(fecha), productoId, unidades);
+        }
+    }
+
+    // Llamar con el lock tomado
+    private void sumar(long minuto, Long productoId, long unidades) {
+        // Una venta con fecha futura (reloj de una caja adelantado) cuenta en el minuto actual
+        if (minuto > minutoActual) {
+            minuto = minutoActual;
+        }
+        if (minuto <= minutoActual - MINUTOS_DIA || productoId == null) {
+            return;
+        }
+        int i = ranura(minuto);
+        ranuras[i].sumar(productoId, unidades);
+        totalesDia.sumar(productoId, unidades);
+        if (minuto > minutoActual - MINUTOS_HORA) {
+            totalesHora.sumar(productoId, unidades);
+        }
+        cambiado = true;
+    }
+
+    // Llamar con el lock tomado. Un producto que ya no existe se quita de todos los contadores
+    private void revisarStock(List<Long> ids) {
+        Map<Long, ProductoRepository.StockProducto> stocks = new HashMap<>();
+        productoRepository.findStockByIdIn(ids).forEach(fila -> stocks.put(fila.getId(), fila));
+        List<ProductoRepository.StockProducto> bajoMinimo = new ArrayList<>();
+        for (Long id : ids) {
+            ProductoRepository.StockProducto fila = stocks.get(id);
+            if (fila == null) {
+                quitarProducto(id);
+            } else if (fila.getStock() <= stockMinimo) {
+                bajoMinimo.add(fila);
+            } else if (bajos.remove(id) != null) {
+                cambiado = true;
+            }
+        }
+        anotarBajos(bajoMinimo);
+    }
+
+    private void anotarBajos(List<ProductoRepository.StockProducto> filas) {
+        if (filas.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> stocks = new HashMap<>();
+        filas.forEach(fila -> stocks.put(fila.getId(), fila.getStock()));
+        for (NombreProductoDTO producto : productoRepository.findNombresByIdIn(stocks.keySet())) {
+            bajos.put(producto.getId(), new ProductoDTORespuesta(producto.getId(), producto.getNombre(),
+                    producto.getPrecio() == null ? null : producto.getPrecio().doubleValue(),
+                    stocks.get(producto.getId())));
+        }
+        cambiado = true;
+    }
+
+    private void quitarProducto(Long id) {
+        for (ContadorProductos ranura : ranuras) {
+            ranura.quitar(id);
+        }
+        totalesHora.quitar(id);
+        totalesDia.quitar(id);
+        bajos.remove(id);
+        cambiado = true;
+    }
+
+    // Llamar con el lock tomado
+    private void publicar() {
+        topHora = armarTop(totalesHora);
+        topDia = armarTop(totalesDia);
+        List<ProductoDTORespuesta> lista = new ArrayList<>(bajos.values());
+        lista.sort(Comparator.comparing(ProductoDTORespuesta::getStock).thenComparing(ProductoDTORespuesta::getId));
+        bajoStock = List.copyOf(lista);
+        cambiado = false;
+    }
+
+    // Los tamanoTop con más unidades: montículo de mínimos acotado, sin ordenar todos los productos
+    private List<TopProductoDTO> armarTop(ContadorProductos totales) {
+        PriorityQueue<TopProductoDTO> monticulo = new PriorityQueue<>(tamanoTop + 1, POR_UNIDADES.reversed());
+        totales.recorrer((productoId, unidades) -> {
+            if (unidades <= 0) {
+                return;
+            }
+            if (monticulo.size() < tamanoTop) {
+                monticulo.add(new TopProductoDTO(productoId, null, unidades));
+            } else if (unidades > monticulo.peek().getUnidades()) {
+                monticulo.poll();
+                monticulo.add(new TopProductoDTO(productoId, null, unidades));
+            }
+        });
+        if (monticulo.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, String> nombres = new HashMap<>();
+        productoRepository.findNombresByIdIn(monticulo.stream().map(TopProductoDTO::getId).toList())
+                .forEach(producto -> nombres.put(producto.getId(), producto.getNombre()));
+        List<TopProductoDTO> top = new ArrayList<>(monticulo.size());
+        for (TopProductoDTO puesto : monticulo) {
+            String nombre = nombres.get(puesto.getId());
+            if (nombre != null) {
+                puesto.setNombre(nombre);
+                top.add(puesto);
+            }
+        }
+        top.sort(POR_UNIDADES);
+        return List.copyOf(top);
+    }
+
+    private void empezarEn(long minuto) {
+        for (int i = 0; i < MINUTOS_DIA; i++) {
+            ranuras[i].vaciar();
+        }
+        totalesHora.vaciar();
+        totalesDia.vaciar();
+        minutoActual = minuto;
+    }
+
+    private static int ranura(long minuto) {
+        return (int) Math.floorMod(minuto, (long) MINUTOS_DIA);
+    }
+
+    private static long minuto(LocalDateTime fecha) {
+        return fecha.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+}
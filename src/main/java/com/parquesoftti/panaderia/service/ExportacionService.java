@@ -0,0 +1,128 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.FiltroVentasDTO;
+import com.parquesoftti.panaderia.dto.FormatoExportacion;
+import com.parquesoftti.panaderia.dto.VentaDTORespuesta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPOutputStream;
+
+// Exportación masiva de ventas a CSV o al formato columnar, comprimida con gzip.
+// Las filas salen del cursor de VentaRepository.streamVentas (fetch size fijo) y se escriben a
+// medida que llegan, así la memoria no depende de cuántas ventas haya y el archivo empieza a
+// salir antes de que termine la consulta
+@Service
+public class ExportacionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportacionService.class);
+
+    // Cada cuántas filas de CSV se empuja lo comprimido hacia la salida
+    private static final int FILAS_POR_ENVIO = 10_000;
+
+    private final VentaService ventaService;
+
+    public ExportacionService(VentaService ventaService) {
+        this.ventaService = ventaService;
+    }
+
+    // Escribe el export en 'salida' (la respuesta HTTP o un archivo) y devuelve cuántas ventas salieron.
+    // No cierra 'salida'
+    public long exportar(FiltroVentasDTO filtro, FormatoExportacion formato, OutputStream salida) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(salida, 1 << 16, true);
+        long[] filas = {0};
+        try {
+            if (formato == FormatoExportacion.CSV) {
+                BufferedWriter csv = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), 1 << 16);
+                csv.write("id,fechaVenta,clienteId,nombreCliente,productoId,nombreProducto,cantidad\n");
+                ventaService.recorrerVentas(filtro, venta -> {
+                    try {
+                        escribirCsv(csv, venta);
+                        if (++filas[0] % FILAS_POR_ENVIO == 0) {
+                            csv.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                csv.flush();
+            } else {
+                ArchivoColumnarVentas.Escritor columnar = new ArchivoColumnarVentas.Escritor(gzip);
+                ventaService.recorrerVentas(filtro, venta -> {
+                    try {
+                        filas[0]++;
+                        columnar.escribir(venta);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                columnar.terminar();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        gzip.finish();
+        gzip.flush();
+        return filas[0];
+    }
+
+    // Exporta a un archivo local. Se escribe en un temporal al lado y se renombra al terminar,
+    // para que nunca quede a la vista un export a medias
+    public long exportarArchivo(FiltroVentasDTO filtro, FormatoExportacion formato, Path archivo) throws IOException {
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".parcial");
+        if (archivo.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(archivo.toAbsolutePath().getParent());
+        }
+        long filas;
+        try (OutputStream salida = Files.newOutputStream(temporal)) {
+            filas = exportar(filtro, formato, salida);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Exportadas {} ventas a {}", filas, archivo);
+        return filas;
+    }
+
+    private static void escribirCsv(BufferedWriter csv, VentaDTORespuesta venta) throws IOException {
+        csv.write(Long.toString(venta.getId()));
+        csv.write(',');
+        csv.write(venta.getFechaVenta().toString());
+        csv.write(',');
+        csv.write(Long.toString(venta.getClienteId()));
+        csv.write(',');
+        escribirTexto(csv, venta.getNombreCliente());
+        csv.write(',');
+        csv.write(Long.toString(venta.getProductoId()));
+        csv.write(',');
+        escribirTexto(csv, venta.getNombreProducto());
+        csv.write(',');
+        csv.write(Integer.toString(venta.getCantidad()));
+        csv.write('\n');
+    }
+
+    // Entre comillas solo si hace falta (comas, comillas o saltos de línea)
+    private static void escribirTexto(BufferedWriter csv, String texto) throws IOException {
+        if (texto == null) {
+            return;
+        }
+        if (texto.indexOf(',') < 0 && texto.indexOf('"') < 0 && texto.indexOf('\n') < 0 && texto.indexOf('\r') < 0) {
+            csv.write(texto);
+            return;
+        }
+        csv.write('"');
+        csv.write(texto.replace("\"", "\"\""));
+        csv.write('"');
+    }
+}
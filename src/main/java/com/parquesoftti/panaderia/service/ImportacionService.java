@@ -0,0 +1,518 @@
+package com.parquesoftti.panaderia.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parquesoftti.panaderia.dto.ClienteDTORespuesta;
+import com.parquesoftti.panaderia.dto.FormatoImportacion;
+import com.parquesoftti.panaderia.dto.NombreProductoDTO;
+import com.parquesoftti.panaderia.dto.ResultadoImportacionDTO;
+import com.parquesoftti.panaderia.dto.TipoImportacion;
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.model.Producto;
+import com.parquesoftti.panaderia.model.Venta;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import com.parquesoftti.panaderia.repository.VentaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+// Importación masiva de productos, clientes y ventas históricas desde CSV o NDJSON.
+// El archivo se lee fila por fila y se carga por tramos de panaderia.importacion.lote filas:
+// cada tramo es una transacción con un INSERT en batch JDBC (ids por bloques de secuencia,
+// sin pasar por save de JPA). Después de cada tramo confirmado avanza el punto de control,
+// así una importación cortada se retoma desde la última fila resuelta. Las filas inválidas
+// no detienen la importación: van al archivo de errores con su número y el motivo
+@Service
+public class ImportacionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportacionService.class);
+
+    // Ids que entrega cada nextval de las secuencias (allocationSize = 50, pooled-lo)
+    private static final int IDS_POR_BLOQUE = 50;
+    private static final int LARGO_NOMBRE = 100;
+    private static final int LARGO_TELEFONO = 20;
+    private static final DateTimeFormatter MARCA = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final ProductoRepository productoRepository;
+    private final ClienteRepository clienteRepository;
+    private final VentaRepository ventaRepository;
+    private final CatalogoProductos catalogoProductos;
+    private final AgregadorVentasDiarias agregadorVentasDiarias;
+    private final VersionesTablas versionesTablas;
+    private final BusquedaClientes busquedaClientes;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int tamanoLote;
+    private final Path directorio;
+
+    public ImportacionService(ProductoRepository productoRepository, ClienteRepository clienteRepository,
+                              VentaRepository ventaRepository, CatalogoProductos catalogoProductos,
+                              AgregadorVentasDiarias agregadorVentasDiarias, VersionesTablas versionesTablas,
+                              BusquedaClientes busquedaClientes, TransactionTemplate transactionTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${panaderia.importacion.lote:5000}") int tamanoLote,
+                              @Value("${panaderia.importacion.directorio:importaciones}") Path directorio) {
+        this.productoRepository = productoRepository;
+        this.clienteRepository = clienteRepository;
+        this.ventaRepository = ventaRepository;
+        this.catalogoProductos = catalogoProductos;
+        this.agregadorVentasDiarias = agregadorVentasDiarias;
+        this.versionesTablas = versionesTablas;
+        this.busquedaClientes = busquedaClientes;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.tamanoLote = tamanoLote;
+        this.directorio = directorio;
+    }
+
+    // Importación recibida por HTTP: los rechazos quedan en panaderia.importacion.directorio y el
+    // punto de control se informa en la respuesta (para retomar se reenvía con desde=confirmadas)
+    public ResultadoImportacionDTO importar(TipoImportacion tipo, FormatoImportacion formato,
+                                           InputStream entrada, long desde) throws IOException {
+        Path errores = directorio.resolve(tipo.name().toLowerCase() + "-"
+                + LocalDateTime.now().format(MARCA) + ".errores.csv");
+        return importar(tipo, formato, new InputStreamReader(entrada, StandardCharsets.UTF_8), desde, errores,
+                confirmadas -> {
+                });
+    }
+
+    // Importación de un archivo local (línea de comandos). El punto de control se guarda en
+    // <archivo>.punto: si existe se retoma desde ahí. Los rechazos van a <archivo>.errores.csv
+    public ResultadoImportacionDTO importarArchivo(TipoImportacion tipo, Path archivo) throws IOException {
+        Path punto = archivo.resolveSibling(archivo.getFileName() + ".punto");
+        Path errores = archivo.resolveSibling(archivo.getFileName() + ".errores.csv");
+        long desde = Files.exists(punto) ? Long.parseLong(Files.readString(punto).trim()) : 0;
+        if (desde > 0) {
+            log.info("Retomando la importación de {} desde la fila {}", archivo, desde + 1);
+        }
+        try (Reader entrada = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            return importar(tipo, FormatoImportacion.deArchivo(archivo.getFileName().toString()), entrada, desde,
+                    errores, confirmadas -> guardarPunto(punto, confirmadas));
+        }
+    }
+
+    // Lee la entrada, salta las primeras 'desde' filas de datos y carga el resto por tramos.
+    // 'puntoDeControl' recibe el número de la última fila resuelta después de cada tramo
+    public ResultadoImportacionDTO importar(TipoImportacion tipo, FormatoImportacion formato, Reader entrada,
+                                           long desde, Path archivoErrores, LongConsumer puntoDeControl) throws IOException {
+        long inicio = System.nanoTime();
+        LectorFilas lector = new LectorFilas(new BufferedReader(entrada, 1 << 16), formato, objectMapper);
+        Progreso progreso = new Progreso(archivoErrores, desde);
+        try (progreso) {
+            List<LectorFilas.Fila> tramo = new ArrayList<>(tamanoLote);
+            LectorFilas.Fila fila;
+            while ((fila = lector.siguiente()) != null) {
+                if (fila.numero() <= desde) {
+                    continue;
+                }
+                tramo.add(fila);
+                if (tramo.size() == tamanoLote) {
+                    cargarTramo(tipo, tramo, progreso);
+                    puntoDeControl.accept(progreso.confirmadas);
+                    tramo.clear();
+                }
+            }
+            if (!tramo.isEmpty()) {
+                cargarTramo(tipo, tramo, progreso);
+                puntoDeControl.accept(progreso.confirmadas);
+            }
+        }
+
+        long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+        log.info("Importación de {}: {} filas leídas, {} importadas, {} rechazadas en {} ms",
+                tipo, progreso.leidas, progreso.importadas, progreso.rechazadas, milisegundos);
+        return new ResultadoImportacionDTO(tipo, progreso.leidas, progreso.importadas, progreso.rechazadas,
+                progreso.confirmadas, progreso.rechazadas == 0 ? null : archivoErrores.toString(), milisegundos);
+    }
+
+    private void cargarTramo(TipoImportacion tipo, List<LectorFilas.Fila> tramo, Progreso progreso) throws IOException {
+        switch (tipo) {
+            case PRODUCTOS -> {
+                BloqueIds ids = progreso.ids(productoRepository::reservarBloqueIds);
+                cargar(tramo, progreso, campos -> aProducto(campos, ids), this::guardarProductos);
+            }
+            case CLIENTES -> {
+                BloqueIds ids = progreso.ids(clienteRepository::reservarBloqueIds);
+                cargar(tramo, progreso, campos -> aCliente(campos, ids), this::guardarClientes);
+            }
+            case VENTAS -> {
+                BloqueIds ids = progreso.ids(ventaRepository::reservarBloqueIds);
+                Referencias referencias = resolverReferencias(tramo);
+                cargar(tramo, progreso, campos -> aVenta(campos, referencias, ids), this::guardarVentas);
+            }
+        }
+        progreso.confirmar(tramo.get(tramo.size() - 1).numero());
+    }
+
+    // Convierte las filas del tramo y las guarda juntas. Si el tramo falla en la base se reintenta
+    // fila por fila, cada una en su transacción, para aislar las que la base no acepta
+    private <T> void cargar(List<LectorFilas.Fila> tramo, Progreso progreso,
+                            Function<Map<String, String>, T> convertir, Consumer<List<T>> guardar) throws IOException {
+        List<T> validas = new ArrayList<>(tramo.size());
+        List<LectorFilas.Fila> origen = new ArrayList<>(tramo.size());
+        for (LectorFilas.Fila fila : tramo) {
+            progreso.leidas++;
+            if (fila.error() != null) {
+                progreso.rechazar(fila, fila.error());
+                continue;
+            }
+            try {
+                validas.add(convertir.apply(fila.campos()));
+                origen.add(fila);
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                progreso.rechazar(fila, e.getMessage());
+            }
+        }
+        if (validas.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(estado -> guardar.accept(validas));
+            progreso.importadas += validas.size();
+        } catch (RuntimeException e) {
+            log.warn("Falló la carga de un tramo de {} filas, se reintenta fila por fila", validas.size(), e);
+            for (int i = 0; i < validas.size(); i++) {
+                List<T> una = List.of(validas.get(i));
+                try {
+                    transactionTemplate.executeWithoutResult(estado -> guardar.accept(una));
+                    progreso.importadas++;
+                } catch (RuntimeException error) {
+                    progreso.rechazar(origen.get(i), NestedExceptionUtils.getMostSpecificCause(error).getMessage());
+                }
+            }
+        }
+    }
+
+    private void guardarProductos(List<Producto> productos) {
+        productoRepository.insertarConId(productos);
+        // Cualquier id sirve: lo que importa es descartar el listado y el índice de búsqueda
+        catalogoProductos.invalidar(productos.get(0).getId());
+    }
+
+    private void guardarClientes(List<Cliente> clientes) {
+        clienteRepository.insertarConId(clientes);
+        versionesTablas.cambioClientes();
+        busquedaClientes.invalidar();
+    }
+
+    // Las ventas históricas no descuentan stock; sí se suman al resumen diario, agrupadas por día y producto
+    private void guardarVentas(List<Venta> ventas) {
+        ventaRepository.insertarConId(ventas);
+
+        record Clave(LocalDate dia, Long productoId) {
+        }
+        Map<Clave, Long> unidades = new HashMap<>();
+        Map<Clave, BigDecimal> ingresos = new HashMap<>();
+        for (Venta venta : ventas) {
+            Clave clave = new Clave(venta.getFechaVenta().toLocalDate(), venta.getProducto().getId());
+            BigDecimal precio = venta.getPrecioUnitario() != null ? venta.getPrecioUnitario()
+                    : venta.getProducto().getPrecio() != null ? venta.getProducto().getPrecio() : BigDecimal.ZERO;
+            unidades.merge(clave, (long) venta.getCantidad(), Long::sum);
+            ingresos.merge(clave, precio.multiply(BigDecimal.valueOf(venta.getCantidad())), BigDecimal::add);
+        }
+        unidades.forEach((clave, cantidad) ->
+                agregadorVentasDiarias.registrar(clave.dia(), clave.productoId(), cantidad, ingresos.get(clave)));
+    }
+
+    private Producto aProducto(Map<String, String> campos, BloqueIds ids) {
+        Producto producto = new Producto();
+        producto.setNombre(texto(campos, "nombre", LARGO_NOMBRE, true));
+        producto.setPrecio(decimal(campos, "precio"));
+        Integer stock = entero(campos, "stock", false);
+        if (stock != null && stock < 0) {
+            throw new IllegalArgumentException("El stock no puede ser negativo");
+        }
+        producto.setStock(stock);
+        producto.setId(ids.siguiente());
+        return producto;
+    }
+
+    private Cliente aCliente(Map<String, String> campos, BloqueIds ids) {
+        Cliente cliente = new Cliente();
+        cliente.setNombre(texto(campos, "nombre", LARGO_NOMBRE, true));
+        cliente.setTelefono(texto(campos, "telefono", LARGO_TELEFONO, false));
+        cliente.setId(ids.siguiente());
+        return cliente;
+    }
+
+    private Venta aVenta(Map<String, String> campos, Referencias referencias, BloqueIds ids) {
+        Long clienteId;
+        if (campos.get("clienteId") != null) {
+            clienteId = idDe(campos, "clienteId");
+            if (!referencias.clientesPorId.contains(clienteId)) {
+                clienteId = null;
+            }
+        } else {
+            clienteId = referencias.clientesPorNombre.get(campos.get("cliente"));
+        }
+        if (clienteId == null) {
+            throw new IllegalArgumentException("Cliente no encontrado: "
+                    + (campos.get("clienteId") != null ? campos.get("clienteId") : campos.get("cliente")));
+        }
+        NombreProductoDTO producto = campos.get("productoId") != null
+                ? referencias.productosPorId.get(idDe(campos, "productoId"))
+                : referencias.productosPorNombre.get(campos.get("producto"));
+        if (producto == null) {
+            throw new IllegalArgumentException("Producto no encontrado: "
+                    + (campos.get("productoId") != null ? campos.get("productoId") : campos.get("producto")));
+        }
+        Integer cantidad = entero(campos, "cantidad", true);
+        if (cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor que cero");
+        }
+
+        Cliente cliente = new Cliente();
+        cliente.setId(clienteId);
+        Producto referencia = new Producto();
+        referencia.setId(producto.getId());
+        referencia.setPrecio(producto.getPrecio());
+
+        Venta venta = new Venta();
+        venta.setCliente(cliente);
+        venta.setProducto(referencia);
+        venta.setCantidad(cantidad);
+        venta.setFechaVenta(fecha(campos, "fechaVenta"));
+        venta.setPrecioUnitario(decimal(campos, "precioUnitario"));
+        venta.setId(ids.siguiente());
+        return venta;
+    }
+
+    // Clientes y productos que nombra el tramo, con una consulta por tabla y por forma de referencia
+    private Referencias resolverReferencias(List<LectorFilas.Fila> tramo) {
+        Set<Long> clienteIds = new HashSet<>();
+        Set<String> clienteNombres = new HashSet<>();
+        Set<Long> productoIds = new HashSet<>();
+        Set<String> productoNombres = new HashSet<>();
+        for (LectorFilas.Fila fila : tramo) {
+            Map<String, String> campos = fila.campos();
+            try {
+                if (campos.get("clienteId") != null) {
+                    clienteIds.add(idDe(campos, "clienteId"));
+                } else if (campos.get("cliente") != null) {
+                    clienteNombres.add(campos.get("cliente"));
+                }
+                if (campos.get("productoId") != null) {
+                    productoIds.add(idDe(campos, "productoId"));
+                } else if (campos.get("producto") != null) {
+                    productoNombres.add(campos.get("producto"));
+                }
+            } catch (IllegalArgumentException e) {
+                // Se informa al convertir la fila
+            }
+        }
+
+        Referencias referencias = new Referencias();
+        if (!clienteIds.isEmpty()) {
+            clienteRepository.findDTOByIdIn(clienteIds).forEach(c -> referencias.clientesPorId.add(c.getId()));
+        }
+        if (!clienteNombres.isEmpty()) {
+            for (ClienteDTORespuesta cliente : clienteRepository.findDTOByNombreIn(clienteNombres)) {
+                referencias.clientesPorNombre.putIfAbsent(cliente.getNombre(), cliente.getId());
+            }
+        }
+        if (!productoIds.isEmpty()) {
+            productoRepository.findNombresByIdIn(productoIds).forEach(p -> referencias.productosPorId.put(p.getId(), p));
+        }
+        if (!productoNombres.isEmpty()) {
+            productoRepository.findNombresByNombreIn(productoNombres)
+                    .forEach(p -> referencias.productosPorNombre.putIfAbsent(p.getNombre(), p));
+        }
+        return referencias;
+    }
+
+    private static String texto(Map<String, String> campos, String columna, int largoMaximo, boolean obligatorio) {
+        String valor = campos.get(columna);
+        if (valor == null) {
+            if (obligatorio) {
+                throw new IllegalArgumentException("Falta " + columna);
+            }
+            return null;
+        }
+        if (valor.length() > largoMaximo) {
+            throw new IllegalArgumentException(columna + " supera " + largoMaximo + " caracteres");
+        }
+        return valor;
+    }
+
+    private static BigDecimal decimal(Map<String, String> campos, String columna) {
+        String valor = campos.get(columna);
+        if (valor == null) {
+            return null;
+        }
+        try {
+            BigDecimal numero = new BigDecimal(valor);
+            if (numero.signum() < 0) {
+                throw new IllegalArgumentException(columna + " no puede ser negativo");
+            }
+            return numero;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(columna + " no es un número: " + valor);
+        }
+    }
+
+    private static Integer entero(Map<String, String> campos, String columna, boolean obligatorio) {
+        String valor = campos.get(columna);
+        if (valor == null) {
+            if (obligatorio) {
+                throw new IllegalArgumentException("Falta " + columna);
+            }
+            return null;
+        }
+        try {
+            return Integer.valueOf(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(columna + " no es un entero: " + valor);
+        }
+    }
+
+    private static Long idDe(Map<String, String> campos, String columna) {
+        try {
+            return Long.valueOf(campos.get(columna));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(columna + " no es un id: " + campos.get(columna));
+        }
+    }
+
+    // Fecha y hora ISO (2024-03-01T08:30:00) o solo la fecha, que se toma a medianoche
+    private static LocalDateTime fecha(Map<String, String> campos, String columna) {
+        String valor = campos.get(columna);
+        if (valor == null) {
+            throw new IllegalArgumentException("Falta " + columna);
+        }
+        return valor.length() == 10 ? LocalDate.parse(valor).atStartOfDay() : LocalDateTime.parse(valor);
+    }
+
+    // Se escribe a un temporal y se mueve, para que un corte nunca deje el punto a medias
+    private static void guardarPunto(Path punto, long confirmadas) {
+        try {
+            Path temporal = punto.resolveSibling(punto.getFileName() + ".tmp");
+            Files.writeString(temporal, Long.toString(confirmadas));
+            Files.move(temporal, punto, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo guardar el punto de control " + punto, e);
+        }
+    }
+
+    private static final class Referencias {
+        private final Set<Long> clientesPorId = new HashSet<>();
+        private final Map<String, Long> clientesPorNombre = new HashMap<>();
+        private final Map<Long, NombreProductoDTO> productosPorId = new HashMap<>();
+        private final Map<String, NombreProductoDTO> productosPorNombre = new HashMap<>();
+    }
+
+    // Reparte ids de un bloque reservado con un nextval y pide otro al agotarlo
+    private static final class BloqueIds {
+        private final LongSupplier reservar;
+        private long siguiente;
+        private long hasta;
+
+        BloqueIds(LongSupplier reservar) {
+            this.reservar = reservar;
+        }
+
+        long siguiente() {
+            if (siguiente == hasta) {
+                siguiente = reservar.getAsLong();
+                hasta = siguiente + IDS_POR_BLOQUE;
+            }
+            return siguiente++;
+        }
+    }
+
+    // Contadores de una importación y archivo de errores, que se crea con el primer rechazo.
+    // Al retomar (desde > 0) los rechazos se agregan a los de la ejecución anterior
+    private static final class Progreso implements Closeable {
+        private final Path archivoErrores;
+        private final boolean retomada;
+        private BufferedWriter errores;
+        private BloqueIds ids;
+        private long leidas;
+        private long importadas;
+        private long rechazadas;
+        private long confirmadas;
+
+        Progreso(Path archivoErrores, long desde) {
+            this.archivoErrores = archivoErrores;
+            this.confirmadas = desde;
+            this.retomada = desde > 0;
+        }
+
+        BloqueIds ids(LongSupplier reservar) {
+            if (ids == null) {
+                ids = new BloqueIds(reservar);
+            }
+            return ids;
+        }
+
+        void rechazar(LectorFilas.Fila fila, String motivo) throws IOException {
+            rechazadas++;
+            if (errores == null) {
+                if (archivoErrores.getParent() != null) {
+                    Files.createDirectories(archivoErrores.getParent());
+                }
+                if (retomada && Files.exists(archivoErrores)) {
+                    errores = Files.newBufferedWriter(archivoErrores, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+                } else {
+                    errores = Files.newBufferedWriter(archivoErrores, StandardCharsets.UTF_8);
+                    errores.write("fila,motivo,contenido");
+                    errores.newLine();
+                }
+            }
+            errores.write(fila.numero() + "," + csv(motivo) + "," + csv(fila.original()));
+            errores.newLine();
+        }
+
+        // Los rechazos del tramo quedan en disco antes de avanzar el punto de control
+        void confirmar(long hastaFila) throws IOException {
+            if (errores != null) {
+                errores.flush();
+            }
+            confirmadas = hastaFila;
+        }
+
+        private static String csv(String valor) {
+            String texto = valor == null ? "" : valor;
+            return "\"" + texto.replace("\"", "\"\"") + "\"";
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (errores != null) {
+                errores.close();
+            }
+        }
+    }
+}
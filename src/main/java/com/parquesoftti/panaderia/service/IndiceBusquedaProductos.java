@@ -0,0 +1,263 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.NombreProductoDTO;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import com.parquesoftti.panaderia.util.TextoNormalizado;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Índice en memoria para la búsqueda parcial de productos por nombre. Reemplaza el
+// LOWER(nombre) LIKE '%x%', que recorre la tabla entera en cada tecla del buscador.
+// Los nombres se normalizan (sin tildes ni mayúsculas) y se indexan por trigramas;
+// las palabras de una o dos letras se buscan como prefijo de palabra.
+// Cualquier alta, cambio o baja de producto lo descarta y se reconstruye en la siguiente búsqueda
+@Component
+public class IndiceBusquedaProductos {
+
+    private static final int N = 3;
+    private static final int PUNTAJES = 4;
+
+    private final ProductoRepository productoRepository;
+
+    // Sube con cada invalidación; un índice construido con una versión vieja no se publica
+    private final AtomicLong version = new AtomicLong();
+    private volatile Indice indice;
+
+    public IndiceBusquedaProductos(ProductoRepository productoRepository) {
+        this.productoRepository = productoRepository;
+    }
+
+    // Productos cuyo nombre contiene todas las palabras buscadas, del más al menos relevante
+    public List<EntradaProducto> buscar(String texto, int limite) {
+        String consulta = TextoNormalizado.normalizar(texto);
+        if (consulta.isEmpty()) {
+            return List.of();
+        }
+        return actual().buscar(consulta, limite);
+    }
+
+    // Si hay transacción activa se descarta al terminar, para no reconstruir con datos sin confirmar
+    public void invalidar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    descartar();
+                }
+            });
+        } else {
+            descartar();
+        }
+    }
+
+    private void descartar() {
+        version.incrementAndGet();
+        indice = null;
+    }
+
+    private Indice actual() {
+        Indice existente = indice;
+        return existente != null ? existente : reconstruir();
+    }
+
+    private synchronized Indice reconstruir() {
+        Indice existente = indice;
+        if (existente != null) {
+            return existente;
+        }
+        long versionInicial = version.get();
+        Indice nuevo = new Indice(productoRepository.findAllNombres());
+        if (version.get() == versionInicial) {
+            indice = nuevo;
+        }
+        return nuevo;
+    }
+
+    // Lo que devuelve una búsqueda: todo menos el stock, que cambia con cada venta
+    public record EntradaProducto(Long id, String nombre, Double precio) {
+    }
+
+    // Foto inmutable del catálogo con sus listas de posiciones por trigrama y por prefijo corto
+    private static final class Indice {
+
+        private final EntradaProducto[] entradas;
+        private final String[] normalizados;
+        private final Map<String, int[]> trigramas;
+        private final Map<String, int[]> prefijos;
+
+        Indice(List<NombreProductoDTO> productos) {
+            // Las posiciones siguen el orden de desempate (nombre más corto, alfabético, id),
+            // así entre dos coincidencias igual de buenas gana siempre la de menor posición
+            record Fila(NombreProductoDTO producto, String normalizado) {
+            }
+            List<Fila> filas = new ArrayList<>(productos.size());
+            for (NombreProductoDTO producto : productos) {
+                filas.add(new Fila(producto, TextoNormalizado.normalizar(producto.getNombre())));
+            }
+            filas.sort(Comparator.comparingInt((Fila fila) -> fila.normalizado().length())
+                    .thenComparing(Fila::normalizado)
+                    .thenComparing(fila -> fila.producto().getId()));
+
+            entradas = new EntradaProducto[filas.size()];
+            normalizados = new String[filas.size()];
+            Map<String, Posiciones> porTrigrama = new HashMap<>();
+            Map<String, Posiciones> porPrefijo = new HashMap<>();
+
+            for (int i = 0; i < filas.size(); i++) {
+                NombreProductoDTO producto = filas.get(i).producto();
+                entradas[i] = new EntradaProducto(producto.getId(), producto.getNombre(),
+                        producto.getPrecio() == null ? null : producto.getPrecio().doubleValue());
+                String normalizado = filas.get(i).normalizado();
+                normalizados[i] = normalizado;
+
+                for (int j = 0; j + N <= normalizado.length(); j++) {
+                    anotar(porTrigrama, normalizado.substring(j, j + N), i);
+                }
+                for (String palabra : normalizado.split(" ")) {
+                    for (int largo = 1; largo < N && largo <= palabra.length(); largo++) {
+                        anotar(porPrefijo, palabra.substring(0, largo), i);
+                    }
+                }
+            }
+            trigramas = compactar(porTrigrama);
+            prefijos = compactar(porPrefijo);
+        }
+
+        List<EntradaProducto> buscar(String consulta, int limite) {
+            String[] palabras = consulta.split(" ");
+
+            // Candidatos: posiciones presentes en las listas de todas las palabras
+            int[] candidatos = null;
+            for (String palabra : palabras) {
+                if (palabra.length() < N) {
+                    candidatos = intersectar(candidatos, prefijos.get(palabra));
+                } else {
+                    for (int j = 0; j + N <= palabra.length(); j++) {
+                        candidatos = intersectar(candidatos, trigramas.get(palabra.substring(j, j + N)));
+                    }
+                }
+                if (candidatos.length == 0) {
+                    return List.of();
+                }
+            }
+
+            // Una cubeta por puntaje. Como los candidatos vienen en orden de desempate,
+            // los primeros 'limite' de cada cubeta son los mejores de ese puntaje
+            int[][] cubetas = new int[PUNTAJES][limite];
+            int[] llenas = new int[PUNTAJES];
+            for (int posicion : candidatos) {
+                int puntaje = puntuar(normalizados[posicion], consulta, palabras);
+                if (puntaje >= 0 && llenas[puntaje] < limite) {
+                    cubetas[puntaje][llenas[puntaje]++] = posicion;
+                    if (llenas[0] == limite) {
+                        break;
+                    }
+                }
+            }
+
+            List<EntradaProducto> resultado = new ArrayList<>(limite);
+            for (int puntaje = 0; puntaje < PUNTAJES; puntaje++) {
+                for (int i = 0; i < llenas[puntaje] && resultado.size() < limite; i++) {
+                    resultado.add(entradas[cubetas[puntaje][i]]);
+                }
+            }
+            return resultado;
+        }
+
+        // 0 nombre idéntico, 1 empieza por la búsqueda, 2 cada palabra es inicio de palabra,
+        // 3 aparece en medio de alguna palabra. -1 si el candidato en realidad no coincide
+        private static int puntuar(String nombre, String consulta, String[] palabras) {
+            if (nombre.equals(consulta)) {
+                return 0;
+            }
+            boolean todasAlInicio = true;
+            for (String palabra : palabras) {
+                int desde = nombre.indexOf(palabra);
+                if (desde < 0) {
+                    return -1;
+                }
+                boolean alInicio = false;
+                for (; desde >= 0; desde = nombre.indexOf(palabra, desde + 1)) {
+                    if (desde == 0 || nombre.charAt(desde - 1) == ' ') {
+                        alInicio = true;
+                        break;
+                    }
+                }
+                if (!alInicio && palabra.length() < N) {
+                    // Las palabras cortas solo valen como prefijo
+                    return -1;
+                }
+                todasAlInicio &= alInicio;
+            }
+            if (nombre.startsWith(consulta)) {
+                return 1;
+            }
+            return todasAlInicio ? 2 : 3;
+        }
+
+        private static void anotar(Map<String, Posiciones> listas, String clave, int posicion) {
+            listas.computeIfAbsent(clave, k -> new Posiciones()).agregar(posicion);
+        }
+
+        private static Map<String, int[]> compactar(Map<String, Posiciones> listas) {
+            Map<String, int[]> compactas = new HashMap<>(listas.size() * 2);
+            listas.forEach((clave, posiciones) -> compactas.put(clave, posiciones.compactar()));
+            return compactas;
+        }
+
+        // Intersección de dos listas ordenadas; null en 'actual' significa "todavía sin filtrar"
+        private static int[] intersectar(int[] actual, int[] lista) {
+            if (lista == null) {
+                return new int[0];
+            }
+            if (actual == null) {
+                return lista;
+            }
+            int[] comunes = new int[Math.min(actual.length, lista.length)];
+            int total = 0;
+            for (int a = 0, b = 0; a < actual.length && b < lista.length; ) {
+                if (actual[a] == lista[b]) {
+                    comunes[total++] = actual[a];
+                    a++;
+                    b++;
+                } else if (actual[a] < lista[b]) {
+                    a++;
+                } else {
+                    b++;
+                }
+            }
+            return Arrays.copyOf(comunes, total);
+        }
+    }
+
+    // Lista creciente de posiciones sin cajas de Integer, solo para armar el índice
+    private static final class Posiciones {
+
+        private int[] valores = new int[4];
+        private int total;
+
+        void agregar(int posicion) {
+            // Un nombre puede repetir el mismo trigrama; cada posición va una sola vez
+            if (total > 0 && valores[total - 1] == posicion) {
+                return;
+            }
+            if (total == valores.length) {
+                valores = Arrays.copyOf(valores, total * 2);
+            }
+            valores[total++] = posicion;
+        }
+
+        int[] compactar() {
+            return Arrays.copyOf(valores, total);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.parquesoftti.panaderia.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parquesoftti.panaderia.dto.FormatoImportacion;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Lee un archivo de importación fila por fila, sin cargarlo entero en memoria.
+// CSV: la primera línea trae los nombres de columna; admite comillas dobles con comas,
+// comillas escapadas ("") y saltos de línea dentro del valor.
+// NDJSON: un objeto JSON por línea; las líneas en blanco se ignoran
+class LectorFilas {
+
+    // Una fila de datos: su número (1 es la primera después del encabezado) y sus valores por columna.
+    // Si la fila no se pudo interpretar, 'error' dice por qué y 'campos' queda vacío
+    record Fila(long numero, Map<String, String> campos, String original, String error) {
+    }
+
+    private final Reader entrada;
+    private final FormatoImportacion formato;
+    private final ObjectMapper objectMapper;
+
+    private final StringBuilder valor = new StringBuilder();
+    private final StringBuilder original = new StringBuilder();
+    private List<String> columnas;
+    private long numero;
+    private boolean terminado;
+
+    LectorFilas(Reader entrada, FormatoImportacion formato, ObjectMapper objectMapper) {
+        this.entrada = entrada;
+        this.formato = formato;
+        this.objectMapper = objectMapper;
+    }
+
+    // Siguiente fila, o null al llegar al final
+    Fila siguiente() throws IOException {
+        return formato == FormatoImportacion.CSV ? siguienteCsv() : siguienteNdjson();
+    }
+
+    private Fila siguienteCsv() throws IOException {
+        if (columnas == null) {
+            columnas = leerRegistroCsv();
+            if (columnas == null) {
+                return null;
+            }
+            // Sin espacios ni la marca BOM que dejan algunas planillas al exportar
+            columnas.replaceAll(columna -> columna.replace("\uFEFF", "").trim());
+        }
+        List<String> valores;
+        do {
+            valores = leerRegistroCsv();
+            if (valores == null) {
+                return null;
+            }
+        } while (valores.size() == 1 && valores.get(0).isEmpty());
+
+        numero++;
+        if (valores.size() != columnas.size()) {
+            return new Fila(numero, Map.of(), original.toString(),
+                    "Se esperaban " + columnas.size() + " columnas y hay " + valores.size());
+        }
+        Map<String, String> campos = new HashMap<>(columnas.size() * 2);
+        for (int i = 0; i < columnas.size(); i++) {
+            String texto = valores.get(i).trim();
+            campos.put(columnas.get(i), texto.isEmpty() ? null : texto);
+        }
+        return new Fila(numero, campos, original.toString(), null);
+    }
+
+    // Un registro CSV completo (puede ocupar varias líneas si hay comillas), o null al final
+    private List<String> leerRegistroCsv() throws IOException {
+        if (terminado) {
+            return null;
+        }
+        original.setLength(0);
+        List<String> valores = new ArrayList<>();
+        valor.setLength(0);
+        boolean entreComillas = false;
+        int c;
+        while ((c = entrada.read()) != -1) {
+            char caracter = (char) c;
+            if (entreComillas) {
+                original.append(caracter);
+                if (caracter != '"') {
+                    valor.append(caracter);
+                    continue;
+                }
+                entrada.mark(1);
+                int despues = entrada.read();
+                if (despues == '"') {
+                    original.append('"');
+                    valor.append('"');
+                } else {
+                    entreComillas = false;
+                    if (despues != -1) {
+                        entrada.reset();
+                    }
+                }
+            } else if (caracter == '"') {
+                original.append(caracter);
+                entreComillas = true;
+            } else if (caracter == ',') {
+                original.append(caracter);
+                valores.add(valor.toString());
+                valor.setLength(0);
+            } else if (caracter == '\n') {
+                break;
+            } else if (caracter != '\r') {
+                original.append(caracter);
+                valor.append(caracter);
+            }
+        }
+        if (c == -1) {
+            terminado = true;
+            if (valores.isEmpty() && valor.isEmpty() && original.isEmpty()) {
+                return null;
+            }
+        }
+        valores.add(valor.toString());
+        return valores;
+    }
+
+    private Fila siguienteNdjson() throws IOException {
+        String linea;
+        do {
+            linea = leerLinea();
+            if (linea == null) {
+                return null;
+            }
+        } while (linea.isBlank());
+
+        numero++;
+        JsonNode objeto;
+        try {
+            objeto = objectMapper.readTree(linea);
+        } catch (JsonProcessingException e) {
+            return new Fila(numero, Map.of(), linea, "JSON inválido: " + e.getOriginalMessage());
+        }
+        if (!objeto.isObject()) {
+            return new Fila(numero, Map.of(), linea, "Cada línea debe ser un objeto JSON");
+        }
+        Map<String, String> campos = new HashMap<>();
+        for (Map.Entry<String, JsonNode> campo : objeto.properties()) {
+            campos.put(campo.getKey(), campo.getValue().isNull() ? null : campo.getValue().asText());
+        }
+        return new Fila(numero, campos, linea, null);
+    }
+
+    private String leerLinea() throws IOException {
+        if (terminado) {
+            return null;
+        }
+        valor.setLength(0);
+        int c;
+        while ((c = entrada.read()) != -1 && c != '\n') {
+            if (c != '\r') {
+                valor.append((char) c);
+            }
+        }
+        if (c == -1) {
+            terminado = true;
+            if (valor.isEmpty()) {
+                return null;
+            }
+        }
+        return valor.toString();
+    }
+}
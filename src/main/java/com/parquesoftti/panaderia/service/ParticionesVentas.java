@@ -0,0 +1,185 @@
+package com.parquesoftti.panaderia.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Mantenimiento de las particiones mensuales de ventas (V9): crea por adelantado las de los
+// próximos meses y quita las que pasan la retención. Una partición vieja se desengancha de
+// ventas y se mueve al esquema 'archivo' sin claves foráneas (o se elimina), sin borrar fila
+// por fila; el resumen ventas_diarias no se toca, así que los reportes de esos meses siguen saliendo.
+// Contra una base sin particiones (H2 en las pruebas) la retención es un único DELETE por fecha
+@Component
+public class ParticionesVentas {
+
+    private static final Logger log = LoggerFactory.getLogger(ParticionesVentas.class);
+
+    static final String PREFIJO = "ventas_p";
+    private static final DateTimeFormatter SUFIJO = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int mesesAdelante;
+    private final int retencionMeses;
+    private final boolean archivar;
+
+    private volatile Boolean particionada;
+
+    public ParticionesVentas(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                             @Value("${panaderia.particiones.meses-adelante:3}") int mesesAdelante,
+                             @Value("${panaderia.particiones.retencion-meses:0}") int retencionMeses,
+                             @Value("${panaderia.particiones.archivar:true}") boolean archivar) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.mesesAdelante = mesesAdelante;
+        this.retencionMeses = retencionMeses;
+        this.archivar = archivar;
+    }
+
+    @Scheduled(cron = "${panaderia.particiones.cron:0 30 3 * * *}")
+    public void mantener() {
+        mantener(YearMonth.now());
+    }
+
+    // Asegura las particiones del mes actual y los siguientes y, con retención configurada (en
+    // meses, 0 = sin límite), quita las ventas de los meses anteriores a ella
+    public synchronized void mantener(YearMonth actual) {
+        if (esParticionada()) {
+            crearParticiones(actual, actual.plusMonths(mesesAdelante));
+            avisarSiHayVentasSinParticion();
+        }
+        if (retencionMeses > 0) {
+            purgarAntesDe(actual.minusMonths(retencionMeses));
+        }
+    }
+
+    // Crea las particiones que falten para los meses [desde, hasta]. Devuelve cuántas creó
+    public synchronized int crearParticiones(YearMonth desde, YearMonth hasta) {
+        if (!esParticionada()) {
+            return 0;
+        }
+        List<String> existentes = particiones();
+        int creadas = 0;
+        for (YearMonth mes = desde; !mes.isAfter(hasta); mes = mes.plusMonths(1)) {
+            String nombre = nombre(mes);
+            if (existentes.contains(nombre)) {
+                continue;
+            }
+            try {
+                jdbcTemplate.execute("CREATE TABLE " + nombre + " PARTITION OF ventas FOR VALUES FROM ('"
+                        + inicio(mes) + "') TO ('" + inicio(mes.plusMonths(1)) + "')");
+                creadas++;
+                log.info("Creada la partición {} de ventas", nombre);
+            } catch (RuntimeException e) {
+                // Pasa si ventas_default ya tiene filas de ese mes: hay que moverlas a mano
+                log.warn("No se pudo crear la partición {} de ventas", nombre, e);
+            }
+        }
+        return creadas;
+    }
+
+    // Quita las ventas anteriores al mes dado. Con particiones desengancha las de los meses
+    // viejos y las archiva o elimina; devuelve las ventas quitadas (de las particiones, según
+    // las estadísticas de PostgreSQL)
+    public synchronized long purgarAntesDe(YearMonth limite) {
+        Timestamp corte = Timestamp.valueOf(limite.atDay(1).atStartOfDay());
+        if (!esParticionada()) {
+            Integer borradas = transactionTemplate.execute(estado ->
+                    jdbcTemplate.update("DELETE FROM ventas WHERE fecha_venta < ?", corte));
+            return borradas == null ? 0 : borradas;
+        }
+
+        long quitadas = 0;
+        for (String nombre : particiones()) {
+            YearMonth mes = mes(nombre);
+            if (mes == null || !mes.isBefore(limite)) {
+                continue;
+            }
+            Long filas = jdbcTemplate.queryForObject(
+                    "SELECT GREATEST(reltuples, 0)::bigint FROM pg_class WHERE oid = ?::regclass", Long.class, nombre);
+            transactionTemplate.executeWithoutResult(estado -> {
+                jdbcTemplate.execute("ALTER TABLE ventas DETACH PARTITION " + nombre);
+                if (archivar) {
+                    quitarClavesForaneas(nombre);
+                    jdbcTemplate.execute("ALTER TABLE " + nombre + " SET SCHEMA archivo");
+                } else {
+                    jdbcTemplate.execute("DROP TABLE " + nombre);
+                }
+            });
+            quitadas += filas == null ? 0 : filas;
+            log.info("Partición {} de ventas {}", nombre, archivar ? "movida a archivo" : "eliminada");
+        }
+        Integer enDefault = transactionTemplate.execute(estado ->
+                jdbcTemplate.update("DELETE FROM ventas_default WHERE fecha_venta < ?", corte));
+        return quitadas + (enDefault == null ? 0 : enDefault);
+    }
+
+    // La partición desenganchada conserva sus copias de las claves foráneas a clientes y productos;
+    // en el archivo no sirven y no dejarían borrar un cliente o producto con ventas archivadas
+    private void quitarClavesForaneas(String tabla) {
+        List<String> restricciones = jdbcTemplate.queryForList(
+                "SELECT conname FROM pg_constraint WHERE conrelid = ?::regclass AND contype = 'f'", String.class, tabla);
+        for (String restriccion : restricciones) {
+            jdbcTemplate.execute("ALTER TABLE " + tabla + " DROP CONSTRAINT \"" + restriccion + "\"");
+        }
+    }
+
+    // Nombre de la partición de un mes: ventas_p202405
+    static String nombre(YearMonth mes) {
+        return PREFIJO + mes.format(SUFIJO);
+    }
+
+    // Mes de una partición por su nombre; null si no es una partición mensual
+    static YearMonth mes(String nombre) {
+        if (!nombre.startsWith(PREFIJO)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(nombre.substring(PREFIJO.length()), SUFIJO);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String inicio(YearMonth mes) {
+        return mes.atDay(1) + " 00:00:00";
+    }
+
+    private List<String> particiones() {
+        return new ArrayList<>(jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'ventas'::regclass", String.class));
+    }
+
+    private void avisarSiHayVentasSinParticion() {
+        Boolean hay = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM ventas_default)", Boolean.class);
+        if (Boolean.TRUE.equals(hay)) {
+            log.warn("Hay ventas en ventas_default, fuera de las particiones mensuales");
+        }
+    }
+
+    // Solo en PostgreSQL con V9 aplicada; se averigua una vez
+    private boolean esParticionada() {
+        Boolean resultado = particionada;
+        if (resultado == null) {
+            boolean postgres = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) conexion ->
+                    "PostgreSQL".equals(conexion.getMetaData().getDatabaseProductName())));
+            resultado = postgres && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'ventas'::regclass)",
+                    Boolean.class));
+            particionada = resultado;
+        }
+        return resultado;
+    }
+}
@@ -1,47 +1,96 @@
 package com.parquesoftti.panaderia.service;
 
+import com.parquesoftti.panaderia.dto.AjusteStockDTO;
 import com.parquesoftti.panaderia.dto.BuscarProductoDTO;
 import com.parquesoftti.panaderia.dto.ProductoDTO;
 import com.parquesoftti.panaderia.dto.ProductoDTORespuesta;
+import com.parquesoftti.panaderia.dto.StockTiendaDTO;
 import com.parquesoftti.panaderia.model.Producto;
 import com.parquesoftti.panaderia.repository.ProductoRepository;
+import com.parquesoftti.panaderia.repository.VentaRepository;
 import com.parquesoftti.panaderia.exception.ProductoNotFoundException;
+import com.parquesoftti.panaderia.exception.StockInsuficienteException;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 
 @Service
 @Transactional(readOnly = true)
+@Timed(value = "panaderia.servicio", histogram = true)
 public class ProductoService {
 
+    private static final int LIMITE_BUSQUEDA_POR_DEFECTO = 20;
+    private static final int LIMITE_BUSQUEDA_MAXIMO = 100;
+
     @Autowired
     private ProductoRepository productoRepository;
 
-    // Obtener todos los productos como DTOs
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private ReservaStock reservaStock;
+
+    @Autowired
+    private StockTiendas stockTiendas;
+
+    @Autowired
+    private CatalogoProductos catalogoProductos;
+
+    @Autowired
+    private AgregadorVentasDiarias agregadorVentasDiarias;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Intentos de una edición que choca con otra concurrente, y espera base entre intentos
+    @Value("${panaderia.productos.intentos:10}")
+    private int intentos;
+
+    @Value("${panaderia.productos.espera-reintento:10ms}")
+    private Duration esperaReintento;
+
+    // Obtener todos los productos como DTOs (desde la caché del catálogo).
+    // Las lecturas cacheadas no abren transacción para no ocupar una conexión en cada acierto
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<ProductoDTORespuesta> getAllProductos() {
-        return productoRepository.findAll().stream()
-                .map(this::convertirADTORespuesta)
-                .collect(Collectors.toList());
+        return catalogoProductos.listar();
     }
 
-    // Búsqueda parcial: contiene el texto dado
+    // Búsqueda parcial: contiene el texto dado, sin distinguir tildes ni mayúsculas.
+    // Los resultados vienen ordenados por relevancia (nombre exacto, luego prefijo, luego el resto)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<ProductoDTORespuesta> getProductosPorNombreParcial(BuscarProductoDTO dto) {
-        List<Producto> productos = productoRepository.findByNombreContainingIgnoreCase(dto.getNombre());
+        int limite = dto.getLimite() == null ? LIMITE_BUSQUEDA_POR_DEFECTO : dto.getLimite();
+        if (limite < 1 || limite > LIMITE_BUSQUEDA_MAXIMO) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_BUSQUEDA_MAXIMO);
+        }
+        List<ProductoDTORespuesta> productos = catalogoProductos.buscar(dto.getNombre(), limite);
         if (productos.isEmpty()) {
             throw new ProductoNotFoundException("No se encontraron productos con nombre: " + dto.getNombre());
         }
-        return productos.stream()
-                .map(this::convertirADTORespuesta)
-                .collect(Collectors.toList());
+        return productos;
     }
 
     // Búsqueda exacta: nombre completo
+    @Transactional(propagation = Propagation.SUPPORTS)
     public ProductoDTORespuesta getProductoPorNombreExacto(BuscarProductoDTO dto) {
-        return productoRepository.findByNombre(dto.getNombre())
-                .map(this::convertirADTORespuesta)
+        return catalogoProductos.buscarPorNombre(dto.getNombre())
                 .orElseThrow(() -> new ProductoNotFoundException("Producto no encontrado con nombre: " + dto.getNombre()));
     }
 
@@ -59,35 +108,123 @@ public class ProductoService {
     public ProductoDTORespuesta save(ProductoDTO productoDTO) {
         Producto producto = convertirAEntidad(productoDTO);
         Producto guardado = productoRepository.save(producto);
+        catalogoProductos.invalidar(guardado.getId());
         return convertirADTORespuesta(guardado);
     }
 
-    // Eliminar producto por ID
+    // Eliminar producto por ID, junto con sus ventas. El resumen diario las descuenta como una
+    // anulación; de las estadísticas sale solo al invalidarlo en el catálogo
     @Transactional
     public void deleteById(Long id) {
+        agregadorVentasDiarias.descontar(ventaRepository.findResumenByProductoId(id));
+        ventaRepository.deleteByProductoId(id);
+        stockTiendas.eliminarProducto(id);
         productoRepository.deleteById(id);
+        reservaStock.invalidar(id);
+        catalogoProductos.invalidar(id);
     }
 
     // Buscar producto por ID como DTORespuesta
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public ProductoDTORespuesta findById(Long id) {
-        Producto producto = productoRepository.findById(id)
+        return catalogoProductos.buscarPorId(id)
                 .orElseThrow(() -> new ProductoNotFoundException("Producto no encontrado con ID: " + id));
-        return convertirADTORespuesta(producto);
     }
 
-    // Actualizar producto por ID
-    @Transactional
+    // Actualizar producto por ID. Nombre y precio van por la entidad con control de versión; el stock
+    // solo se toca si viene en el DTO, y entonces se fija con su propio UPDATE (como un inventario).
+    // Sin stock en el DTO, editar el precio no deshace lo que descontaron las ventas concurrentes
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ProductoDTORespuesta update(Long id, ProductoDTO productoDTO) {
-        Producto producto = productoRepository.findById(id)
+        ProductoDTORespuesta respuesta = conReintentos("update", () -> {
+            Producto producto = productoRepository.findById(id)
+                    .orElseThrow(() -> new ProductoNotFoundException("Producto no encontrado con ID: " + id));
+
+            producto.setNombre(productoDTO.getNombre());
+            producto.setPrecio(BigDecimal.valueOf(productoDTO.getPrecio()));
+            Producto guardado = productoRepository.saveAndFlush(producto);
+
+            Integer stock = productoDTO.getStock();
+            if (stock != null) {
+                productoRepository.fijarStock(id, stock);
+            } else {
+                stock = productoRepository.findStockById(id).orElse(0);
+            }
+            return new ProductoDTORespuesta(id, guardado.getNombre(), guardado.getPrecio().doubleValue(), stock);
+        });
+        reservaStock.invalidar(id);
+        catalogoProductos.invalidar(id);
+        return respuesta;
+    }
+
+    // Stock del producto en cada tienda, la principal primero
+    public List<StockTiendaDTO> getStockPorTienda(Long id) {
+        return stockTiendas.porProducto(id);
+    }
+
+    // Cambiar solo el stock de una tienda: sumar/restar unidades o fijar el valor contado. Es un
+    // UPDATE atómico, así que no choca con las ventas ni con las ediciones de nombre y precio.
+    // La respuesta trae el stock de la tienda del ajuste
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ProductoDTORespuesta ajustarStock(Long id, AjusteStockDTO ajusteDTO) {
+        if ((ajusteDTO.getAjuste() == null) == (ajusteDTO.getStock() == null)) {
+            throw new IllegalArgumentException("Indique 'ajuste' o 'stock', uno de los dos");
+        }
+        if (ajusteDTO.getStock() != null && ajusteDTO.getStock() < 0) {
+            throw new IllegalArgumentException("El stock no puede ser negativo");
+        }
+
+        long tiendaId = StockTiendas.tienda(ajusteDTO.getTiendaId());
+
+        conReintentos("ajustarStock", () -> {
+            int actualizados = ajusteDTO.getAjuste() != null
+                    ? stockTiendas.ajustar(tiendaId, id, ajusteDTO.getAjuste())
+                    : stockTiendas.fijar(tiendaId, id, ajusteDTO.getStock());
+            if (actualizados == 0) {
+                if (!productoRepository.existsById(id)) {
+                    throw new ProductoNotFoundException("Producto no encontrado con ID: " + id);
+                }
+                throw new StockInsuficienteException("El ajuste dejaría el stock en negativo");
+            }
+            return null;
+        });
+        reservaStock.invalidar(tiendaId, id);
+        if (StockTiendas.esPrincipal(tiendaId)) {
+            catalogoProductos.invalidarStock(id);
+            return findById(id);
+        }
+        ProductoDTORespuesta producto = catalogoProductos.buscarSinStock(id)
                 .orElseThrow(() -> new ProductoNotFoundException("Producto no encontrado con ID: " + id));
+        producto.setStock(stockTiendas.leer(tiendaId, id).orElse(0));
+        return producto;
+    }
 
-        producto.setNombre(productoDTO.getNombre());
-        producto.setPrecio(java.math.BigDecimal.valueOf(productoDTO.getPrecio()));
-        producto.setStock(productoDTO.getStock());
+    // Ejecuta la operación en su propia transacción y la repite si choca con otra concurrente
+    // (versión desactualizada o bloqueo). Entre intentos espera un tiempo al azar que se duplica
+    // en cada vuelta, para que los que chocaron no vuelvan a chocar todos juntos
+    private <T> T conReintentos(String operacion, Supplier<T> accion) {
+        for (int intento = 1; ; intento++) {
+            try {
+                return transactionTemplate.execute(estado -> accion.get());
+            } catch (ConcurrencyFailureException e) {
+                if (intento >= intentos) {
+                    meterRegistry.counter("panaderia.productos.conflictos", "operacion", operacion).increment();
+                    throw e;
+                }
+                meterRegistry.counter("panaderia.productos.reintentos", "operacion", operacion).increment();
+                esperar(intento, e);
+            }
+        }
+    }
 
-        Producto guardado = productoRepository.save(producto);
-        return convertirADTORespuesta(guardado);
+    private void esperar(int intento, ConcurrencyFailureException conflicto) {
+        long maximo = esperaReintento.toMillis() << Math.min(intento - 1, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maximo + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflicto;
+        }
     }
 
     // Métodos privados de conversión
@@ -95,7 +232,7 @@ public class ProductoService {
     private Producto convertirAEntidad(ProductoDTO dto) {
         Producto producto = new Producto();
         producto.setNombre(dto.getNombre());
-        producto.setPrecio(java.math.BigDecimal.valueOf(dto.getPrecio()));
+        producto.setPrecio(BigDecimal.valueOf(dto.getPrecio()));
         producto.setStock(dto.getStock());
         return producto;
     }
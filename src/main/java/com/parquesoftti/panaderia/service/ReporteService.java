@@ -0,0 +1,52 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.IngresoClienteDTO;
+import com.parquesoftti.panaderia.dto.VentaDiariaDTO;
+import com.parquesoftti.panaderia.dto.VentaMensualProductoDTO;
+import com.parquesoftti.panaderia.repository.VentaDiariaRepository;
+import com.parquesoftti.panaderia.repository.VentaRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+@Service
+@AllArgsConstructor
+@Transactional(readOnly = true)
+public class ReporteService {
+
+    private final VentaDiariaRepository ventaDiariaRepository;
+
+    private final VentaRepository ventaRepository;
+
+    private final AgregadorVentasDiarias agregadorVentasDiarias;
+
+    // Unidades e ingresos por día y producto, leídos del resumen ventas_diarias
+    public List<VentaDiariaDTO> getVentasDiarias(LocalDate desde, LocalDate hasta) {
+        if (hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("La fecha 'desde' no puede ser posterior a 'hasta'");
+        }
+        return ventaDiariaRepository.findResumenDiario(desde, hasta);
+    }
+
+    // Unidades e ingresos por producto en un mes, sumando el resumen diario
+    public List<VentaMensualProductoDTO> getVentasMensualesPorProducto(YearMonth mes) {
+        return ventaDiariaRepository.findResumenPorProducto(mes.atDay(1), mes.atEndOfMonth());
+    }
+
+    // Ingresos por cliente en un mes. El resumen diario no guarda el cliente, así que se
+    // agrega sobre ventas acotando por el índice de fecha
+    public List<IngresoClienteDTO> getIngresosMensualesPorCliente(YearMonth mes) {
+        return ventaRepository.findIngresosPorCliente(mes.atDay(1).atStartOfDay(),
+                mes.plusMonths(1).atDay(1).atStartOfDay());
+    }
+
+    // Vuelve a calcular ventas_diarias desde las ventas que siguen en la base (ver AgregadorVentasDiarias)
+    @Transactional
+    public int reconstruirVentasDiarias() {
+        return agregadorVentasDiarias.reconstruir();
+    }
+}
@@ -0,0 +1,130 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.exception.ProductoNotFoundException;
+import com.parquesoftti.panaderia.model.StockTienda;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Contador de stock en memoria por tienda y producto que hace de filtro delante de la base.
+// Rechaza las ventas que ya no caben sin ir a PostgreSQL; las que pasan el filtro
+// se confirman igual con el descuento condicional de StockTiendas.descontar,
+// que es quien tiene la última palabra. Cada tienda tiene sus propios contadores.
+@Component
+public class ReservaStock {
+
+    private final ConcurrentHashMap<ClaveStock, AtomicInteger> disponibles = new ConcurrentHashMap<>();
+
+    // Unidades vendidas por el diario de ventas que todavía no se restaron en la base.
+    // Al recargar un contador se descuentan, porque la base aún no las refleja.
+    // El diario solo vende en la tienda principal, así que va por producto
+    private final ConcurrentHashMap<Long, AtomicInteger> sinVolcar = new ConcurrentHashMap<>();
+
+    private final StockTiendas stockTiendas;
+
+    public ReservaStock(StockTiendas stockTiendas) {
+        this.stockTiendas = stockTiendas;
+    }
+
+    // Aparta la cantidad en memoria. Devuelve false si no alcanza.
+    // Dentro de una transacción, la reserva se devuelve sola si se hace rollback.
+    public boolean reservar(long tiendaId, Long productoId, int cantidad) {
+        AtomicInteger disponible = disponibles.computeIfAbsent(new ClaveStock(tiendaId, productoId), this::cargar);
+
+        int actual;
+        do {
+            actual = disponible.get();
+            if (actual < cantidad) {
+                return false;
+            }
+        } while (!disponible.compareAndSet(actual, actual - cantidad));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        // Se devuelve al mismo contador que se usó, aunque ya se haya invalidado
+                        disponible.addAndGet(cantidad);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    // Descarta el contador para que se vuelva a leer de la base. Si hay transacción
+    // activa se hace al terminar, para no recargar un valor todavía sin confirmar.
+    public void invalidar(long tiendaId, Long productoId) {
+        ClaveStock clave = new ClaveStock(tiendaId, productoId);
+        alTerminar(() -> disponibles.remove(clave));
+    }
+
+    // Descarta los contadores del producto en todas las tiendas (edición o baja del producto)
+    public void invalidar(Long productoId) {
+        alTerminar(() -> disponibles.keySet().removeIf(clave -> clave.productoId() == productoId));
+    }
+
+    private void alTerminar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    // Reserva para una venta que se guardará en la base más tarde (diario de ventas): además de
+    // apartar la cantidad la anota como pendiente de volcar. Las dos cosas pasan con la entrada
+    // del producto bloqueada, así una recarga del contador nunca ve una sin la otra
+    public boolean reservarComprometida(Long productoId, int cantidad) {
+        boolean[] reservado = {false};
+        disponibles.compute(new ClaveStock(StockTienda.TIENDA_PRINCIPAL, productoId), (clave, existente) -> {
+            AtomicInteger disponible = existente != null ? existente : cargar(clave);
+            int actual;
+            do {
+                actual = disponible.get();
+                if (actual < cantidad) {
+                    return disponible;
+                }
+            } while (!disponible.compareAndSet(actual, actual - cantidad));
+            sinVolcar.computeIfAbsent(productoId, k -> new AtomicInteger()).addAndGet(cantidad);
+            reservado[0] = true;
+            return disponible;
+        });
+        return reservado[0];
+    }
+
+    // Las unidades comprometidas ya se restaron en la base (o se descartaron)
+    public void volcado(Long productoId, int cantidad) {
+        sinVolcar.computeIfPresent(productoId, (id, pendiente) -> pendiente.addAndGet(-cantidad) <= 0 ? null : pendiente);
+    }
+
+    // Devuelve al contador una reserva del diario que no llegó a venderse
+    public void liberar(Long productoId, int cantidad) {
+        AtomicInteger disponible = disponibles.get(new ClaveStock(StockTienda.TIENDA_PRINCIPAL, productoId));
+        if (disponible != null) {
+            disponible.addAndGet(cantidad);
+        }
+    }
+
+    private AtomicInteger cargar(ClaveStock clave) {
+        // Primero lo pendiente y después la base: si un volcado se confirma entre las dos
+        // lecturas el contador queda por debajo (rechaza de más), nunca por encima
+        AtomicInteger pendiente = StockTiendas.esPrincipal(clave.tiendaId()) ? sinVolcar.get(clave.productoId()) : null;
+        int comprometidas = pendiente == null ? 0 : pendiente.get();
+        Integer stock = stockTiendas.leer(clave.tiendaId(), clave.productoId())
+                .orElseThrow(() -> new ProductoNotFoundException("Producto no encontrado con ID: " + clave.productoId()));
+        return new AtomicInteger(stock - comprometidas);
+    }
+
+    private record ClaveStock(long tiendaId, long productoId) {
+    }
+}
@@ -0,0 +1,143 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.StockTiendaDTO;
+import com.parquesoftti.panaderia.exception.ProductoNotFoundException;
+import com.parquesoftti.panaderia.model.StockTienda;
+import com.parquesoftti.panaderia.model.StockTiendaId;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import com.parquesoftti.panaderia.repository.StockTiendaRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// Dónde vive el stock de cada tienda. El de la tienda principal sigue en productos.stock, que
+// es lo que muestran el catálogo, los avisos de stock y las estadísticas; el de las demás está
+// en stock_tiendas, una fila por tienda y producto. Las ventas de una tienda solo tocan sus
+// filas, así que las tiendas no compiten por el mismo bloqueo
+@Component
+public class StockTiendas {
+
+    private final ProductoRepository productoRepository;
+    private final StockTiendaRepository stockTiendaRepository;
+
+    public StockTiendas(ProductoRepository productoRepository, StockTiendaRepository stockTiendaRepository) {
+        this.productoRepository = productoRepository;
+        this.stockTiendaRepository = stockTiendaRepository;
+    }
+
+    // La tienda pedida, o la principal si no se indicó ninguna
+    public static long tienda(Long tiendaId) {
+        if (tiendaId == null) {
+            return StockTienda.TIENDA_PRINCIPAL;
+        }
+        if (tiendaId < 1) {
+            throw new IllegalArgumentException("Tienda inválida: " + tiendaId);
+        }
+        return tiendaId;
+    }
+
+    public static boolean esPrincipal(long tiendaId) {
+        return tiendaId == StockTienda.TIENDA_PRINCIPAL;
+    }
+
+    // Stock del producto en la tienda; vacío si el producto no existe. Una tienda que nunca
+    // recibió el producto tiene stock 0
+    public Optional<Integer> leer(long tiendaId, Long productoId) {
+        if (esPrincipal(tiendaId)) {
+            return productoRepository.findStockById(productoId);
+        }
+        Optional<Integer> stock = stockTiendaRepository.findStock(tiendaId, productoId);
+        if (stock.isPresent() || !productoRepository.existsById(productoId)) {
+            return stock;
+        }
+        return Optional.of(0);
+    }
+
+    // Descuento condicional en la fila de la tienda. false si no alcanzaba
+    public boolean descontar(long tiendaId, Long productoId, int cantidad) {
+        return esPrincipal(tiendaId)
+                ? productoRepository.descontarStock(productoId, cantidad) > 0
+                : stockTiendaRepository.descontarStock(tiendaId, productoId, cantidad) > 0;
+    }
+
+    // Descuento condicional de varias líneas: un batch para la principal y otro para las demás
+    // tiendas. El resultado va en el orden de las líneas, 1 si se descontó y 0 si no alcanzaba
+    public int[] descontarEnLote(List<Long> tiendaIds, List<Long> productoIds, List<Integer> cantidades) {
+        List<Integer> principal = new ArrayList<>();
+        List<Integer> otras = new ArrayList<>();
+        for (int i = 0; i < tiendaIds.size(); i++) {
+            (esPrincipal(tiendaIds.get(i)) ? principal : otras).add(i);
+        }
+
+        int[] resultado = new int[tiendaIds.size()];
+        if (!principal.isEmpty()) {
+            int[] descontadas = productoRepository.descontarStockEnLote(
+                    principal.stream().map(productoIds::get).toList(),
+                    principal.stream().map(cantidades::get).toList());
+            for (int k = 0; k < principal.size(); k++) {
+                resultado[principal.get(k)] = descontadas[k];
+            }
+        }
+        if (!otras.isEmpty()) {
+            int[] descontadas = stockTiendaRepository.descontarStockEnLote(
+                    otras.stream().map(tiendaIds::get).toList(),
+                    otras.stream().map(productoIds::get).toList(),
+                    otras.stream().map(cantidades::get).toList());
+            for (int k = 0; k < otras.size(); k++) {
+                resultado[otras.get(k)] = descontadas[k];
+            }
+        }
+        return resultado;
+    }
+
+    // Suma (o resta) unidades. Devuelve 0 si el producto no existe o si el stock quedaría negativo.
+    // La primera entrada de un producto en una tienda crea su fila
+    public int ajustar(long tiendaId, Long productoId, int ajuste) {
+        if (esPrincipal(tiendaId)) {
+            return productoRepository.ajustarStock(productoId, ajuste);
+        }
+        int actualizados = stockTiendaRepository.ajustarStock(tiendaId, productoId, ajuste);
+        if (actualizados == 0 && ajuste >= 0 && crearFila(tiendaId, productoId, ajuste)) {
+            return 1;
+        }
+        return actualizados;
+    }
+
+    // Fija el valor contado en un inventario. Devuelve 0 si el producto no existe
+    public int fijar(long tiendaId, Long productoId, int stock) {
+        if (esPrincipal(tiendaId)) {
+            return productoRepository.fijarStock(productoId, stock);
+        }
+        int actualizados = stockTiendaRepository.fijarStock(tiendaId, productoId, stock);
+        if (actualizados == 0 && crearFila(tiendaId, productoId, stock)) {
+            return 1;
+        }
+        return actualizados;
+    }
+
+    // Stock del producto en todas las tiendas, la principal primero
+    public List<StockTiendaDTO> porProducto(Long productoId) {
+        Integer principal = productoRepository.findStockById(productoId)
+                .orElseThrow(() -> new ProductoNotFoundException("Producto no encontrado con ID: " + productoId));
+        List<StockTiendaDTO> stocks = new ArrayList<>();
+        stocks.add(new StockTiendaDTO(StockTienda.TIENDA_PRINCIPAL, principal));
+        stocks.addAll(stockTiendaRepository.findByProductoId(productoId));
+        return stocks;
+    }
+
+    // Antes de eliminar el producto
+    public void eliminarProducto(Long productoId) {
+        stockTiendaRepository.deleteByProductoId(productoId);
+    }
+
+    private boolean crearFila(long tiendaId, Long productoId, int stock) {
+        StockTiendaId id = new StockTiendaId(tiendaId, productoId);
+        if (stockTiendaRepository.existsById(id) || !productoRepository.existsById(productoId)) {
+            return false;
+        }
+        stockTiendaRepository.saveAndFlush(new StockTienda(id, stock));
+        return true;
+    }
+}
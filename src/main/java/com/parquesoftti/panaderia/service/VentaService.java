@@ -1,25 +1,62 @@
 package com.parquesoftti.panaderia.service;
 
+import com.parquesoftti.panaderia.dto.FiltroVentasDTO;
+import com.parquesoftti.panaderia.dto.ModoLote;
+import com.parquesoftti.panaderia.dto.PaginaVentasDTO;
+import com.parquesoftti.panaderia.dto.ResultadoLineaDTO;
+import com.parquesoftti.panaderia.dto.ResultadoLoteDTO;
 import com.parquesoftti.panaderia.dto.VentaDTO;
 import com.parquesoftti.panaderia.dto.VentaDTORespuesta;
+import com.parquesoftti.panaderia.exception.ClaveIdempotenciaException;
+import com.parquesoftti.panaderia.exception.ClienteNotFoundException;
+import com.parquesoftti.panaderia.exception.ProductoNotFoundException;
+import com.parquesoftti.panaderia.exception.StockInsuficienteException;
+import com.parquesoftti.panaderia.exception.VentaNotFoundException;
+import com.parquesoftti.panaderia.model.ClaveIdempotencia;
 import com.parquesoftti.panaderia.model.Producto;
 import com.parquesoftti.panaderia.model.Cliente;
 import com.parquesoftti.panaderia.model.Venta;
+import com.parquesoftti.panaderia.repository.ClaveIdempotenciaRepository;
 import com.parquesoftti.panaderia.repository.ProductoRepository;
 import com.parquesoftti.panaderia.repository.ClienteRepository;
 import com.parquesoftti.panaderia.repository.VentaRepository;
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.time.temporal.TemporalAdjusters.previousOrSame;
 
 @Service
 @Transactional(readOnly = true)
+@Timed(value = "panaderia.servicio", histogram = true)
 public class VentaService {
 
+    private static final int LIMITE_MAXIMO_PAGINA = 1000;
+
     @Autowired
     private VentaRepository ventaRepository;
 
@@ -29,46 +66,129 @@ public class VentaService {
     @Autowired
     private ClienteRepository clienteRepository;
 
+    @Autowired
+    private ClaveIdempotenciaRepository claveIdempotenciaRepository;
+
+    @Autowired
+    private ReservaStock reservaStock;
+
+    @Autowired
+    private StockTiendas stockTiendas;
+
+    @Autowired
+    private AgregadorVentasDiarias agregadorVentasDiarias;
+
+    @Autowired
+    private CatalogoProductos catalogoProductos;
+
+    @Autowired
+    private EstadisticasVentas estadisticasVentas;
+
+    // Solo existe con panaderia.diario.habilitado=true
+    @Autowired(required = false)
+    private DiarioVentas diarioVentas;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     // Devuelve todas las ventas como DTOs
     public List<VentaDTORespuesta> getAllVentas() {
-        return ventaRepository.findAll().stream()
-                .map(this::convertirADTORespuesta)
-                .collect(Collectors.toList());
+        return ventaRepository.findAllDTO();
     }
 
     // Devuelve una venta por ID como DTO
     public VentaDTORespuesta getVentaById(Long id) {
-        Venta venta = ventaRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Venta no encontrada"));
-        return convertirADTORespuesta(venta);
+        return ventaRepository.findDTOById(id)
+                .orElseThrow(() -> new VentaNotFoundException("Venta no encontrada con ID: " + id));
     }
 
     // Devuelve ventas por cliente como DTOs
     public List<VentaDTORespuesta> getVentasByCliente(Long clienteId) {
-        return ventaRepository.findByClienteId(clienteId).stream()
-                .map(this::convertirADTORespuesta)
-                .collect(Collectors.toList());
+        return ventaRepository.findDTOByClienteId(clienteId);
     }
 
     // Devuelve ventas por producto como DTOs
     public List<VentaDTORespuesta> getVentasByProducto(Long productoId) {
-        return ventaRepository.findByProductoId(productoId).stream()
-                .map(this::convertirADTORespuesta)
-                .collect(Collectors.toList());
+        return ventaRepository.findDTOByProductoId(productoId);
     }
 
     // Devuelve ventas por cliente y producto como DTOs
     public List<VentaDTORespuesta> getVentasPorClienteYProducto(Long clienteId, Long productoId) {
-        return ventaRepository.findByClienteIdAndProductoId(clienteId, productoId).stream()
-                .map(this::convertirADTORespuesta)
-                .collect(Collectors.toList());
+        return ventaRepository.findDTOByClienteIdAndProductoId(clienteId, productoId);
     }
 
     // Devuelve ventas por fecha específica como DTOs
     public List<VentaDTORespuesta> getVentasPorFecha(LocalDateTime fecha) {
-        return ventaRepository.findByFechaVenta(fecha).stream()
-                .map(this::convertirADTORespuesta)
-                .collect(Collectors.toList());
+        return ventaRepository.findDTOByFechaVenta(fecha);
+    }
+
+    // Devuelve ventas en el intervalo [desde, hasta)
+    public List<VentaDTORespuesta> getVentasEntre(LocalDateTime desde, LocalDateTime hasta) {
+        if (!desde.isBefore(hasta)) {
+            throw new IllegalArgumentException("La fecha 'desde' debe ser anterior a 'hasta'");
+        }
+        return ventaRepository.findDTOByFechaVentaEntre(desde, hasta);
+    }
+
+    // Devuelve las ventas de un día completo
+    public List<VentaDTORespuesta> getVentasDelDia(LocalDate dia) {
+        return getVentasEntre(dia.atStartOfDay(), dia.plusDays(1).atStartOfDay());
+    }
+
+    // Devuelve las ventas de la semana (lunes a domingo) que contiene el día dado
+    public List<VentaDTORespuesta> getVentasDeLaSemana(LocalDate dia) {
+        LocalDate lunes = dia.with(previousOrSame(DayOfWeek.MONDAY));
+        return getVentasEntre(lunes.atStartOfDay(), lunes.plusWeeks(1).atStartOfDay());
+    }
+
+    // Devuelve las ventas de un mes completo
+    public List<VentaDTORespuesta> getVentasDelMes(YearMonth mes) {
+        return getVentasEntre(mes.atDay(1).atStartOfDay(), mes.plusMonths(1).atDay(1).atStartOfDay());
+    }
+
+    // Página de ventas ordenada por (fecha, id). El cursor es opaco y apunta a la
+    // última venta de la página anterior, así que cada página cuesta lo mismo
+    public PaginaVentasDTO getPaginaVentas(FiltroVentasDTO filtro, String cursor, int limite) {
+        if (limite < 1 || limite > LIMITE_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO_PAGINA);
+        }
+
+        CursorVenta despuesDe = cursor == null || cursor.isBlank() ? new CursorVenta(null, null) : decodificarCursor(cursor);
+
+        // Se pide una fila de más para saber si hay página siguiente
+        List<VentaDTORespuesta> ventas = ventaRepository.buscarPagina(filtro, despuesDe.fecha(), despuesDe.id(), limite + 1);
+        if (ventas.size() <= limite) {
+            return new PaginaVentasDTO(ventas, null);
+        }
+        List<VentaDTORespuesta> pagina = ventas.subList(0, limite);
+        return new PaginaVentasDTO(pagina, codificarCursor(pagina.get(limite - 1)));
+    }
+
+    // Recorre las ventas del filtro fila a fila sin acumularlas en memoria
+    public void recorrerVentas(FiltroVentasDTO filtro, Consumer<VentaDTORespuesta> consumidor) {
+        try (Stream<VentaDTORespuesta> ventas = ventaRepository.streamVentas(filtro)) {
+            ventas.forEach(consumidor);
+        }
+    }
+
+    private String codificarCursor(VentaDTORespuesta venta) {
+        String valor = venta.getFechaVenta() + "|" + venta.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private CursorVenta decodificarCursor(String cursor) {
+        try {
+            String[] partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return new CursorVenta(LocalDateTime.parse(partes[0]), Long.valueOf(partes[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+    }
+
+    private record CursorVenta(LocalDateTime fecha, Long id) {
     }
 
     // Método auxiliar para convertir Venta a DTORespuesta
@@ -84,30 +204,79 @@ public class VentaService {
         );
     }
 
-    // Método para registrar venta (ya lo tienes bien hecho)
+    // Registra una venta descontando el stock de su tienda sin bloquear la fila del producto
     @Transactional
+    @Counted(value = "panaderia.ventas", extraTags = {"canal", "sincrona"})
     public VentaDTORespuesta registrarVenta(VentaDTO ventaDTO) {
+        return registrar(ventaDTO);
+    }
+
+    // Registra una venta con clave de idempotencia. Si la clave ya registró una venta, la devuelve
+    // sin tocar el stock; si no, registra la venta y guarda la clave en la misma transacción.
+    // Dos transacciones con la misma clave chocan en la clave primaria de ventas_idempotencia y
+    // la segunda se deshace entera (DataIntegrityViolationException)
+    @Transactional
+    @Counted(value = "panaderia.ventas", extraTags = {"canal", "idempotente"})
+    public VentaDTORespuesta registrarVenta(VentaDTO ventaDTO, String claveIdempotencia) {
+        Optional<VentaDTORespuesta> registrada = getVentaPorClave(claveIdempotencia, ventaDTO.getTiendaId());
+        if (registrada.isPresent()) {
+            return registrada.get();
+        }
+        VentaDTORespuesta respuesta = registrar(ventaDTO);
+        claveIdempotenciaRepository.saveAndFlush(
+                new ClaveIdempotencia(claveIdempotencia, respuesta.getId(), LocalDateTime.now()));
+        return respuesta;
+    }
+
+    // Venta registrada con la clave, si la hay. La respuesta no trae la tienda, así que esa se
+    // compara aquí: la misma clave desde otra tienda es otra venta, no un reintento
+    public Optional<VentaDTORespuesta> getVentaPorClave(String claveIdempotencia, Long tiendaId) {
+        Optional<VentaDTORespuesta> registrada = claveIdempotenciaRepository.findById(claveIdempotencia)
+                .map(clave -> getVentaById(clave.getVentaId()));
+        registrada.ifPresent(venta -> {
+            Optional<Long> tienda = ventaRepository.findTiendaIdByIdAndFechaVenta(venta.getId(), venta.getFechaVenta());
+            if (!tienda.equals(Optional.of(StockTiendas.tienda(tiendaId)))) {
+                throw new ClaveIdempotenciaException("La clave " + claveIdempotencia + " ya se usó para otra venta");
+            }
+        });
+        return registrada;
+    }
+
+    private VentaDTORespuesta registrar(VentaDTO ventaDTO) {
+        if (ventaDTO.getCantidad() <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor que cero");
+        }
+        long tiendaId = StockTiendas.tienda(ventaDTO.getTiendaId());
 
         Cliente cliente = clienteRepository.findById(ventaDTO.getClienteId())
-                .orElseThrow(() -> new RuntimeException("Cliente no encontrado"));
+                .orElseThrow(() -> new ClienteNotFoundException("Cliente no encontrado con ID: " + ventaDTO.getClienteId()));
 
-        Producto producto = productoRepository.findById(ventaDTO.getProductoId())
-                .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
+        // Filtro en memoria: si el contador ya no alcanza se rechaza sin ir a la base
+        if (!reservaStock.reservar(tiendaId, ventaDTO.getProductoId(), ventaDTO.getCantidad())) {
+            throw new StockInsuficienteException("No hay suficiente stock");
+        }
 
-        if (producto.getStock() < ventaDTO.getCantidad()) {
-            throw new RuntimeException("No hay suficiente stock");
+        // Descuento condicional en la base; si no alcanza, el contador estaba desfasado
+        if (!stockTiendas.descontar(tiendaId, ventaDTO.getProductoId(), ventaDTO.getCantidad())) {
+            reservaStock.invalidar(tiendaId, ventaDTO.getProductoId());
+            throw new StockInsuficienteException("No hay suficiente stock");
         }
+        invalidarStock(tiendaId, ventaDTO.getProductoId());
 
-        producto.setStock(producto.getStock() - ventaDTO.getCantidad());
-        productoRepository.save(producto);
+        Producto producto = productoRepository.findById(ventaDTO.getProductoId())
+                .orElseThrow(() -> new ProductoNotFoundException("Producto no encontrado con ID: " + ventaDTO.getProductoId()));
 
         Venta nuevaVenta = new Venta();
+        nuevaVenta.setTiendaId(tiendaId);
         nuevaVenta.setCliente(cliente);
         nuevaVenta.setProducto(producto);
         nuevaVenta.setCantidad(ventaDTO.getCantidad());
-        nuevaVenta.setFechaVenta(LocalDateTime.now());
+        nuevaVenta.setPrecioUnitario(producto.getPrecio());
+        // Con la precisión de la columna, para que la respuesta sea igual a la que se relee después
+        nuevaVenta.setFechaVenta(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
 
         Venta ventaGuardada = ventaRepository.save(nuevaVenta);
+        anotarEnResumen(ventaGuardada, 1);
 
         return new VentaDTORespuesta(
                 ventaGuardada.getId(),
@@ -120,6 +289,142 @@ public class VentaService {
         );
     }
 
+    // Registra la venta en el diario local y responde sin esperar al INSERT en ventas,
+    // que llega unos milisegundos después en lote. Sin transacción: no hay nada que deshacer.
+    // El diario trabaja sobre el stock de la tienda principal
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Counted(value = "panaderia.ventas", extraTags = {"canal", "diferida"})
+    public VentaDTORespuesta registrarVentaDiferida(VentaDTO ventaDTO) {
+        if (diarioVentas == null) {
+            throw new IllegalStateException("El registro diferido de ventas no está habilitado");
+        }
+        if (!StockTiendas.esPrincipal(StockTiendas.tienda(ventaDTO.getTiendaId()))) {
+            throw new IllegalArgumentException("El registro diferido solo está disponible para la tienda principal");
+        }
+        return diarioVentas.registrar(ventaDTO);
+    }
+
+    // Registra un ticket de varias líneas: una consulta por tabla para resolver
+    // clientes y productos, un batch para el stock (uno más si hay líneas de otras tiendas)
+    // y las ventas en lote
+    @Transactional
+    public ResultadoLoteDTO registrarLote(List<VentaDTO> lineas, ModoLote modo) {
+        if (lineas == null || lineas.isEmpty()) {
+            throw new IllegalArgumentException("El lote no tiene líneas");
+        }
+
+        Map<Long, Cliente> clientes = clienteRepository.findAllById(idsDistintos(lineas, VentaDTO::getClienteId)).stream()
+                .collect(Collectors.toMap(Cliente::getId, Function.identity()));
+        Map<Long, Producto> productos = productoRepository.findAllById(idsDistintos(lineas, VentaDTO::getProductoId)).stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+
+        ResultadoLineaDTO[] resultados = new ResultadoLineaDTO[lineas.size()];
+        List<Integer> pendientes = new ArrayList<>();
+
+        // Validación y reserva en memoria de cada línea, sin tocar todavía la base
+        for (int i = 0; i < lineas.size(); i++) {
+            try {
+                validarLinea(i + 1, lineas.get(i), clientes, productos);
+                if (!reservaStock.reservar(StockTiendas.tienda(lineas.get(i).getTiendaId()),
+                        lineas.get(i).getProductoId(), lineas.get(i).getCantidad())) {
+                    throw new StockInsuficienteException("Línea " + (i + 1) + ": No hay suficiente stock");
+                }
+                pendientes.add(i);
+            } catch (RuntimeException e) {
+                resultados[i] = rechazarLinea(i + 1, e, modo);
+            }
+        }
+
+        // Descuento condicional de todas las líneas aceptadas
+        int[] descontadas = stockTiendas.descontarEnLote(
+                pendientes.stream().map(i -> StockTiendas.tienda(lineas.get(i).getTiendaId())).toList(),
+                pendientes.stream().map(i -> lineas.get(i).getProductoId()).toList(),
+                pendientes.stream().map(i -> lineas.get(i).getCantidad()).toList());
+
+        // Con la precisión de la columna, como en registrar
+        LocalDateTime ahora = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<Integer> aceptadas = new ArrayList<>();
+        List<Venta> nuevasVentas = new ArrayList<>();
+        for (int k = 0; k < pendientes.size(); k++) {
+            int i = pendientes.get(k);
+            VentaDTO linea = lineas.get(i);
+            long tiendaId = StockTiendas.tienda(linea.getTiendaId());
+            if (descontadas[k] == 0) {
+                reservaStock.invalidar(tiendaId, linea.getProductoId());
+                resultados[i] = rechazarLinea(i + 1,
+                        new StockInsuficienteException("Línea " + (i + 1) + ": No hay suficiente stock"), modo);
+                continue;
+            }
+
+            invalidarStock(tiendaId, linea.getProductoId());
+
+            Venta venta = new Venta();
+            venta.setTiendaId(tiendaId);
+            venta.setCliente(clientes.get(linea.getClienteId()));
+            venta.setProducto(productos.get(linea.getProductoId()));
+            venta.setCantidad(linea.getCantidad());
+            venta.setPrecioUnitario(venta.getProducto().getPrecio());
+            venta.setFechaVenta(ahora);
+            nuevasVentas.add(venta);
+            aceptadas.add(i);
+        }
+
+        List<Venta> guardadas = ventaRepository.saveAll(nuevasVentas);
+        for (int k = 0; k < guardadas.size(); k++) {
+            int i = aceptadas.get(k);
+            anotarEnResumen(guardadas.get(k), 1);
+            resultados[i] = new ResultadoLineaDTO(i + 1, true, convertirADTORespuesta(guardadas.get(k)), null);
+        }
+
+        contarLineas(aceptadas.size(), null);
+        return new ResultadoLoteDTO(aceptadas.size(), lineas.size() - aceptadas.size(), Arrays.asList(resultados));
+    }
+
+    private List<Long> idsDistintos(List<VentaDTO> lineas, Function<VentaDTO, Long> id) {
+        return lineas.stream().map(id).filter(Objects::nonNull).distinct().toList();
+    }
+
+    private void validarLinea(int numero, VentaDTO linea, Map<Long, Cliente> clientes, Map<Long, Producto> productos) {
+        if (linea.getClienteId() == null || linea.getProductoId() == null || linea.getCantidad() == null) {
+            throw new IllegalArgumentException("Línea " + numero + ": Todos los campos son obligatorios");
+        }
+        if (linea.getCantidad() <= 0) {
+            throw new IllegalArgumentException("Línea " + numero + ": La cantidad debe ser mayor que cero");
+        }
+        if (linea.getTiendaId() != null && linea.getTiendaId() < 1) {
+            throw new IllegalArgumentException("Línea " + numero + ": Tienda inválida: " + linea.getTiendaId());
+        }
+        if (!clientes.containsKey(linea.getClienteId())) {
+            throw new ClienteNotFoundException("Línea " + numero + ": Cliente no encontrado con ID: " + linea.getClienteId());
+        }
+        if (!productos.containsKey(linea.getProductoId())) {
+            throw new ProductoNotFoundException("Línea " + numero + ": Producto no encontrado con ID: " + linea.getProductoId());
+        }
+    }
+
+    // En modo todo o nada el primer error cancela el lote entero (rollback)
+    private ResultadoLineaDTO rechazarLinea(int numero, RuntimeException error, ModoLote modo) {
+        contarLineas(1, error);
+        if (modo == ModoLote.TODO_O_NADA) {
+            throw error;
+        }
+        return new ResultadoLineaDTO(numero, false, null, error.getMessage());
+    }
+
+    // Las líneas de un lote van al mismo contador que las ventas sueltas (panaderia.ventas),
+    // con las mismas etiquetas que pone @Counted, para poder sumarlas por resultado
+    private void contarLineas(int cantidad, RuntimeException error) {
+        if (cantidad == 0) {
+            return;
+        }
+        meterRegistry.counter("panaderia.ventas",
+                "class", VentaService.class.getName(),
+                "method", "registrarLote",
+                "result", error == null ? "success" : "failure",
+                "exception", error == null ? "none" : error.getClass().getSimpleName(),
+                "canal", "lote").increment(cantidad);
+    }
+
     @Transactional
     public Venta saveVenta(Venta venta) {
         return ventaRepository.save(venta);
@@ -127,6 +432,27 @@ public class VentaService {
 
     @Transactional
     public void deleteVenta(Long id) {
-        ventaRepository.deleteById(id);
+        ventaRepository.findById(id).ifPresent(venta -> {
+            ventaRepository.delete(venta);
+            anotarEnResumen(venta, -1);
+        });
+    }
+
+    // El catálogo, los avisos y las estadísticas muestran el stock de la tienda principal;
+    // las ventas de otras tiendas solo cambian su contador y su fila
+    private void invalidarStock(long tiendaId, Long productoId) {
+        if (StockTiendas.esPrincipal(tiendaId)) {
+            catalogoProductos.invalidarStock(productoId);
+        }
+    }
+
+    // Suma (signo 1) o resta (signo -1) la venta en el resumen diario por producto y en las
+    // estadísticas en memoria (más vendidos)
+    private void anotarEnResumen(Venta venta, int signo) {
+        BigDecimal precio = venta.getPrecioUnitario() != null ? venta.getPrecioUnitario() : venta.getProducto().getPrecio();
+        long unidades = (long) signo * venta.getCantidad();
+        agregadorVentasDiarias.registrar(venta.getFechaVenta().toLocalDate(), venta.getProducto().getId(), unidades,
+                precio == null ? BigDecimal.ZERO : precio.multiply(BigDecimal.valueOf(unidades)));
+        estadisticasVentas.registrar(venta.getFechaVenta(), venta.getProducto().getId(), unidades);
     }
 }
\ No newline at end of file
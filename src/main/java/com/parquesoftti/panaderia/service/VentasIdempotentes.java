@@ -0,0 +1,146 @@
+package com.parquesoftti.panaderia.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.parquesoftti.panaderia.dto.VentaDTO;
+import com.parquesoftti.panaderia.dto.VentaDTORespuesta;
+import com.parquesoftti.panaderia.exception.ClaveIdempotenciaException;
+import com.parquesoftti.panaderia.model.ClaveIdempotencia;
+import com.parquesoftti.panaderia.repository.ClaveIdempotenciaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Ventas con clave de idempotencia: una caja que reintenta POST /api/ventas/registrar con la
+// misma clave recibe la venta original y el stock no se vuelve a descontar.
+// En memoria se guarda la respuesta de cada clave reciente; las peticiones que llegan mientras
+// la primera todavía se registra esperan su resultado (enCurso) en lugar de ir a la base. Si la
+// primera falla (sin stock, cliente inexistente) la clave queda libre para el siguiente intento.
+// Entre instancias, o pasada la caché, decide la clave primaria de ventas_idempotencia.
+// Es @Lazy para que la purga programada no cree VentaService al arrancar con el perfil rapido;
+// las claves las purga cualquier instancia que ya recibió ventas
+@Component
+@Lazy
+public class VentasIdempotentes {
+
+    private static final Logger log = LoggerFactory.getLogger(VentasIdempotentes.class);
+
+    private final VentaService ventaService;
+    private final ClaveIdempotenciaRepository claveIdempotenciaRepository;
+    private final Duration retencion;
+    private final Cache<String, Registrada> respuestas;
+    // Solo los registros sin terminar; al terminar bien, la respuesta pasa a la caché
+    private final ConcurrentHashMap<String, CompletableFuture<Registrada>> enCurso = new ConcurrentHashMap<>();
+
+    public VentasIdempotentes(VentaService ventaService, ClaveIdempotenciaRepository claveIdempotenciaRepository,
+                              @Value("${panaderia.idempotencia.ttl:10m}") Duration ttl,
+                              @Value("${panaderia.idempotencia.maximo:100000}") long maximo,
+                              @Value("${panaderia.idempotencia.retencion:7d}") Duration retencion) {
+        this.ventaService = ventaService;
+        this.claveIdempotenciaRepository = claveIdempotenciaRepository;
+        this.retencion = retencion;
+        this.respuestas = Caffeine.newBuilder()
+                .maximumSize(maximo)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public VentaDTORespuesta registrar(String clave, VentaDTO ventaDTO) {
+        validarClave(clave);
+
+        Registrada registrada = respuestas.getIfPresent(clave);
+        if (registrada != null) {
+            return comprobar(clave, ventaDTO, registrada);
+        }
+
+        CompletableFuture<Registrada> nueva = new CompletableFuture<>();
+        CompletableFuture<Registrada> anterior = enCurso.putIfAbsent(clave, nueva);
+        if (anterior != null) {
+            return comprobar(clave, ventaDTO, esperar(anterior));
+        }
+
+        try {
+            // La anterior pudo terminar entre la consulta a la caché y putIfAbsent
+            registrada = respuestas.getIfPresent(clave);
+            if (registrada == null) {
+                registrada = registrarEnBase(clave, ventaDTO);
+                respuestas.put(clave, registrada);
+            }
+            nueva.complete(registrada);
+            return comprobar(clave, ventaDTO, registrada);
+        } catch (RuntimeException e) {
+            nueva.completeExceptionally(e);
+            throw e;
+        } finally {
+            enCurso.remove(clave, nueva);
+        }
+    }
+
+    // Borra las claves más viejas que la retención; para entonces ninguna caja las reintenta
+    @Scheduled(fixedDelayString = "${panaderia.idempotencia.intervalo-ms:3600000}")
+    @Transactional
+    public void purgar() {
+        int borradas = claveIdempotenciaRepository.deleteAnteriores(LocalDateTime.now().minus(retencion));
+        if (borradas > 0) {
+            log.info("Borradas {} claves de idempotencia", borradas);
+        }
+    }
+
+    // Si la clave ya estaba en la base, VentaService comprobó que es de la misma tienda
+    private Registrada registrarEnBase(String clave, VentaDTO ventaDTO) {
+        VentaDTORespuesta respuesta;
+        try {
+            respuesta = ventaService.registrarVenta(ventaDTO, clave);
+        } catch (DataIntegrityViolationException e) {
+            // Otra instancia registró la misma clave a la vez; su transacción ya terminó
+            respuesta = ventaService.getVentaPorClave(clave, ventaDTO.getTiendaId()).orElseThrow(() -> e);
+        }
+        return new Registrada(respuesta, StockTiendas.tienda(ventaDTO.getTiendaId()));
+    }
+
+    private static Registrada esperar(CompletableFuture<Registrada> enCurso) {
+        try {
+            return enCurso.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    // La misma clave con otra venta es un error de la caja, no un reintento
+    private static VentaDTORespuesta comprobar(String clave, VentaDTO ventaDTO, Registrada registrada) {
+        VentaDTORespuesta respuesta = registrada.respuesta();
+        if (!Objects.equals(ventaDTO.getClienteId(), respuesta.getClienteId())
+                || !Objects.equals(ventaDTO.getProductoId(), respuesta.getProductoId())
+                || !Objects.equals(ventaDTO.getCantidad(), respuesta.getCantidad())
+                || StockTiendas.tienda(ventaDTO.getTiendaId()) != registrada.tiendaId()) {
+            throw new ClaveIdempotenciaException("La clave " + clave + " ya se usó para otra venta");
+        }
+        return respuesta;
+    }
+
+    private static void validarClave(String clave) {
+        if (clave == null || clave.isBlank() || clave.length() > ClaveIdempotencia.LONGITUD_MAXIMA) {
+            throw new IllegalArgumentException("La clave de idempotencia debe tener entre 1 y "
+                    + ClaveIdempotencia.LONGITUD_MAXIMA + " caracteres");
+        }
+    }
+
+    // La respuesta de una clave junto con su tienda, que VentaDTORespuesta no trae
+    private record Registrada(VentaDTORespuesta respuesta, long tiendaId) {
+    }
+}
@@ -0,0 +1,165 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.ClienteDTORespuesta;
+import com.parquesoftti.panaderia.dto.NombreProductoDTO;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+// Versión de cambios de productos y de clientes, para los ETag de las lecturas del catálogo y de
+// clientes. Cada escritura sube la versión de su tabla al confirmarse; mientras no cambie, un
+// cliente que manda If-None-Match con el ETag de la versión actual recibe un 304 sin que se
+// consulte la base. El ETag lleva además el momento de arranque: tras reiniciar, las versiones
+// vuelven a empezar y un ETag viejo no debe coincidir por casualidad.
+// Los cambios que no pasan por esta instancia (otra instancia, una importación, un UPDATE a mano)
+// no suben la versión solos: cada panaderia.cache.stock.ttl, el primer pedido de un ETag lee de la
+// base una huella de lo que muestran las respuestas (id, nombre, precio y stock; id, nombre y
+// teléfono) y si cambió sube la versión. Un contador compartido en una fila se tocaría en cada
+// venta y serializaría todas las escrituras de stock; así, como mucho, un ETag viejo vale un TTL más
+@Component
+public class VersionesTablas {
+
+    private static final Logger log = LoggerFactory.getLogger(VersionesTablas.class);
+
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+    private final ProductoRepository productoRepository;
+    private final ClienteRepository clienteRepository;
+    private final long vidaRevision;
+    private final Tabla productos;
+    private final Tabla clientes;
+
+    public VersionesTablas(ProductoRepository productoRepository, ClienteRepository clienteRepository,
+                           @Value("${panaderia.cache.stock.ttl:5s}") Duration ttlStock) {
+        this.productoRepository = productoRepository;
+        this.clienteRepository = clienteRepository;
+        this.vidaRevision = ttlStock.toNanos();
+        this.productos = new Tabla("productos", this::huellaProductos);
+        this.clientes = new Tabla("clientes", this::huellaClientes);
+    }
+
+    // ETag (fuerte, con comillas) de la versión actual de productos
+    public String etagProductos() {
+        return productos.etag();
+    }
+
+    public String etagClientes() {
+        return clientes.etag();
+    }
+
+    // Cambió un producto, su stock o el catálogo entero
+    public void cambioProductos() {
+        alConfirmar(productos.version);
+    }
+
+    public void cambioClientes() {
+        alConfirmar(clientes.version);
+    }
+
+    // Dentro de una transacción la versión sube recién al confirmar, junto con los evict de las
+    // cachés: así nadie guarda una respuesta con datos viejos bajo la versión nueva
+    private void alConfirmar(AtomicLong version) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        } else {
+            version.incrementAndGet();
+        }
+    }
+
+    // Ordenadas por id para que la huella no dependa del orden en que las devuelve la base
+    private long huellaProductos() {
+        List<NombreProductoDTO> nombres = productoRepository.findAllNombres().stream()
+                .sorted(Comparator.comparing(NombreProductoDTO::getId))
+                .toList();
+        List<ProductoRepository.StockProducto> stocks = productoRepository.findAllStock().stream()
+                .sorted(Comparator.comparing(ProductoRepository.StockProducto::getId))
+                .toList();
+        long huella = 1;
+        for (NombreProductoDTO producto : nombres) {
+            huella = 31 * huella + Objects.hash(producto.getId(), producto.getNombre(), producto.getPrecio());
+        }
+        for (ProductoRepository.StockProducto stock : stocks) {
+            huella = 31 * huella + Objects.hash(stock.getId(), stock.getStock());
+        }
+        return huella;
+    }
+
+    private long huellaClientes() {
+        long huella = 1;
+        for (ClienteDTORespuesta cliente : clienteRepository.findAllDTO().stream()
+                .sorted(Comparator.comparing(ClienteDTORespuesta::getId))
+                .toList()) {
+            huella = 31 * huella + Objects.hash(cliente.getId(), cliente.getNombre(), cliente.getTelefono());
+        }
+        return huella;
+    }
+
+    private String etag(String tabla, long version) {
+        return "\"" + tabla + "-" + arranque + "-" + version + "\"";
+    }
+
+    private final class Tabla {
+
+        private final String nombre;
+        private final LongSupplier huella;
+        private final AtomicLong version = new AtomicLong();
+
+        // Una sola revisión a la vez; los demás pedidos siguen con la versión que hay
+        private final ReentrantLock revision = new ReentrantLock();
+        private volatile long revisada = System.nanoTime() - vidaRevision - 1;
+        private boolean conHuella;
+        private long ultimaHuella;
+
+        private Tabla(String nombre, LongSupplier huella) {
+            this.nombre = nombre;
+            this.huella = huella;
+        }
+
+        // El primer pedido toma la huella de partida
+        private String etag() {
+            if (System.nanoTime() - revisada > vidaRevision && revision.tryLock()) {
+                try {
+                    revisar();
+                } finally {
+                    revision.unlock();
+                }
+            }
+            return VersionesTablas.this.etag(nombre, version.get());
+        }
+
+        // Llamar con el lock tomado. Si la base no responde se sigue con la versión actual
+        private void revisar() {
+            if (System.nanoTime() - revisada <= vidaRevision) {
+                return;
+            }
+            try {
+                long actual = huella.getAsLong();
+                if (conHuella && actual != ultimaHuella) {
+                    version.incrementAndGet();
+                }
+                ultimaHuella = actual;
+                conHuella = true;
+            } catch (RuntimeException e) {
+                log.warn("No se pudo revisar la versión de {}", nombre, e);
+            }
+            revisada = System.nanoTime();
+        }
+    }
+}
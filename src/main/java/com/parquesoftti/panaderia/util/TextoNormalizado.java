@@ -0,0 +1,41 @@
+package com.parquesoftti.panaderia.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// Forma canónica de un texto para comparar nombres: minúsculas, sin tildes ni diéresis
+// y con cualquier signo o espacio repetido reducido a un solo espacio.
+// "  Pán  Dulce-Grande " queda como "pan dulce grande"
+public final class TextoNormalizado {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern NO_DIGITOS = Pattern.compile("[^0-9]+");
+
+    private TextoNormalizado() {
+    }
+
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinMarcas = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARADORES.matcher(sinMarcas.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    // Palabras del texto ya normalizado; vacío si no queda ninguna
+    public static String[] palabras(String texto) {
+        String normalizado = normalizar(texto);
+        return normalizado.isEmpty() ? new String[0] : normalizado.split(" ");
+    }
+
+    // Solo los dígitos de un teléfono: "(300) 123-45 67" queda "3001234567". null si no tiene ninguno
+    public static String digitos(String telefono) {
+        if (telefono == null) {
+            return null;
+        }
+        String digitos = NO_DIGITOS.matcher(telefono).replaceAll("");
+        return digitos.isEmpty() ? null : digitos;
+    }
+}
@@ -0,0 +1,11 @@
+-- Claves de idempotencia de las ventas (cabecera Idempotency-Key de POST /api/ventas/registrar).
+-- Una caja que reintenta con la misma clave recibe la venta original en lugar de registrar otra.
+-- Va en una tabla aparte: en ventas particionada una restricción única tendría que incluir
+-- fecha_venta, y dos reintentos no llegan con la misma fecha
+CREATE TABLE IF NOT EXISTS ventas_idempotencia (
+    clave          VARCHAR(100) PRIMARY KEY,
+    venta_id       BIGINT       NOT NULL,
+    fecha_creacion TIMESTAMP    NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_ventas_idempotencia_fecha ON ventas_idempotencia (fecha_creacion);
@@ -0,0 +1,23 @@
+-- Esquema tal como lo generaba Hibernate con ddl-auto=update.
+-- Usa IF NOT EXISTS para poder aplicarse sobre bases que ya existían antes de Flyway.
+
+CREATE TABLE IF NOT EXISTS clientes (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre   VARCHAR(100) NOT NULL,
+    telefono VARCHAR(20)
+);
+
+CREATE TABLE IF NOT EXISTS productos (
+    id     BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre VARCHAR(100) NOT NULL,
+    precio NUMERIC(38, 2),
+    stock  INTEGER
+);
+
+CREATE TABLE IF NOT EXISTS ventas (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    cantidad    INTEGER      NOT NULL,
+    fecha_venta TIMESTAMP(6) NOT NULL,
+    cliente_id  BIGINT       NOT NULL REFERENCES clientes (id),
+    producto_id BIGINT       NOT NULL REFERENCES productos (id)
+);
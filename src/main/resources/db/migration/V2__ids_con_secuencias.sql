@@ -0,0 +1,16 @@
+-- Los ids dejan de ser IDENTITY y pasan a secuencias con asignación por bloques
+-- (optimizador pooled-lo, 50 ids por llamada), para que Hibernate pueda agrupar
+-- los INSERT en batches JDBC. Cada secuencia arranca después del id más alto
+-- existente, así que los ids actuales se conservan.
+
+ALTER TABLE clientes ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE productos ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE ventas ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS clientes_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS productos_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS ventas_seq INCREMENT BY 50;
+
+SELECT setval('clientes_seq', COALESCE((SELECT MAX(id) FROM clientes), 0) + 1, false);
+SELECT setval('productos_seq', COALESCE((SELECT MAX(id) FROM productos), 0) + 1, false);
+SELECT setval('ventas_seq', COALESCE((SELECT MAX(id) FROM ventas), 0) + 1, false);
@@ -0,0 +1,2 @@
+-- Orden de la paginación por keyset de /api/ventas/pagina y del streaming
+CREATE INDEX IF NOT EXISTS idx_ventas_fecha_id ON ventas (fecha_venta, id);
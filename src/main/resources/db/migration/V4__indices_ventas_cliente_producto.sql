@@ -0,0 +1,4 @@
+-- Índices compuestos para los filtros por cliente o producto, solos o con rango de fechas.
+-- Sustituyen a los índices simples sobre las claves foráneas, que PostgreSQL no crea solo.
+CREATE INDEX IF NOT EXISTS idx_ventas_producto_fecha ON ventas (producto_id, fecha_venta);
+CREATE INDEX IF NOT EXISTS idx_ventas_cliente_fecha ON ventas (cliente_id, fecha_venta);
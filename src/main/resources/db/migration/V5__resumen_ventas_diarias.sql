@@ -0,0 +1,20 @@
+-- Precio cobrado en cada venta, para que los ingresos no cambien si luego cambia el precio
+ALTER TABLE ventas ADD COLUMN IF NOT EXISTS precio_unitario NUMERIC(38, 2);
+
+-- Resumen de unidades e ingresos por día y producto. Sin clave foránea a productos
+-- para conservar el histórico aunque el producto se elimine
+CREATE TABLE IF NOT EXISTS ventas_diarias (
+    dia         DATE           NOT NULL,
+    producto_id BIGINT         NOT NULL,
+    unidades    BIGINT         NOT NULL,
+    ingresos    NUMERIC(38, 2) NOT NULL,
+    PRIMARY KEY (dia, producto_id)
+);
+
+-- Carga inicial desde el histórico existente
+DELETE FROM ventas_diarias;
+INSERT INTO ventas_diarias (dia, producto_id, unidades, ingresos)
+SELECT CAST(v.fecha_venta AS DATE), v.producto_id, SUM(v.cantidad), SUM(v.cantidad * COALESCE(p.precio, 0))
+FROM ventas v
+JOIN productos p ON p.id = v.producto_id
+GROUP BY CAST(v.fecha_venta AS DATE), v.producto_id;
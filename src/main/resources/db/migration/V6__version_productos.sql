@@ -0,0 +1,2 @@
+-- Versión para el control optimista de las ediciones de producto (nombre y precio)
+ALTER TABLE productos ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,26 @@
+-- Búsqueda de clientes por nombre y teléfono (BusquedaClientes). Las columnas normalizadas usan
+-- COLLATE "C" para que un solo índice sirva para LIKE 'prefijo%' y para ordenar por la misma columna.
+-- La aplicación las calcula con TextoNormalizado al guardar; aquí se rellenan las filas existentes
+-- con el equivalente en SQL (minúsculas, sin marcas diacríticas, signos a un espacio).
+-- normalize() requiere PostgreSQL 13 o posterior.
+
+ALTER TABLE clientes ADD COLUMN IF NOT EXISTS nombre_normalizado VARCHAR(100) COLLATE "C";
+ALTER TABLE clientes ADD COLUMN IF NOT EXISTS telefono_normalizado VARCHAR(20) COLLATE "C";
+
+UPDATE clientes
+SET nombre_normalizado = btrim(regexp_replace(
+        regexp_replace(lower(normalize(nombre, NFD)), '[\u0300-\u036f]+', '', 'g'),
+        '[^[:alnum:]]+', ' ', 'g')),
+    telefono_normalizado = NULLIF(regexp_replace(COALESCE(telefono, ''), '[^0-9]+', '', 'g'), '');
+
+-- Teléfonos repetidos: se queda con el número el cliente más antiguo; el resto conserva el
+-- teléfono tal como se escribió, pero no se lo encuentra por teléfono hasta corregirlo
+UPDATE clientes c
+SET telefono_normalizado = NULL
+WHERE EXISTS (SELECT 1 FROM clientes otro
+              WHERE otro.telefono_normalizado = c.telefono_normalizado AND otro.id < c.id);
+
+ALTER TABLE clientes ALTER COLUMN nombre_normalizado SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_clientes_nombre_normalizado ON clientes (nombre_normalizado, id);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_clientes_telefono_normalizado ON clientes (telefono_normalizado);
@@ -0,0 +1,16 @@
+-- Varias tiendas en la misma instalación. La tienda principal (id 1) conserva su stock en
+-- productos.stock; las demás tienen una fila por producto en stock_tiendas, así las ventas de
+-- cada tienda descuentan sobre filas distintas y no se bloquean entre sí
+CREATE TABLE IF NOT EXISTS stock_tiendas (
+    tienda_id   BIGINT  NOT NULL,
+    producto_id BIGINT  NOT NULL REFERENCES productos (id),
+    stock       INTEGER NOT NULL,
+    PRIMARY KEY (tienda_id, producto_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_stock_tiendas_producto ON stock_tiendas (producto_id);
+
+-- Tienda de cada venta; las ventas anteriores son de la principal
+ALTER TABLE ventas ADD COLUMN IF NOT EXISTS tienda_id BIGINT NOT NULL DEFAULT 1;
+
+CREATE INDEX IF NOT EXISTS idx_ventas_tienda_fecha ON ventas (tienda_id, fecha_venta);
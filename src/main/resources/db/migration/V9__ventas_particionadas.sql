@@ -0,0 +1,43 @@
+-- ventas pasa a ser una tabla particionada por mes de fecha_venta. Las consultas por rango de
+-- fechas solo leen las particiones del rango, y borrar un mes viejo es desenganchar su partición
+-- en lugar de borrar fila por fila. ParticionesVentas crea por adelantado las particiones de los
+-- meses siguientes y desengancha (o archiva) las que pasan la retención configurada.
+-- La clave primaria tiene que incluir la columna de partición: pasa a ser (id, fecha_venta).
+-- Los ids siguen saliendo de ventas_seq, así que siguen siendo únicos
+
+CREATE SCHEMA IF NOT EXISTS archivo;
+
+ALTER TABLE ventas RENAME TO ventas_sin_particionar;
+
+CREATE TABLE ventas (LIKE ventas_sin_particionar INCLUDING DEFAULTS) PARTITION BY RANGE (fecha_venta);
+
+-- Una partición por mes desde la venta más antigua hasta tres meses después del actual
+DO $$
+DECLARE
+    mes   DATE := date_trunc('month', COALESCE((SELECT MIN(fecha_venta) FROM ventas_sin_particionar), now()));
+    hasta DATE := date_trunc('month', now()) + INTERVAL '3 months';
+BEGIN
+    WHILE mes <= hasta LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF ventas FOR VALUES FROM (%L) TO (%L)',
+                       'ventas_p' || to_char(mes, 'YYYYMM'), mes::timestamp, (mes + INTERVAL '1 month')::timestamp);
+        mes := mes + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+-- Ventas fuera de todos los meses creados (importaciones de fechas raras); ParticionesVentas
+-- avisa si encuentra filas aquí
+CREATE TABLE ventas_default PARTITION OF ventas DEFAULT;
+
+INSERT INTO ventas SELECT * FROM ventas_sin_particionar;
+
+DROP TABLE ventas_sin_particionar;
+
+ALTER TABLE ventas ADD CONSTRAINT ventas_pkey PRIMARY KEY (id, fecha_venta);
+ALTER TABLE ventas ADD CONSTRAINT ventas_cliente_id_fkey FOREIGN KEY (cliente_id) REFERENCES clientes (id);
+ALTER TABLE ventas ADD CONSTRAINT ventas_producto_id_fkey FOREIGN KEY (producto_id) REFERENCES productos (id);
+
+-- Los mismos índices de V3, V4 y V8, ahora uno por partición
+CREATE INDEX idx_ventas_fecha_id ON ventas (fecha_venta, id);
+CREATE INDEX idx_ventas_producto_fecha ON ventas (producto_id, fecha_venta);
+CREATE INDEX idx_ventas_cliente_fecha ON ventas (cliente_id, fecha_venta);
+CREATE INDEX idx_ventas_tienda_fecha ON ventas (tienda_id, fecha_venta);
@@ -0,0 +1,149 @@
+package com.parquesoftti.panaderia.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Tiempo desde que arranca la JVM hasta la primera respuesta HTTP, con el jar que deja
+// mvn -Prapido package en target/rapido: perfil por defecto (Flyway, validación del esquema, todos
+// los beans al arrancar) contra el perfil rapido, con AOT y con el archivo CDS. Cada variante se
+// arranca varias veces en un proceso nuevo y se informa la mediana.
+// Se ejecuta con: mvn -Prapido package -DskipTests && mvn test -Pbenchmark -Dtest=ArranqueBenchmarkTest
+//     [-Dbenchmark.arranques=...] [-Dbenchmark.ruta=/api/productos]
+// Las instancias usan la base de application.properties; para otra, pasar -Dspring.datasource.url=...
+// y credenciales. El perfil por defecto no arranca sin base (Flyway)
+@Tag("benchmark")
+class ArranqueBenchmarkTest {
+
+    private static final int ARRANQUES = Integer.getInteger("benchmark.arranques", 5);
+    private static final String RUTA = System.getProperty("benchmark.ruta", "/api/productos");
+    private static final Path DIRECTORIO = Path.of(System.getProperty("benchmark.directorio", "target/rapido"));
+    private static final Duration ESPERA_MAXIMA = Duration.ofMinutes(2);
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+    @Test
+    void tiempoHastaLaPrimeraPeticion() throws Exception {
+        Path jar = buscarJar();
+        assumeTrue(jar != null, "Falta el jar de arranque rápido: mvn -Prapido package -DskipTests");
+        Path archivoCds = DIRECTORIO.resolve("panaderia.jsa");
+
+        List<String> perfilRapido = List.of("-Dspring.profiles.active=rapido");
+        List<String> conAot = List.of("-Dspring.profiles.active=rapido", "-Dspring.aot.enabled=true");
+        List<String> conCds = List.of("-Dspring.profiles.active=rapido", "-Dspring.aot.enabled=true",
+                "-XX:SharedArchiveFile=" + archivoCds.getFileName());
+
+        double normal = medir("Perfil por defecto", jar, List.of());
+        double rapido = medir("Perfil rapido (lazy, sin Flyway ni validación)", jar, perfilRapido);
+        double aot = medir("Perfil rapido + AOT", jar, conAot);
+        double cds = Files.exists(archivoCds) ? medir("Perfil rapido + AOT + CDS", jar, conCds) : Double.NaN;
+
+        System.out.printf("Primera respuesta de %s, mediana de %d arranques%n", RUTA, ARRANQUES);
+        System.out.printf("Perfil por defecto: %.0f ms%n", normal);
+        System.out.printf("Perfil rapido: %.0f ms%n", rapido);
+        System.out.printf("Perfil rapido + AOT: %.0f ms%n", aot);
+        System.out.printf("Perfil rapido + AOT + CDS: %.0f ms%n", cds);
+    }
+
+    private double medir(String nombre, Path jar, List<String> opciones) throws Exception {
+        List<Long> tiempos = new ArrayList<>();
+        for (int i = 0; i < ARRANQUES; i++) {
+            try {
+                tiempos.add(arrancar(nombre, jar, opciones, i));
+            } catch (AssertionError e) {
+                // Una variante que no arranca (el perfil por defecto sin base) no frena a las demás
+                System.out.println(e.getMessage());
+                return Double.NaN;
+            }
+        }
+        tiempos.sort(null);
+        return tiempos.get(tiempos.size() / 2) / 1_000_000.0;
+    }
+
+    // Arranca el jar, pide RUTA hasta que responde y lo detiene. Devuelve los nanosegundos hasta la respuesta
+    private long arrancar(String nombre, Path jar, List<String> opciones, int intento) throws Exception {
+        int puerto = puertoLibre();
+        List<String> comando = new ArrayList<>();
+        comando.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        comando.addAll(opciones);
+        for (String propiedad : List.of("spring.datasource.url", "spring.datasource.username", "spring.datasource.password")) {
+            if (System.getProperty(propiedad) != null) {
+                comando.add("-D" + propiedad + "=" + System.getProperty(propiedad));
+            }
+        }
+        comando.add("-jar");
+        comando.add(jar.getFileName().toString());
+        comando.add("--server.port=" + puerto);
+
+        File salida = DIRECTORIO.resolve("arranque-" + nombre.replaceAll("\\W+", "-") + "-" + intento + ".log").toFile();
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + RUTA))
+                .timeout(ESPERA_MAXIMA)
+                .build();
+
+        long inicio = System.nanoTime();
+        Process proceso = new ProcessBuilder(comando)
+                .directory(DIRECTORIO.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(salida)
+                .start();
+        try {
+            while (System.nanoTime() - inicio < ESPERA_MAXIMA.toNanos()) {
+                assertThat(proceso.isAlive()).as("%s terminó sin responder; ver %s", nombre, salida).isTrue();
+                try {
+                    HttpResponse<Void> respuesta = http.send(peticion, HttpResponse.BodyHandlers.discarding());
+                    long tiempo = System.nanoTime() - inicio;
+                    if (respuesta.statusCode() >= 500) {
+                        System.out.printf("%s respondió %d; ver %s%n", nombre, respuesta.statusCode(), salida);
+                    }
+                    return tiempo;
+                } catch (ConnectException e) {
+                    Thread.sleep(10);
+                }
+            }
+            throw new AssertionError(nombre + " no respondió en " + ESPERA_MAXIMA + "; ver " + salida);
+        } finally {
+            proceso.destroy();
+            if (!proceso.waitFor(30, TimeUnit.SECONDS)) {
+                proceso.destroyForcibly();
+            }
+        }
+    }
+
+    private static Path buscarJar() throws IOException {
+        if (!Files.isDirectory(DIRECTORIO)) {
+            return null;
+        }
+        try (Stream<Path> archivos = Files.list(DIRECTORIO)) {
+            return archivos.filter(archivo -> archivo.getFileName().toString().endsWith(".jar"))
+                    .findFirst()
+                    .orElse(null);
+        }
+    }
+
+    private static int puertoLibre() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.parquesoftti.panaderia.benchmark;
+
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.service.BusquedaClientes;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Búsqueda de clientes en caja sobre una tabla grande: la consulta anterior (nombre exacto sin
+// índice, o LOWER(nombre) LIKE 'x%') contra las columnas normalizadas con índice, en frío (caché
+// vacía antes de cada búsqueda) y con la caché ya cargada.
+// Se ejecuta con: mvn test -Pbenchmark -Dtest=BusquedaClientesBenchmarkTest [-Dbenchmark.clientes=...]
+// Para comparar contra PostgreSQL, pasar -Dspring.datasource.url=... y credenciales.
+@Tag("benchmark")
+@SpringBootTest
+class BusquedaClientesBenchmarkTest {
+
+    private static final int CLIENTES = Integer.getInteger("benchmark.clientes", 1_000_000);
+    private static final int BUSQUEDAS = Integer.getInteger("benchmark.busquedas", 500);
+    private static final int IDS_POR_BLOQUE = 50;
+    private static final int BLOQUE = 5_000;
+
+    private static final String[] NOMBRES = {"María", "José", "Luz Ángela", "Andrés", "Sofía", "Julián", "Ramón",
+            "Inés", "Óscar", "Camila", "Sebastián", "Nicolás", "Valentina", "Tomás", "Lucía"};
+    private static final String[] APELLIDOS = {"Gómez", "Rodríguez", "Núñez", "Peña", "Martínez", "López",
+            "Díaz", "Muñoz", "Hernández", "Sánchez", "Ramírez", "Castaño", "Pérez", "Álvarez"};
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private BusquedaClientes busquedaClientes;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void indicesYCacheContraConsultaAnterior() {
+        long inicioCarga = System.nanoTime();
+        for (int creados = 0; creados < CLIENTES; creados += BLOQUE) {
+            int desde = creados;
+            transactionTemplate.executeWithoutResult(estado -> {
+                List<Cliente> bloque = new ArrayList<>(BLOQUE);
+                long id = 0;
+                for (int i = desde; i < Math.min(desde + BLOQUE, CLIENTES); i++) {
+                    if (bloque.size() % IDS_POR_BLOQUE == 0) {
+                        id = clienteRepository.reservarBloqueIds();
+                    }
+                    Cliente cliente = new Cliente();
+                    cliente.setId(id++);
+                    cliente.setNombre(nombre(i));
+                    cliente.setTelefono("3" + String.format("%09d", i));
+                    bloque.add(cliente);
+                }
+                clienteRepository.insertarConId(bloque);
+            });
+        }
+        System.out.printf("Carga de %d clientes: %d ms%n", CLIENTES, (System.nanoTime() - inicioCarga) / 1_000_000);
+
+        double exactaAntes = medir(i -> clienteRepository.findByNombre(nombre(muestra(i))));
+        double prefijoAntes = medir(i -> jdbcTemplate.queryForList(
+                "SELECT id, nombre, telefono FROM clientes WHERE LOWER(nombre) LIKE ? ORDER BY nombre, id LIMIT 20",
+                prefijo(i).toLowerCase() + "%"));
+
+        double exactaFria = medir(i -> {
+            busquedaClientes.invalidar();
+            busquedaClientes.porNombre(nombre(muestra(i)));
+        });
+        double prefijoFrio = medir(i -> {
+            busquedaClientes.invalidar();
+            busquedaClientes.buscar(prefijo(i), null, 20);
+        });
+        double telefonoFrio = medir(i -> {
+            busquedaClientes.invalidar();
+            busquedaClientes.porTelefono("3" + String.format("%09d", muestra(i)));
+        });
+
+        // Una caja repite las mismas búsquedas: la caché ya las tiene
+        medir(i -> busquedaClientes.porNombre(nombre(muestra(i))));
+        double exactaCache = medir(i -> busquedaClientes.porNombre(nombre(muestra(i))));
+        medir(i -> busquedaClientes.buscar(prefijo(i), null, 20));
+        double prefijoCache = medir(i -> busquedaClientes.buscar(prefijo(i), null, 20));
+
+        System.out.printf("Clientes: %d, %d búsquedas por método%n", CLIENTES, BUSQUEDAS);
+        System.out.printf("Nombre exacto sin índice (findByNombre): %.3f ms%n", exactaAntes);
+        System.out.printf("Prefijo con LOWER(nombre) LIKE: %.3f ms%n", prefijoAntes);
+        System.out.printf("Nombre exacto normalizado, caché vacía: %.3f ms%n", exactaFria);
+        System.out.printf("Prefijo normalizado, caché vacía: %.3f ms%n", prefijoFrio);
+        System.out.printf("Teléfono, caché vacía: %.3f ms%n", telefonoFrio);
+        System.out.printf("Nombre exacto desde la caché: %.4f ms%n", exactaCache);
+        System.out.printf("Prefijo desde la caché: %.4f ms%n", prefijoCache);
+
+        assertThat(busquedaClientes.buscar("luz angela nun", null, 20).getClientes())
+                .hasSize(20)
+                .allSatisfy(cliente -> assertThat(cliente.getNombre()).startsWith("Luz Ángela Núñez"));
+    }
+
+    // Nombres únicos (findByNombre falla con repetidos), con tildes para que cuente la normalización
+    private static String nombre(int i) {
+        return NOMBRES[i % NOMBRES.length] + " " + APELLIDOS[(i / NOMBRES.length) % APELLIDOS.length] + " " + i;
+    }
+
+    // Lo que escribiría un cajero: nombre y el comienzo del apellido
+    private static String prefijo(int i) {
+        String apellido = APELLIDOS[(i / NOMBRES.length) % APELLIDOS.length];
+        return NOMBRES[i % NOMBRES.length] + " " + apellido.substring(0, 3);
+    }
+
+    // Clientes repartidos por toda la tabla; se repiten cada 50 para que la caché tenga aciertos
+    private static int muestra(int i) {
+        return (int) ((i % 50) * 7_919L % CLIENTES);
+    }
+
+    private double medir(IntConsumer buscar) {
+        // Calentamiento
+        for (int i = 0; i < 20; i++) {
+            buscar.accept(i);
+        }
+        long inicio = System.nanoTime();
+        for (int i = 0; i < BUSQUEDAS; i++) {
+            buscar.accept(i);
+        }
+        return (System.nanoTime() - inicio) / 1_000_000.0 / BUSQUEDAS;
+    }
+}
@@ -0,0 +1,107 @@
+package com.parquesoftti.panaderia.benchmark;
+
+import com.parquesoftti.panaderia.dto.BuscarProductoDTO;
+import com.parquesoftti.panaderia.model.Producto;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import com.parquesoftti.panaderia.service.IndiceBusquedaProductos;
+import com.parquesoftti.panaderia.service.ProductoService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Compara la búsqueda parcial por nombre con el índice en memoria contra el
+// LOWER(nombre) LIKE '%x%' de findByNombreContainingIgnoreCase, sobre un catálogo grande.
+// Se ejecuta con: mvn test -Pbenchmark -Dtest=BusquedaProductosBenchmarkTest
+// Para comparar contra PostgreSQL, pasar -Dspring.datasource.url=... y credenciales.
+@Tag("benchmark")
+@SpringBootTest
+class BusquedaProductosBenchmarkTest {
+
+    private static final int PRODUCTOS = Integer.getInteger("benchmark.productos", 50_000);
+    private static final int BUSQUEDAS = Integer.getInteger("benchmark.busquedas", 500);
+    private static final int BLOQUE = 1_000;
+
+    private static final String[] BASES = {"Pan", "Pán dulce", "Croissant", "Mogolla", "Almojábana", "Buñuelo",
+            "Torta", "Galleta", "Roscón", "Pandebono", "Brownie", "Arequipe", "Café", "Té", "Empanada"};
+    private static final String[] VARIANTES = {"integral", "de queso", "relleno", "mini", "familiar", "de maíz",
+            "con bocadillo", "tostado", "de chocolate", "sin azúcar", "artesanal", "del día"};
+
+    // Lo que escribiría un cajero tecla a tecla
+    private static final String[] CONSULTAS = {"p", "pa", "pan", "pan d", "pan du", "pan dulce", "crois", "almoja",
+            "bunuelo", "queso", "sin azu", "mog rel", "cafe", "torta de choco", "pandeb"};
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private IndiceBusquedaProductos indiceBusquedaProductos;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void indiceContraLike() {
+        for (int creados = 0; creados < PRODUCTOS; creados += BLOQUE) {
+            int desde = creados;
+            transactionTemplate.executeWithoutResult(estado -> {
+                List<Producto> bloque = new ArrayList<>(BLOQUE);
+                for (int i = desde; i < desde + BLOQUE; i++) {
+                    Producto producto = new Producto();
+                    producto.setNombre(BASES[i % BASES.length] + " " + VARIANTES[(i / BASES.length) % VARIANTES.length] + " " + i);
+                    producto.setPrecio(BigDecimal.ONE);
+                    producto.setStock(10);
+                    bloque.add(producto);
+                }
+                productoRepository.saveAll(bloque);
+            });
+        }
+        // El alta directa por repositorio no pasa por el servicio; se descarta el índice a mano
+        indiceBusquedaProductos.invalidar();
+
+        long inicioIndice = System.nanoTime();
+        productoService.getProductosPorNombreParcial(busqueda("pan"));
+        double construccion = (System.nanoTime() - inicioIndice) / 1_000_000.0;
+
+        double like = medir(consulta -> productoRepository.findByNombreContainingIgnoreCase(consulta));
+        double indice = medir(consulta -> productoService.getProductosPorNombreParcial(busqueda(consulta)));
+
+        System.out.printf("Catálogo: %d productos, %d búsquedas por método%n", PRODUCTOS, BUSQUEDAS);
+        System.out.printf("Construcción del índice (primera búsqueda): %.1f ms%n", construccion);
+        System.out.printf("LIKE '%%x%%': %.3f ms por búsqueda%n", like);
+        System.out.printf("Índice en memoria (top 20 + stock): %.3f ms por búsqueda%n", indice);
+
+        assertThat(productoService.getProductosPorNombreParcial(busqueda("pan dulce")))
+                .hasSize(20)
+                .allSatisfy(producto -> assertThat(producto.getNombre()).startsWith("Pán dulce"));
+    }
+
+    private double medir(Consumer<String> buscar) {
+        // Calentamiento
+        for (String consulta : CONSULTAS) {
+            buscar.accept(consulta);
+        }
+        long inicio = System.nanoTime();
+        for (int i = 0; i < BUSQUEDAS; i++) {
+            buscar.accept(CONSULTAS[i % CONSULTAS.length]);
+        }
+        return (System.nanoTime() - inicio) / 1_000_000.0 / BUSQUEDAS;
+    }
+
+    private BuscarProductoDTO busqueda(String texto) {
+        BuscarProductoDTO dto = new BuscarProductoDTO();
+        dto.setNombre(texto);
+        return dto;
+    }
+}
@@ -0,0 +1,17 @@
+package com.parquesoftti.panaderia.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.context.SpringBootTest;
+
+// Servidor con el pool de hilos de Tomcat (modo por defecto).
+// Se ejecuta con: mvn test -Pbenchmark -Dtest='CargaHilos*BenchmarkTest'
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.threads.virtual.enabled=false", "spring.jpa.properties.hibernate.generate_statistics=false"})
+class CargaHilosPlataformaBenchmarkTest extends CargaHttpBenchmark {
+
+    @Override
+    protected String modo() {
+        return "hilos de plataforma";
+    }
+}
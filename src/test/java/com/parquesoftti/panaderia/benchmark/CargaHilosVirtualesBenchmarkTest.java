@@ -0,0 +1,19 @@
+package com.parquesoftti.panaderia.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+// Servidor en modo hilos virtuales con el límite de admisión a la base (perfil virtuales).
+// Se ejecuta con: mvn test -Pbenchmark -Dtest='CargaHilos*BenchmarkTest'
+@Tag("benchmark")
+@ActiveProfiles("virtuales")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=false")
+class CargaHilosVirtualesBenchmarkTest extends CargaHttpBenchmark {
+
+    @Override
+    protected String modo() {
+        return "hilos virtuales";
+    }
+}
@@ -0,0 +1,125 @@
+package com.parquesoftti.panaderia.benchmark;
+
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.model.Producto;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Carga HTTP con muchos clientes simultáneos contra la aplicación levantada en un puerto real.
+// Cada cliente (un hilo virtual del lado del generador) alterna consultas de producto y ventas.
+// Las subclases cambian solo el modo de ejecución del servidor para comparar el p99
+abstract class CargaHttpBenchmark {
+
+    private static final int CLIENTES = Integer.getInteger("benchmark.clientes", 2_000);
+    private static final int PETICIONES_POR_CLIENTE = Integer.getInteger("benchmark.peticiones", 10);
+
+    @LocalServerPort
+    private int puerto;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    protected abstract String modo();
+
+    @Test
+    void cargaConcurrente() throws Exception {
+        Cliente cliente = new Cliente();
+        cliente.setNombre("Cliente carga " + modo());
+        Long clienteId = clienteRepository.save(cliente).getId();
+
+        Producto producto = new Producto();
+        producto.setNombre("Producto carga " + modo());
+        producto.setPrecio(BigDecimal.ONE);
+        producto.setStock(CLIENTES * PETICIONES_POR_CLIENTE);
+        Long productoId = productoRepository.save(producto).getId();
+
+        HttpClient http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        HttpRequest consulta = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + "/api/productos/" + productoId))
+                .timeout(Duration.ofSeconds(60))
+                .build();
+        HttpRequest venta = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + "/api/ventas/registrar"))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"clienteId\":" + clienteId + ",\"productoId\":" + productoId + ",\"cantidad\":1}"))
+                .build();
+
+        Map<Integer, AtomicInteger> porEstado = new ConcurrentHashMap<>();
+        AtomicInteger fallidas = new AtomicInteger();
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<long[]>> clientes = new ArrayList<>(CLIENTES);
+        long inicio;
+        try (ExecutorService generador = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CLIENTES; c++) {
+                clientes.add(generador.submit(() -> {
+                    long[] latencias = new long[PETICIONES_POR_CLIENTE];
+                    salida.await();
+                    for (int i = 0; i < PETICIONES_POR_CLIENTE; i++) {
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<Void> respuesta = http.send(i % 2 == 0 ? consulta : venta,
+                                    HttpResponse.BodyHandlers.discarding());
+                            porEstado.computeIfAbsent(respuesta.statusCode(), k -> new AtomicInteger()).incrementAndGet();
+                        } catch (Exception e) {
+                            fallidas.incrementAndGet();
+                        }
+                        latencias[i] = System.nanoTime() - t0;
+                    }
+                    return latencias;
+                }));
+            }
+            inicio = System.nanoTime();
+            salida.countDown();
+        }
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+
+        long[] todas = new long[CLIENTES * PETICIONES_POR_CLIENTE];
+        int n = 0;
+        for (Future<long[]> futuro : clientes) {
+            for (long latencia : futuro.get()) {
+                todas[n++] = latencia;
+            }
+        }
+        Arrays.sort(todas);
+
+        System.out.printf("[%s] %d clientes x %d peticiones en %.2f s (%.0f peticiones/s)%n",
+                modo(), CLIENTES, PETICIONES_POR_CLIENTE, segundos, todas.length / segundos);
+        System.out.printf("[%s] p50 %.1f ms, p99 %.1f ms, máx %.1f ms; estados %s; errores de red %d%n",
+                modo(), percentil(todas, 0.50), percentil(todas, 0.99), todas[todas.length - 1] / 1_000_000.0,
+                porEstado, fallidas.get());
+
+        assertThat(porEstado.getOrDefault(200, new AtomicInteger()).get()).isPositive();
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        return ordenadas[(int) Math.ceil(p * ordenadas.length) - 1] / 1_000_000.0;
+    }
+}
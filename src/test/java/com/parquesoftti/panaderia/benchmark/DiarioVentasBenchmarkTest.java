@@ -0,0 +1,119 @@
+package com.parquesoftti.panaderia.benchmark;
+
+import com.parquesoftti.panaderia.dto.VentaDTO;
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.model.Producto;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import com.parquesoftti.panaderia.service.DiarioVentas;
+import com.parquesoftti.panaderia.service.VentaService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Compara ventas por segundo con registro síncrono (una transacción por venta) y con el
+// diario de ventas (fsync agrupado y guardado por lotes), con 1, 8 y 64 cajas a la vez.
+// Se ejecuta con: mvn test -Pbenchmark -Dtest=DiarioVentasBenchmarkTest
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "panaderia.diario.habilitado=true",
+        "panaderia.diario.directorio=target/diario-benchmark/${random.uuid}"
+})
+class DiarioVentasBenchmarkTest {
+
+    private static final int VENTAS = Integer.getInteger("benchmark.ventas", 4_000);
+    private static final int[] CAJAS = {1, 8, 64};
+    private static final int STOCK = VENTAS * (CAJAS.length * 2 + 1);
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private DiarioVentas diarioVentas;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Test
+    void ventasPorSegundo() throws Exception {
+        Cliente cliente = new Cliente();
+        cliente.setNombre("Cliente diario benchmark");
+        Long clienteId = clienteRepository.save(cliente).getId();
+
+        Producto producto = new Producto();
+        producto.setNombre("Producto diario benchmark");
+        producto.setPrecio(BigDecimal.ONE);
+        producto.setStock(STOCK);
+        Long productoId = productoRepository.save(producto).getId();
+
+        VentaDTO venta = new VentaDTO();
+        venta.setClienteId(clienteId);
+        venta.setProductoId(productoId);
+        venta.setCantidad(1);
+
+        // Calentamiento de ambos caminos
+        medir(8, VENTAS / 4, dto -> ventaService.registrarVenta(dto), venta);
+        medir(8, VENTAS / 4, dto -> ventaService.registrarVentaDiferida(dto), venta);
+        esperarVolcado();
+
+        System.out.println("Cajas | síncrono (ventas/s) | diario (ventas/s) | diario hasta la base (ventas/s)");
+        for (int cajas : CAJAS) {
+            double sincrono = medir(cajas, VENTAS, dto -> ventaService.registrarVenta(dto), venta);
+
+            long inicio = System.nanoTime();
+            double diferido = medir(cajas, VENTAS, dto -> ventaService.registrarVentaDiferida(dto), venta);
+            esperarVolcado();
+            double hastaLaBase = VENTAS / ((System.nanoTime() - inicio) / 1_000_000_000.0);
+
+            System.out.printf("%5d | %19.0f | %17.0f | %31.0f%n", cajas, sincrono, diferido, hastaLaBase);
+        }
+
+        int vendidas = VENTAS / 4 * 2 + VENTAS * CAJAS.length * 2;
+        assertThat(productoRepository.findStockById(productoId)).contains(STOCK - vendidas);
+    }
+
+    // Ventas por segundo repartiendo 'total' ventas entre 'cajas' hilos
+    private double medir(int cajas, int total, Consumer<VentaDTO> registrar, VentaDTO venta) throws Exception {
+        ExecutorService ejecutor = Executors.newFixedThreadPool(cajas);
+        try {
+            long inicio = System.nanoTime();
+            List<Future<?>> tareas = new ArrayList<>(cajas);
+            for (int caja = 0; caja < cajas; caja++) {
+                int porCaja = total / cajas + (caja < total % cajas ? 1 : 0);
+                tareas.add(ejecutor.submit(() -> {
+                    for (int i = 0; i < porCaja; i++) {
+                        registrar.accept(venta);
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+            return total / ((System.nanoTime() - inicio) / 1_000_000_000.0);
+        } finally {
+            ejecutor.shutdown();
+        }
+    }
+
+    private void esperarVolcado() throws InterruptedException {
+        while (diarioVentas.pendientes() > 0) {
+            Thread.sleep(1);
+        }
+        // La última tanda puede estar confirmándose todavía
+        Thread.sleep(200);
+    }
+}
@@ -0,0 +1,147 @@
+package com.parquesoftti.panaderia.benchmark;
+
+import com.parquesoftti.panaderia.dto.FiltroVentasDTO;
+import com.parquesoftti.panaderia.dto.FormatoExportacion;
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.model.Producto;
+import com.parquesoftti.panaderia.model.Venta;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import com.parquesoftti.panaderia.repository.VentaRepository;
+import com.parquesoftti.panaderia.service.ExportacionService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Exportación masiva de ventas: filas por segundo, tamaño comprimido, cuánto tarda en salir el
+// primer byte y el heap usado durante el export, para CSV y columnar.
+// Se ejecuta con: mvn test -Pbenchmark -Dtest=ExportacionBenchmarkTest [-Dbenchmark.ventas=...]
+@Tag("benchmark")
+@SpringBootTest
+class ExportacionBenchmarkTest {
+
+    private static final int TOTAL = Integer.getInteger("benchmark.ventas", 1_000_000);
+    private static final int CLIENTES = 1_000;
+    private static final int PRODUCTOS = 200;
+    private static final int BLOQUE = 50;
+
+    @Autowired
+    private ExportacionService exportacionService;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void exportarVentas() throws IOException {
+        crearVentas();
+
+        // Una pasada de calentamiento por formato antes de medir
+        for (FormatoExportacion formato : FormatoExportacion.values()) {
+            exportacionService.exportar(new FiltroVentasDTO(), formato, OutputStream.nullOutputStream());
+        }
+        for (FormatoExportacion formato : FormatoExportacion.values()) {
+            System.gc();
+            Runtime runtime = Runtime.getRuntime();
+            SalidaMedida salida = new SalidaMedida(runtime.totalMemory() - runtime.freeMemory());
+            long inicio = System.nanoTime();
+            long filas = exportacionService.exportar(new FiltroVentasDTO(), formato, salida);
+            double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+
+            System.out.printf("%s: %d ventas en %.2f s (%.0f ventas/s), %d KB, primer dato a los %d ms, heap +%d MB%n",
+                    formato, filas, segundos, filas / segundos, salida.bytes / 1_024,
+                    (salida.primerByte - inicio) / 1_000_000, salida.heapMaximo / 1_048_576);
+            assertThat(filas).isGreaterThanOrEqualTo(TOTAL);
+        }
+    }
+
+    // Ventas con ids reservados de a 50 e insertadas por JDBC, para no medir la carga con JPA
+    private void crearVentas() {
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 0; i < CLIENTES; i++) {
+            Cliente cliente = new Cliente();
+            cliente.setNombre("Cliente benchmark exportación " + i);
+            clientes.add(cliente);
+        }
+        clienteRepository.saveAll(clientes);
+        List<Producto> productos = new ArrayList<>();
+        for (int i = 0; i < PRODUCTOS; i++) {
+            Producto producto = new Producto();
+            producto.setNombre("Producto benchmark exportación " + i);
+            producto.setPrecio(BigDecimal.ONE);
+            producto.setStock(0);
+            productos.add(producto);
+        }
+        productoRepository.saveAll(productos);
+
+        LocalDateTime fecha = LocalDateTime.of(2020, 1, 1, 8, 0);
+        for (int creadas = 0; creadas < TOTAL; creadas += 100 * BLOQUE) {
+            int desde = creadas;
+            transactionTemplate.executeWithoutResult(estado -> {
+                for (int n = desde; n < Math.min(desde + 100 * BLOQUE, TOTAL); n += BLOQUE) {
+                    long id = ventaRepository.reservarBloqueIds();
+                    List<Venta> bloque = new ArrayList<>(BLOQUE);
+                    for (int i = 0; i < BLOQUE; i++) {
+                        Venta venta = new Venta();
+                        venta.setId(id + i);
+                        venta.setCliente(clientes.get((n + i) % CLIENTES));
+                        venta.setProducto(productos.get((n + i) % PRODUCTOS));
+                        venta.setCantidad(1 + (n + i) % 5);
+                        venta.setFechaVenta(fecha.plusSeconds(30L * (n + i)));
+                        bloque.add(venta);
+                    }
+                    ventaRepository.insertarConId(bloque);
+                }
+            });
+        }
+    }
+
+    // Descarta lo escrito, pero cuenta los bytes, anota cuándo llegó el primer dato (después del
+    // encabezado gzip de 10 bytes) y muestrea cuánto creció el heap respecto del inicio. Con H2 en
+    // memoria las ventas mismas ya ocupan heap; por eso se mide el crecimiento (incluye basura aún no
+    // recolectada: lo que importa es que no crezca con -Dbenchmark.ventas)
+    private static final class SalidaMedida extends OutputStream {
+        private final long heapInicial;
+        private long bytes;
+        private long primerByte;
+        private long heapMaximo;
+
+        SalidaMedida(long heapInicial) {
+            this.heapInicial = heapInicial;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] datos, int desde, int largo) {
+            if (primerByte == 0 && bytes + largo > 10) {
+                primerByte = System.nanoTime();
+            }
+            bytes += largo;
+            Runtime runtime = Runtime.getRuntime();
+            heapMaximo = Math.max(heapMaximo, runtime.totalMemory() - runtime.freeMemory() - heapInicial);
+        }
+    }
+}
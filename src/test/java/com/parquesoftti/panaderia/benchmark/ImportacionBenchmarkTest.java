@@ -0,0 +1,116 @@
+package com.parquesoftti.panaderia.benchmark;
+
+import com.parquesoftti.panaderia.dto.FormatoImportacion;
+import com.parquesoftti.panaderia.dto.ResultadoImportacionDTO;
+import com.parquesoftti.panaderia.dto.TipoImportacion;
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.model.Producto;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import com.parquesoftti.panaderia.service.ImportacionService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Filas por segundo de la importación masiva de clientes y de ventas históricas (CSV).
+// Las filas se generan al vuelo, así que tampoco el benchmark guarda el archivo en memoria.
+// Se ejecuta con: mvn test -Pbenchmark -Dtest=ImportacionBenchmarkTest [-Dbenchmark.filas=...]
+@Tag("benchmark")
+@SpringBootTest
+class ImportacionBenchmarkTest {
+
+    private static final int FILAS = Integer.getInteger("benchmark.filas", 500_000);
+    private static final int PRODUCTOS = 200;
+
+    @Autowired
+    private ImportacionService importacionService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @TempDir
+    private Path carpeta;
+
+    @Test
+    void filasPorSegundo() throws IOException {
+        ResultadoImportacionDTO clientes = medir(TipoImportacion.CLIENTES, "nombre,telefono",
+                i -> "Cliente importado " + i + ",555-" + i);
+
+        Cliente cliente = new Cliente();
+        cliente.setNombre("Cliente benchmark importación");
+        Long clienteId = clienteRepository.save(cliente).getId();
+        List<Long> productoIds = new ArrayList<>();
+        for (int i = 0; i < PRODUCTOS; i++) {
+            Producto producto = new Producto();
+            producto.setNombre("Producto benchmark importación " + i);
+            producto.setPrecio(BigDecimal.ONE);
+            producto.setStock(0);
+            productoIds.add(productoRepository.save(producto).getId());
+        }
+        LocalDate inicio = LocalDate.of(2020, 1, 1);
+        ResultadoImportacionDTO ventas = medir(TipoImportacion.VENTAS, "clienteId,productoId,cantidad,fechaVenta",
+                i -> clienteId + "," + productoIds.get((int) (i % PRODUCTOS)) + ",1,"
+                        + inicio.plusDays(i % 1_500) + "T08:00:00");
+
+        assertThat(clientes.getImportadas()).isEqualTo(FILAS);
+        assertThat(ventas.getImportadas()).isEqualTo(FILAS);
+    }
+
+    private ResultadoImportacionDTO medir(TipoImportacion tipo, String encabezado, LongFunction<String> fila)
+            throws IOException {
+        ResultadoImportacionDTO resultado = importacionService.importar(tipo, FormatoImportacion.CSV,
+                new CsvGenerado(encabezado, fila), 0, carpeta.resolve(tipo + ".errores.csv"), confirmadas -> {
+                });
+        System.out.printf("%s: %d filas en %d ms (%.0f filas/s)%n", tipo, resultado.getImportadas(),
+                resultado.getMilisegundos(), resultado.getImportadas() * 1000.0 / resultado.getMilisegundos());
+        return resultado;
+    }
+
+    // Un CSV de FILAS filas que se arma línea por línea a medida que se lee
+    private static final class CsvGenerado extends Reader {
+        private final LongFunction<String> fila;
+        private String actual;
+        private int posicion;
+        private long siguiente;
+
+        CsvGenerado(String encabezado, LongFunction<String> fila) {
+            this.fila = fila;
+            this.actual = encabezado + "\n";
+        }
+
+        @Override
+        public int read(char[] destino, int desde, int largo) {
+            if (posicion == actual.length()) {
+                if (siguiente == FILAS) {
+                    return -1;
+                }
+                actual = fila.apply(siguiente++) + "\n";
+                posicion = 0;
+            }
+            int copiados = Math.min(largo, actual.length() - posicion);
+            actual.getChars(posicion, posicion + copiados, destino, desde);
+            posicion += copiados;
+            return copiados;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.parquesoftti.panaderia.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.YearMonth;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Ventas particionadas por mes contra la tabla sin particionar, con las mismas filas sintéticas en
+// dos tablas de trabajo: consultas por rango de fechas (un día, un mes, un trimestre) y la purga
+// de un año viejo (DELETE por fecha contra DETACH + DROP de las particiones).
+// Solo tiene sentido en PostgreSQL; con H2 se salta.
+// Se ejecuta con: mvn test -Pbenchmark -Dtest=ParticionesVentasBenchmarkTest
+//     -Dspring.datasource.url=jdbc:postgresql://... (y credenciales) [-Dbenchmark.ventas=...]
+@Tag("benchmark")
+@SpringBootTest
+class ParticionesVentasBenchmarkTest {
+
+    private static final long VENTAS = Long.getLong("benchmark.ventas", 50_000_000L);
+    private static final int MESES = Integer.getInteger("benchmark.meses", 48);
+    private static final int MESES_PURGA = 12;
+    private static final int CONSULTAS = Integer.getInteger("benchmark.consultas", 20);
+    private static final YearMonth PRIMER_MES = YearMonth.of(2020, 1);
+
+    private static final String PLANA = "bench_ventas_plana";
+    private static final String PARTICIONADA = "bench_ventas_part";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void borrarTablas() {
+        if (esPostgres()) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + PLANA);
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + PARTICIONADA + " CASCADE");
+        }
+    }
+
+    @Test
+    void consultasYPurgaConYSinParticiones() {
+        assumeTrue(esPostgres(), "Necesita PostgreSQL: pasar -Dspring.datasource.url=jdbc:postgresql://...");
+        borrarTablas();
+
+        String columnas = "(id BIGINT NOT NULL, cantidad INTEGER NOT NULL, fecha_venta TIMESTAMP NOT NULL, "
+                + "precio_unitario NUMERIC(10, 2), tienda_id BIGINT NOT NULL, cliente_id BIGINT NOT NULL, "
+                + "producto_id BIGINT NOT NULL)";
+        jdbcTemplate.execute("CREATE TABLE " + PLANA + " " + columnas);
+        jdbcTemplate.execute("CREATE TABLE " + PARTICIONADA + " " + columnas + " PARTITION BY RANGE (fecha_venta)");
+        for (int m = 0; m < MESES; m++) {
+            YearMonth mes = PRIMER_MES.plusMonths(m);
+            jdbcTemplate.execute("CREATE TABLE " + particion(mes) + " PARTITION OF " + PARTICIONADA
+                    + " FOR VALUES FROM ('" + mes.atDay(1) + "') TO ('" + mes.plusMonths(1).atDay(1) + "')");
+        }
+
+        long porMes = VENTAS / MESES;
+        long inicioCarga = System.nanoTime();
+        for (int m = 0; m < MESES; m++) {
+            cargarMes(PLANA, PRIMER_MES.plusMonths(m), m * porMes, porMes);
+        }
+        long cargaPlana = System.nanoTime() - inicioCarga;
+        inicioCarga = System.nanoTime();
+        for (int m = 0; m < MESES; m++) {
+            cargarMes(PARTICIONADA, PRIMER_MES.plusMonths(m), m * porMes, porMes);
+        }
+        long cargaParticionada = System.nanoTime() - inicioCarga;
+
+        for (String tabla : new String[]{PLANA, PARTICIONADA}) {
+            jdbcTemplate.execute("ALTER TABLE " + tabla + " ADD PRIMARY KEY (id, fecha_venta)");
+            jdbcTemplate.execute("CREATE INDEX ON " + tabla + " (fecha_venta, id)");
+            jdbcTemplate.execute("CREATE INDEX ON " + tabla + " (producto_id, fecha_venta)");
+            jdbcTemplate.execute("ANALYZE " + tabla);
+        }
+        System.out.printf("Carga de %d ventas en %d meses: sin particiones %d ms, particionada %d ms%n",
+                porMes * MESES, MESES, cargaPlana / 1_000_000, cargaParticionada / 1_000_000);
+
+        YearMonth ultimo = PRIMER_MES.plusMonths(MESES - 1);
+        String dia = "fecha_venta >= '" + ultimo.atDay(15) + "' AND fecha_venta < '" + ultimo.atDay(16) + "'";
+        String mes = "fecha_venta >= '" + ultimo.atDay(1) + "' AND fecha_venta < '" + ultimo.plusMonths(1).atDay(1) + "'";
+        String trimestre = "fecha_venta >= '" + ultimo.minusMonths(2).atDay(1) + "' AND fecha_venta < '"
+                + ultimo.plusMonths(1).atDay(1) + "'";
+
+        comparar("Página del día (LIMIT 50 por fecha)", tabla -> "SELECT id FROM " + tabla + " WHERE " + dia
+                + " ORDER BY fecha_venta, id LIMIT 50");
+        comparar("Total de un producto en el mes", tabla -> "SELECT SUM(cantidad) FROM " + tabla
+                + " WHERE producto_id = 7 AND " + mes);
+        comparar("Ventas por tienda en el mes", tabla -> "SELECT tienda_id, SUM(cantidad) FROM " + tabla
+                + " WHERE " + mes + " GROUP BY tienda_id");
+        comparar("Ventas por día en el trimestre", tabla -> "SELECT date_trunc('day', fecha_venta), COUNT(*) FROM "
+                + tabla + " WHERE " + trimestre + " GROUP BY 1");
+
+        // Las consultas por rango solo leen las particiones del rango
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+                "EXPLAIN SELECT COUNT(*) FROM " + PARTICIONADA + " WHERE " + mes, String.class));
+        assertThat(plan).contains(particion(ultimo)).doesNotContain(particion(ultimo.minusMonths(1)));
+
+        // Retención: quitar el primer año
+        YearMonth corte = PRIMER_MES.plusMonths(MESES_PURGA);
+        long inicio = System.nanoTime();
+        int borradas = jdbcTemplate.update("DELETE FROM " + PLANA + " WHERE fecha_venta < '" + corte.atDay(1) + "'");
+        long purgaPlana = System.nanoTime() - inicio;
+        inicio = System.nanoTime();
+        for (int m = 0; m < MESES_PURGA; m++) {
+            String nombre = particion(PRIMER_MES.plusMonths(m));
+            jdbcTemplate.execute("ALTER TABLE " + PARTICIONADA + " DETACH PARTITION " + nombre);
+            jdbcTemplate.execute("DROP TABLE " + nombre);
+        }
+        long purgaParticionada = System.nanoTime() - inicio;
+
+        System.out.printf("Purga de %d meses (%d ventas): DELETE %d ms, DETACH + DROP %d ms%n",
+                MESES_PURGA, borradas, purgaPlana / 1_000_000, purgaParticionada / 1_000_000);
+
+        Long restantes = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + PARTICIONADA, Long.class);
+        assertThat(restantes).isEqualTo(porMes * (MESES - MESES_PURGA));
+    }
+
+    // Ventas repartidas a lo largo del mes, con 200 productos, 10.000 clientes y 5 tiendas
+    private void cargarMes(String tabla, YearMonth mes, long primerId, long cantidad) {
+        long segundos = mes.lengthOfMonth() * 86_400L;
+        jdbcTemplate.update("INSERT INTO " + tabla + " SELECT ? + g, 1 + g % 5, "
+                + "?::timestamp + make_interval(secs => (g * ?) / ?), 2.50, 1 + g % 5, 1 + g % 10000, 1 + g % 200 "
+                + "FROM generate_series(0, ? - 1) g", primerId, mes.atDay(1).toString(), segundos, cantidad, cantidad);
+    }
+
+    private void comparar(String nombre, Function<String, String> consulta) {
+        double plana = medir(() -> jdbcTemplate.queryForList(consulta.apply(PLANA)));
+        double particionada = medir(() -> jdbcTemplate.queryForList(consulta.apply(PARTICIONADA)));
+        System.out.printf("%s: sin particiones %.3f ms, particionada %.3f ms%n", nombre, plana, particionada);
+    }
+
+    private double medir(Supplier<?> consulta) {
+        // Calentamiento
+        for (int i = 0; i < 3; i++) {
+            consulta.get();
+        }
+        long inicio = System.nanoTime();
+        for (int i = 0; i < CONSULTAS; i++) {
+            consulta.get();
+        }
+        return (System.nanoTime() - inicio) / 1_000_000.0 / CONSULTAS;
+    }
+
+    private static String particion(YearMonth mes) {
+        return PARTICIONADA + "_" + mes.getYear() + String.format("%02d", mes.getMonthValue());
+    }
+
+    private boolean esPostgres() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) conexion ->
+                "PostgreSQL".equals(conexion.getMetaData().getDatabaseProductName())));
+    }
+}
@@ -0,0 +1,76 @@
+package com.parquesoftti.panaderia.benchmark;
+
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.model.Producto;
+import com.parquesoftti.panaderia.model.Venta;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import com.parquesoftti.panaderia.repository.VentaRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Mide inserciones de Venta por segundo a través de JPA (saveAll por bloques).
+// Se ejecuta con: mvn test -Pbenchmark -Dtest=VentaInsercionBenchmarkTest
+// Para comparar contra PostgreSQL, pasar -Dspring.datasource.url=... y credenciales.
+@Tag("benchmark")
+@SpringBootTest
+class VentaInsercionBenchmarkTest {
+
+    private static final int TOTAL = Integer.getInteger("benchmark.ventas", 100_000);
+    private static final int BLOQUE = 1_000;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void insertarVentas() {
+        Cliente cliente = new Cliente();
+        cliente.setNombre("Cliente benchmark");
+        Cliente guardado = clienteRepository.save(cliente);
+
+        Producto producto = new Producto();
+        producto.setNombre("Producto benchmark");
+        producto.setPrecio(BigDecimal.ONE);
+        producto.setStock(0);
+        Producto productoGuardado = productoRepository.save(producto);
+
+        long inicio = System.nanoTime();
+        for (int insertadas = 0; insertadas < TOTAL; insertadas += BLOQUE) {
+            transactionTemplate.executeWithoutResult(estado -> {
+                List<Venta> bloque = new ArrayList<>(BLOQUE);
+                for (int i = 0; i < BLOQUE; i++) {
+                    Venta venta = new Venta();
+                    venta.setCliente(guardado);
+                    venta.setProducto(productoGuardado);
+                    venta.setCantidad(1);
+                    venta.setFechaVenta(LocalDateTime.now());
+                    bloque.add(venta);
+                }
+                ventaRepository.saveAll(bloque);
+            });
+        }
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+
+        System.out.printf("Ventas insertadas: %d en %.2f s (%.0f inserciones/s)%n", TOTAL, segundos, TOTAL / segundos);
+        assertThat(ventaRepository.findDTOByProductoId(productoGuardado.getId())).hasSize(TOTAL);
+    }
+}
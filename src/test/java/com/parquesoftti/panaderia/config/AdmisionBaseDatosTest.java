@@ -0,0 +1,89 @@
+package com.parquesoftti.panaderia.config;
+
+import com.parquesoftti.panaderia.exception.ServicioSaturadoException;
+import com.parquesoftti.panaderia.service.VentaService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdmisionBaseDatosTest {
+
+    private final SimpleMeterRegistry registro = new SimpleMeterRegistry();
+    private final AdmisionBaseDatos admision = new AdmisionBaseDatos(registro, 1, Duration.ofMillis(100));
+
+    @Test
+    void rechazaCuandoNoQuedanPermisosYDevuelveElPermisoAlTerminar() throws Throwable {
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch salir = new CountDownLatch(1);
+        CompletableFuture<Object> ocupada = CompletableFuture.supplyAsync(() -> {
+            try {
+                return admision.admitir(llamada(() -> {
+                    dentro.countDown();
+                    salir.await();
+                    return "primera";
+                }));
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(dentro.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> admision.admitir(llamada(() -> "segunda")))
+                .isInstanceOf(ServicioSaturadoException.class);
+        assertThat(registro.counter("panaderia.admision.rechazos").count()).isEqualTo(1);
+
+        salir.countDown();
+        assertThat(ocupada.get(5, TimeUnit.SECONDS)).isEqualTo("primera");
+        assertThat(admision.admitir(llamada(() -> "tercera"))).isEqualTo("tercera");
+        assertThat(registro.get("panaderia.admision.permisos.libres").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void unaLlamadaAnidadaNoPideOtroPermiso() throws Throwable {
+        Object resultado = admision.admitir(llamada(() -> admision.admitir(llamada(() -> "anidada"))));
+
+        assertThat(resultado).isEqualTo("anidada");
+        assertThat(registro.get("panaderia.admision.espera").tag("servicio", "VentaService").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void soloSeActivaConHilosVirtuales() {
+        ApplicationContextRunner contexto = new ApplicationContextRunner()
+                .withInitializer(aplicacion -> aplicacion.getBeanFactory()
+                        .setConversionService(ApplicationConversionService.getSharedInstance()))
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withUserConfiguration(AdmisionBaseDatos.class);
+
+        contexto.run(sinHilosVirtuales -> assertThat(sinHilosVirtuales).doesNotHaveBean(AdmisionBaseDatos.class));
+        contexto.withPropertyValues("spring.threads.virtual.enabled=true")
+                .run(conHilosVirtuales -> assertThat(conHilosVirtuales).hasSingleBean(AdmisionBaseDatos.class));
+    }
+
+    private ProceedingJoinPoint llamada(Cuerpo cuerpo) throws Throwable {
+        Signature firma = mock(Signature.class);
+        when(firma.getDeclaringType()).thenReturn(VentaService.class);
+        ProceedingJoinPoint llamada = mock(ProceedingJoinPoint.class);
+        when(llamada.getSignature()).thenReturn(firma);
+        when(llamada.proceed()).thenAnswer(invocacion -> cuerpo.ejecutar());
+        return llamada;
+    }
+
+    private interface Cuerpo {
+        Object ejecutar() throws Throwable;
+    }
+}
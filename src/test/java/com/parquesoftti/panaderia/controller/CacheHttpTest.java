@@ -0,0 +1,212 @@
+package com.parquesoftti.panaderia.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parquesoftti.panaderia.dto.ClienteDTO;
+import com.parquesoftti.panaderia.dto.ProductoDTO;
+import com.parquesoftti.panaderia.dto.VentaDTO;
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.service.ProductoService;
+import com.parquesoftti.panaderia.service.VentaService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// ETag, If-None-Match y compresión contra la aplicación levantada en un puerto real
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties =
+        "spring.datasource.url=jdbc:h2:mem:cachehttp;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1")
+class CacheHttpTest {
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int puerto;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${panaderia.cache.stock.ttl:5s}")
+    private Duration ttlStock;
+
+    @Test
+    void elCatalogoSinCambiosRespondeNoModificadoSinIrALaBase() throws Exception {
+        // Suficientes productos para que el listado pase el mínimo de compresión
+        Long productoId = null;
+        for (int i = 0; i < 60; i++) {
+            ProductoDTO dto = new ProductoDTO();
+            dto.setNombre("Producto etag " + i);
+            dto.setPrecio(1.5);
+            dto.setStock(100);
+            productoId = productoService.save(dto).getId();
+        }
+
+        HttpResponse<byte[]> plano = get("/api/productos", null, false);
+        assertThat(plano.statusCode()).isEqualTo(200);
+        assertThat(plano.headers().firstValue("Content-Encoding")).isEmpty();
+        String etag = plano.headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<byte[]> comprimido = get("/api/productos", null, true);
+        assertThat(comprimido.headers().firstValue("Content-Encoding")).contains("gzip");
+        assertThat(comprimido.body().length).isLessThan(plano.body().length);
+        assertThat(descomprimir(comprimido.body())).isEqualTo(plano.body());
+        String etagGzip = comprimido.headers().firstValue("ETag").orElseThrow();
+        assertThat(etagGzip).isNotEqualTo(etag);
+
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+        assertThat(get("/api/productos", etag, false).statusCode()).isEqualTo(304);
+        assertThat(get("/api/productos", etagGzip, true).statusCode()).isEqualTo(304);
+        assertThat(get("/api/productos/" + productoId, etag, false).statusCode()).isEqualTo(304);
+        assertThat(estadisticas.getPrepareStatementCount()).isZero();
+
+        // Una venta cambia el stock: el ETag anterior ya no vale y el listado trae el stock nuevo
+        Cliente cliente = new Cliente();
+        cliente.setNombre("Cliente etag");
+        VentaDTO venta = new VentaDTO();
+        venta.setClienteId(clienteRepository.save(cliente).getId());
+        venta.setProductoId(productoId);
+        venta.setCantidad(7);
+        ventaService.registrarVenta(venta);
+
+        HttpResponse<byte[]> cambiado = get("/api/productos", etag, false);
+        assertThat(cambiado.statusCode()).isEqualTo(200);
+        assertThat(cambiado.headers().firstValue("ETag")).isNotEqualTo(etag);
+        assertThat(stockEnListado(cambiado.body(), productoId)).isEqualTo(93);
+    }
+
+    @Test
+    void unCambioDeStockHechoPorFueraSeVeCuandoVenceElListado() throws Exception {
+        ProductoDTO dto = new ProductoDTO();
+        dto.setNombre("Producto otra instancia");
+        dto.setPrecio(2.0);
+        dto.setStock(10);
+        Long productoId = productoService.save(dto).getId();
+
+        String etag = get("/api/productos", null, false).headers().firstValue("ETag").orElseThrow();
+        assertThat(get("/api/productos", etag, false).statusCode()).isEqualTo(304);
+
+        // Como una venta registrada en otra instancia: la base cambia sin pasar por esta
+        jdbcTemplate.update("UPDATE productos SET stock = 4 WHERE id = ?", productoId);
+        Thread.sleep(ttlStock.toMillis() + 200);
+
+        HttpResponse<byte[]> cambiado = get("/api/productos", etag, false);
+        assertThat(cambiado.statusCode()).isEqualTo(200);
+        assertThat(cambiado.headers().firstValue("ETag")).isNotEqualTo(etag);
+        assertThat(stockEnListado(cambiado.body(), productoId)).isEqualTo(4);
+    }
+
+    @Test
+    void losClientesCambianDeETagAlEditarlos() throws Exception {
+        HttpResponse<byte[]> antes = get("/api/clientes", null, false);
+        String etag = antes.headers().firstValue("ETag").orElseThrow();
+        assertThat(get("/api/clientes", etag, false).statusCode()).isEqualTo(304);
+
+        ClienteDTO nuevo = new ClienteDTO();
+        nuevo.setNombre("Cliente nuevo etag");
+        nuevo.setTelefono("3001234567");
+        HttpResponse<byte[]> creado = http.send(HttpRequest.newBuilder(uri("/api/clientes"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(nuevo)))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(creado.statusCode()).isEqualTo(200);
+        long clienteId = objectMapper.readTree(creado.body()).get("id").asLong();
+
+        HttpResponse<byte[]> despues = get("/api/clientes", etag, false);
+        assertThat(despues.statusCode()).isEqualTo(200);
+        String etagNuevo = despues.headers().firstValue("ETag").orElseThrow();
+        assertThat(etagNuevo).isNotEqualTo(etag);
+        assertThat(get("/api/clientes/" + clienteId, etagNuevo, false).statusCode()).isEqualTo(304);
+    }
+
+    @Test
+    void losCambiosHechosPorFueraVencenLosETagDeCadaRegistro() throws Exception {
+        Cliente cliente = new Cliente();
+        cliente.setNombre("Cliente por fuera");
+        Long clienteId = clienteRepository.save(cliente).getId();
+        ProductoDTO dto = new ProductoDTO();
+        dto.setNombre("Producto por fuera");
+        dto.setPrecio(3.0);
+        dto.setStock(10);
+        Long productoId = productoService.save(dto).getId();
+
+        String etagCliente = get("/api/clientes/" + clienteId, null, false).headers().firstValue("ETag").orElseThrow();
+        String etagProducto = get("/api/productos/" + productoId, null, false).headers().firstValue("ETag").orElseThrow();
+        assertThat(get("/api/clientes/" + clienteId, etagCliente, false).statusCode()).isEqualTo(304);
+        assertThat(get("/api/productos/" + productoId, etagProducto, false).statusCode()).isEqualTo(304);
+
+        // Otra instancia o un UPDATE a mano: ni el listado ni esta instancia se enteran
+        jdbcTemplate.update("UPDATE clientes SET nombre = 'Cliente renombrado' WHERE id = ?", clienteId);
+        jdbcTemplate.update("UPDATE productos SET stock = 6 WHERE id = ?", productoId);
+        Thread.sleep(ttlStock.toMillis() + 200);
+
+        HttpResponse<byte[]> clienteCambiado = get("/api/clientes/" + clienteId, etagCliente, false);
+        assertThat(clienteCambiado.statusCode()).isEqualTo(200);
+        assertThat(objectMapper.readTree(clienteCambiado.body()).get("nombre").asText()).isEqualTo("Cliente renombrado");
+        HttpResponse<byte[]> productoCambiado = get("/api/productos/" + productoId, etagProducto, false);
+        assertThat(productoCambiado.statusCode()).isEqualTo(200);
+        assertThat(objectMapper.readTree(productoCambiado.body()).get("stock").asInt()).isEqualTo(6);
+    }
+
+    private Integer stockEnListado(byte[] listado, Long productoId) throws IOException {
+        for (JsonNode nodo : objectMapper.readTree(listado)) {
+            if (nodo.get("id").asLong() == productoId) {
+                return nodo.get("stock").asInt();
+            }
+        }
+        return null;
+    }
+
+    private HttpResponse<byte[]> get(String ruta, String etag, boolean gzip) throws IOException, InterruptedException {
+        HttpRequest.Builder peticion = HttpRequest.newBuilder(uri(ruta)).GET();
+        if (etag != null) {
+            peticion.header("If-None-Match", etag);
+        }
+        if (gzip) {
+            peticion.header("Accept-Encoding", "gzip");
+        }
+        return http.send(peticion.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private URI uri(String ruta) {
+        return URI.create("http://localhost:" + puerto + ruta);
+    }
+
+    private static byte[] descomprimir(byte[] datos) throws IOException {
+        try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(datos))) {
+            return entrada.readAllBytes();
+        }
+    }
+}
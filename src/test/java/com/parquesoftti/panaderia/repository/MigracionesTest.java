@@ -0,0 +1,201 @@
+package com.parquesoftti.panaderia.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Las pruebas crean el esquema con Hibernate y el perfil rapido arranca sin Flyway ni validación:
+// esto comprueba que las migraciones siguen a las entidades. Se repasan los scripts en orden
+// armando las columnas de cada tabla (CREATE TABLE, ALTER TABLE ADD/DROP/RENAME, DROP TABLE) y
+// cada tabla y columna que Hibernate crea en H2 tiene que estar en la tabla que le corresponde
+@SpringBootTest
+class MigracionesTest {
+
+    private static final Pattern VERSION = Pattern.compile("V(\\d+)__.+\\.sql");
+    private static final Pattern CREATE_TABLE = Pattern.compile("^create table (if not exists )?([\\w.]+) (.*)$");
+    private static final Pattern ALTER_TABLE = Pattern.compile("^alter table (if exists )?(only )?([\\w.]+) (.*)$");
+    private static final Pattern DROP_TABLE = Pattern.compile("^drop table (if exists )?([\\w.]+)");
+    private static final Pattern CREATE_SEQUENCE = Pattern.compile("^create sequence (if not exists )?([\\w.]+)");
+    private static final Set<String> RESTRICCIONES = Set.of("constraint", "primary", "foreign", "unique", "check", "exclude");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void lasVersionesVanSeguidas() throws IOException {
+        List<Integer> versiones = migraciones().stream().map(MigracionesTest::version).toList();
+
+        assertThat(versiones).containsExactlyElementsOf(IntStream.rangeClosed(1, versiones.size()).boxed().toList());
+    }
+
+    @Test
+    void lasMigracionesCubrenLasEntidades() throws IOException {
+        Map<String, Set<String>> tablas = new HashMap<>();
+        Set<String> secuencias = new HashSet<>();
+        for (Resource migracion : migraciones()) {
+            for (String sentencia : sentencias(migracion.getContentAsString(StandardCharsets.UTF_8))) {
+                aplicar(sentencia, tablas, secuencias);
+            }
+        }
+
+        List<Map<String, Object>> columnas = jdbcTemplate.queryForList("SELECT c.table_name, c.column_name "
+                + "FROM information_schema.columns c JOIN information_schema.tables t "
+                + "ON t.table_schema = c.table_schema AND t.table_name = c.table_name "
+                + "WHERE c.table_schema = 'public' AND t.table_type = 'BASE TABLE'");
+        assertThat(columnas).isNotEmpty();
+        for (Map<String, Object> columna : columnas) {
+            String tabla = columna.get("table_name").toString().toLowerCase(Locale.ROOT);
+            String nombre = columna.get("column_name").toString().toLowerCase(Locale.ROOT);
+            assertThat(tablas).as("Tabla %s sin migración", tabla).containsKey(tabla);
+            assertThat(tablas.get(tabla)).as("Columna %s.%s sin migración", tabla, nombre).contains(nombre);
+        }
+
+        List<String> secuenciasEntidades = jdbcTemplate.queryForList("SELECT sequence_name "
+                + "FROM information_schema.sequences WHERE sequence_schema = 'public'", String.class);
+        for (String secuencia : secuenciasEntidades) {
+            assertThat(secuencias).as("Secuencia %s sin migración", secuencia).contains(secuencia.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    // Aplica una sentencia al esquema armado hasta el momento. Lo que no cambia tablas ni columnas
+    // (índices, datos, restricciones, tipos) se ignora
+    private static void aplicar(String sentencia, Map<String, Set<String>> tablas, Set<String> secuencias) {
+        Matcher matcher = CREATE_TABLE.matcher(sentencia);
+        if (matcher.matches()) {
+            String resto = matcher.group(3);
+            // Las particiones son de la tabla madre, no tablas de entidades
+            if (!resto.startsWith("partition of ")) {
+                tablas.put(matcher.group(2), columnasDe(entreParentesis(resto), tablas));
+            }
+            return;
+        }
+        matcher = ALTER_TABLE.matcher(sentencia);
+        if (matcher.matches()) {
+            String tabla = matcher.group(3);
+            for (String accion : separar(matcher.group(4))) {
+                alterar(tabla, accion, tablas);
+            }
+            return;
+        }
+        matcher = DROP_TABLE.matcher(sentencia);
+        if (matcher.find()) {
+            tablas.remove(matcher.group(2));
+            return;
+        }
+        matcher = CREATE_SEQUENCE.matcher(sentencia);
+        if (matcher.find()) {
+            secuencias.add(matcher.group(2));
+        }
+    }
+
+    private static void alterar(String tabla, String accion, Map<String, Set<String>> tablas) {
+        String[] palabras = accion.split(" ");
+        Set<String> columnas = tablas.get(tabla);
+        assertThat(columnas).as("ALTER TABLE de una tabla que no existe: %s", tabla).isNotNull();
+        if (accion.startsWith("rename to ")) {
+            tablas.put(palabras[2], tablas.remove(tabla));
+        } else if (accion.startsWith("rename column ")) {
+            columnas.remove(palabras[2]);
+            columnas.add(palabras[4]);
+        } else if (accion.startsWith("add column ")) {
+            columnas.add(accion.startsWith("add column if not exists ") ? palabras[5] : palabras[2]);
+        } else if (accion.startsWith("drop column ")) {
+            columnas.remove(accion.startsWith("drop column if exists ") ? palabras[4] : palabras[2]);
+        }
+    }
+
+    // Columnas del cuerpo de un CREATE TABLE; LIKE copia las de otra tabla
+    private static Set<String> columnasDe(String cuerpo, Map<String, Set<String>> tablas) {
+        Set<String> columnas = new LinkedHashSet<>();
+        for (String elemento : separar(cuerpo)) {
+            String[] palabras = elemento.split(" ");
+            if (palabras[0].equals("like")) {
+                assertThat(tablas).as("LIKE de una tabla que no existe: %s", palabras[1]).containsKey(palabras[1]);
+                columnas.addAll(tablas.get(palabras[1]));
+            } else if (!RESTRICCIONES.contains(palabras[0])) {
+                columnas.add(palabras[0].replace("\"", ""));
+            }
+        }
+        return columnas;
+    }
+
+    // Lo que hay dentro del primer paréntesis, respetando los anidados
+    private static String entreParentesis(String texto) {
+        int inicio = texto.indexOf('(');
+        int profundidad = 0;
+        for (int i = inicio; i < texto.length(); i++) {
+            if (texto.charAt(i) == '(') {
+                profundidad++;
+            } else if (texto.charAt(i) == ')' && --profundidad == 0) {
+                return texto.substring(inicio + 1, i);
+            }
+        }
+        throw new IllegalArgumentException("Paréntesis sin cerrar: " + texto);
+    }
+
+    // Parte una lista por las comas que no están entre paréntesis
+    private static List<String> separar(String lista) {
+        List<String> partes = new ArrayList<>();
+        int profundidad = 0;
+        int inicio = 0;
+        for (int i = 0; i < lista.length(); i++) {
+            char c = lista.charAt(i);
+            if (c == '(') {
+                profundidad++;
+            } else if (c == ')') {
+                profundidad--;
+            } else if (c == ',' && profundidad == 0) {
+                partes.add(lista.substring(inicio, i).trim());
+                inicio = i + 1;
+            }
+        }
+        partes.add(lista.substring(inicio).trim());
+        return partes;
+    }
+
+    // Sentencias del script en minúsculas y con los espacios normalizados, sin comentarios ni
+    // bloques DO $$ ... $$ (crean particiones, no columnas)
+    private static List<String> sentencias(String script) {
+        String limpio = script.replaceAll("--[^\\n]*", " ")
+                .replaceAll("(?s)\\$\\$.*?\\$\\$", "")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(limpio.split(";"))
+                .map(sentencia -> sentencia.replaceAll("\\s+", " ").trim())
+                .filter(sentencia -> !sentencia.isEmpty())
+                .toList();
+    }
+
+    private static List<Resource> migraciones() throws IOException {
+        List<Resource> migraciones = new ArrayList<>(Arrays.asList(
+                new PathMatchingResourcePatternResolver().getResources("classpath:db/migration/*.sql")));
+        migraciones.sort(Comparator.comparingInt(MigracionesTest::version));
+        return migraciones;
+    }
+
+    private static int version(Resource migracion) {
+        Matcher matcher = VERSION.matcher(migracion.getFilename());
+        assertThat(matcher.matches()).as("Nombre de migración %s", migracion.getFilename()).isTrue();
+        return Integer.parseInt(matcher.group(1));
+    }
+}
@@ -0,0 +1,51 @@
+package com.parquesoftti.panaderia.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Comprueba con EXPLAIN que las consultas por rango de fechas usan los índices de ventas
+// en lugar de recorrer la tabla. Las sentencias reproducen el SQL que genera VentaRepository
+@SpringBootTest
+class VentaRepositoryIndicesTest {
+
+    private static final String SELECT_VENTAS = "SELECT v.id, v.cantidad, v.fecha_venta, c.id, c.nombre, p.id, p.nombre "
+            + "FROM ventas v JOIN clientes c ON c.id = v.cliente_id JOIN productos p ON p.id = v.producto_id ";
+
+    private static final Timestamp DESDE = Timestamp.valueOf(LocalDateTime.of(2024, 3, 1, 0, 0));
+    private static final Timestamp HASTA = Timestamp.valueOf(LocalDateTime.of(2024, 4, 1, 0, 0));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rangoDeFechasUsaElIndicePorFecha() {
+        assertThat(plan(SELECT_VENTAS + "WHERE v.fecha_venta >= ? AND v.fecha_venta < ? ORDER BY v.fecha_venta, v.id",
+                DESDE, HASTA))
+                .contains("idx_ventas_fecha_id");
+    }
+
+    @Test
+    void rangoPorProductoUsaElIndiceCompuesto() {
+        assertThat(plan(SELECT_VENTAS + "WHERE v.producto_id = ? AND v.fecha_venta >= ? AND v.fecha_venta < ?",
+                1L, DESDE, HASTA))
+                .contains("idx_ventas_producto_fecha");
+    }
+
+    @Test
+    void rangoPorClienteUsaElIndiceCompuesto() {
+        assertThat(plan(SELECT_VENTAS + "WHERE v.cliente_id = ? AND v.fecha_venta >= ? AND v.fecha_venta < ?",
+                1L, DESDE, HASTA))
+                .contains("idx_ventas_cliente_fecha");
+    }
+
+    private String plan(String sql, Object... parametros) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parametros);
+    }
+}
@@ -0,0 +1,140 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.AjusteStockDTO;
+import com.parquesoftti.panaderia.dto.CambioStockDTO;
+import com.parquesoftti.panaderia.dto.ProductoDTO;
+import com.parquesoftti.panaderia.dto.VentaDTO;
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class AvisosStockTest {
+
+    @Autowired
+    private AvisosStock avisosStock;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Test
+    void mandaLaFotoInicialYDespuesUnSoloCambioPorProducto() throws Exception {
+        Long productoId = crearProducto("Roscón aviso", 50);
+        Long otroId = crearProducto("Mantecada aviso", 8);
+        Cliente cliente = new Cliente();
+        cliente.setNombre("Cliente avisos");
+        Long clienteId = clienteRepository.save(cliente).getId();
+        avisosStock.enviarCambios();
+
+        PantallaDePrueba pantalla = new PantallaDePrueba();
+        avisosStock.suscribir(pantalla);
+        assertThat(pantalla.siguiente())
+                .contains(new CambioStockDTO(productoId, 50, false), new CambioStockDTO(otroId, 8, false));
+
+        // Diez ventas seguidas y un cambio de precio que no toca el stock: un único aviso con el stock final
+        for (int i = 0; i < 10; i++) {
+            VentaDTO venta = new VentaDTO();
+            venta.setClienteId(clienteId);
+            venta.setProductoId(productoId);
+            venta.setCantidad(2);
+            ventaService.registrarVenta(venta);
+        }
+        ProductoDTO precio = new ProductoDTO();
+        precio.setNombre("Mantecada aviso");
+        precio.setPrecio(3.0);
+        productoService.update(otroId, precio);
+        avisosStock.enviarCambios();
+        assertThat(pantalla.siguiente()).containsExactly(new CambioStockDTO(productoId, 30, false));
+
+        AjusteStockDTO ajuste = new AjusteStockDTO();
+        ajuste.setAjuste(5);
+        productoService.ajustarStock(otroId, ajuste);
+        productoService.deleteById(productoId);
+        avisosStock.enviarCambios();
+        assertThat(pantalla.siguiente()).containsExactlyInAnyOrder(
+                new CambioStockDTO(otroId, 13, false), new CambioStockDTO(productoId, null, true));
+
+        avisosStock.enviarCambios();
+        assertThat(pantalla.eventos.poll(200, TimeUnit.MILLISECONDS)).isNull();
+        pantalla.complete();
+        productoService.deleteById(otroId);
+    }
+
+    @Test
+    void unaPantallaQueLlegaEntreUnaVentaYElEnvioNoTapaElAvisoDeLasDemas() throws Exception {
+        Long productoId = crearProducto("Bizcocho aviso", 10);
+        Cliente cliente = new Cliente();
+        cliente.setNombre("Cliente avisos tarde");
+        Long clienteId = clienteRepository.save(cliente).getId();
+        avisosStock.enviarCambios();
+
+        PantallaDePrueba antigua = new PantallaDePrueba();
+        avisosStock.suscribir(antigua);
+        assertThat(antigua.siguiente()).contains(new CambioStockDTO(productoId, 10, false));
+
+        VentaDTO venta = new VentaDTO();
+        venta.setClienteId(clienteId);
+        venta.setProductoId(productoId);
+        venta.setCantidad(1);
+        ventaService.registrarVenta(venta);
+
+        // Conecta otra pantalla con la venta ya marcada pero todavía sin enviar
+        PantallaDePrueba nueva = new PantallaDePrueba();
+        avisosStock.suscribir(nueva);
+        assertThat(nueva.siguiente()).contains(new CambioStockDTO(productoId, 9, false));
+
+        avisosStock.enviarCambios();
+        assertThat(antigua.siguiente()).containsExactly(new CambioStockDTO(productoId, 9, false));
+        assertThat(nueva.eventos.poll(200, TimeUnit.MILLISECONDS)).isNull();
+        antigua.complete();
+        nueva.complete();
+        productoService.deleteById(productoId);
+    }
+
+    private Long crearProducto(String nombre, int stock) {
+        ProductoDTO dto = new ProductoDTO();
+        dto.setNombre(nombre);
+        dto.setPrecio(2.0);
+        dto.setStock(stock);
+        return productoService.save(dto).getId();
+    }
+
+    // Guarda los eventos en vez de escribirlos en una respuesta HTTP
+    private static final class PantallaDePrueba extends SseEmitter {
+        private final BlockingQueue<List<CambioStockDTO>> eventos = new LinkedBlockingQueue<>();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void send(SseEventBuilder evento) {
+            for (ResponseBodyEmitter.DataWithMediaType parte : evento.build()) {
+                if (MediaType.APPLICATION_JSON.equals(parte.getMediaType())) {
+                    eventos.add((List<CambioStockDTO>) parte.getData());
+                }
+            }
+        }
+
+        List<CambioStockDTO> siguiente() throws InterruptedException {
+            List<CambioStockDTO> evento = eventos.poll(5, TimeUnit.SECONDS);
+            assertThat(evento).as("evento de stock").isNotNull();
+            return evento;
+        }
+    }
+}
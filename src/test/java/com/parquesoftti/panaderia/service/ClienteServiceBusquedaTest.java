@@ -0,0 +1,143 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.ClienteDTORespuesta;
+import com.parquesoftti.panaderia.dto.PaginaClientesDTO;
+import com.parquesoftti.panaderia.exception.ClienteNotFoundException;
+import com.parquesoftti.panaderia.exception.TelefonoDuplicadoException;
+import com.parquesoftti.panaderia.model.Cliente;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ClienteServiceBusquedaTest {
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> creados = new ArrayList<>();
+    private Long zoilaId;
+
+    @BeforeEach
+    void crearClientes() {
+        zoilaId = crear("Zoila Núñez", "+57 (311) 555-0101");
+        crear("ZOILA NUÑEZ", "311 555 0102");
+        crear("Zoilo Pérez", null);
+        crear("Zoraida Gómez", "311-555-0203");
+        crear("Zósimo Peña", "3115550204");
+    }
+
+    @AfterEach
+    void borrarClientes() {
+        creados.forEach(clienteService::deleteById);
+    }
+
+    @Test
+    void porNombreIgnoraTildesYMayusculasYDevuelveElMasAntiguo() {
+        assertThat(clienteService.getClientByName("zoila nunez").getId()).isEqualTo(zoilaId);
+        assertThat(clienteService.getClientByName("  Zoila   NÚÑEZ ").getId()).isEqualTo(zoilaId);
+        assertThatThrownBy(() -> clienteService.getClientByName("Zoila"))
+                .isInstanceOf(ClienteNotFoundException.class);
+    }
+
+    @Test
+    void porTelefonoIgnoraLosSeparadores() {
+        assertThat(clienteService.getClientByTelefono("573115550101").getId()).isEqualTo(zoilaId);
+        assertThat(clienteService.getClientByTelefono("(311) 555 0204").getNombre()).isEqualTo("Zósimo Peña");
+        assertThatThrownBy(() -> clienteService.getClientByTelefono("311 555 0000"))
+                .isInstanceOf(ClienteNotFoundException.class);
+    }
+
+    @Test
+    void buscaPorPrefijoPaginandoConCursor() {
+        PaginaClientesDTO primera = clienteService.buscarClientes("ZO", null, 2);
+        assertThat(nombres(primera)).containsExactly("Zoila Núñez", "ZOILA NUÑEZ");
+        assertThat(primera.getSiguienteCursor()).isNotNull();
+
+        PaginaClientesDTO segunda = clienteService.buscarClientes("ZO", primera.getSiguienteCursor(), 2);
+        assertThat(nombres(segunda)).containsExactly("Zoilo Pérez", "Zoraida Gómez");
+
+        PaginaClientesDTO tercera = clienteService.buscarClientes("ZO", segunda.getSiguienteCursor(), 2);
+        assertThat(nombres(tercera)).containsExactly("Zósimo Peña");
+        assertThat(tercera.getSiguienteCursor()).isNull();
+
+        // Solo números: prefijo del teléfono
+        assertThat(nombres(clienteService.buscarClientes("311 555 02", null, 20)))
+                .containsExactly("Zoraida Gómez", "Zósimo Peña");
+        assertThatThrownBy(() -> clienteService.buscarClientes("zo", "no-es-un-cursor", 2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void noPermiteTelefonosRepetidos() {
+        assertThatThrownBy(() -> crear("Otro cliente", "311.555.0203"))
+                .isInstanceOf(TelefonoDuplicadoException.class);
+
+        // El mismo cliente puede volver a guardar su teléfono
+        Cliente cambio = cliente("Zoila Núñez de Ruiz", "573115550101");
+        assertThat(clienteService.update(zoilaId, cambio).getNombre()).isEqualTo("Zoila Núñez de Ruiz");
+        assertThatThrownBy(() -> clienteService.update(zoilaId, cliente("Zoila Núñez", "3115550204")))
+                .isInstanceOf(TelefonoDuplicadoException.class);
+    }
+
+    @Test
+    void laCacheSeVaciaAlCambiarUnCliente() {
+        clienteService.getClientByTelefono("3115550204");
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+        assertThat(clienteService.getClientByTelefono("3115550204").getNombre()).isEqualTo("Zósimo Peña");
+        assertThat(estadisticas.getPrepareStatementCount()).isZero();
+
+        Long zosimoId = creados.get(4);
+        clienteService.update(zosimoId, cliente("Zósimo Peña Rojas", "3115550204"));
+        assertThat(clienteService.getClientByTelefono("3115550204").getNombre()).isEqualTo("Zósimo Peña Rojas");
+        assertThat(nombres(clienteService.buscarClientes("zosimo", null, 20))).containsExactly("Zósimo Peña Rojas");
+    }
+
+    @Test
+    void lasBusquedasUsanLosIndicesNormalizados() {
+        assertThat(plan("SELECT id FROM clientes WHERE nombre_normalizado LIKE 'zo%' ORDER BY nombre_normalizado, id"))
+                .contains("idx_clientes_nombre_normalizado");
+        assertThat(plan("SELECT id FROM clientes WHERE telefono_normalizado = '3115550204'"))
+                .contains("uk_clientes_telefono_normalizado");
+    }
+
+    private String plan(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+
+    private List<String> nombres(PaginaClientesDTO pagina) {
+        return pagina.getClientes().stream().map(ClienteDTORespuesta::getNombre).toList();
+    }
+
+    private Long crear(String nombre, String telefono) {
+        Long id = clienteService.save(cliente(nombre, telefono)).getId();
+        creados.add(id);
+        return id;
+    }
+
+    private static Cliente cliente(String nombre, String telefono) {
+        Cliente cliente = new Cliente();
+        cliente.setNombre(nombre);
+        cliente.setTelefono(telefono);
+        return cliente;
+    }
+}
@@ -0,0 +1,131 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.ClienteDTORespuesta;
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.model.Producto;
+import com.parquesoftti.panaderia.model.Venta;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import com.parquesoftti.panaderia.repository.VentaRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ClienteServiceConsultasTest {
+
+    private static final int CLIENTES = 10_000;
+    private static final int CON_VENTAS = 100;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<Cliente> clientes = new ArrayList<>();
+    private Producto producto;
+
+    @BeforeEach
+    void crearClientes() {
+        for (int i = 0; i < CLIENTES; i++) {
+            Cliente cliente = new Cliente();
+            cliente.setNombre("Cliente listado " + i);
+            clientes.add(cliente);
+        }
+        clienteRepository.saveAll(clientes);
+
+        producto = new Producto();
+        producto.setNombre("Producto listado clientes");
+        producto.setPrecio(BigDecimal.ONE);
+        producto.setStock(0);
+        productoRepository.save(producto);
+
+        List<Venta> ventas = new ArrayList<>();
+        for (Cliente cliente : clientes.subList(0, CON_VENTAS)) {
+            Venta venta = new Venta();
+            venta.setCliente(cliente);
+            venta.setProducto(producto);
+            venta.setCantidad(1);
+            ventas.add(venta);
+        }
+        ventaRepository.saveAll(ventas);
+    }
+
+    @AfterEach
+    void borrarClientes() {
+        transactionTemplate.executeWithoutResult(estado -> {
+            ventaRepository.deleteByProductoId(producto.getId());
+            productoRepository.deleteById(producto.getId());
+        });
+        clienteRepository.deleteAllByIdInBatch(clientes.stream().map(Cliente::getId).toList());
+    }
+
+    @Test
+    void listarClientesNoTocaLasVentas() {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        List<ClienteDTORespuesta> listado = clienteService.getAllClients();
+
+        assertThat(listado).hasSizeGreaterThanOrEqualTo(CLIENTES);
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(estadisticas.getEntityLoadCount()).isZero();
+        assertThat(estadisticas.getCollectionFetchCount()).isZero();
+    }
+
+    @Test
+    void laIgualdadEsPorIdYAceptaProxies() {
+        Cliente primero = clientes.get(0);
+        transactionTemplate.executeWithoutResult(estado -> {
+            Cliente referencia = entityManager.getReference(Cliente.class, primero.getId());
+            Set<Cliente> conjunto = new HashSet<>(Set.of(primero));
+
+            assertThat(referencia).isEqualTo(primero);
+            assertThat(primero).isEqualTo(referencia);
+            assertThat(conjunto).contains(referencia);
+            assertThat(new Cliente()).isNotEqualTo(new Cliente());
+        });
+    }
+
+    @Test
+    void borrarUnClienteBorraSusVentas() {
+        Long clienteId = clientes.get(0).getId();
+
+        clienteService.deleteById(clienteId);
+
+        assertThat(clienteRepository.existsById(clienteId)).isFalse();
+        assertThat(ventaRepository.findDTOByClienteId(clienteId)).isEmpty();
+        assertThat(ventaRepository.findDTOByProductoId(producto.getId())).hasSize(CON_VENTAS - 1);
+    }
+}
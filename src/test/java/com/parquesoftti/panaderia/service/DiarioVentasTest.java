@@ -0,0 +1,214 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.ProductoDTORespuesta;
+import com.parquesoftti.panaderia.dto.VentaDTO;
+import com.parquesoftti.panaderia.dto.VentaDTORespuesta;
+import com.parquesoftti.panaderia.exception.StockInsuficienteException;
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.model.Producto;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import com.parquesoftti.panaderia.repository.VentaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Contexto propio con su propia base: con create-drop, compartir la H2 del resto de las pruebas
+// recrearía las secuencias debajo de los bloques de ids que el otro contexto ya tiene reservados
+@SpringBootTest(properties = {
+        "panaderia.diario.habilitado=true",
+        "panaderia.diario.directorio=target/diario-pruebas/${random.uuid}",
+        // El stock cacheado no vence solo durante la prueba: si se ve el nuevo es porque el volcado lo invalidó
+        "panaderia.cache.stock.ttl=10m",
+        "spring.datasource.url=jdbc:h2:mem:diario;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1"
+})
+class DiarioVentasTest {
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private DiarioVentas diarioVentas;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private ReservaStock reservaStock;
+
+    @Autowired
+    private CatalogoProductos catalogoProductos;
+
+    @Autowired
+    private AgregadorVentasDiarias agregadorVentasDiarias;
+
+    @Autowired
+    private EstadisticasVentas estadisticasVentas;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private VersionesTablas versionesTablas;
+
+    private Long clienteId;
+    private Long productoId;
+
+    @BeforeEach
+    void crearDatos() {
+        Cliente cliente = new Cliente();
+        cliente.setNombre("Cliente diario");
+        clienteId = clienteRepository.save(cliente).getId();
+
+        Producto producto = new Producto();
+        producto.setNombre("Pan del diario");
+        producto.setPrecio(new BigDecimal("1.20"));
+        producto.setStock(5);
+        productoId = productoRepository.save(producto).getId();
+    }
+
+    @Test
+    void confirmaEnElDiarioYLuegoGuardaEnLaBase() throws Exception {
+        VentaDTORespuesta primera = ventaService.registrarVentaDiferida(venta(2));
+        ventaService.registrarVentaDiferida(venta(3));
+
+        assertThat(primera.getId()).isNotNull();
+        assertThat(primera.getNombreCliente()).isEqualTo("Cliente diario");
+        assertThatThrownBy(() -> ventaService.registrarVentaDiferida(venta(1)))
+                .isInstanceOf(StockInsuficienteException.class);
+        // El camino síncrono respeta lo vendido por el diario aunque la base todavía no lo refleje
+        assertThatThrownBy(() -> ventaService.registrarVenta(venta(1)))
+                .isInstanceOf(StockInsuficienteException.class);
+
+        esperarVentasGuardadas(2);
+        assertThat(ventaRepository.findDTOByProductoId(productoId))
+                .extracting(VentaDTORespuesta::getId)
+                .contains(primera.getId());
+        assertThat(productoRepository.findStockById(productoId)).contains(0);
+    }
+
+    @Test
+    void elVolcadoInvalidaElStockCacheadoYElEtag() throws Exception {
+        assertThat(productoService.findById(productoId).getStock()).isEqualTo(5);
+        String etagAntes = versionesTablas.etagProductos();
+
+        ventaService.registrarVentaDiferida(venta(2));
+        esperarVentasGuardadas(1);
+
+        // El evict y la versión nueva se aplican al confirmar el volcado, un instante después de que
+        // la venta ya se ve en la base
+        for (int i = 0; i < 200 && versionesTablas.etagProductos().equals(etagAntes); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(versionesTablas.etagProductos()).isNotEqualTo(etagAntes);
+        assertThat(productoService.findById(productoId).getStock()).isEqualTo(3);
+        assertThat(productoService.getAllProductos())
+                .filteredOn(producto -> producto.getId().equals(productoId))
+                .extracting(ProductoDTORespuesta::getStock)
+                .containsExactly(3);
+        assertThat(catalogoProductos.stocks(List.of(productoId))).containsEntry(productoId, 3);
+    }
+
+    @Test
+    void alAbrirVuelcaLoQueQuedoSinGuardarSinDuplicar() throws Exception {
+        VentaDTORespuesta yaGuardada = ventaService.registrarVentaDiferida(venta(1));
+        esperarVentasGuardadas(1);
+
+        // Un diario de un arranque anterior: la primera entrada ya llegó a la base, la segunda no
+        Path directorio = Files.createTempDirectory(Path.of("target"), "diario-recuperacion");
+        long idNuevo = ventaRepository.reservarBloqueIds();
+        ByteBuffer contenido = ByteBuffer.allocate(EntradaDiario.TAMANO * 2 + 10);
+        new EntradaDiario(1, yaGuardada.getId(), clienteId, productoId, 1, LocalDateTime.now(), BigDecimal.ONE)
+                .escribir(contenido);
+        new EntradaDiario(2, idNuevo, clienteId, productoId, 2, LocalDateTime.now(), BigDecimal.ONE)
+                .escribir(contenido);
+        // Un registro cortado a la mitad al final, como si el proceso se hubiera caído escribiéndolo
+        contenido.put(new byte[10]);
+        Files.write(directorio.resolve("ventas.diario"), contenido.array());
+
+        assertThat(DiarioVentas.leer(directorio.resolve("ventas.diario"))).hasSize(2);
+
+        DiarioVentas recuperado = new DiarioVentas(ventaRepository, productoRepository, clienteRepository,
+                reservaStock, catalogoProductos, agregadorVentasDiarias, estadisticasVentas, transactionTemplate,
+                directorio, true, 500, Duration.ofMillis(5), 1024);
+        recuperado.abrir();
+        recuperado.cerrar();
+
+        assertThat(ventaRepository.findDTOByProductoId(productoId))
+                .extracting(VentaDTORespuesta::getId)
+                .containsExactlyInAnyOrder(yaGuardada.getId(), idNuevo);
+        assertThat(productoRepository.findStockById(productoId)).contains(2);
+        assertThat(Files.size(directorio.resolve("ventas.diario"))).isZero();
+    }
+
+    @Test
+    void unaFallaDeConexionSeReintentaSinDescartarLaVenta() throws Exception {
+        // Las dos primeras transacciones no llegan a abrirse, como con la base caída un momento
+        AtomicInteger fallas = new AtomicInteger(2);
+        TransactionTemplate intermitente = new TransactionTemplate(transactionTemplate.getTransactionManager()) {
+            @Override
+            public <T> T execute(TransactionCallback<T> accion) {
+                if (fallas.getAndDecrement() > 0) {
+                    throw new CannotCreateTransactionException("Sin conexión");
+                }
+                return super.execute(accion);
+            }
+        };
+        Path directorio = Files.createTempDirectory(Path.of("target"), "diario-reintentos");
+        DiarioVentas diario = new DiarioVentas(ventaRepository, productoRepository, clienteRepository,
+                reservaStock, catalogoProductos, agregadorVentasDiarias, estadisticasVentas, intermitente,
+                directorio, true, 500, Duration.ofMillis(5), 1024);
+        diario.abrir();
+        VentaDTORespuesta venta = diario.registrar(venta(2));
+        for (int i = 0; i < 500 && ventaRepository.findDTOByProductoId(productoId).isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+        diario.cerrar();
+
+        assertThat(ventaRepository.findDTOByProductoId(productoId))
+                .extracting(VentaDTORespuesta::getId)
+                .containsExactly(venta.getId());
+        assertThat(productoRepository.findStockById(productoId)).contains(3);
+        assertThat(directorio.resolve("ventas-rechazadas.log")).doesNotExist();
+    }
+
+    private void esperarVentasGuardadas(int cantidad) throws InterruptedException {
+        for (int i = 0; i < 500 && ventaRepository.findDTOByProductoId(productoId).size() < cantidad; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(diarioVentas.pendientes()).isZero();
+    }
+
+    private VentaDTO venta(int cantidad) {
+        VentaDTO venta = new VentaDTO();
+        venta.setClienteId(clienteId);
+        venta.setProductoId(productoId);
+        venta.setCantidad(cantidad);
+        return venta;
+    }
+}
@@ -0,0 +1,177 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.AjusteStockDTO;
+import com.parquesoftti.panaderia.dto.ProductoDTO;
+import com.parquesoftti.panaderia.dto.ProductoDTORespuesta;
+import com.parquesoftti.panaderia.dto.TopProductoDTO;
+import com.parquesoftti.panaderia.dto.VentaDTO;
+import com.parquesoftti.panaderia.dto.VentaDTORespuesta;
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import com.parquesoftti.panaderia.repository.VentaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+class EstadisticasVentasTest {
+
+    @Autowired
+    private EstadisticasVentas estadisticasVentas;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long clienteId;
+
+    @BeforeEach
+    void crearCliente() {
+        Cliente cliente = new Cliente();
+        cliente.setNombre("Cliente estadísticas");
+        clienteId = clienteRepository.save(cliente).getId();
+    }
+
+    @Test
+    void lasVentasYAnulacionesMuevenElTop() {
+        Long pan = crearProducto("Pan top", 100_000);
+        Long torta = crearProducto("Torta top", 100_000);
+        vender(pan, 900);
+        VentaDTORespuesta anulada = vender(torta, 700);
+        vender(torta, 400);
+        estadisticasVentas.actualizar();
+
+        assertThat(unidades(EstadisticasVentas.HORA, pan)).contains(900L);
+        assertThat(unidades(EstadisticasVentas.DIA, torta)).contains(1100L);
+        List<TopProductoDTO> top = estadisticasVentas.top(EstadisticasVentas.HORA, 100);
+        assertThat(top.indexOf(puesto(top, torta))).isLessThan(top.indexOf(puesto(top, pan)));
+        assertThat(puesto(top, torta).getNombre()).isEqualTo("Torta top");
+
+        ventaService.deleteVenta(anulada.getId());
+        estadisticasVentas.actualizar();
+        assertThat(unidades(EstadisticasVentas.HORA, torta)).contains(400L);
+
+        // Un producto eliminado sale del top
+        productoService.deleteById(pan);
+        estadisticasVentas.actualizar();
+        assertThat(unidades(EstadisticasVentas.DIA, pan)).isEmpty();
+
+        assertThatThrownBy(() -> estadisticasVentas.top("7d", 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> estadisticasVentas.top(EstadisticasVentas.HORA, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void lasVentasViejasSalenDeCadaVentana() {
+        Long medialuna = crearProducto("Medialuna ventana", 10_000);
+        Long rosca = crearProducto("Rosca ventana", 10_000);
+        // Instancia aparte para mover su reloj sin afectar a las demás pruebas
+        EstadisticasVentas estadisticas = new EstadisticasVentas(ventaRepository, productoRepository,
+                transactionTemplate, 10, 0);
+        LocalDateTime ahora = LocalDateTime.now();
+        estadisticas.registrar(ahora.minusHours(2), medialuna, 7);
+        estadisticas.registrar(ahora, rosca, 3);
+        estadisticas.registrar(ahora.minusHours(30), rosca, 50);
+        estadisticas.actualizar();
+
+        assertThat(estadisticas.top(EstadisticasVentas.HORA, 10))
+                .extracting(TopProductoDTO::getId, TopProductoDTO::getUnidades)
+                .containsExactly(tuple(rosca, 3L));
+        assertThat(estadisticas.top(EstadisticasVentas.DIA, 10))
+                .extracting(TopProductoDTO::getId).containsExactly(medialuna, rosca);
+
+        estadisticas.avanzar(ahora.plusMinutes(61));
+        estadisticas.actualizar();
+        assertThat(estadisticas.top(EstadisticasVentas.HORA, 10)).isEmpty();
+        assertThat(estadisticas.top(EstadisticasVentas.DIA, 10)).hasSize(2);
+
+        estadisticas.avanzar(ahora.plusHours(23));
+        estadisticas.actualizar();
+        assertThat(estadisticas.top(EstadisticasVentas.DIA, 10))
+                .extracting(TopProductoDTO::getId).containsExactly(rosca);
+
+        estadisticas.avanzar(ahora.plusHours(48));
+        estadisticas.actualizar();
+        assertThat(estadisticas.top(EstadisticasVentas.DIA, 10)).isEmpty();
+    }
+
+    @Test
+    void avisaCuandoElStockBajaDelMinimo() {
+        Long bizcocho = crearProducto("Bizcocho bajo stock", 12);
+        estadisticasVentas.actualizar();
+        assertThat(estadisticasVentas.bajoStock()).extracting(ProductoDTORespuesta::getId).doesNotContain(bizcocho);
+
+        vender(bizcocho, 3);
+        estadisticasVentas.actualizar();
+        assertThat(estadisticasVentas.bajoStock())
+                .filteredOn(producto -> producto.getId().equals(bizcocho))
+                .singleElement()
+                .satisfies(producto -> {
+                    assertThat(producto.getNombre()).isEqualTo("Bizcocho bajo stock");
+                    assertThat(producto.getStock()).isEqualTo(9);
+                });
+
+        AjusteStockDTO ajuste = new AjusteStockDTO();
+        ajuste.setAjuste(20);
+        productoService.ajustarStock(bizcocho, ajuste);
+        estadisticasVentas.actualizar();
+        assertThat(estadisticasVentas.bajoStock()).extracting(ProductoDTORespuesta::getId).doesNotContain(bizcocho);
+
+        // Al arrancar se cargan los que ya estaban bajo el mínimo
+        ajuste.setAjuste(-25);
+        productoService.ajustarStock(bizcocho, ajuste);
+        estadisticasVentas.reconstruir();
+        assertThat(estadisticasVentas.bajoStock()).extracting(ProductoDTORespuesta::getId).contains(bizcocho);
+    }
+
+    private Long crearProducto(String nombre, int stock) {
+        ProductoDTO dto = new ProductoDTO();
+        dto.setNombre(nombre);
+        dto.setPrecio(1.0);
+        dto.setStock(stock);
+        return productoService.save(dto).getId();
+    }
+
+    private VentaDTORespuesta vender(Long productoId, int cantidad) {
+        VentaDTO venta = new VentaDTO();
+        venta.setClienteId(clienteId);
+        venta.setProductoId(productoId);
+        venta.setCantidad(cantidad);
+        return ventaService.registrarVenta(venta);
+    }
+
+    private Optional<Long> unidades(String ventana, Long productoId) {
+        return estadisticasVentas.top(ventana, 100).stream()
+                .filter(puesto -> puesto.getId().equals(productoId))
+                .map(TopProductoDTO::getUnidades)
+                .findFirst();
+    }
+
+    private static TopProductoDTO puesto(List<TopProductoDTO> top, Long productoId) {
+        return top.stream().filter(puesto -> puesto.getId().equals(productoId)).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,121 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.FiltroVentasDTO;
+import com.parquesoftti.panaderia.dto.FormatoExportacion;
+import com.parquesoftti.panaderia.dto.VentaDTORespuesta;
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.model.Producto;
+import com.parquesoftti.panaderia.model.Venta;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import com.parquesoftti.panaderia.repository.VentaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ExportacionServiceTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2022, 3, 1, 9, 0, 0, 123_456_000);
+
+    @Autowired
+    private ExportacionService exportacionService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @TempDir
+    private Path carpeta;
+
+    private Long productoId;
+
+    @BeforeEach
+    void crearVentas() {
+        Cliente cliente = new Cliente();
+        cliente.setNombre("Cliente \"export\", mayorista");
+        clienteRepository.save(cliente);
+
+        Producto producto = new Producto();
+        producto.setNombre("Producto exportación " + System.nanoTime());
+        producto.setPrecio(new BigDecimal("1.20"));
+        producto.setStock(0);
+        productoId = productoRepository.save(producto).getId();
+
+        for (int i = 0; i < 5; i++) {
+            Venta venta = new Venta();
+            venta.setCliente(cliente);
+            venta.setProducto(producto);
+            venta.setCantidad(i + 1);
+            venta.setFechaVenta(INICIO.plusDays(i));
+            ventaRepository.save(venta);
+        }
+    }
+
+    @Test
+    void exportaCsvComprimidoConLosFiltros() throws IOException {
+        FiltroVentasDTO filtro = new FiltroVentasDTO(null, productoId, INICIO.plusDays(1), INICIO.plusDays(4), null);
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        long filas = exportacionService.exportar(filtro, FormatoExportacion.CSV, salida);
+
+        assertThat(filas).isEqualTo(3);
+        List<String> lineas = new String(descomprimir(salida.toByteArray()), StandardCharsets.UTF_8).lines().toList();
+        assertThat(lineas).hasSize(4);
+        assertThat(lineas.get(0)).isEqualTo("id,fechaVenta,clienteId,nombreCliente,productoId,nombreProducto,cantidad");
+        assertThat(lineas.get(1))
+                .contains(",\"Cliente \"\"export\"\", mayorista\",")
+                .startsWith(ventaRepository.findDTOByProductoId(productoId).stream()
+                        .filter(venta -> venta.getCantidad() == 2).findFirst().orElseThrow().getId() + ",2022-03-02T09:00:00.123456,")
+                .endsWith(",2");
+        assertThat(lineas.get(3)).endsWith(",4");
+    }
+
+    @Test
+    void elArchivoColumnarDevuelveLasMismasVentas() throws IOException {
+        Path archivo = carpeta.resolve("ventas.pvc.gz");
+
+        long filas = exportacionService.exportarArchivo(new FiltroVentasDTO(null, productoId, null, null, null),
+                FormatoExportacion.COLUMNAR, archivo);
+
+        assertThat(filas).isEqualTo(5);
+        assertThat(carpeta.resolve("ventas.pvc.gz.parcial")).doesNotExist();
+        List<VentaDTORespuesta> leidas = new ArrayList<>();
+        try (InputStream entrada = new GZIPInputStream(Files.newInputStream(archivo))) {
+            ArchivoColumnarVentas.leer(entrada, leidas::add);
+        }
+        List<VentaDTORespuesta> esperadas = ventaRepository.findDTOByProductoId(productoId).stream()
+                .sorted(Comparator.comparing(VentaDTORespuesta::getFechaVenta).thenComparing(VentaDTORespuesta::getId))
+                .toList();
+        assertThat(leidas).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(esperadas);
+    }
+
+    private static byte[] descomprimir(byte[] comprimido) throws IOException {
+        try (InputStream entrada = new GZIPInputStream(new ByteArrayInputStream(comprimido))) {
+            return entrada.readAllBytes();
+        }
+    }
+}
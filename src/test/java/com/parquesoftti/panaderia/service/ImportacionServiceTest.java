@@ -0,0 +1,128 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.FormatoImportacion;
+import com.parquesoftti.panaderia.dto.ResultadoImportacionDTO;
+import com.parquesoftti.panaderia.dto.TipoImportacion;
+import com.parquesoftti.panaderia.dto.VentaDTORespuesta;
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.model.Producto;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import com.parquesoftti.panaderia.repository.VentaRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ImportacionServiceTest {
+
+    @Autowired
+    private ImportacionService importacionService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @TempDir
+    private Path carpeta;
+
+    @Test
+    void importaProductosDesdeCsvYReportaLasFilasInvalidas() throws IOException {
+        String csv = "﻿nombre,precio,stock\n"
+                + "\"Pan de queso, grande\",1.50,10\n"
+                + "Torta importada,no-es-precio,3\n"
+                + "\"Galleta \"\"casera\"\"\",,\n";
+        Path errores = carpeta.resolve("productos.errores.csv");
+
+        ResultadoImportacionDTO resultado = importacionService.importar(TipoImportacion.PRODUCTOS,
+                FormatoImportacion.CSV, new StringReader(csv), 0, errores, confirmadas -> {
+                });
+
+        assertThat(resultado.getLeidas()).isEqualTo(3);
+        assertThat(resultado.getImportadas()).isEqualTo(2);
+        assertThat(resultado.getRechazadas()).isEqualTo(1);
+        assertThat(resultado.getConfirmadas()).isEqualTo(3);
+        assertThat(productoRepository.findByNombre("Pan de queso, grande")).get()
+                .satisfies(producto -> {
+                    assertThat(producto.getPrecio()).isEqualByComparingTo("1.50");
+                    assertThat(producto.getStock()).isEqualTo(10);
+                });
+        assertThat(productoRepository.findByNombre("Galleta \"casera\"")).get()
+                .satisfies(producto -> assertThat(producto.getStock()).isNull());
+        assertThat(Files.readAllLines(errores))
+                .hasSize(2)
+                .last().asString().startsWith("2,\"precio no es un número");
+    }
+
+    @Test
+    void importaVentasHistoricasPorNombreOIdSinTocarElStock() throws IOException {
+        Producto producto = new Producto();
+        producto.setNombre("Producto importación ventas");
+        producto.setPrecio(new BigDecimal("2.00"));
+        producto.setStock(7);
+        Long productoId = productoRepository.save(producto).getId();
+
+        String clientes = "{\"nombre\": \"Cliente importado\", \"telefono\": \"555-1234\"}\n"
+                + "\n"
+                + "{\"nombre\": null}\n";
+        ResultadoImportacionDTO resultadoClientes = importacionService.importar(TipoImportacion.CLIENTES,
+                FormatoImportacion.NDJSON, new StringReader(clientes), 0, carpeta.resolve("clientes.errores.csv"),
+                confirmadas -> {
+                });
+        assertThat(resultadoClientes.getImportadas()).isEqualTo(1);
+        assertThat(resultadoClientes.getRechazadas()).isEqualTo(1);
+        Cliente cliente = clienteRepository.findByNombre("Cliente importado").orElseThrow();
+
+        String ventas = "cliente,clienteId,producto,productoId,cantidad,fechaVenta,precioUnitario\n"
+                + "Cliente importado,,Producto importación ventas,,3,2023-05-01T10:15:00,1.80\n"
+                + "," + cliente.getId() + ",," + productoId + ",2,2023-05-02,\n"
+                + "Cliente que no existe,,Producto importación ventas,,1,2023-05-02,\n";
+        ResultadoImportacionDTO resultado = importacionService.importar(TipoImportacion.VENTAS,
+                FormatoImportacion.CSV, new StringReader(ventas), 0, carpeta.resolve("ventas.errores.csv"),
+                confirmadas -> {
+                });
+
+        assertThat(resultado.getImportadas()).isEqualTo(2);
+        assertThat(resultado.getRechazadas()).isEqualTo(1);
+        List<VentaDTORespuesta> guardadas = ventaRepository.findDTOByProductoId(productoId);
+        assertThat(guardadas).extracting(VentaDTORespuesta::getFechaVenta)
+                .containsExactlyInAnyOrder(LocalDateTime.of(2023, 5, 1, 10, 15), LocalDateTime.of(2023, 5, 2, 0, 0));
+        assertThat(guardadas).allSatisfy(venta -> assertThat(venta.getNombreCliente()).isEqualTo("Cliente importado"));
+        assertThat(productoRepository.findStockById(productoId)).contains(7);
+    }
+
+    @Test
+    void unArchivoSeRetomaDesdeSuPuntoDeControl() throws IOException {
+        Path archivo = carpeta.resolve("clientes.csv");
+        Files.writeString(archivo, "nombre,telefono\n"
+                + "Cliente retomado 1,1\n"
+                + "Cliente retomado 2,2\n"
+                + "Cliente retomado 3,3\n");
+        Path punto = carpeta.resolve("clientes.csv.punto");
+        Files.writeString(punto, "2");
+
+        ResultadoImportacionDTO resultado = importacionService.importarArchivo(TipoImportacion.CLIENTES, archivo);
+
+        assertThat(resultado.getLeidas()).isEqualTo(1);
+        assertThat(resultado.getConfirmadas()).isEqualTo(3);
+        assertThat(Files.readString(punto)).isEqualTo("3");
+        assertThat(clienteRepository.findByNombre("Cliente retomado 3")).isPresent();
+        assertThat(clienteRepository.findByNombre("Cliente retomado 1")).isEmpty();
+    }
+}
@@ -0,0 +1,111 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.VentaDTO;
+import com.parquesoftti.panaderia.exception.StockInsuficienteException;
+import com.parquesoftti.panaderia.exception.VentaNotFoundException;
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.model.Producto;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class MetricasServiciosTest {
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Long clienteId;
+    private Long productoId;
+
+    @BeforeEach
+    void crearDatos() {
+        Cliente cliente = new Cliente();
+        cliente.setNombre("Cliente métricas");
+        clienteId = clienteRepository.save(cliente).getId();
+
+        Producto producto = new Producto();
+        producto.setNombre("Producto métricas");
+        producto.setPrecio(BigDecimal.ONE);
+        producto.setStock(3);
+        productoId = productoRepository.save(producto).getId();
+    }
+
+    @Test
+    void lasVentasSeCuentanPorResultado() {
+        double registradas = ventas("none");
+        double sinStock = ventas("StockInsuficienteException");
+
+        ventaService.registrarVenta(venta(2));
+        assertThatThrownBy(() -> ventaService.registrarVenta(venta(2)))
+                .isInstanceOf(StockInsuficienteException.class);
+
+        assertThat(ventas("none")).isEqualTo(registradas + 1);
+        assertThat(ventas("StockInsuficienteException")).isEqualTo(sinStock + 1);
+    }
+
+    @Test
+    void cadaMetodoPublicoTieneSuTemporizador() {
+        clienteService.findById(clienteId);
+        assertThatThrownBy(() -> ventaService.getVentaById(-1L))
+                .isInstanceOf(VentaNotFoundException.class);
+
+        Timer cliente = meterRegistry.find("panaderia.servicio")
+                .tags("class", ClienteService.class.getName(), "method", "findById")
+                .timer();
+        Timer fallida = meterRegistry.find("panaderia.servicio")
+                .tags("class", VentaService.class.getName(), "method", "getVentaById",
+                        "exception", "VentaNotFoundException")
+                .timer();
+        assertThat(cliente).isNotNull();
+        assertThat(cliente.count()).isPositive();
+        assertThat(fallida).isNotNull();
+        assertThat(fallida.count()).isPositive();
+    }
+
+    @Test
+    void lasEstadisticasDeHibernateSePublican() {
+        ventaService.getAllVentas();
+
+        assertThat(meterRegistry.find("hibernate.statements").functionCounter()).isNotNull();
+        assertThat(meterRegistry.find("hibernate.statements").functionCounter().count()).isPositive();
+    }
+
+    private double ventas(String excepcion) {
+        Counter contador = meterRegistry.find("panaderia.ventas")
+                .tags("method", "registrarVenta", "exception", excepcion)
+                .counter();
+        return contador == null ? 0 : contador.count();
+    }
+
+    private VentaDTO venta(int cantidad) {
+        VentaDTO venta = new VentaDTO();
+        venta.setClienteId(clienteId);
+        venta.setProductoId(productoId);
+        venta.setCantidad(cantidad);
+        return venta;
+    }
+}
@@ -0,0 +1,126 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.VentaDiariaDTO;
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.model.Producto;
+import com.parquesoftti.panaderia.model.Venta;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import com.parquesoftti.panaderia.repository.VentaDiariaRepository;
+import com.parquesoftti.panaderia.repository.VentaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// En H2 no hay particiones: la retención cae al DELETE por fecha. Las ventas de la prueba son de
+// 1999 y 2000 para no tocar las de las demás pruebas, que comparten la base
+@SpringBootTest
+class ParticionesVentasTest {
+
+    @Autowired
+    private ParticionesVentas particionesVentas;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private AgregadorVentasDiarias agregadorVentasDiarias;
+
+    @Autowired
+    private VentaDiariaRepository ventaDiariaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> ventaIds = new ArrayList<>();
+
+    @BeforeEach
+    void crearVentas() {
+        Cliente cliente = new Cliente();
+        cliente.setNombre("Cliente particiones");
+        cliente = clienteRepository.save(cliente);
+
+        Producto producto = new Producto();
+        producto.setNombre("Producto particiones");
+        producto.setPrecio(BigDecimal.ONE);
+        producto.setStock(0);
+        producto = productoRepository.save(producto);
+
+        List<Venta> ventas = new ArrayList<>();
+        for (LocalDateTime fecha : List.of(
+                LocalDateTime.of(1999, 11, 15, 10, 0),
+                LocalDateTime.of(1999, 12, 31, 23, 59),
+                LocalDateTime.of(2000, 1, 1, 0, 0),
+                LocalDateTime.of(2000, 2, 10, 9, 30))) {
+            Venta venta = new Venta();
+            venta.setCliente(cliente);
+            venta.setProducto(producto);
+            venta.setCantidad(1);
+            venta.setFechaVenta(fecha);
+            ventas.add(venta);
+        }
+        ventaRepository.saveAll(ventas).forEach(venta -> ventaIds.add(venta.getId()));
+    }
+
+    @AfterEach
+    void borrarVentas() {
+        ventaRepository.deleteAllById(ventaRepository.findAllById(ventaIds).stream().map(Venta::getId).toList());
+        jdbcTemplate.update("DELETE FROM ventas_diarias WHERE dia < DATE '2001-01-01'");
+    }
+
+    @Test
+    void purgaSoloLasVentasAnterioresAlMes() {
+        assertThat(particionesVentas.purgarAntesDe(YearMonth.of(2000, 1))).isEqualTo(2);
+
+        assertThat(ventaRepository.findAllById(ventaIds))
+                .extracting(Venta::getFechaVenta)
+                .containsExactlyInAnyOrder(LocalDateTime.of(2000, 1, 1, 0, 0), LocalDateTime.of(2000, 2, 10, 9, 30));
+        assertThat(particionesVentas.purgarAntesDe(YearMonth.of(2000, 1))).isZero();
+    }
+
+    @Test
+    void reconstruirElResumenConservaLosMesesPurgados() {
+        agregadorVentasDiarias.reconstruir();
+        particionesVentas.purgarAntesDe(YearMonth.of(2000, 1));
+        agregadorVentasDiarias.reconstruir();
+
+        assertThat(ventaDiariaRepository.findResumenDiario(LocalDate.of(1999, 11, 1), LocalDate.of(2000, 2, 29)))
+                .extracting(VentaDiariaDTO::getDia)
+                .containsExactly(LocalDate.of(1999, 11, 15), LocalDate.of(1999, 12, 31),
+                        LocalDate.of(2000, 1, 1), LocalDate.of(2000, 2, 10));
+    }
+
+    @Test
+    void sinParticionesNoCreaNadaYSinRetencionNoBorra() {
+        assertThat(particionesVentas.crearParticiones(YearMonth.of(2000, 1), YearMonth.of(2000, 6))).isZero();
+
+        particionesVentas.mantener(YearMonth.of(2000, 3));
+        assertThat(ventaRepository.findAllById(ventaIds)).hasSize(4);
+    }
+
+    @Test
+    void nombresDeLasParticiones() {
+        assertThat(ParticionesVentas.nombre(YearMonth.of(2024, 5))).isEqualTo("ventas_p202405");
+        assertThat(ParticionesVentas.mes("ventas_p202405")).isEqualTo(YearMonth.of(2024, 5));
+        assertThat(ParticionesVentas.mes("ventas_default")).isNull();
+        assertThat(ParticionesVentas.mes("ventas_pxx")).isNull();
+    }
+}
@@ -0,0 +1,102 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.BuscarProductoDTO;
+import com.parquesoftti.panaderia.dto.ProductoDTO;
+import com.parquesoftti.panaderia.dto.ProductoDTORespuesta;
+import com.parquesoftti.panaderia.exception.ProductoNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ProductoServiceBusquedaTest {
+
+    @Autowired
+    private ProductoService productoService;
+
+    private final List<Long> creados = new ArrayList<>();
+    private Long mogollaId;
+
+    @BeforeEach
+    void crearProductos() {
+        crear("Pan mogolla integral");
+        mogollaId = crear("Mogolla");
+        crear("Mogolla chicharrona");
+        crear("Almojábana de mogolla");
+        crear("Té helado de maracuyá");
+    }
+
+    @AfterEach
+    void borrarProductos() {
+        creados.forEach(productoService::deleteById);
+    }
+
+    @Test
+    void ignoraTildesYMayusculasEnAmbosSentidos() {
+        assertThat(nombres(buscar("ALMOJABANA", null))).contains("Almojábana de mogolla");
+        assertThat(nombres(buscar("maracúya", null))).contains("Té helado de maracuyá");
+        assertThat(nombres(buscar("te hel", null))).contains("Té helado de maracuyá");
+    }
+
+    @Test
+    void ordenaPorRelevanciaYRespetaElLimite() {
+        List<ProductoDTORespuesta> resultado = buscar("mogolla", null);
+
+        assertThat(resultado.get(0).getId()).isEqualTo(mogollaId);
+        assertThat(nombres(resultado)).startsWith("Mogolla", "Mogolla chicharrona");
+        assertThat(nombres(buscar("mogolla", 2))).hasSize(2);
+    }
+
+    @Test
+    void lasPalabrasCortasSoloCoincidenAlInicio() {
+        assertThat(nombres(buscar("mo ch", null))).containsExactly("Mogolla chicharrona");
+        assertThatThrownBy(() -> buscar("og", null)).isInstanceOf(ProductoNotFoundException.class);
+    }
+
+    @Test
+    void veLosCambiosDelCatalogo() {
+        assertThat(nombres(buscar("mogolla", 100))).doesNotContain("Mogolla rellena");
+
+        ProductoDTO cambio = new ProductoDTO();
+        cambio.setNombre("Mogolla rellena");
+        cambio.setPrecio(1.0);
+        cambio.setStock(3);
+        productoService.update(mogollaId, cambio);
+
+        assertThat(buscar("rellena mog", null))
+                .singleElement()
+                .satisfies(producto -> {
+                    assertThat(producto.getId()).isEqualTo(mogollaId);
+                    assertThat(producto.getStock()).isEqualTo(3);
+                });
+    }
+
+    private List<ProductoDTORespuesta> buscar(String texto, Integer limite) {
+        BuscarProductoDTO dto = new BuscarProductoDTO();
+        dto.setNombre(texto);
+        dto.setLimite(limite);
+        return productoService.getProductosPorNombreParcial(dto);
+    }
+
+    private List<String> nombres(List<ProductoDTORespuesta> productos) {
+        return productos.stream().map(ProductoDTORespuesta::getNombre).toList();
+    }
+
+    private Long crear(String nombre) {
+        ProductoDTO dto = new ProductoDTO();
+        dto.setNombre(nombre);
+        dto.setPrecio(1.0);
+        dto.setStock(10);
+        Long id = productoService.save(dto).getId();
+        creados.add(id);
+        return id;
+    }
+}
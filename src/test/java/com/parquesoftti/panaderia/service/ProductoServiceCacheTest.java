@@ -0,0 +1,105 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.BuscarProductoDTO;
+import com.parquesoftti.panaderia.dto.ProductoDTO;
+import com.parquesoftti.panaderia.dto.ProductoDTORespuesta;
+import com.parquesoftti.panaderia.dto.VentaDTO;
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProductoServiceCacheTest {
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estadisticas;
+    private Long productoId;
+
+    @BeforeEach
+    void crearProducto() {
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        ProductoDTO dto = new ProductoDTO();
+        dto.setNombre("Pan de queso cache");
+        dto.setPrecio(3.0);
+        dto.setStock(20);
+        productoId = productoService.save(dto).getId();
+    }
+
+    @Test
+    void lasLecturasRepetidasNoVanALaBase() {
+        productoService.findById(productoId);
+        productoService.getProductoPorNombreExacto(buscar("Pan de queso cache"));
+        productoService.getAllProductos();
+
+        estadisticas.clear();
+        ProductoDTORespuesta porId = productoService.findById(productoId);
+        ProductoDTORespuesta porNombre = productoService.getProductoPorNombreExacto(buscar("Pan de queso cache"));
+        productoService.getAllProductos();
+
+        assertThat(estadisticas.getPrepareStatementCount()).isZero();
+        assertThat(porId).isEqualTo(porNombre);
+        assertThat(porId.getStock()).isEqualTo(20);
+    }
+
+    @Test
+    void unaVentaInvalidaSoloElStock() {
+        productoService.findById(productoId);
+
+        Cliente cliente = new Cliente();
+        cliente.setNombre("Cliente cache");
+        VentaDTO venta = new VentaDTO();
+        venta.setClienteId(clienteRepository.save(cliente).getId());
+        venta.setProductoId(productoId);
+        venta.setCantidad(4);
+        ventaService.registrarVenta(venta);
+
+        estadisticas.clear();
+        assertThat(productoService.findById(productoId).getStock()).isEqualTo(16);
+        // Solo se vuelve a leer el stock; nombre y precio siguen en caché
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(estadisticas.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void actualizarRefrescaElCatalogo() {
+        productoService.findById(productoId);
+
+        ProductoDTO cambios = new ProductoDTO();
+        cambios.setNombre("Pan de queso grande");
+        cambios.setPrecio(4.5);
+        cambios.setStock(20);
+        productoService.update(productoId, cambios);
+
+        assertThat(productoService.findById(productoId).getNombre()).isEqualTo("Pan de queso grande");
+        assertThat(productoService.getAllProductos())
+                .filteredOn(producto -> producto.getId().equals(productoId))
+                .extracting(ProductoDTORespuesta::getPrecio)
+                .containsExactly(4.5);
+    }
+
+    private BuscarProductoDTO buscar(String nombre) {
+        BuscarProductoDTO dto = new BuscarProductoDTO();
+        dto.setNombre(nombre);
+        return dto;
+    }
+}
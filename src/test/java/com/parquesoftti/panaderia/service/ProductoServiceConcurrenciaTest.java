@@ -0,0 +1,186 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.AjusteStockDTO;
+import com.parquesoftti.panaderia.dto.ProductoDTO;
+import com.parquesoftti.panaderia.dto.VentaDTO;
+import com.parquesoftti.panaderia.exception.StockInsuficienteException;
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.model.Producto;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import com.parquesoftti.panaderia.repository.VentaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProductoServiceConcurrenciaTest {
+
+    private static final int STOCK_INICIAL = 200;
+    private static final int VENDEDORES = 6;
+    private static final int VENTAS_POR_VENDEDOR = 40;
+    private static final int EDITORES = 3;
+    private static final int EDICIONES_POR_EDITOR = 15;
+    private static final int REPONEDORES = 2;
+    private static final int REPOSICIONES_POR_REPONEDOR = 20;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void edicionesAjustesYVentasConcurrentesDejanElStockExacto() throws Exception {
+        Cliente cliente = new Cliente();
+        cliente.setNombre("Cliente edición concurrente");
+        Long clienteId = clienteRepository.save(cliente).getId();
+        Long productoId = crearProducto("Pan de bono");
+
+        AtomicInteger vendidas = new AtomicInteger();
+        AtomicInteger repuestas = new AtomicInteger();
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(VENDEDORES + EDITORES + REPONEDORES);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < VENDEDORES; h++) {
+            tareas.add(pool.submit(() -> {
+                salida.await();
+                for (int i = 0; i < VENTAS_POR_VENDEDOR; i++) {
+                    VentaDTO venta = new VentaDTO();
+                    venta.setClienteId(clienteId);
+                    venta.setProductoId(productoId);
+                    venta.setCantidad(1);
+                    try {
+                        ventaService.registrarVenta(venta);
+                        vendidas.incrementAndGet();
+                    } catch (StockInsuficienteException e) {
+                        // El contador en memoria puede ir desfasado un momento tras un ajuste
+                    }
+                }
+                return null;
+            }));
+        }
+        for (int h = 0; h < EDITORES; h++) {
+            int editor = h;
+            tareas.add(pool.submit(() -> {
+                salida.await();
+                for (int i = 0; i < EDICIONES_POR_EDITOR; i++) {
+                    ProductoDTO cambio = new ProductoDTO();
+                    cambio.setNombre("Pan de bono " + editor + "-" + i);
+                    cambio.setPrecio(1.0 + i);
+                    productoService.update(productoId, cambio);
+                }
+                return null;
+            }));
+        }
+        for (int h = 0; h < REPONEDORES; h++) {
+            tareas.add(pool.submit(() -> {
+                salida.await();
+                for (int i = 0; i < REPOSICIONES_POR_REPONEDOR; i++) {
+                    AjusteStockDTO ajuste = new AjusteStockDTO();
+                    ajuste.setAjuste(3);
+                    productoService.ajustarStock(productoId, ajuste);
+                    repuestas.addAndGet(3);
+                }
+                return null;
+            }));
+        }
+        salida.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(productoRepository.findStockById(productoId)).contains(STOCK_INICIAL + repuestas.get() - vendidas.get());
+        assertThat(ventaRepository.findDTOByProductoId(productoId)).hasSize(vendidas.get());
+        // Cada edición cuenta una sola vez aunque se haya reintentado; las ventas y ajustes no suben la versión
+        assertThat(productoRepository.findById(productoId)).get()
+                .extracting(Producto::getVersion)
+                .isEqualTo((long) EDITORES * EDICIONES_POR_EDITOR);
+    }
+
+    @Test
+    void unaEdicionQueChocaSeReintentaSola() throws Exception {
+        Long productoId = crearProducto("Almojábana");
+        double reintentosAntes = reintentos();
+
+        CountDownLatch editado = new CountDownLatch(1);
+        CountDownLatch confirmar = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        // Otra edición cambia el precio y deja la transacción abierta con la fila bloqueada
+        Future<?> otra = pool.submit(() -> transactionTemplate.executeWithoutResult(estado -> {
+            Producto producto = productoRepository.findById(productoId).orElseThrow();
+            producto.setPrecio(new BigDecimal("9.00"));
+            productoRepository.saveAndFlush(producto);
+            editado.countDown();
+            try {
+                confirmar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(editado.await(10, TimeUnit.SECONDS)).isTrue();
+
+        ProductoDTO cambio = new ProductoDTO();
+        cambio.setNombre("Almojábana grande");
+        cambio.setPrecio(2.5);
+        Future<?> edicion = pool.submit(() -> productoService.update(productoId, cambio));
+        Thread.sleep(500);
+        confirmar.countDown();
+        otra.get();
+        edicion.get();
+        pool.shutdown();
+
+        assertThat(reintentos()).isGreaterThan(reintentosAntes);
+        assertThat(productoRepository.findById(productoId)).get().satisfies(producto -> {
+            assertThat(producto.getNombre()).isEqualTo("Almojábana grande");
+            assertThat(producto.getPrecio()).isEqualByComparingTo("2.5");
+            assertThat(producto.getVersion()).isEqualTo(2L);
+        });
+        assertThat(productoRepository.findStockById(productoId)).contains(STOCK_INICIAL);
+    }
+
+    private Long crearProducto(String nombre) {
+        Producto producto = new Producto();
+        producto.setNombre(nombre);
+        producto.setPrecio(BigDecimal.ONE);
+        producto.setStock(STOCK_INICIAL);
+        return productoRepository.save(producto).getId();
+    }
+
+    private double reintentos() {
+        Counter contador = meterRegistry.find("panaderia.productos.reintentos").tag("operacion", "update").counter();
+        return contador == null ? 0 : contador.count();
+    }
+}
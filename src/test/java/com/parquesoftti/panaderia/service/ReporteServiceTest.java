@@ -0,0 +1,160 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.VentaDTO;
+import com.parquesoftti.panaderia.dto.VentaDTORespuesta;
+import com.parquesoftti.panaderia.dto.VentaDiariaDTO;
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.model.Producto;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ReporteServiceTest {
+
+    @Autowired
+    private ReporteService reporteService;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private AgregadorVentasDiarias agregadorVentasDiarias;
+
+    @Autowired
+    private EstadisticasVentas estadisticasVentas;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    private Long clienteId;
+    private Long productoId;
+
+    @BeforeEach
+    void crearDatos() {
+        Cliente cliente = new Cliente();
+        cliente.setNombre("Cliente reportes");
+        clienteId = clienteRepository.save(cliente).getId();
+
+        Producto producto = new Producto();
+        producto.setNombre("Baguette reportes");
+        producto.setPrecio(new BigDecimal("2.50"));
+        producto.setStock(100);
+        productoId = productoRepository.save(producto).getId();
+    }
+
+    @Test
+    void elResumenDiarioSigueAVentasYAnulaciones() {
+        vender(3);
+        VentaDTORespuesta anulada = vender(2);
+        vender(5);
+        ventaService.deleteVenta(anulada.getId());
+        agregadorVentasDiarias.volcar();
+
+        VentaDiariaDTO hoy = resumenDeHoy().orElseThrow();
+        assertThat(hoy.getUnidades()).isEqualTo(8);
+        assertThat(hoy.getIngresos()).isEqualByComparingTo("20.00");
+        assertThat(hoy.getNombreProducto()).isEqualTo("Baguette reportes");
+
+        assertThat(reporteService.getIngresosMensualesPorCliente(YearMonth.now()))
+                .filteredOn(ingreso -> ingreso.getClienteId().equals(clienteId))
+                .singleElement()
+                .satisfies(ingreso -> {
+                    assertThat(ingreso.getVentas()).isEqualTo(2);
+                    assertThat(ingreso.getIngresos()).isEqualByComparingTo("20.00");
+                });
+    }
+
+    @Test
+    void laReconstruccionCoincideConElResumenIncremental() {
+        vender(4);
+        vender(1);
+        agregadorVentasDiarias.volcar();
+        VentaDiariaDTO incremental = resumenDeHoy().orElseThrow();
+
+        reporteService.reconstruirVentasDiarias();
+
+        VentaDiariaDTO reconstruido = resumenDeHoy().orElseThrow();
+        assertThat(reconstruido.getUnidades()).isEqualTo(incremental.getUnidades()).isEqualTo(5);
+        assertThat(reconstruido.getIngresos()).isEqualByComparingTo(incremental.getIngresos());
+    }
+
+    @Test
+    void alCerrarSeVuelcaLoPendiente() {
+        vender(6);
+
+        // Lo que hace el contexto al apagarse, sin esperar al volcado programado
+        agregadorVentasDiarias.cerrar();
+
+        assertThat(resumenDeHoy()).map(VentaDiariaDTO::getUnidades).contains(6L);
+    }
+
+    @Test
+    void borrarUnClienteOUnProductoDescuentaSusVentasDelResumen() {
+        Cliente otro = new Cliente();
+        otro.setNombre("Cliente reportes borrado");
+        Long otroId = clienteRepository.save(otro).getId();
+        vender(3);
+        vender(otroId, 4);
+        agregadorVentasDiarias.volcar();
+        estadisticasVentas.actualizar();
+        assertThat(resumenDeHoy()).map(VentaDiariaDTO::getUnidades).contains(7L);
+
+        clienteService.deleteById(otroId);
+        agregadorVentasDiarias.volcar();
+        estadisticasVentas.actualizar();
+
+        VentaDiariaDTO hoy = resumenDeHoy().orElseThrow();
+        assertThat(hoy.getUnidades()).isEqualTo(3);
+        assertThat(hoy.getIngresos()).isEqualByComparingTo("7.50");
+        assertThat(estadisticasVentas.top(EstadisticasVentas.DIA, 100))
+                .filteredOn(puesto -> puesto.getId().equals(productoId))
+                .singleElement()
+                .satisfies(puesto -> assertThat(puesto.getUnidades()).isEqualTo(3));
+
+        productoService.deleteById(productoId);
+        agregadorVentasDiarias.volcar();
+
+        // La fila queda en cero: el resumen no guarda lo que ya no está en ventas
+        hoy = resumenDeHoy().orElseThrow();
+        assertThat(hoy.getUnidades()).isZero();
+        assertThat(hoy.getIngresos()).isEqualByComparingTo("0");
+    }
+
+    private Optional<VentaDiariaDTO> resumenDeHoy() {
+        return reporteService.getVentasDiarias(LocalDate.now(), LocalDate.now()).stream()
+                .filter(dia -> dia.getProductoId().equals(productoId))
+                .findFirst();
+    }
+
+    private VentaDTORespuesta vender(int cantidad) {
+        return vender(clienteId, cantidad);
+    }
+
+    private VentaDTORespuesta vender(Long clienteId, int cantidad) {
+        VentaDTO venta = new VentaDTO();
+        venta.setClienteId(clienteId);
+        venta.setProductoId(productoId);
+        venta.setCantidad(cantidad);
+        return ventaService.registrarVenta(venta);
+    }
+}
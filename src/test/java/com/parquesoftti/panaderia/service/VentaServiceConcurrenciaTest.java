@@ -0,0 +1,95 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.VentaDTO;
+import com.parquesoftti.panaderia.exception.StockInsuficienteException;
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.model.Producto;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import com.parquesoftti.panaderia.repository.VentaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class VentaServiceConcurrenciaTest {
+
+    private static final int HILOS = 16;
+    private static final int INTENTOS_POR_HILO = 25;
+    private static final int STOCK_INICIAL = 150;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Test
+    void ventasConcurrentesNoPierdenNiSobrevendenStock() throws Exception {
+        Cliente cliente = new Cliente();
+        cliente.setNombre("Cliente concurrencia");
+        cliente = clienteRepository.save(cliente);
+
+        Producto producto = new Producto();
+        producto.setNombre("Croissant");
+        producto.setPrecio(BigDecimal.valueOf(1.5));
+        producto.setStock(STOCK_INICIAL);
+        producto = productoRepository.save(producto);
+
+        Long clienteId = cliente.getId();
+        Long productoId = producto.getId();
+        AtomicInteger vendidas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+        CountDownLatch salida = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            tareas.add(pool.submit(() -> {
+                salida.await();
+                for (int i = 0; i < INTENTOS_POR_HILO; i++) {
+                    VentaDTO venta = new VentaDTO();
+                    venta.setClienteId(clienteId);
+                    venta.setProductoId(productoId);
+                    venta.setCantidad(1);
+                    try {
+                        ventaService.registrarVenta(venta);
+                        vendidas.incrementAndGet();
+                    } catch (StockInsuficienteException e) {
+                        rechazadas.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        salida.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(vendidas.get()).isEqualTo(STOCK_INICIAL);
+        assertThat(rechazadas.get()).isEqualTo(HILOS * INTENTOS_POR_HILO - STOCK_INICIAL);
+        assertThat(productoRepository.findStockById(productoId)).contains(0);
+        assertThat(ventaRepository.findDTOByProductoId(productoId)).hasSize(STOCK_INICIAL);
+    }
+}
@@ -0,0 +1,146 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.FiltroVentasDTO;
+import com.parquesoftti.panaderia.dto.PaginaVentasDTO;
+import com.parquesoftti.panaderia.dto.VentaDTORespuesta;
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.model.Producto;
+import com.parquesoftti.panaderia.model.Venta;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import com.parquesoftti.panaderia.repository.VentaRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Cada listado de ventas debe resolverse con una sola sentencia SQL, sin importar
+// cuántos clientes o productos distintos aparezcan en el resultado
+@SpringBootTest
+class VentaServiceConsultasTest {
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Cliente> clientes = new ArrayList<>();
+    private final List<Producto> productos = new ArrayList<>();
+    private final LocalDateTime fecha = LocalDateTime.of(2024, 3, 1, 8, 30);
+
+    @BeforeEach
+    void crearVentas() {
+        for (int i = 0; i < 4; i++) {
+            Cliente cliente = new Cliente();
+            cliente.setNombre("Cliente consultas " + i);
+            clientes.add(clienteRepository.save(cliente));
+
+            Producto producto = new Producto();
+            producto.setNombre("Producto consultas " + i);
+            producto.setPrecio(BigDecimal.ONE);
+            producto.setStock(0);
+            productos.add(productoRepository.save(producto));
+        }
+        List<Venta> ventas = new ArrayList<>();
+        for (Cliente cliente : clientes) {
+            for (int p = 0; p < productos.size(); p++) {
+                Venta venta = new Venta();
+                venta.setCliente(cliente);
+                venta.setProducto(productos.get(p));
+                venta.setCantidad(1);
+                // Dos ventas por fecha para que el desempate por id del cursor importe
+                venta.setFechaVenta(fecha.plusMinutes(p / 2));
+                ventas.add(venta);
+            }
+        }
+        ventaRepository.saveAll(ventas);
+    }
+
+    @Test
+    void cadaListadoEmiteUnaSolaSentencia() {
+        Long clienteId = clientes.get(0).getId();
+        Long productoId = productos.get(0).getId();
+
+        assertThat(sentenciasDe(() -> ventaService.getAllVentas())).isEqualTo(1);
+        assertThat(sentenciasDe(() -> ventaService.getVentasByCliente(clienteId))).isEqualTo(1);
+        assertThat(sentenciasDe(() -> ventaService.getVentasByProducto(productoId))).isEqualTo(1);
+        assertThat(sentenciasDe(() -> ventaService.getVentasPorClienteYProducto(clienteId, productoId))).isEqualTo(1);
+        assertThat(sentenciasDe(() -> ventaService.getVentasPorFecha(fecha))).isEqualTo(1);
+        assertThat(sentenciasDe(() -> ventaService.getVentasDelDia(fecha.toLocalDate()))).isEqualTo(1);
+        assertThat(sentenciasDe(() -> ventaService.getPaginaVentas(new FiltroVentasDTO(), null, 5))).isEqualTo(1);
+    }
+
+    @Test
+    void losRangosSonSemiabiertos() {
+        Long productoId = productos.get(3).getId();
+        FiltroVentasDTO filtro = new FiltroVentasDTO(null, productoId, fecha.plusMinutes(1), fecha.plusMinutes(2), null);
+
+        assertThat(ventaService.getVentasEntre(fecha, fecha.plusMinutes(1)))
+                .allSatisfy(venta -> assertThat(venta.getFechaVenta()).isEqualTo(fecha));
+        assertThat(ventaService.getPaginaVentas(filtro, null, 10).getVentas())
+                .hasSize(clientes.size())
+                .allSatisfy(venta -> assertThat(venta.getProductoId()).isEqualTo(productoId));
+        assertThat(ventaService.getVentasDelDia(fecha.toLocalDate().plusDays(1))).isEmpty();
+    }
+
+    @Test
+    void laPaginacionPorCursorRecorreTodoSinRepetir() {
+        FiltroVentasDTO filtro = new FiltroVentasDTO(clientes.get(2).getId(), null, null, null, null);
+        List<VentaDTORespuesta> vistas = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            PaginaVentasDTO pagina = ventaService.getPaginaVentas(filtro, cursor, 3);
+            vistas.addAll(pagina.getVentas());
+            cursor = pagina.getSiguienteCursor();
+            paginas++;
+        } while (cursor != null);
+
+        List<VentaDTORespuesta> esperadas = new ArrayList<>();
+        ventaService.recorrerVentas(filtro, esperadas::add);
+
+        assertThat(paginas).isEqualTo(2);
+        assertThat(vistas).hasSize(productos.size()).containsExactlyElementsOf(esperadas);
+        assertThat(vistas).isSortedAccordingTo((a, b) -> a.getFechaVenta().equals(b.getFechaVenta())
+                ? a.getId().compareTo(b.getId())
+                : a.getFechaVenta().compareTo(b.getFechaVenta()));
+    }
+
+    @Test
+    void elListadoTraeLosNombresDelJoin() {
+        assertThat(ventaService.getVentasByCliente(clientes.get(1).getId()))
+                .hasSize(productos.size())
+                .allSatisfy(venta -> assertThat(venta.getNombreCliente()).isEqualTo("Cliente consultas 1"))
+                .extracting("nombreProducto")
+                .containsExactlyInAnyOrder("Producto consultas 0", "Producto consultas 1",
+                        "Producto consultas 2", "Producto consultas 3");
+    }
+
+    private long sentenciasDe(Supplier<?> listado) {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+        listado.get();
+        return estadisticas.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,170 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.AjusteStockDTO;
+import com.parquesoftti.panaderia.dto.FiltroVentasDTO;
+import com.parquesoftti.panaderia.dto.ProductoDTO;
+import com.parquesoftti.panaderia.dto.VentaDTO;
+import com.parquesoftti.panaderia.dto.VentaDTORespuesta;
+import com.parquesoftti.panaderia.exception.ClaveIdempotenciaException;
+import com.parquesoftti.panaderia.exception.StockInsuficienteException;
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class VentaServiceIdempotenciaTest {
+
+    private static final int HILOS = 16;
+
+    @Autowired
+    private VentasIdempotentes ventasIdempotentes;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    private Long clienteId;
+
+    @BeforeEach
+    void crearCliente() {
+        Cliente cliente = new Cliente();
+        cliente.setNombre("Cliente idempotencia");
+        clienteId = clienteRepository.save(cliente).getId();
+    }
+
+    @Test
+    void laMismaClaveDesdeVariosHilosRegistraUnaSolaVenta() throws Exception {
+        Long productoId = crearProducto("Pan idempotente", 10);
+        String clave = UUID.randomUUID().toString();
+
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+        List<Future<VentaDTORespuesta>> tareas = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            tareas.add(pool.submit(() -> {
+                salida.await();
+                return ventasIdempotentes.registrar(clave, venta(productoId, 3));
+            }));
+        }
+        salida.countDown();
+        List<VentaDTORespuesta> respuestas = new ArrayList<>();
+        for (Future<VentaDTORespuesta> tarea : tareas) {
+            respuestas.add(tarea.get());
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(respuestas).hasSize(HILOS).containsOnly(respuestas.get(0));
+        assertThat(productoService.findById(productoId).getStock()).isEqualTo(7);
+        assertThat(ventasDe(productoId)).hasSize(1);
+    }
+
+    @Test
+    void sinLaCacheDecideLaTablaDeClaves() {
+        Long productoId = crearProducto("Torta idempotente", 5);
+        String clave = UUID.randomUUID().toString();
+
+        // Como si el reintento llegara a otra instancia: directo al servicio, sin la caché
+        VentaDTORespuesta original = ventaService.registrarVenta(venta(productoId, 2), clave);
+        VentaDTORespuesta reintento = ventaService.registrarVenta(venta(productoId, 2), clave);
+
+        assertThat(reintento).isEqualTo(original);
+        assertThat(ventasIdempotentes.registrar(clave, venta(productoId, 2))).isEqualTo(original);
+        assertThat(productoService.findById(productoId).getStock()).isEqualTo(3);
+        assertThat(ventasDe(productoId)).hasSize(1);
+    }
+
+    @Test
+    void unIntentoFallidoNoGastaLaClave() {
+        Long productoId = crearProducto("Croissant idempotente", 1);
+        String clave = UUID.randomUUID().toString();
+
+        assertThatThrownBy(() -> ventasIdempotentes.registrar(clave, venta(productoId, 2)))
+                .isInstanceOf(StockInsuficienteException.class);
+
+        AjusteStockDTO reposicion = new AjusteStockDTO();
+        reposicion.setStock(5);
+        productoService.ajustarStock(productoId, reposicion);
+        assertThat(ventasIdempotentes.registrar(clave, venta(productoId, 2)).getCantidad()).isEqualTo(2);
+        assertThat(productoService.findById(productoId).getStock()).isEqualTo(3);
+    }
+
+    @Test
+    void laMismaClaveConOtraVentaSeRechaza() {
+        Long productoId = crearProducto("Galleta idempotente", 5);
+        String clave = UUID.randomUUID().toString();
+        ventasIdempotentes.registrar(clave, venta(productoId, 1));
+
+        assertThatThrownBy(() -> ventasIdempotentes.registrar(clave, venta(productoId, 4)))
+                .isInstanceOf(ClaveIdempotenciaException.class);
+        assertThatThrownBy(() -> ventasIdempotentes.registrar(" ", venta(productoId, 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(productoService.findById(productoId).getStock()).isEqualTo(4);
+    }
+
+    @Test
+    void laMismaClaveDesdeOtraTiendaSeRechaza() {
+        Long productoId = crearProducto("Medialuna idempotente", 5);
+        AjusteStockDTO stockTienda = new AjusteStockDTO();
+        stockTienda.setTiendaId(2L);
+        stockTienda.setStock(5);
+        productoService.ajustarStock(productoId, stockTienda);
+        String clave = UUID.randomUUID().toString();
+        ventasIdempotentes.registrar(clave, venta(productoId, 1));
+
+        VentaDTO otraTienda = venta(productoId, 1);
+        otraTienda.setTiendaId(2L);
+        assertThatThrownBy(() -> ventasIdempotentes.registrar(clave, otraTienda))
+                .isInstanceOf(ClaveIdempotenciaException.class);
+        // Sin la caché, como en otra instancia
+        assertThatThrownBy(() -> ventaService.registrarVenta(otraTienda, clave))
+                .isInstanceOf(ClaveIdempotenciaException.class);
+
+        VentaDTO principal = venta(productoId, 1);
+        principal.setTiendaId(1L);
+        assertThat(ventaService.registrarVenta(principal, clave).getProductoId()).isEqualTo(productoId);
+        assertThat(productoService.findById(productoId).getStock()).isEqualTo(4);
+        assertThat(ventasDe(productoId)).hasSize(1);
+    }
+
+    private List<VentaDTORespuesta> ventasDe(Long productoId) {
+        return ventaService.getPaginaVentas(new FiltroVentasDTO(null, productoId, null, null, null), null, 100)
+                .getVentas();
+    }
+
+    private Long crearProducto(String nombre, int stock) {
+        ProductoDTO dto = new ProductoDTO();
+        dto.setNombre(nombre);
+        dto.setPrecio(2.0);
+        dto.setStock(stock);
+        return productoService.save(dto).getId();
+    }
+
+    private VentaDTO venta(Long productoId, int cantidad) {
+        VentaDTO venta = new VentaDTO();
+        venta.setClienteId(clienteId);
+        venta.setProductoId(productoId);
+        venta.setCantidad(cantidad);
+        return venta;
+    }
+}
@@ -0,0 +1,96 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.ModoLote;
+import com.parquesoftti.panaderia.dto.ResultadoLoteDTO;
+import com.parquesoftti.panaderia.dto.VentaDTO;
+import com.parquesoftti.panaderia.dto.VentaDTORespuesta;
+import com.parquesoftti.panaderia.exception.StockInsuficienteException;
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.model.Producto;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.repository.ProductoRepository;
+import com.parquesoftti.panaderia.repository.VentaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class VentaServiceLoteTest {
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    private Long clienteId;
+    private Long panId;
+    private Long tortaId;
+
+    @BeforeEach
+    void crearDatos() {
+        Cliente cliente = new Cliente();
+        cliente.setNombre("Cliente lote");
+        clienteId = clienteRepository.save(cliente).getId();
+        panId = crearProducto("Pan lote", 10);
+        tortaId = crearProducto("Torta lote", 1);
+    }
+
+    @Test
+    void todoONadaNoRegistraNadaSiUnaLineaFalla() {
+        List<VentaDTO> ticket = List.of(linea(panId, 3), linea(tortaId, 2));
+
+        assertThatThrownBy(() -> ventaService.registrarLote(ticket, ModoLote.TODO_O_NADA))
+                .isInstanceOf(StockInsuficienteException.class)
+                .hasMessageContaining("Línea 2");
+
+        assertThat(productoRepository.findStockById(panId)).contains(10);
+        assertThat(ventaRepository.findDTOByProductoId(panId)).isEmpty();
+    }
+
+    @Test
+    void porLineaRegistraLasValidasEInformaLasDemas() {
+        List<VentaDTO> ticket = List.of(linea(panId, 3), linea(tortaId, 2), linea(tortaId, 1), linea(999_999L, 1));
+
+        ResultadoLoteDTO resultado = ventaService.registrarLote(ticket, ModoLote.POR_LINEA);
+
+        assertThat(resultado.getRegistradas()).isEqualTo(2);
+        assertThat(resultado.getRechazadas()).isEqualTo(2);
+        assertThat(resultado.getLineas()).extracting("registrada").containsExactly(true, false, true, false);
+        assertThat(productoRepository.findStockById(panId)).contains(7);
+        assertThat(productoRepository.findStockById(tortaId)).contains(0);
+
+        // La respuesta es la misma venta que se relee de la base, fecha incluida
+        VentaDTORespuesta devuelta = resultado.getLineas().get(0).getVenta();
+        assertThat(ventaRepository.findDTOById(devuelta.getId())).contains(devuelta);
+    }
+
+    private Long crearProducto(String nombre, int stock) {
+        Producto producto = new Producto();
+        producto.setNombre(nombre);
+        producto.setPrecio(BigDecimal.ONE);
+        producto.setStock(stock);
+        return productoRepository.save(producto).getId();
+    }
+
+    private VentaDTO linea(Long productoId, int cantidad) {
+        VentaDTO venta = new VentaDTO();
+        venta.setClienteId(clienteId);
+        venta.setProductoId(productoId);
+        venta.setCantidad(cantidad);
+        return venta;
+    }
+}
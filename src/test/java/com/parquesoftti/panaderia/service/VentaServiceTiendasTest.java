@@ -0,0 +1,174 @@
+package com.parquesoftti.panaderia.service;
+
+import com.parquesoftti.panaderia.dto.AjusteStockDTO;
+import com.parquesoftti.panaderia.dto.FiltroVentasDTO;
+import com.parquesoftti.panaderia.dto.ModoLote;
+import com.parquesoftti.panaderia.dto.ProductoDTO;
+import com.parquesoftti.panaderia.dto.ProductoDTORespuesta;
+import com.parquesoftti.panaderia.dto.ResultadoLoteDTO;
+import com.parquesoftti.panaderia.dto.StockTiendaDTO;
+import com.parquesoftti.panaderia.dto.VentaDTO;
+import com.parquesoftti.panaderia.exception.StockInsuficienteException;
+import com.parquesoftti.panaderia.model.Cliente;
+import com.parquesoftti.panaderia.repository.ClienteRepository;
+import com.parquesoftti.panaderia.repository.StockTiendaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+class VentaServiceTiendasTest {
+
+    private static final long[] TIENDAS = {1L, 2L, 3L};
+    private static final int HILOS_POR_TIENDA = 4;
+    private static final int INTENTOS_POR_HILO = 20;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private StockTiendaRepository stockTiendaRepository;
+
+    private Long clienteId;
+
+    @BeforeEach
+    void crearCliente() {
+        Cliente cliente = new Cliente();
+        cliente.setNombre("Cliente tiendas");
+        clienteId = clienteRepository.save(cliente).getId();
+    }
+
+    @Test
+    void cadaTiendaVendeDeSuPropioStock() {
+        Long productoId = crearProducto("Pan de tienda", 10);
+        assertThatThrownBy(() -> vender(2L, productoId, 1)).isInstanceOf(StockInsuficienteException.class);
+
+        assertThat(fijarStock(2L, productoId, 4).getStock()).isEqualTo(4);
+        vender(2L, productoId, 3);
+        assertThatThrownBy(() -> vender(2L, productoId, 2)).isInstanceOf(StockInsuficienteException.class);
+        vender(null, productoId, 6);
+
+        // La principal sigue siendo la del catálogo
+        assertThat(productoService.findById(productoId).getStock()).isEqualTo(4);
+        assertThat(productoService.getStockPorTienda(productoId))
+                .extracting(StockTiendaDTO::getTiendaId, StockTiendaDTO::getStock)
+                .containsExactly(tuple(1L, 4), tuple(2L, 1));
+
+        FiltroVentasDTO filtro = new FiltroVentasDTO(null, productoId, null, null, 2L);
+        assertThat(ventaService.getPaginaVentas(filtro, null, 10).getVentas())
+                .singleElement()
+                .satisfies(venta -> assertThat(venta.getCantidad()).isEqualTo(3));
+
+        productoService.deleteById(productoId);
+        assertThat(stockTiendaRepository.findByProductoId(productoId)).isEmpty();
+    }
+
+    @Test
+    void unLotePuedeMezclarTiendas() {
+        Long productoId = crearProducto("Torta de tienda", 5);
+        fijarStock(3L, productoId, 2);
+
+        ResultadoLoteDTO resultado = ventaService.registrarLote(List.of(
+                linea(null, productoId, 5),
+                linea(3L, productoId, 2),
+                linea(3L, productoId, 1)), ModoLote.POR_LINEA);
+
+        assertThat(resultado.getRegistradas()).isEqualTo(2);
+        assertThat(resultado.getLineas().get(2).isRegistrada()).isFalse();
+        assertThat(productoService.getStockPorTienda(productoId))
+                .extracting(StockTiendaDTO::getStock)
+                .containsExactly(0, 0);
+    }
+
+    @Test
+    void ventasConcurrentesEnVariasTiendasNoSobrevenden() throws Exception {
+        int[] stocks = {30, 20, 10};
+        Long productoId = crearProducto("Croissant de tienda", stocks[0]);
+        for (int t = 1; t < TIENDAS.length; t++) {
+            fijarStock(TIENDAS[t], productoId, stocks[t]);
+        }
+
+        AtomicIntegerArray vendidas = new AtomicIntegerArray(TIENDAS.length);
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(TIENDAS.length * HILOS_POR_TIENDA);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int t = 0; t < TIENDAS.length; t++) {
+            int tienda = t;
+            for (int h = 0; h < HILOS_POR_TIENDA; h++) {
+                tareas.add(pool.submit(() -> {
+                    salida.await();
+                    for (int i = 0; i < INTENTOS_POR_HILO; i++) {
+                        try {
+                            vender(TIENDAS[tienda], productoId, 1);
+                            vendidas.incrementAndGet(tienda);
+                        } catch (StockInsuficienteException e) {
+                            // sin stock en esta tienda
+                        }
+                    }
+                    return null;
+                }));
+            }
+        }
+        salida.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        for (int t = 0; t < TIENDAS.length; t++) {
+            assertThat(vendidas.get(t)).isEqualTo(stocks[t]);
+        }
+        assertThat(productoService.getStockPorTienda(productoId))
+                .extracting(StockTiendaDTO::getStock)
+                .containsOnly(0);
+    }
+
+    private Long crearProducto(String nombre, int stock) {
+        ProductoDTO dto = new ProductoDTO();
+        dto.setNombre(nombre);
+        dto.setPrecio(2.0);
+        dto.setStock(stock);
+        return productoService.save(dto).getId();
+    }
+
+    private ProductoDTORespuesta fijarStock(Long tiendaId, Long productoId, int stock) {
+        AjusteStockDTO ajuste = new AjusteStockDTO();
+        ajuste.setTiendaId(tiendaId);
+        ajuste.setStock(stock);
+        return productoService.ajustarStock(productoId, ajuste);
+    }
+
+    private void vender(Long tiendaId, Long productoId, int cantidad) {
+        ventaService.registrarVenta(linea(tiendaId, productoId, cantidad));
+    }
+
+    private VentaDTO linea(Long tiendaId, Long productoId, int cantidad) {
+        VentaDTO venta = new VentaDTO();
+        venta.setTiendaId(tiendaId);
+        venta.setClienteId(clienteId);
+        venta.setProductoId(productoId);
+        venta.setCantidad(cantidad);
+        return venta;
+    }
+}